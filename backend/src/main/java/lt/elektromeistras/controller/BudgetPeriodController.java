@@ -3,6 +3,7 @@ package lt.elektromeistras.controller;
 import lt.elektromeistras.domain.BudgetPeriod;
 import lt.elektromeistras.dto.request.CreateBudgetPeriodRequest;
 import lt.elektromeistras.repository.BudgetPeriodRepository;
+import lt.elektromeistras.service.GLReferenceDataCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -26,6 +27,7 @@ import java.util.UUID;
 public class BudgetPeriodController {
 
     private final BudgetPeriodRepository budgetPeriodRepository;
+    private final GLReferenceDataCache referenceDataCache;
 
     /**
      * Get all budget periods
@@ -151,6 +153,7 @@ public class BudgetPeriodController {
                 .build();
 
         BudgetPeriod created = budgetPeriodRepository.save(period);
+        referenceDataCache.invalidatePeriods();
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
@@ -187,6 +190,7 @@ public class BudgetPeriodController {
         period.setEndDate(request.getEndDate());
 
         BudgetPeriod updated = budgetPeriodRepository.save(period);
+        referenceDataCache.invalidatePeriods();
         return ResponseEntity.ok(updated);
     }
 
@@ -204,6 +208,7 @@ public class BudgetPeriodController {
 
         period.setStatus(BudgetPeriod.PeriodStatus.ACTIVE);
         BudgetPeriod updated = budgetPeriodRepository.save(period);
+        referenceDataCache.invalidatePeriods();
 
         return ResponseEntity.ok(updated);
     }
@@ -226,6 +231,7 @@ public class BudgetPeriodController {
 
         period.setStatus(BudgetPeriod.PeriodStatus.CLOSED);
         BudgetPeriod updated = budgetPeriodRepository.save(period);
+        referenceDataCache.invalidatePeriods();
 
         return ResponseEntity.ok(updated);
     }
@@ -248,6 +254,7 @@ public class BudgetPeriodController {
 
         period.setStatus(BudgetPeriod.PeriodStatus.ARCHIVED);
         BudgetPeriod updated = budgetPeriodRepository.save(period);
+        referenceDataCache.invalidatePeriods();
 
         return ResponseEntity.ok(updated);
     }
@@ -270,6 +277,7 @@ public class BudgetPeriodController {
         }
 
         budgetPeriodRepository.delete(period);
+        referenceDataCache.invalidatePeriods();
         return ResponseEntity.noContent().build();
     }
 }
@@ -22,14 +22,16 @@ public class BudgetVarianceController {
     private final BudgetVarianceService budgetVarianceService;
 
     /**
-     * Calculate variances for a budget
-     * POST /api/budget-variances/budget/{budgetId}/calculate
+     * Calculate variances for a budget, optionally storing a dated snapshot
+     * POST /api/budget-variances/budget/{budgetId}/calculate?snapshot=true
      */
     @PostMapping("/budget/{budgetId}/calculate")
     @PreAuthorize("hasAnyAuthority('BUDGET_VIEW', 'ADMIN_FULL')")
-    public ResponseEntity<List<BudgetVariance>> calculateVariances(@PathVariable UUID budgetId) {
+    public ResponseEntity<List<BudgetVariance>> calculateVariances(
+            @PathVariable UUID budgetId,
+            @RequestParam(defaultValue = "false") boolean snapshot) {
         log.info("Calculating variances for budget: {}", budgetId);
-        List<BudgetVariance> variances = budgetVarianceService.calculateVariancesForBudget(budgetId);
+        List<BudgetVariance> variances = budgetVarianceService.calculateVariancesForBudget(budgetId, snapshot);
         return ResponseEntity.ok(variances);
     }
 
@@ -44,6 +46,17 @@ public class BudgetVarianceController {
         return ResponseEntity.ok(variances);
     }
 
+    /**
+     * Get dated variance snapshots of a budget
+     * GET /api/budget-variances/budget/{budgetId}/snapshots
+     */
+    @GetMapping("/budget/{budgetId}/snapshots")
+    @PreAuthorize("hasAnyAuthority('BUDGET_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<List<BudgetVariance>> getVarianceSnapshots(@PathVariable UUID budgetId) {
+        List<BudgetVariance> variances = budgetVarianceService.getVarianceSnapshots(budgetId);
+        return ResponseEntity.ok(variances);
+    }
+
     /**
      * Get unfavorable variances (over budget)
      * GET /api/budget-variances/budget/{budgetId}/unfavorable
@@ -1,18 +1,30 @@
 package lt.elektromeistras.controller;
 
+import lt.elektromeistras.domain.CreditTransactionAttachment;
 import lt.elektromeistras.dto.request.*;
 import lt.elektromeistras.dto.response.*;
+import lt.elektromeistras.repository.CreditTransactionAttachmentRepository.AttachmentView;
+import lt.elektromeistras.service.CreditTransactionAttachmentService;
 import lt.elektromeistras.service.CreditTransactionService;
+import lt.elektromeistras.service.CustomerStatementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for credit transaction management
@@ -25,6 +37,8 @@ import java.util.UUID;
 public class CreditTransactionController {
 
     private final CreditTransactionService creditTransactionService;
+    private final CreditTransactionAttachmentService attachmentService;
+    private final CustomerStatementService customerStatementService;
 
     /**
      * ULTRA FAST credit pickup - optimized for rapid entry
@@ -92,6 +106,35 @@ public class CreditTransactionController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Stream the signature or photo of a transaction
+     * GET /api/credit-transactions/{id}/attachments/signature
+     * GET /api/credit-transactions/{id}/attachments/photo
+     */
+    @GetMapping("/{id}/attachments/{kind}")
+    @PreAuthorize("hasAnyAuthority('CREDIT_VIEW', 'SALES_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<StreamingResponseBody> getAttachment(
+            @PathVariable UUID id,
+            @PathVariable String kind) {
+        CreditTransactionAttachment.Kind attachmentKind;
+        try {
+            attachmentKind = CreditTransactionAttachment.Kind.valueOf(kind.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        AttachmentView attachment = attachmentService.getAttachment(id, attachmentKind).orElse(null);
+        if (attachment == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(attachmentService.servedContentType(attachment)))
+                .header("X-Content-Type-Options", "nosniff")
+                .contentLength(attachment.getSizeBytes())
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate())
+                .body(out -> attachmentService.stream(id, attachmentKind, out));
+    }
+
     /**
      * Get transaction by transaction number
      * GET /api/credit-transactions/number/{transactionNumber}
@@ -190,4 +233,50 @@ public class CreditTransactionController {
                 customerId, year, month);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Get monthly statement totals for customer - opening balance, pickups, returns, closing balance
+     * GET /api/credit-transactions/customer/{customerId}/statement/{year}/{month}/summary
+     */
+    @GetMapping("/customer/{customerId}/statement/{year}/{month}/summary")
+    @PreAuthorize("hasAnyAuthority('CREDIT_VIEW', 'SALES_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<MonthlyStatementSummaryResponse> getMonthlyStatementSummary(
+            @PathVariable UUID customerId,
+            @PathVariable int year,
+            @PathVariable int month) {
+        log.debug("Getting monthly statement totals for customer: {} - {}/{}", customerId, year, month);
+        return ResponseEntity.ok(customerStatementService.getStatementSummary(customerId, year, month));
+    }
+
+    /**
+     * Generate the monthly statements of all customers
+     * GET /api/credit-transactions/statements/{year}/{month}
+     */
+    @GetMapping("/statements/{year}/{month}")
+    @PreAuthorize("hasAnyAuthority('CREDIT_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<List<MonthlyStatementSummaryResponse>> getAllMonthlyStatements(
+            @PathVariable int year,
+            @PathVariable int month) {
+        log.info("Generating monthly statements of all customers - {}/{}", year, month);
+        List<MonthlyStatementSummaryResponse> response = new ArrayList<>();
+        customerStatementService.generateAll(year, month, response::add);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stream the monthly statements of all customers as CSV
+     * GET /api/credit-transactions/statements/{year}/{month}/csv
+     */
+    @GetMapping("/statements/{year}/{month}/csv")
+    @PreAuthorize("hasAnyAuthority('CREDIT_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<StreamingResponseBody> exportMonthlyStatements(
+            @PathVariable int year,
+            @PathVariable int month) {
+        log.info("Exporting monthly statements of all customers - {}/{}", year, month);
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        String.format("attachment; filename=\"statements-%d-%02d.csv\"", year, month))
+                .body(out -> customerStatementService.writeCsv(year, month, out));
+    }
 }
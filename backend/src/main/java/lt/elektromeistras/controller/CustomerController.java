@@ -1,7 +1,9 @@
 package lt.elektromeistras.controller;
 
 import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.dto.response.CustomerBalanceMismatchResponse;
 import lt.elektromeistras.dto.response.CustomerSearchResponse;
+import lt.elektromeistras.service.CustomerBalanceLedger;
 import lt.elektromeistras.service.CustomerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +24,7 @@ import java.util.stream.Collectors;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerBalanceLedger customerBalanceLedger;
 
     /**
      * FAST customer search for autocomplete - CRITICAL endpoint
@@ -123,6 +126,16 @@ public class CustomerController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Customers whose balance differs from the sum of their balance ledger entries
+     * GET /api/customers/balance-reconciliation
+     */
+    @GetMapping("/balance-reconciliation")
+    @PreAuthorize("hasAnyAuthority('ADMIN_FULL')")
+    public ResponseEntity<List<CustomerBalanceMismatchResponse>> reconcileBalances() {
+        return ResponseEntity.ok(customerBalanceLedger.reconcile());
+    }
+
     /**
      * Map Customer to lightweight CustomerSearchResponse
      */
@@ -2,7 +2,11 @@ package lt.elektromeistras.controller;
 
 import lt.elektromeistras.domain.GLAccount;
 import lt.elektromeistras.dto.request.CreateGLAccountRequest;
+import lt.elektromeistras.dto.response.GLPeriodBalanceRebuildResponse;
+import lt.elektromeistras.dto.response.TrialBalanceLineResponse;
 import lt.elektromeistras.repository.GLAccountRepository;
+import lt.elektromeistras.service.GLPeriodBalanceService;
+import lt.elektromeistras.service.GLReferenceDataCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -21,6 +25,8 @@ import java.util.UUID;
 public class GLAccountController {
 
     private final GLAccountRepository glAccountRepository;
+    private final GLPeriodBalanceService periodBalanceService;
+    private final GLReferenceDataCache referenceDataCache;
 
     /**
      * Get all GL accounts
@@ -116,6 +122,39 @@ public class GLAccountController {
         return ResponseEntity.ok(accounts);
     }
 
+    /**
+     * Get posted totals of a GL account per budget period
+     * GET /api/gl-accounts/{id}/period-balances
+     */
+    @GetMapping("/{id}/period-balances")
+    @PreAuthorize("hasAnyAuthority('GL_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<List<TrialBalanceLineResponse>> getPeriodBalances(@PathVariable UUID id) {
+        return ResponseEntity.ok(periodBalanceService.getAccountPeriodBalances(id));
+    }
+
+    /**
+     * Get trial balance of a budget period
+     * GET /api/gl-accounts/trial-balance/{periodId}
+     */
+    @GetMapping("/trial-balance/{periodId}")
+    @PreAuthorize("hasAnyAuthority('GL_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<List<TrialBalanceLineResponse>> getTrialBalance(@PathVariable UUID periodId) {
+        return ResponseEntity.ok(periodBalanceService.getTrialBalance(periodId));
+    }
+
+    /**
+     * Rebuild period balances from journal entry lines
+     * POST /api/gl-accounts/period-balances/rebuild
+     */
+    @PostMapping("/period-balances/rebuild")
+    @PreAuthorize("hasAnyAuthority('ADMIN_FULL')")
+    public ResponseEntity<GLPeriodBalanceRebuildResponse> rebuildPeriodBalances() {
+        log.info("GL period balance rebuild requested");
+        return periodBalanceService.rebuild()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
     /**
      * Create new GL account
      * POST /api/gl-accounts
@@ -147,6 +186,7 @@ public class GLAccountController {
         }
 
         GLAccount createdAccount = glAccountRepository.save(account);
+        referenceDataCache.invalidateAccounts();
         return ResponseEntity.status(HttpStatus.CREATED).body(createdAccount);
     }
 
@@ -176,6 +216,7 @@ public class GLAccountController {
         account.setSortOrder(request.getSortOrder());
 
         GLAccount updatedAccount = glAccountRepository.save(account);
+        referenceDataCache.invalidateAccounts();
         return ResponseEntity.ok(updatedAccount);
     }
 
@@ -193,6 +234,7 @@ public class GLAccountController {
 
         account.setIsActive(false);
         GLAccount updatedAccount = glAccountRepository.save(account);
+        referenceDataCache.invalidateAccounts();
 
         return ResponseEntity.ok(updatedAccount);
     }
@@ -211,6 +253,7 @@ public class GLAccountController {
 
         account.setIsActive(true);
         GLAccount updatedAccount = glAccountRepository.save(account);
+        referenceDataCache.invalidateAccounts();
 
         return ResponseEntity.ok(updatedAccount);
     }
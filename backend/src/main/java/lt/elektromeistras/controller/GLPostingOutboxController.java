@@ -0,0 +1,58 @@
+package lt.elektromeistras.controller;
+
+import lt.elektromeistras.domain.GLPostingOutboxEvent;
+import lt.elektromeistras.service.GLPostingOutbox;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/gl-outbox")
+@RequiredArgsConstructor
+@Slf4j
+public class GLPostingOutboxController {
+
+    private final GLPostingOutbox glPostingOutbox;
+
+    /**
+     * Number of outbox events per status
+     * GET /api/gl-outbox/stats
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyAuthority('GL_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<Map<String, Long>> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (GLPostingOutboxEvent.OutboxStatus status : GLPostingOutboxEvent.OutboxStatus.values()) {
+            stats.put(status.name(), glPostingOutbox.countByStatus(status));
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Events that could not be posted after all retries (dead letters)
+     * GET /api/gl-outbox/dead
+     */
+    @GetMapping("/dead")
+    @PreAuthorize("hasAnyAuthority('GL_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<List<GLPostingOutboxEvent>> getDeadEvents() {
+        return ResponseEntity.ok(glPostingOutbox.getDeadEvents());
+    }
+
+    /**
+     * Queue a dead event for posting again, e.g. after creating the missing GL account
+     * POST /api/gl-outbox/{id}/retry
+     */
+    @PostMapping("/{id}/retry")
+    @PreAuthorize("hasAnyAuthority('GL_POST', 'ADMIN_FULL')")
+    public ResponseEntity<GLPostingOutboxEvent> retry(@PathVariable UUID id) {
+        log.info("Retry of GL outbox event {} requested", id);
+        return ResponseEntity.ok(glPostingOutbox.retry(id));
+    }
+}
@@ -3,7 +3,10 @@ package lt.elektromeistras.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lt.elektromeistras.dto.response.ImportResultResponse;
+import lt.elektromeistras.exception.ResourceNotFoundException;
+import lt.elektromeistras.service.ImportJobService;
 import lt.elektromeistras.service.SupplierInventoryImportService;
+import lt.elektromeistras.service.SupplierInventoryImportService.ImportMode;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +14,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.UUID;
+
 /**
  * REST controller for data import operations
  */
@@ -21,6 +26,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class ImportController {
 
     private final SupplierInventoryImportService importService;
+    private final ImportJobService importJobService;
 
     /**
      * Import supplier inventory from CSV file
@@ -33,6 +39,8 @@ public class ImportController {
      * @param file CSV file from FORMAPAK system
      * @param warehouseCode Warehouse code to import stock into (default: "MAIN")
      * @param updateExisting Whether to update existing products (default: false)
+     * @param diff Skip rows unchanged since the last import, update changed ones (default: false)
+     * @param partitions Number of parallel partitions, each committing its own batches (default: 1 - single transaction)
      * @return Import result with statistics
      */
     @PostMapping(value = "/supplier-inventory", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -40,30 +48,23 @@ public class ImportController {
     public ResponseEntity<ImportResultResponse> importSupplierInventory(
             @RequestParam("file") MultipartFile file,
             @RequestParam(defaultValue = "MAIN") String warehouseCode,
-            @RequestParam(defaultValue = "false") boolean updateExisting) {
+            @RequestParam(defaultValue = "false") boolean updateExisting,
+            @RequestParam(defaultValue = "false") boolean diff,
+            @RequestParam(defaultValue = "1") int partitions) {
 
-        log.info("Received import request: file={}, size={}, warehouse={}, updateExisting={}",
-            file.getOriginalFilename(), file.getSize(), warehouseCode, updateExisting);
+        log.info("Received import request: file={}, size={}, warehouse={}, updateExisting={}, diff={}",
+            file.getOriginalFilename(), file.getSize(), warehouseCode, updateExisting, diff);
 
-        // Validate file
-        if (file.isEmpty()) {
-            ImportResultResponse errorResult = ImportResultResponse.builder()
-                .status("FAILED")
-                .build();
-            errorResult.addError("File is empty");
-            return ResponseEntity.badRequest().body(errorResult);
-        }
-
-        if (!file.getOriginalFilename().toLowerCase().endsWith(".csv")) {
-            ImportResultResponse errorResult = ImportResultResponse.builder()
-                .status("FAILED")
-                .build();
-            errorResult.addError("File must be a CSV file");
-            return ResponseEntity.badRequest().body(errorResult);
+        ResponseEntity<ImportResultResponse> invalid = validateCsvFile(file);
+        if (invalid != null) {
+            return invalid;
         }
 
         try {
-            ImportResultResponse result = importService.importFromCsv(file, warehouseCode, updateExisting);
+            ImportMode mode = ImportMode.of(updateExisting, diff);
+            ImportResultResponse result = partitions > 1
+                ? importService.importFromCsvPartitioned(file, warehouseCode, mode, partitions)
+                : importService.importFromCsv(file, warehouseCode, mode);
 
             if ("SUCCESS".equals(result.getStatus())) {
                 return ResponseEntity.ok(result);
@@ -82,4 +83,86 @@ public class ImportController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResult);
         }
     }
+
+    /**
+     * Start supplier inventory import in the background and return a job ID immediately
+     *
+     * Example usage:
+     * POST /api/import/supplier-inventory/jobs?warehouseCode=MAIN&updateExisting=true
+     * Content-Type: multipart/form-data
+     * Body: file (CSV file)
+     *
+     * @return 202 Accepted with jobId and status QUEUED
+     */
+    @PostMapping(value = "/supplier-inventory/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyAuthority('PRODUCT_MANAGE', 'ADMIN_FULL')")
+    public ResponseEntity<ImportResultResponse> startSupplierInventoryImport(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "MAIN") String warehouseCode,
+            @RequestParam(defaultValue = "false") boolean updateExisting,
+            @RequestParam(defaultValue = "false") boolean diff,
+            @RequestParam(defaultValue = "1") int partitions) {
+
+        log.info("Received async import request: file={}, size={}, warehouse={}, updateExisting={}, diff={}",
+            file.getOriginalFilename(), file.getSize(), warehouseCode, updateExisting, diff);
+
+        ResponseEntity<ImportResultResponse> invalid = validateCsvFile(file);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        try {
+            ImportResultResponse job = importJobService.startSupplierInventoryImport(
+                file, warehouseCode, ImportMode.of(updateExisting, diff), partitions);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            log.error("Failed to start supplier inventory import", e);
+            ImportResultResponse errorResult = ImportResultResponse.builder()
+                .status("FAILED")
+                .build();
+            errorResult.addError("Import failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResult);
+        }
+    }
+
+    /**
+     * Poll progress of a background import
+     * GET /api/import/supplier-inventory/jobs/{jobId}
+     *
+     * @return Current counters, bytes read and progress percent; final result once status is
+     *         SUCCESS, PARTIAL or FAILED
+     */
+    @GetMapping("/supplier-inventory/jobs/{jobId}")
+    @PreAuthorize("hasAnyAuthority('PRODUCT_MANAGE', 'ADMIN_FULL')")
+    public ResponseEntity<ImportResultResponse> getImportJob(@PathVariable UUID jobId) {
+        try {
+            return ResponseEntity.ok(importJobService.getJob(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Validate uploaded file
+     * @return Bad request response, or null if the file is acceptable
+     */
+    private ResponseEntity<ImportResultResponse> validateCsvFile(MultipartFile file) {
+        if (file.isEmpty()) {
+            ImportResultResponse errorResult = ImportResultResponse.builder()
+                .status("FAILED")
+                .build();
+            errorResult.addError("File is empty");
+            return ResponseEntity.badRequest().body(errorResult);
+        }
+
+        if (!file.getOriginalFilename().toLowerCase().endsWith(".csv")) {
+            ImportResultResponse errorResult = ImportResultResponse.builder()
+                .status("FAILED")
+                .build();
+            errorResult.addError("File must be a CSV file");
+            return ResponseEntity.badRequest().body(errorResult);
+        }
+
+        return null;
+    }
 }
@@ -3,6 +3,12 @@ package lt.elektromeistras.controller;
 import lt.elektromeistras.domain.*;
 import lt.elektromeistras.dto.request.CreateJournalEntryRequest;
 import lt.elektromeistras.dto.request.JournalEntryLineRequest;
+import lt.elektromeistras.dto.response.GLSettlementResponse;
+import lt.elektromeistras.dto.response.JournalEntryImportResponse;
+import lt.elektromeistras.dto.response.JournalEntrySourceDocumentResponse;
+import lt.elektromeistras.service.GLSettlementService;
+import lt.elektromeistras.service.JournalEntryImportService;
+import lt.elektromeistras.service.JournalEntryImportService.ImportFormat;
 import lt.elektromeistras.service.JournalEntryService;
 import lt.elektromeistras.repository.*;
 import lombok.RequiredArgsConstructor;
@@ -11,9 +17,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.validation.Valid;
 import java.time.LocalDate;
@@ -27,6 +35,8 @@ import java.util.UUID;
 public class JournalEntryController {
 
     private final JournalEntryService journalEntryService;
+    private final JournalEntryImportService journalEntryImportService;
+    private final GLSettlementService glSettlementService;
     private final GLAccountRepository glAccountRepository;
     private final DepartmentRepository departmentRepository;
     private final CostCenterRepository costCenterRepository;
@@ -107,6 +117,33 @@ public class JournalEntryController {
         return ResponseEntity.ok(entries);
     }
 
+    /**
+     * Get source documents posted by a journal entry (sub-ledger drill-down)
+     * GET /api/journal-entries/{id}/source-documents
+     */
+    @GetMapping("/{id}/source-documents")
+    @PreAuthorize("hasAnyAuthority('GL_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<List<JournalEntrySourceDocumentResponse>> getSourceDocuments(@PathVariable UUID id) {
+        return ResponseEntity.ok(journalEntryService.getSourceDocuments(id));
+    }
+
+    /**
+     * Post the day's completed orders to GL (end-of-day settlement)
+     * POST /api/journal-entries/settlement?date=2026-10-17&summarize=true
+     *
+     * @param summarize One summarized entry for the day, otherwise one entry per order
+     */
+    @PostMapping("/settlement")
+    @PreAuthorize("hasAnyAuthority('GL_POST', 'ADMIN_FULL')")
+    public ResponseEntity<GLSettlementResponse> settleOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "false") boolean summarize) {
+        log.info("GL settlement of orders for {} requested, summarize={}", date, summarize);
+        return glSettlementService.settle(date, summarize)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
     /**
      * Create new journal entry
      * POST /api/journal-entries
@@ -146,6 +183,55 @@ public class JournalEntryController {
         return ResponseEntity.status(HttpStatus.CREATED).body(finalEntry);
     }
 
+    /**
+     * Import journal entries in bulk from a CSV or NDJSON file
+     *
+     * Example usage:
+     * POST /api/journal-entries/import?post=false
+     * Content-Type: multipart/form-data
+     * Body: file (.csv with a header line, or .ndjson / .jsonl with one JSON object per line)
+     *
+     * Each line carries entryNumber, entryDate, entryType, description, budgetPeriodCode,
+     * accountCode, debitAmount, creditAmount, lineDescription, departmentCode, costCenterCode and
+     * businessObjectCode. Consecutive lines with the same entryNumber form one entry.
+     *
+     * @param post Post the imported entries (requires GL_POST), otherwise they are saved as VALIDATED
+     * @return Import result - invalid entries are listed in errors, the rest is imported
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyAuthority('GL_CREATE', 'ADMIN_FULL') and (!#post or hasAnyAuthority('GL_POST', 'ADMIN_FULL'))")
+    public ResponseEntity<JournalEntryImportResponse> importJournalEntries(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean post) {
+        log.info("Received journal entry import: file={}, size={}, post={}",
+                file.getOriginalFilename(), file.getSize(), post);
+
+        JournalEntryImportResponse invalid = null;
+        if (file.isEmpty()) {
+            invalid = JournalEntryImportResponse.builder().status("FAILED").build();
+            invalid.addError("File is empty");
+        } else {
+            try {
+                ImportFormat.of(file.getOriginalFilename());
+            } catch (IllegalArgumentException e) {
+                invalid = JournalEntryImportResponse.builder().status("FAILED").build();
+                invalid.addError(e.getMessage());
+            }
+        }
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
+        }
+
+        JournalEntryImportResponse result = journalEntryImportService.importEntries(file, post);
+        if ("SUCCESS".equals(result.getStatus())) {
+            return ResponseEntity.ok(result);
+        } else if ("PARTIAL".equals(result.getStatus())) {
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).body(result);
+        } else {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(result);
+        }
+    }
+
     /**
      * Add journal entry line
      * POST /api/journal-entries/{id}/lines
@@ -1,12 +1,16 @@
 package lt.elektromeistras.controller;
 
 import lt.elektromeistras.domain.Product;
+import lt.elektromeistras.dto.response.ProductLookupIndexStatsResponse;
 import lt.elektromeistras.dto.response.ProductSearchResponse;
+import lt.elektromeistras.service.ProductLookupIndex;
+import lt.elektromeistras.service.ProductLookupIndex.ProductSnapshot;
 import lt.elektromeistras.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +26,7 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductLookupIndex productLookupIndex;
 
     /**
      * FAST product search for autocomplete - CRITICAL endpoint
@@ -53,6 +58,41 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
 
+    /**
+     * Scanner/quick entry lookup by code, SKU or EAN - served from the in-memory lookup index
+     * GET /api/products/lookup/4750000123456
+     */
+    @GetMapping("/lookup/{value}")
+    @PreAuthorize("hasAnyAuthority('PRODUCT_VIEW', 'SALES_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<ProductSnapshot> lookup(@PathVariable String value) {
+        return productLookupIndex.resolve(value)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Lookup index size, hit/miss and rebuild metrics
+     * GET /api/products/lookup-index/stats
+     */
+    @GetMapping("/lookup-index/stats")
+    @PreAuthorize("hasAnyAuthority('ADMIN_FULL')")
+    public ResponseEntity<ProductLookupIndexStatsResponse> getLookupIndexStats() {
+        return ResponseEntity.ok(productLookupIndex.getStats());
+    }
+
+    /**
+     * Rebuild the lookup index from the database in the background
+     * POST /api/products/lookup-index/rebuild
+     */
+    @PostMapping("/lookup-index/rebuild")
+    @PreAuthorize("hasAnyAuthority('ADMIN_FULL')")
+    public ResponseEntity<ProductLookupIndexStatsResponse> rebuildLookupIndex() {
+        boolean started = productLookupIndex.rebuildInBackground();
+        log.info("Product lookup index rebuild requested, started={}", started);
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(productLookupIndex.getStats());
+    }
+
     /**
      * Get product by ID
      * GET /api/products/{id}
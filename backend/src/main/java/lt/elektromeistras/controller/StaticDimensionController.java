@@ -2,6 +2,7 @@ package lt.elektromeistras.controller;
 
 import lt.elektromeistras.domain.*;
 import lt.elektromeistras.repository.*;
+import lt.elektromeistras.service.DocumentNumberService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -28,6 +29,7 @@ public class StaticDimensionController {
     private final BusinessObjectRepository businessObjectRepository;
     private final SeriesRepository seriesRepository;
     private final PersonRepository personRepository;
+    private final DocumentNumberService documentNumberService;
 
     // ========== DEPARTMENTS ==========
 
@@ -304,7 +306,11 @@ public class StaticDimensionController {
         series.setPrefix(updated.getPrefix());
         series.setIsActive(updated.getIsActive());
         series.setSortOrder(updated.getSortOrder());
-        return ResponseEntity.ok(seriesRepository.save(series));
+        series.setBlockSize(updated.getBlockSize());
+        series.setIsGapless(updated.getIsGapless());
+        Series saved = seriesRepository.save(series);
+        documentNumberService.evict(saved.getCode());
+        return ResponseEntity.ok(saved);
     }
 
     @DeleteMapping("/series/{id}")
@@ -313,6 +319,7 @@ public class StaticDimensionController {
         Series series = seriesRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Series not found"));
         seriesRepository.delete(series);
+        documentNumberService.evict(series.getCode());
         return ResponseEntity.noContent().build();
     }
 
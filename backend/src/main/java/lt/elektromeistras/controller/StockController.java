@@ -0,0 +1,60 @@
+package lt.elektromeistras.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.dto.response.StockCacheConsistencyResponse;
+import lt.elektromeistras.dto.response.StockCacheStatsResponse;
+import lt.elektromeistras.service.StockAvailabilityCache;
+import lt.elektromeistras.service.StockService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * REST controller for stock availability lookups
+ */
+@RestController
+@RequestMapping("/api/stock")
+@RequiredArgsConstructor
+@Slf4j
+public class StockController {
+
+    private final StockService stockService;
+    private final StockAvailabilityCache availabilityCache;
+
+    /**
+     * Available quantity for order entry - served from the in-memory cache
+     * GET /api/stock/available?productId=...&warehouseId=...
+     */
+    @GetMapping("/available")
+    @PreAuthorize("hasAnyAuthority('PRODUCT_VIEW', 'SALES_VIEW', 'ADMIN_FULL')")
+    public ResponseEntity<BigDecimal> getAvailableStock(@RequestParam UUID productId,
+                                                        @RequestParam UUID warehouseId) {
+        return ResponseEntity.ok(stockService.getAvailableStock(productId, warehouseId));
+    }
+
+    /**
+     * Cache hit/miss and staleness metrics
+     * GET /api/stock/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasAnyAuthority('ADMIN_FULL')")
+    public ResponseEntity<StockCacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(availabilityCache.getStats());
+    }
+
+    /**
+     * Compare the cache against the database
+     * POST /api/stock/cache/verify?repair=true
+     */
+    @PostMapping("/cache/verify")
+    @PreAuthorize("hasAnyAuthority('ADMIN_FULL')")
+    public ResponseEntity<StockCacheConsistencyResponse> verifyCache(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        log.info("Stock availability cache consistency check requested, repair={}", repair);
+        return ResponseEntity.ok(availabilityCache.verify(repair));
+    }
+}
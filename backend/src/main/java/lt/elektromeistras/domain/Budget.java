@@ -64,6 +64,13 @@ public class Budget extends BaseEntity {
     @Builder.Default
     private List<BudgetLine> budgetLines = new ArrayList<>();
 
+    /**
+     * Start of the last variance run - null until a run has calculated every line, later runs
+     * recalculate only lines with dirty keys (see BudgetVarianceDirtyKey) or changed lines
+     */
+    @Column(name = "variances_calculated_at")
+    private LocalDateTime variancesCalculatedAt;
+
     @Column(name = "version")
     private Integer version;
 
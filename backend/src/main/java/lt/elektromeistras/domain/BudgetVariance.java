@@ -14,7 +14,8 @@ import java.time.LocalDate;
     @Index(name = "idx_variance_budget", columnList = "budget_id"),
     @Index(name = "idx_variance_account", columnList = "gl_account_id"),
     @Index(name = "idx_variance_period", columnList = "variance_date"),
-    @Index(name = "idx_variance_dimensions", columnList = "department_id,cost_center_id")
+    @Index(name = "idx_variance_dimensions", columnList = "department_id,cost_center_id"),
+    @Index(name = "idx_variance_budget_line", columnList = "budget_line_id,is_snapshot")
 })
 @Data
 @Builder
@@ -81,6 +82,14 @@ public class BudgetVariance extends BaseEntity {
     @Column(name = "notes", length = 500)
     private String notes;
 
+    /**
+     * False for the one current row per budget line, which is updated in place on every run.
+     * True for dated copies kept as history.
+     */
+    @Column(name = "is_snapshot", nullable = false)
+    @Builder.Default
+    private Boolean isSnapshot = false;
+
     public enum VarianceType {
         FAVORABLE,      // Palankus nukrypimas
         UNFAVORABLE,    // Nepalankus nukrypimas
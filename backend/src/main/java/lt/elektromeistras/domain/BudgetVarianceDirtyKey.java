@@ -0,0 +1,43 @@
+package lt.elektromeistras.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Account and dimensions of a budget with postings its variances have not seen yet.
+ * Written by BudgetVarianceService in the posting's own transaction and deleted by the first
+ * variance run of the budget that counts entries of its date, so a posting that commits late or
+ * is dated ahead is picked up by a later run instead of being missed.
+ */
+@Entity
+@Table(name = "budget_variance_dirty_keys", indexes = {
+    @Index(name = "idx_budget_variance_dirty_key_budget", columnList = "budget_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class BudgetVarianceDirtyKey extends BaseEntity {
+
+    @Column(name = "budget_id", nullable = false, updatable = false)
+    private UUID budgetId;
+
+    @Column(name = "gl_account_id", nullable = false, updatable = false)
+    private UUID glAccountId;
+
+    @Column(name = "department_id", updatable = false)
+    private UUID departmentId;
+
+    @Column(name = "cost_center_id", updatable = false)
+    private UUID costCenterId;
+
+    /**
+     * Entry date of the posting - runs ending before it leave the key in place
+     */
+    @Column(name = "entry_date", nullable = false, updatable = false)
+    private LocalDate entryDate;
+}
@@ -68,13 +68,7 @@ public class CreditTransaction {
     @Column(name = "performed_by_role", nullable = false, length = 20)
     private PerformedByRole performedByRole;
 
-    // Signature/confirmation
-    @Column(name = "signature_data", columnDefinition = "TEXT")
-    private String signatureData;
-
-    // Photo of person who signed (optional)
-    @Column(name = "photo_data", columnDefinition = "TEXT")
-    private String photoData;
+    // Signature and photo are CreditTransactionAttachments, kept out of this row
 
     @Column(name = "confirmed_at")
     private Instant confirmedAt;
@@ -95,9 +89,6 @@ public class CreditTransaction {
     protected void onCreate() {
         createdAt = Instant.now();
         updatedAt = Instant.now();
-        if (transactionNumber == null) {
-            generateTransactionNumber();
-        }
     }
 
     @PreUpdate
@@ -105,11 +96,6 @@ public class CreditTransaction {
         updatedAt = Instant.now();
     }
 
-    private void generateTransactionNumber() {
-        String prefix = transactionType == TransactionType.PICKUP ? "P" : "R";
-        this.transactionNumber = prefix + System.currentTimeMillis();
-    }
-
     public void addLine(CreditTransactionLine line) {
         lines.add(line);
         line.setTransaction(this);
@@ -0,0 +1,48 @@
+package lt.elektromeistras.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Signature or photo captured when a credit transaction is confirmed.
+ * Kept out of credit_transactions so transaction lists and statements never load image data;
+ * the binary content is streamed on demand by CreditTransactionAttachmentService.
+ */
+@Entity
+@Table(name = "credit_transaction_attachments", indexes = {
+    @Index(name = "idx_credit_attachment_transaction_kind", columnList = "transaction_id,kind", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(exclude = "data")
+public class CreditTransactionAttachment extends BaseEntity {
+
+    @Column(name = "transaction_id", nullable = false, updatable = false)
+    private UUID transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private Kind kind;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Integer sizeBytes;
+
+    /**
+     * Decoded image bytes - written through the entity, read only by streaming
+     */
+    @Column(nullable = false)
+    private byte[] data;
+
+    public enum Kind {
+        SIGNATURE,  // Parašas
+        PHOTO       // Pasirašiusio asmens nuotrauka
+    }
+}
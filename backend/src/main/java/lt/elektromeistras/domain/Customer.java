@@ -1,13 +1,17 @@
 package lt.elektromeistras.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.text.Normalizer;
 import java.time.Instant;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Entity
 @Table(name = "customers", indexes = {
@@ -23,6 +27,10 @@ import java.util.UUID;
 @AllArgsConstructor
 public class Customer {
 
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern NON_DIGITS = Pattern.compile("[^0-9]+");
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -81,7 +89,8 @@ public class Customer {
     @Column(name = "credit_limit", nullable = false, precision = 19, scale = 2)
     private BigDecimal creditLimit = BigDecimal.ZERO;
 
-    @Column(name = "current_balance", nullable = false, precision = 19, scale = 2)
+    // Changed only through CustomerBalanceLedger (atomic UPDATE plus ledger entry), never by saving the entity
+    @Column(name = "current_balance", nullable = false, precision = 19, scale = 2, updatable = false)
     private BigDecimal currentBalance = BigDecimal.ZERO;
 
     @Column(name = "payment_terms_days", nullable = false)
@@ -94,6 +103,15 @@ public class Customer {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    // Search columns (changelog 024) - derived from the fields above on every save
+    @JsonIgnore
+    @Column(name = "search_normalized", length = 1200)
+    private String searchNormalized;
+
+    @JsonIgnore
+    @Column(name = "search_phone_digits", length = 120)
+    private String searchPhoneDigits;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -104,11 +122,52 @@ public class Customer {
     protected void onCreate() {
         createdAt = Instant.now();
         updatedAt = Instant.now();
+        updateSearchColumns();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = Instant.now();
+        updateSearchColumns();
+    }
+
+    /**
+     * Refresh the search columns: code, names, email and VAT code folded into one
+     * space-separated text starting with a space (so '% q%' matches any word start),
+     * phone and mobile as digits only
+     */
+    public void updateSearchColumns() {
+        StringBuilder text = new StringBuilder();
+        for (String value : new String[] {code, companyName, firstName, lastName, email, vatCode}) {
+            if (value != null) {
+                text.append(value).append(' ');
+            }
+        }
+        searchNormalized = " " + normalizeSearchText(text.toString());
+
+        String phoneDigits = digitsOnly(phone);
+        String mobileDigits = digitsOnly(mobile);
+        String digits = (phoneDigits + " " + mobileDigits).trim();
+        searchPhoneDigits = digits.isEmpty() ? null : digits;
+    }
+
+    /**
+     * Lower-case, strip diacritics ("š" to "s", "ė" to "e") and collapse whitespace -
+     * applied to both the search column and the typed query
+     */
+    public static String normalizeSearchText(String value) {
+        if (value == null) {
+            return "";
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Digits of a phone number, so "+370 612 34567" and "37061234567" match each other
+     */
+    public static String digitsOnly(String value) {
+        return value == null ? "" : NON_DIGITS.matcher(value).replaceAll("");
     }
 
     public enum CustomerType {
@@ -121,6 +180,14 @@ public class Customer {
      * Get display name for the customer
      */
     public String getDisplayName() {
+        return displayName(customerType, code, companyName, firstName, lastName);
+    }
+
+    /**
+     * Display name from the name columns alone - for projections that do not load the customer
+     */
+    public static String displayName(CustomerType customerType, String code, String companyName,
+                                     String firstName, String lastName) {
         if (customerType == CustomerType.BUSINESS) {
             return companyName != null ? companyName : code;
         } else {
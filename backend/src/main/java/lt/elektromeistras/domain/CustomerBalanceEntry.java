@@ -0,0 +1,55 @@
+package lt.elektromeistras.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Append-only customer balance ledger entry.
+ * Every change of Customer.currentBalance is written here in the same transaction as the
+ * atomic balance update, so the balance always equals the sum of the customer's entries.
+ */
+@Entity
+@Table(name = "customer_balance_entries", indexes = {
+    @Index(name = "idx_customer_balance_entry_customer", columnList = "customer_id,created_at"),
+    @Index(name = "idx_customer_balance_entry_source", columnList = "entry_type,source_document_id", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class CustomerBalanceEntry extends BaseEntity {
+
+    @Column(name = "customer_id", nullable = false, updatable = false)
+    private UUID customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 30, updatable = false)
+    private EntryType entryType;
+
+    /**
+     * Signed change of the balance - positive increases the customer's debt
+     */
+    @Column(nullable = false, precision = 19, scale = 2, updatable = false)
+    private BigDecimal amount;
+
+    /**
+     * Credit transaction the entry comes from; null for opening balances.
+     * Unique per entry type, so a document cannot change the balance twice.
+     */
+    @Column(name = "source_document_id", updatable = false)
+    private UUID sourceDocumentId;
+
+    @Column(name = "source_document_number", length = 100, updatable = false)
+    private String sourceDocumentNumber;
+
+    public enum EntryType {
+        OPENING,              // Balance the customer had before the ledger
+        CREDIT_PICKUP,        // Confirmed pickup on credit
+        CREDIT_RETURN,        // Confirmed return
+        CREDIT_CANCELLATION   // Reversal of a confirmed pickup or return
+    }
+}
@@ -0,0 +1,71 @@
+package lt.elektromeistras.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Monthly credit statement totals of one customer - the statement snapshot.
+ * Maintained by CustomerStatementService from every customer balance ledger entry, in the
+ * entry's own transaction, so statements read one row per customer instead of every
+ * transaction and line of the month.
+ * Invariant: closingBalance = openingBalance + pickupsAmount - returnsAmount + adjustmentsAmount.
+ */
+@Entity
+@Table(name = "customer_statement_periods", indexes = {
+    @Index(name = "idx_customer_statement_period", columnList = "customer_id,period_year,period_month", unique = true),
+    @Index(name = "idx_customer_statement_period_month", columnList = "period_year,period_month")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class CustomerStatementPeriod extends BaseEntity {
+
+    @Column(name = "customer_id", nullable = false, updatable = false)
+    private UUID customerId;
+
+    @Column(name = "period_year", nullable = false, updatable = false)
+    private Integer periodYear;
+
+    @Column(name = "period_month", nullable = false, updatable = false)
+    private Integer periodMonth;
+
+    /**
+     * Balance before the first ledger entry of the month
+     */
+    @Column(name = "opening_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal openingBalance;
+
+    @Column(name = "pickups_amount", nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private BigDecimal pickupsAmount = BigDecimal.ZERO;
+
+    /**
+     * Confirmed returns, as a positive amount
+     */
+    @Column(name = "returns_amount", nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private BigDecimal returnsAmount = BigDecimal.ZERO;
+
+    /**
+     * Signed cancellations and opening balances
+     */
+    @Column(name = "adjustments_amount", nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private BigDecimal adjustmentsAmount = BigDecimal.ZERO;
+
+    @Column(name = "closing_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal closingBalance;
+
+    @Column(name = "pickup_count", nullable = false)
+    @Builder.Default
+    private Integer pickupCount = 0;
+
+    @Column(name = "return_count", nullable = false)
+    @Builder.Default
+    private Integer returnCount = 0;
+}
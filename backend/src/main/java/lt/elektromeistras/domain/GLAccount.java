@@ -2,6 +2,7 @@ package lt.elektromeistras.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 import java.math.BigDecimal;
 
 /**
@@ -62,10 +63,23 @@ public class GLAccount extends BaseEntity {
     @Builder.Default
     private Boolean requireBusinessObject = false;
 
-    @Column(name = "current_balance", precision = 19, scale = 2)
+    /**
+     * Posted balance - the compacted base plus the stripes not yet folded into it.
+     * Read-only: postings add to stripes through GLAccountBalanceLedger.
+     */
+    @Formula("current_balance + COALESCE((SELECT SUM(d.delta) FROM gl_account_balance_deltas d " +
+             "WHERE d.gl_account_id = id), 0)")
     @Builder.Default
     private BigDecimal currentBalance = BigDecimal.ZERO;
 
+    /**
+     * Balance folded in by the compactor. Only changed by GLAccountRepository.addToBaseBalance,
+     * never by saving the entity, so a stale copy cannot overwrite it.
+     */
+    @Column(name = "current_balance", precision = 19, scale = 2, updatable = false)
+    @Builder.Default
+    private BigDecimal baseBalance = BigDecimal.ZERO;
+
     @Column(name = "is_active", nullable = false)
     @Builder.Default
     private Boolean isActive = true;
@@ -0,0 +1,35 @@
+package lt.elektromeistras.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+
+/**
+ * One stripe of pending balance changes for a GL account.
+ * Postings add to a random stripe instead of the account row, so concurrent postings to the
+ * same account rarely wait on each other. GLAccountBalanceLedger folds the stripes into the
+ * account's base balance in the background.
+ */
+@Entity
+@Table(name = "gl_account_balance_deltas", indexes = {
+    @Index(name = "idx_balance_delta_account_stripe", columnList = "gl_account_id,stripe", unique = true)
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class GLAccountBalanceDelta extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "gl_account_id", nullable = false)
+    private GLAccount glAccount;
+
+    @Column(nullable = false)
+    private Integer stripe;
+
+    /**
+     * Signed change in the account's normal balance direction, not yet compacted
+     */
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal delta = BigDecimal.ZERO;
+}
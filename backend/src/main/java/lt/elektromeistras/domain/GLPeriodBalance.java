@@ -0,0 +1,67 @@
+package lt.elektromeistras.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Posted debit and credit totals of a GL account in a budget period for one combination of
+ * department, cost center and business object - the trial balance cube.
+ * Maintained by GLPeriodBalanceService when entries are posted or reversed, so period reports
+ * read one row per account and dimension combination instead of every journal entry line.
+ */
+@Entity
+@Table(name = "gl_period_balances", indexes = {
+    @Index(name = "idx_period_balance_key", columnList = "gl_account_id,budget_period_id,dimension_key", unique = true),
+    @Index(name = "idx_period_balance_period", columnList = "budget_period_id")
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class GLPeriodBalance extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "gl_account_id", nullable = false)
+    private GLAccount glAccount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "budget_period_id", nullable = false)
+    private BudgetPeriod budgetPeriod;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "department_id")
+    private Department department;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cost_center_id")
+    private CostCenter costCenter;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "business_object_id")
+    private BusinessObject businessObject;
+
+    /**
+     * Department, cost center and business object ids in one non-null column, so the unique
+     * key also covers rows without some of the dimensions
+     */
+    @Column(name = "dimension_key", nullable = false, length = 120)
+    private String dimensionKey;
+
+    @Column(name = "debit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+
+    @Column(name = "credit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+
+    public BigDecimal getNetAmount() {
+        return debitTotal.subtract(creditTotal);
+    }
+
+    public static String dimensionKey(UUID departmentId, UUID costCenterId, UUID businessObjectId) {
+        return (departmentId != null ? departmentId.toString() : "-") + "|" +
+               (costCenterId != null ? costCenterId.toString() : "-") + "|" +
+               (businessObjectId != null ? businessObjectId.toString() : "-");
+    }
+}
@@ -0,0 +1,95 @@
+package lt.elektromeistras.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * GL posting outbox event - a business document waiting to be posted to the General Ledger.
+ * Written in the same transaction as the order, return or payment; GLPostingOutbox posts it
+ * in the background, so a slow or failing posting never holds up or rolls back the sale.
+ */
+@Entity
+@Table(name = "gl_posting_outbox", indexes = {
+    @Index(name = "idx_gl_outbox_source", columnList = "event_type,source_document_id", unique = true),
+    @Index(name = "idx_gl_outbox_status_next_attempt", columnList = "status,next_attempt_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class GLPostingOutboxEvent extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private EventType eventType;
+
+    /**
+     * Order or return id; for payments a generated payment id
+     */
+    @Column(name = "source_document_id", nullable = false)
+    private UUID sourceDocumentId;
+
+    @Column(name = "source_document_number", length = 100)
+    private String sourceDocumentNumber;
+
+    /**
+     * Payment details - the order is not re-read for them, later payments change it
+     */
+    @Column(name = "customer_id")
+    private UUID customerId;
+
+    @Column(name = "amount", precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "event_date")
+    private LocalDate eventDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "posted_at")
+    private LocalDateTime postedAt;
+
+    @Column(name = "journal_entry_id")
+    private UUID journalEntryId;
+
+    public enum EventType {
+        ORDER(JournalEntry.SourceType.ORDER),
+        RETURN(JournalEntry.SourceType.RETURN),
+        PAYMENT(JournalEntry.SourceType.PAYMENT);
+
+        private final JournalEntry.SourceType sourceType;
+
+        EventType(JournalEntry.SourceType sourceType) {
+            this.sourceType = sourceType;
+        }
+
+        public JournalEntry.SourceType getSourceType() {
+            return sourceType;
+        }
+    }
+
+    public enum OutboxStatus {
+        PENDING,            // Laukia registravimo
+        POSTED,             // Užregistruotas
+        DEAD                // Nepavyko - reikia peržiūrėti
+    }
+}
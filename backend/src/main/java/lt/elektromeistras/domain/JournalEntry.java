@@ -17,7 +17,9 @@ import java.util.List;
     @Index(name = "idx_journal_entry_number", columnList = "entry_number", unique = true),
     @Index(name = "idx_journal_entry_date", columnList = "entry_date"),
     @Index(name = "idx_journal_entry_status", columnList = "status"),
-    @Index(name = "idx_journal_entry_type", columnList = "entry_type")
+    @Index(name = "idx_journal_entry_type", columnList = "entry_type"),
+    @Index(name = "idx_journal_entry_posted_at", columnList = "posted_at"),
+    @Index(name = "idx_journal_entry_source", columnList = "source_document_id,source_type")
 })
 @Data
 @Builder
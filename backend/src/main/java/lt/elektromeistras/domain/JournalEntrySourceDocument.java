@@ -0,0 +1,45 @@
+package lt.elektromeistras.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Source document of a summarized journal entry - Suvestinio įrašo pirminis dokumentas
+ * Links an entry that posts many documents at once (e.g. end-of-day order settlement) to each
+ * of them, so the sub-ledger can still be drilled into from either side.
+ */
+@Entity
+@Table(name = "journal_entry_source_documents", indexes = {
+    @Index(name = "idx_je_source_doc_entry", columnList = "journal_entry_id"),
+    @Index(name = "idx_je_source_doc_document", columnList = "source_type,source_document_id", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class JournalEntrySourceDocument extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "journal_entry_id", nullable = false)
+    private JournalEntry journalEntry;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source_type", nullable = false)
+    private JournalEntry.SourceType sourceType;
+
+    @Column(name = "source_document_id", nullable = false)
+    private UUID sourceDocumentId;
+
+    @Column(name = "source_document_number", length = 100)
+    private String sourceDocumentNumber;
+
+    /**
+     * Document total included in the entry
+     */
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+}
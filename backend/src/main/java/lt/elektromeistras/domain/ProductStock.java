@@ -104,6 +104,14 @@ public class ProductStock extends BaseEntity {
     @Column(name = "last_counted_quantity", precision = 19, scale = 3)
     private BigDecimal lastCountedQuantity;
 
+    /**
+     * Optimistic locking version - bumped by every stock counter update,
+     * including the atomic delta operations in ProductStockRepository
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * Calculated available quantity (quantity - reserved)
      * This is a transient computed field, not stored in database
@@ -1,6 +1,8 @@
 package lt.elektromeistras.domain;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
 /**
@@ -35,9 +37,30 @@ public class Series extends BaseEntity {
     @Column(name = "prefix", length = 20)
     private String prefix;
 
-    @Column(name = "current_number")
+    /**
+     * Last allocated number - advanced only by DocumentNumberService with an atomic update
+     */
+    @Column(name = "current_number", updatable = false)
     private Long currentNumber;
 
+    /**
+     * Numbers leased per node at a time (1 = one database increment per document)
+     */
+    @Column(name = "block_size", nullable = false)
+    @NotNull
+    @Min(1)
+    @Builder.Default
+    private Integer blockSize = 1;
+
+    /**
+     * Gap-free numbering for fiscal documents - the number is allocated in the document's own
+     * transaction and rolled back with it
+     */
+    @Column(name = "is_gapless", nullable = false)
+    @NotNull
+    @Builder.Default
+    private Boolean isGapless = false;
+
     @Column(name = "is_active", nullable = false)
     @Builder.Default
     private Boolean isActive = true;
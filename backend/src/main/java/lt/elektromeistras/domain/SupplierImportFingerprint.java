@@ -0,0 +1,40 @@
+package lt.elektromeistras.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+
+/**
+ * Fingerprint of the last imported supplier CSV row for a product.
+ * Diff mode imports compare against it and skip rows that have not changed.
+ */
+@Entity
+@Table(name = "supplier_import_fingerprints", indexes = {
+    @Index(name = "idx_import_fingerprint_product_supplier", columnList = "product_id,supplier_id", unique = true)
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class SupplierImportFingerprint extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "supplier_id", nullable = false)
+    private Supplier supplier;
+
+    /**
+     * SHA-256 (hex) of the mapped row fields - see SupplierInventoryCsvRow.fingerprint()
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    /**
+     * Quantity of the last imported row - changed rows move stock by the difference
+     */
+    @Column(precision = 19, scale = 3)
+    private BigDecimal quantity;
+}
@@ -0,0 +1,88 @@
+package lt.elektromeistras.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.opencsv.bean.CsvBindByName;
+import lombok.Data;
+
+/**
+ * One journal entry line of a bulk import file (CSV column or NDJSON property names).
+ * Consecutive lines with the same entry number form one entry; the header fields are taken
+ * from the entry's first line.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class JournalEntryImportRow {
+
+    @CsvBindByName(column = "entryNumber")
+    private String entryNumber;
+
+    @CsvBindByName(column = "entryDate")
+    private String entryDate; // ISO yyyy-MM-dd
+
+    @CsvBindByName(column = "entryType")
+    private String entryType; // Default MANUAL
+
+    @CsvBindByName(column = "description")
+    private String description;
+
+    @CsvBindByName(column = "budgetPeriodCode")
+    private String budgetPeriodCode;
+
+    @CsvBindByName(column = "accountCode")
+    private String accountCode;
+
+    @CsvBindByName(column = "debitAmount")
+    private String debitAmount; // Parsed during validation, so a bad number rejects only its entry
+
+    @CsvBindByName(column = "creditAmount")
+    private String creditAmount;
+
+    @CsvBindByName(column = "lineDescription")
+    private String lineDescription;
+
+    @CsvBindByName(column = "departmentCode")
+    private String departmentCode;
+
+    @CsvBindByName(column = "costCenterCode")
+    private String costCenterCode;
+
+    @CsvBindByName(column = "businessObjectCode")
+    private String businessObjectCode;
+
+    /**
+     * Position of the line in the file (not a column) - used in error messages
+     */
+    private int rowNumber;
+
+    /**
+     * Why the line could not be parsed (not a column) - set on lines the reader could not map;
+     * the entry number is then only set when it could still be read
+     */
+    private String parseError;
+
+    /**
+     * Clean and trim string fields
+     */
+    public void cleanData() {
+        entryNumber = cleanString(entryNumber);
+        entryDate = cleanString(entryDate);
+        entryType = cleanString(entryType);
+        description = cleanString(description);
+        budgetPeriodCode = cleanString(budgetPeriodCode);
+        accountCode = cleanString(accountCode);
+        debitAmount = cleanString(debitAmount);
+        creditAmount = cleanString(creditAmount);
+        lineDescription = cleanString(lineDescription);
+        departmentCode = cleanString(departmentCode);
+        costCenterCode = cleanString(costCenterCode);
+        businessObjectCode = cleanString(businessObjectCode);
+    }
+
+    private String cleanString(String value) {
+        if (value == null) {
+            return null;
+        }
+        String cleaned = value.trim();
+        return cleaned.isEmpty() ? null : cleaned;
+    }
+}
@@ -4,7 +4,11 @@ import com.opencsv.bean.CsvBindByName;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.HexFormat;
 
 /**
  * DTO representing a row from FORMAPAK supplier inventory CSV file
@@ -72,6 +76,11 @@ public class SupplierInventoryCsvRow {
     @CsvBindByName(column = "Tiekėjo pavadinimas")
     private String supplierName;
 
+    /**
+     * Position of the row in the file (not a CSV column) - used in error messages
+     */
+    private int rowNumber;
+
     /**
      * Parse receiving date from string format (yyyy.MM.dd)
      */
@@ -127,4 +136,26 @@ public class SupplierInventoryCsvRow {
             && productName != null && !productName.isEmpty()
             && quantity != null && quantity.compareTo(BigDecimal.ZERO) > 0;
     }
+
+    /**
+     * SHA-256 (hex) of the fields the importer maps onto product and stock.
+     * Equal fingerprints mean re-importing the row would change nothing.
+     */
+    public String fingerprint() {
+        StringBuilder fields = new StringBuilder();
+        for (Object field : new Object[] {
+                productCode, productName, categoryCode, unitOfMeasure, barcode, specification,
+                retailPrice, receivingPrice, vatPercent, quantity, receivingDate, supplierCode}) {
+            if (field instanceof BigDecimal number) {
+                field = number.stripTrailingZeros().toPlainString();
+            }
+            fields.append(field).append('\u001F');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(fields.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
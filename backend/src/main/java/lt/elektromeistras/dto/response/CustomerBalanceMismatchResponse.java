@@ -0,0 +1,25 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO for a customer whose stored balance differs from its balance ledger
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerBalanceMismatchResponse {
+
+    private UUID customerId;
+    private String code;
+    private BigDecimal currentBalance;
+    private BigDecimal ledgerBalance;
+    private BigDecimal difference; // currentBalance - ledgerBalance
+}
@@ -0,0 +1,23 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the result of rebuilding GL period balances from journal entry lines
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GLPeriodBalanceRebuildResponse {
+
+    private Integer periods;
+    private Integer rows;
+    private Long durationMs;
+    private LocalDateTime rebuiltAt;
+}
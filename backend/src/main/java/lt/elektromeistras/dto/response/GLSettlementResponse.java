@@ -0,0 +1,53 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for the result of an end-of-day order settlement to GL
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GLSettlementResponse {
+
+    private LocalDate settlementDate;
+    private boolean summarized; // One entry for the whole day, otherwise one entry per order
+    private int partitions;
+
+    @Builder.Default
+    private int ordersFound = 0;
+    @Builder.Default
+    private int ordersPosted = 0;
+    @Builder.Default
+    private int ordersSkipped = 0; // Posted meanwhile, e.g. by the GL outbox
+    @Builder.Default
+    private int ordersFailed = 0;
+
+    @Builder.Default
+    private int journalEntries = 0;
+    @Builder.Default
+    private int journalEntryLines = 0;
+
+    private Long durationMs;
+    private Double ordersPerSecond;
+    private LocalDateTime settledAt;
+
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+
+    public void addError(String error) {
+        if (errors == null) {
+            errors = new ArrayList<>();
+        }
+        errors.add(error);
+    }
+}
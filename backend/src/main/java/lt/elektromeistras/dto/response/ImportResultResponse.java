@@ -8,16 +8,21 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
- * DTO for supplier inventory import results
+ * DTO for supplier inventory import results.
+ * Also used as the progress report of an asynchronous import job - see snapshot().
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ImportResultResponse {
 
+    private UUID jobId;
+    private String fileName;
+
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private Long durationMs;
@@ -26,18 +31,27 @@ public class ImportResultResponse {
     private Integer processedRows;
     private Integer createdProducts;
     private Integer updatedProducts;
+    private Integer unchangedRows; // Diff mode: rows identical to the last import, skipped without writes
     private Integer createdStock;
     private Integer updatedStock;
     private Integer skippedRows;
     private Integer errorRows;
 
+    // Progress of a running import
+    private Long bytesRead;
+    private Long totalBytes;
+    private Integer progressPercent;
+
     @Builder.Default
     private List<String> errors = new ArrayList<>();
 
     @Builder.Default
     private List<String> warnings = new ArrayList<>();
 
-    private String status; // SUCCESS, PARTIAL, FAILED
+    private String status; // QUEUED, RUNNING, SUCCESS, PARTIAL, FAILED
+
+    // Per-partition statistics of a partitioned import, null otherwise
+    private List<PartitionResult> partitions;
 
     public void addError(String error) {
         if (errors == null) {
@@ -53,6 +67,39 @@ public class ImportResultResponse {
         warnings.add(warning);
     }
 
+    /**
+     * Add the row and product/stock counters of another (batch) result to this one
+     */
+    public void addCounts(ImportResultResponse other) {
+        processedRows += other.processedRows;
+        createdProducts += other.createdProducts;
+        updatedProducts += other.updatedProducts;
+        unchangedRows += other.unchangedRows;
+        createdStock += other.createdStock;
+        updatedStock += other.updatedStock;
+        errorRows += other.errorRows;
+    }
+
+    public void updateProgress(long bytesRead) {
+        this.bytesRead = bytesRead;
+        if (totalBytes != null && totalBytes > 0) {
+            progressPercent = (int) Math.min(100, bytesRead * 100 / totalBytes);
+        }
+    }
+
+    /**
+     * Copy that is safe to hand to another thread while the import keeps updating this one
+     */
+    public ImportResultResponse snapshot() {
+        return toBuilder()
+            .errors(errors != null ? new ArrayList<>(errors) : new ArrayList<>())
+            .warnings(warnings != null ? new ArrayList<>(warnings) : new ArrayList<>())
+            .partitions(partitions != null
+                ? partitions.stream().map(partition -> partition.toBuilder().build()).toList()
+                : null)
+            .build();
+    }
+
     public void calculateDuration() {
         if (startTime != null && endTime != null) {
             durationMs = java.time.Duration.between(startTime, endTime).toMillis();
@@ -70,4 +117,41 @@ public class ImportResultResponse {
             status = "SUCCESS";
         }
     }
+
+    /**
+     * Statistics of one partition of a partitioned import.
+     * Rows of a failed batch were rolled back and are counted in errorRows.
+     */
+    @Data
+    @Builder(toBuilder = true)
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartitionResult {
+        private int partition;
+        private int committedBatches;
+        private int failedBatches;
+        private int processedRows;
+        private int createdProducts;
+        private int updatedProducts;
+        private int unchangedRows;
+        private int createdStock;
+        private int updatedStock;
+        private int errorRows;
+
+        public void add(ImportResultResponse batch) {
+            committedBatches++;
+            processedRows += batch.getProcessedRows();
+            createdProducts += batch.getCreatedProducts();
+            updatedProducts += batch.getUpdatedProducts();
+            unchangedRows += batch.getUnchangedRows();
+            createdStock += batch.getCreatedStock();
+            updatedStock += batch.getUpdatedStock();
+            errorRows += batch.getErrorRows();
+        }
+
+        public void addFailedBatch(int rows) {
+            failedBatches++;
+            errorRows += rows;
+        }
+    }
 }
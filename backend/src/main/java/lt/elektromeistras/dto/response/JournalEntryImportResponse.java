@@ -0,0 +1,68 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for bulk journal entry import results.
+ * Entries are validated and written one by one - a rejected entry is listed in errors and
+ * the rest of the file is still imported.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalEntryImportResponse {
+
+    private String fileName;
+    private String format; // CSV, NDJSON
+
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Long durationMs;
+
+    @Builder.Default
+    private int totalLines = 0;
+    @Builder.Default
+    private int totalEntries = 0;
+    @Builder.Default
+    private int importedEntries = 0;
+    @Builder.Default
+    private int importedLines = 0;
+    @Builder.Default
+    private int errorEntries = 0;
+
+    private boolean posted; // Imported entries were posted, otherwise left VALIDATED
+
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+
+    private String status; // SUCCESS, PARTIAL, FAILED
+
+    public void addError(String error) {
+        if (errors == null) {
+            errors = new ArrayList<>();
+        }
+        errors.add(error);
+    }
+
+    public void calculateDuration() {
+        if (startTime != null && endTime != null) {
+            durationMs = java.time.Duration.between(startTime, endTime).toMillis();
+        }
+    }
+
+    public void determineStatus() {
+        if (errorEntries > 0) {
+            status = importedEntries > 0 ? "PARTIAL" : "FAILED";
+        } else {
+            status = "SUCCESS";
+        }
+    }
+}
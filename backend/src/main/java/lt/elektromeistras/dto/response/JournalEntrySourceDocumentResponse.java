@@ -0,0 +1,24 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO for a source document posted by a journal entry (sub-ledger drill-down)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalEntrySourceDocumentResponse {
+
+    private String sourceType;
+    private UUID sourceDocumentId;
+    private String sourceDocumentNumber;
+    private BigDecimal amount;
+}
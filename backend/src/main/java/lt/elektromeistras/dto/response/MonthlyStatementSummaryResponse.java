@@ -0,0 +1,33 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO for a customer's monthly credit statement totals - one CSV row or one statement page header
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyStatementSummaryResponse {
+
+    private UUID customerId;
+    private String customerCode;
+    private String customerName;
+    private String vatCode;
+    private int year;
+    private int month;
+    private BigDecimal openingBalance;
+    private BigDecimal pickupsAmount;
+    private BigDecimal returnsAmount;     // Positive amount
+    private BigDecimal adjustmentsAmount; // Cancellations and opening balances, signed
+    private BigDecimal closingBalance;
+    private int pickupCount;
+    private int returnCount;
+}
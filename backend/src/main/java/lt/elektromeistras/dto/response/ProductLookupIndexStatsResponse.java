@@ -0,0 +1,32 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for product lookup index size, hit/miss and rebuild metrics
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookupIndexStatsResponse {
+
+    private Integer products;
+    private Integer codes;
+    private Integer skus;
+    private Integer eans;
+
+    private Long hits;
+    private Long misses;
+    private Double hitRatio;
+    private Long writes;
+
+    private Boolean rebuilding;
+    private LocalDateTime lastRebuiltAt;
+    private Long lastRebuildDurationMs;
+}
@@ -0,0 +1,35 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for stock availability cache consistency check results
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCacheConsistencyResponse {
+
+    private LocalDateTime checkedAt;
+    private Integer checkedEntries;
+    private Integer mismatches;
+    private Boolean repaired;
+
+    @Builder.Default
+    private List<String> details = new ArrayList<>();
+
+    public void addDetail(String detail) {
+        if (details == null) {
+            details = new ArrayList<>();
+        }
+        details.add(detail);
+    }
+}
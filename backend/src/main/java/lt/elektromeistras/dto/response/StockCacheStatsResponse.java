@@ -0,0 +1,34 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for stock availability cache hit/miss and staleness metrics
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCacheStatsResponse {
+
+    private Integer entries;
+    private Long hits;
+    private Long misses;
+    private Double hitRatio;
+    private Long writes;
+
+    // Staleness - age since an entry was last read from the database
+    private Integer staleEntries;
+    private Long oldestEntryAgeMs;
+    private Long maxStalenessMs;
+
+    private LocalDateTime lastWarmedAt;
+    private Long lastWarmDurationMs;
+    private LocalDateTime lastCheckedAt;
+    private Integer lastCheckMismatches;
+}
@@ -0,0 +1,36 @@
+package lt.elektromeistras.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO for posted totals of a GL account in a budget period (trial balance line)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrialBalanceLineResponse {
+
+    private UUID glAccountId;
+    private String glAccountCode;
+    private String glAccountName;
+    private String accountType;
+    private String normalBalance;
+
+    private UUID budgetPeriodId;
+    private String budgetPeriodCode;
+
+    private BigDecimal debitTotal;
+    private BigDecimal creditTotal;
+
+    /**
+     * Debit - credit for debit normal balance accounts, credit - debit otherwise
+     */
+    private BigDecimal balance;
+}
@@ -1,15 +1,65 @@
 package lt.elektromeistras.exception;
 
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Exception thrown when there is insufficient stock to fulfill an operation.
+ * Batch operations attach every short line, not only the first one.
  */
 public class InsufficientStockException extends RuntimeException {
 
+    private final List<Shortage> shortages;
+
     public InsufficientStockException(String message) {
         super(message);
+        this.shortages = Collections.emptyList();
     }
 
     public InsufficientStockException(String message, Throwable cause) {
         super(message, cause);
+        this.shortages = Collections.emptyList();
+    }
+
+    public InsufficientStockException(String message, List<Shortage> shortages) {
+        super(message);
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<Shortage> getShortages() {
+        return shortages;
+    }
+
+    /**
+     * A single product that could not be covered by available stock
+     */
+    public static class Shortage {
+        private final String productSku;
+        private final BigDecimal required;
+        private final BigDecimal available;
+
+        public Shortage(String productSku, BigDecimal required, BigDecimal available) {
+            this.productSku = productSku;
+            this.required = required;
+            this.available = available;
+        }
+
+        public String getProductSku() {
+            return productSku;
+        }
+
+        public BigDecimal getRequired() {
+            return required;
+        }
+
+        public BigDecimal getAvailable() {
+            return available;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (available: %s, required: %s)", productSku, available, required);
+        }
     }
 }
@@ -5,8 +5,12 @@ import lt.elektromeistras.domain.BudgetLine;
 import lt.elektromeistras.domain.Department;
 import lt.elektromeistras.domain.GLAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,4 +24,28 @@ public interface BudgetLineRepository extends JpaRepository<BudgetLine, UUID> {
     List<BudgetLine> findByDepartment(Department department);
 
     List<BudgetLine> findByBudgetAndGlAccount(Budget budget, GLAccount glAccount);
+
+    /**
+     * Budgeted account of a budget together with the dates of the budget's period
+     */
+    interface BudgetedAccountView {
+        UUID getBudgetId();
+        UUID getGlAccountId();
+        LocalDate getStartDate();
+        LocalDate getEndDate();
+    }
+
+    /**
+     * Budgets in one of the statuses with lines on any of the accounts and a period overlapping
+     * the date range - one row per budget and account
+     */
+    @Query("SELECT DISTINCT b.id AS budgetId, l.glAccount.id AS glAccountId, " +
+           "p.startDate AS startDate, p.endDate AS endDate " +
+           "FROM BudgetLine l JOIN l.budget b JOIN b.budgetPeriod p " +
+           "WHERE l.glAccount.id IN :glAccountIds AND b.status IN :statuses " +
+           "AND p.startDate <= :toDate AND p.endDate >= :fromDate")
+    List<BudgetedAccountView> findBudgetedAccounts(@Param("glAccountIds") Collection<UUID> glAccountIds,
+                                                   @Param("statuses") Collection<Budget.BudgetStatus> statuses,
+                                                   @Param("fromDate") LocalDate fromDate,
+                                                   @Param("toDate") LocalDate toDate);
 }
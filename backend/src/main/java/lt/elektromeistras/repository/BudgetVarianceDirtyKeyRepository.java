@@ -0,0 +1,17 @@
+package lt.elektromeistras.repository;
+
+import lt.elektromeistras.domain.BudgetVarianceDirtyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for BudgetVarianceDirtyKey - postings a budget's variances have not seen yet
+ */
+@Repository
+public interface BudgetVarianceDirtyKeyRepository extends JpaRepository<BudgetVarianceDirtyKey, UUID> {
+
+    List<BudgetVarianceDirtyKey> findByBudgetId(UUID budgetId);
+}
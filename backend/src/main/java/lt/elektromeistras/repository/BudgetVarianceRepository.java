@@ -18,6 +18,13 @@ public interface BudgetVarianceRepository extends JpaRepository<BudgetVariance,
 
     List<BudgetVariance> findByBudget(Budget budget);
 
+    /**
+     * Current variance rows of a budget - one per budget line
+     */
+    List<BudgetVariance> findByBudgetAndIsSnapshotFalse(Budget budget);
+
+    List<BudgetVariance> findByBudgetAndIsSnapshotTrueOrderByVarianceDateAsc(Budget budget);
+
     List<BudgetVariance> findByGlAccount(GLAccount glAccount);
 
     List<BudgetVariance> findByDepartment(Department department);
@@ -30,7 +37,8 @@ public interface BudgetVarianceRepository extends JpaRepository<BudgetVariance,
             @Param("endDate") LocalDate endDate
     );
 
-    @Query("SELECT bv FROM BudgetVariance bv WHERE bv.budget = :budget AND bv.glAccount = :glAccount")
+    @Query("SELECT bv FROM BudgetVariance bv WHERE bv.budget = :budget AND bv.glAccount = :glAccount " +
+           "AND bv.isSnapshot = false")
     List<BudgetVariance> findByBudgetAndGlAccount(
             @Param("budget") Budget budget,
             @Param("glAccount") GLAccount glAccount
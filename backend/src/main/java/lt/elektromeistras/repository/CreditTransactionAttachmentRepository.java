@@ -0,0 +1,47 @@
+package lt.elektromeistras.repository;
+
+import lt.elektromeistras.domain.CreditTransactionAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for credit transaction attachments - queries return metadata only, the content
+ * is read through streamData
+ */
+@Repository
+public interface CreditTransactionAttachmentRepository extends JpaRepository<CreditTransactionAttachment, UUID>,
+        CreditTransactionAttachmentRepositoryCustom {
+
+    /**
+     * Attachment without its content
+     */
+    interface AttachmentView {
+        UUID getTransactionId();
+        CreditTransactionAttachment.Kind getKind();
+        String getContentType();
+        Integer getSizeBytes();
+    }
+
+    @Query("SELECT a.transactionId AS transactionId, a.kind AS kind, a.contentType AS contentType, " +
+           "a.sizeBytes AS sizeBytes FROM CreditTransactionAttachment a WHERE a.transactionId IN :transactionIds")
+    List<AttachmentView> findViewsByTransactionIds(@Param("transactionIds") Collection<UUID> transactionIds);
+
+    @Query("SELECT a.transactionId AS transactionId, a.kind AS kind, a.contentType AS contentType, " +
+           "a.sizeBytes AS sizeBytes FROM CreditTransactionAttachment a " +
+           "WHERE a.transactionId = :transactionId AND a.kind = :kind")
+    Optional<AttachmentView> findView(@Param("transactionId") UUID transactionId,
+                                      @Param("kind") CreditTransactionAttachment.Kind kind);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CreditTransactionAttachment a WHERE a.transactionId = :transactionId AND a.kind = :kind")
+    int deleteByTransactionIdAndKind(@Param("transactionId") UUID transactionId,
+                                     @Param("kind") CreditTransactionAttachment.Kind kind);
+}
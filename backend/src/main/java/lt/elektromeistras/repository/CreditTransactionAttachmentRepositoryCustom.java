@@ -0,0 +1,20 @@
+package lt.elektromeistras.repository;
+
+import lt.elektromeistras.domain.CreditTransactionAttachment;
+
+import java.io.OutputStream;
+import java.util.UUID;
+
+/**
+ * Streaming access to attachment content, bypassing the entity so the bytes are never
+ * held by Hibernate
+ */
+public interface CreditTransactionAttachmentRepositoryCustom {
+
+    /**
+     * Copy the content of one attachment to the output stream
+     *
+     * @return false if the transaction has no attachment of that kind
+     */
+    boolean streamData(UUID transactionId, CreditTransactionAttachment.Kind kind, OutputStream out);
+}
@@ -0,0 +1,39 @@
+package lt.elektromeistras.repository;
+
+import lombok.RequiredArgsConstructor;
+import lt.elektromeistras.domain.CreditTransactionAttachment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link CreditTransactionAttachmentRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class CreditTransactionAttachmentRepositoryImpl implements CreditTransactionAttachmentRepositoryCustom {
+
+    private static final String DATA_SQL =
+            "SELECT data FROM credit_transaction_attachments WHERE transaction_id = ? AND kind = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean streamData(UUID transactionId, CreditTransactionAttachment.Kind kind, OutputStream out) {
+        Boolean found = jdbcTemplate.query(DATA_SQL, rs -> {
+            if (!rs.next()) {
+                return false;
+            }
+            try (InputStream in = rs.getBinaryStream(1)) {
+                in.transferTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }, transactionId, kind.name());
+        return Boolean.TRUE.equals(found);
+    }
+}
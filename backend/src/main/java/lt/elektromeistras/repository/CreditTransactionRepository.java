@@ -1,6 +1,7 @@
 package lt.elektromeistras.repository;
 
 import lt.elektromeistras.domain.CreditTransaction;
+import lt.elektromeistras.domain.Customer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +18,38 @@ import java.util.UUID;
 @Repository
 public interface CreditTransactionRepository extends JpaRepository<CreditTransaction, UUID> {
 
+    String SUMMARY_SELECT = "SELECT ct.id AS id, ct.transactionNumber AS transactionNumber, " +
+            "ct.transactionType AS transactionType, ct.status AS status, ct.totalAmount AS totalAmount, " +
+            "ct.totalItems AS totalItems, ct.performedBy AS performedBy, ct.createdAt AS createdAt, " +
+            "c.code AS customerCode, c.customerType AS customerType, c.companyName AS companyName, " +
+            "c.firstName AS firstName, c.lastName AS lastName " +
+            "FROM CreditTransaction ct JOIN ct.customer c ";
+
+    String SEARCH_CONDITION = "WHERE " +
+            "LOWER(ct.transactionNumber) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+            "LOWER(c.code) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+            "LOWER(c.companyName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+            "LOWER(ct.performedBy) LIKE LOWER(CONCAT('%', :query, '%')) ";
+
+    /**
+     * Fields of a transaction list row, read together with its customer in one statement
+     */
+    interface SummaryView {
+        UUID getId();
+        String getTransactionNumber();
+        CreditTransaction.TransactionType getTransactionType();
+        CreditTransaction.TransactionStatus getStatus();
+        BigDecimal getTotalAmount();
+        Integer getTotalItems();
+        String getPerformedBy();
+        Instant getCreatedAt();
+        String getCustomerCode();
+        Customer.CustomerType getCustomerType();
+        String getCompanyName();
+        String getFirstName();
+        String getLastName();
+    }
+
     /**
      * Find transaction by transaction number
      */
@@ -26,6 +60,20 @@ public interface CreditTransactionRepository extends JpaRepository<CreditTransac
      */
     Page<CreditTransaction> findByCustomerId(UUID customerId, Pageable pageable);
 
+    /**
+     * List rows of a customer's transactions
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE c.id = :customerId",
+            countQuery = "SELECT COUNT(ct) FROM CreditTransaction ct WHERE ct.customer.id = :customerId")
+    Page<SummaryView> findSummariesByCustomerId(@Param("customerId") UUID customerId, Pageable pageable);
+
+    /**
+     * List rows of all transactions
+     */
+    @Query(value = SUMMARY_SELECT,
+            countQuery = "SELECT COUNT(ct) FROM CreditTransaction ct")
+    Page<SummaryView> findAllSummaries(Pageable pageable);
+
     /**
      * Find all transactions for a customer by type
      */
@@ -72,9 +120,10 @@ public interface CreditTransactionRepository extends JpaRepository<CreditTransac
     );
 
     /**
-     * Find transactions for customer within date range - for monthly statements
+     * Find transactions for customer within date range - for monthly statements.
+     * Customer and lines are fetched in the same statement.
      */
-    @Query("SELECT ct FROM CreditTransaction ct WHERE " +
+    @Query("SELECT DISTINCT ct FROM CreditTransaction ct JOIN FETCH ct.customer LEFT JOIN FETCH ct.lines WHERE " +
             "ct.customer.id = :customerId AND " +
             "ct.createdAt >= :startDate AND ct.createdAt <= :endDate AND " +
             "ct.status IN ('CONFIRMED', 'INVOICED') " +
@@ -114,10 +163,8 @@ public interface CreditTransactionRepository extends JpaRepository<CreditTransac
     /**
      * Find recent transactions for a customer (last N)
      */
-    @Query("SELECT ct FROM CreditTransaction ct WHERE " +
-            "ct.customer.id = :customerId " +
-            "ORDER BY ct.createdAt DESC")
-    List<CreditTransaction> findRecentByCustomer(
+    @Query(SUMMARY_SELECT + "WHERE c.id = :customerId ORDER BY ct.createdAt DESC")
+    List<SummaryView> findRecentByCustomer(
             @Param("customerId") UUID customerId,
             Pageable pageable
     );
@@ -130,11 +177,7 @@ public interface CreditTransactionRepository extends JpaRepository<CreditTransac
     /**
      * Search transactions across multiple fields
      */
-    @Query("SELECT ct FROM CreditTransaction ct WHERE " +
-            "LOWER(ct.transactionNumber) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(ct.customer.code) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(ct.customer.companyName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(ct.performedBy) LIKE LOWER(CONCAT('%', :query, '%')) " +
-            "ORDER BY ct.createdAt DESC")
-    Page<CreditTransaction> searchTransactions(@Param("query") String query, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + SEARCH_CONDITION + "ORDER BY ct.createdAt DESC",
+            countQuery = "SELECT COUNT(ct) FROM CreditTransaction ct JOIN ct.customer c " + SEARCH_CONDITION)
+    Page<SummaryView> searchTransactions(@Param("query") String query, Pageable pageable);
 }
@@ -0,0 +1,46 @@
+package lt.elektromeistras.repository;
+
+import lt.elektromeistras.domain.CustomerBalanceEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for the append-only customer balance ledger
+ */
+@Repository
+public interface CustomerBalanceEntryRepository extends JpaRepository<CustomerBalanceEntry, UUID> {
+
+    /**
+     * A customer whose stored balance differs from the sum of its ledger entries
+     */
+    interface BalanceMismatchView {
+        UUID getCustomerId();
+        String getCode();
+        BigDecimal getCurrentBalance();
+        BigDecimal getLedgerBalance();
+    }
+
+    Page<CustomerBalanceEntry> findByCustomerIdOrderByCreatedAtDesc(UUID customerId, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM CustomerBalanceEntry e WHERE e.customerId = :customerId")
+    BigDecimal sumByCustomerId(@Param("customerId") UUID customerId);
+
+    /**
+     * Customers whose balance is not the sum of their entries - one grouped statement, so the
+     * balance and the entries are read from the same snapshot
+     */
+    @Query("SELECT c.id AS customerId, c.code AS code, c.currentBalance AS currentBalance, " +
+           "COALESCE(SUM(e.amount), 0) AS ledgerBalance " +
+           "FROM Customer c LEFT JOIN CustomerBalanceEntry e ON e.customerId = c.id " +
+           "GROUP BY c.id, c.code, c.currentBalance " +
+           "HAVING c.currentBalance <> COALESCE(SUM(e.amount), 0)")
+    List<BalanceMismatchView> findBalanceMismatches();
+}
@@ -4,10 +4,12 @@ import lt.elektromeistras.domain.Customer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -65,20 +67,52 @@ public interface CustomerRepository extends JpaRepository<Customer, UUID> {
     List<Customer> searchCustomers(@Param("query") String query);
 
     /**
-     * FAST customer search with pagination
+     * Ranked customer search for autocomplete - served by the pg_trgm GIN indexes on the
+     * normalized and phone digit columns (changelog 024), plain scan on H2.
+     * Ranking: exact code, code prefix, a word or phone starting with the query, other matches -
+     * then by company and last name. The limit is applied in the database.
+     *
+     * @param query Normalized search text (see Customer.normalizeSearchText)
+     * @param pattern '%query%' with LIKE wildcards in the query escaped
+     * @param prefixPattern 'query%' with LIKE wildcards in the query escaped
+     * @param wordPrefixPattern '% query%' with LIKE wildcards in the query escaped
+     * @param phonePattern '%digits%' for phone-like queries, otherwise '' (matches nothing -
+     *                     the column is null rather than empty)
+     * @param phonePrefixPattern 'digits%' for phone-like queries, otherwise ''
+     */
+    @Query(value = "SELECT c.* FROM customers c WHERE " +
+            "c.is_active = true AND (" +
+            "c.search_normalized LIKE :pattern ESCAPE '\\' OR " +
+            "c.search_phone_digits LIKE :phonePattern" +
+            ") ORDER BY " +
+            "CASE WHEN LOWER(c.code) = :query THEN 1 " +
+            "WHEN LOWER(c.code) LIKE :prefixPattern ESCAPE '\\' THEN 2 " +
+            "WHEN c.search_normalized LIKE :wordPrefixPattern ESCAPE '\\' THEN 3 " +
+            "WHEN c.search_phone_digits LIKE :phonePrefixPattern THEN 3 " +
+            "ELSE 4 END, c.company_name, c.last_name " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Customer> searchCustomersRanked(@Param("query") String query,
+                                         @Param("pattern") String pattern,
+                                         @Param("prefixPattern") String prefixPattern,
+                                         @Param("wordPrefixPattern") String wordPrefixPattern,
+                                         @Param("phonePattern") String phonePattern,
+                                         @Param("phonePrefixPattern") String phonePrefixPattern,
+                                         @Param("limit") int limit);
+
+    /**
+     * FAST customer search with pagination - on the normalized search columns
+     *
+     * @param pattern '%query%' on the normalized query with LIKE wildcards escaped
+     * @param phonePattern '%digits%' for phone-like queries, otherwise ''
      */
     @Query("SELECT c FROM Customer c WHERE " +
             "c.isActive = true AND (" +
-            "LOWER(c.code) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(c.companyName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(c.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(c.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(c.email) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(c.phone) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(c.mobile) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(c.vatCode) LIKE LOWER(CONCAT('%', :query, '%'))" +
+            "c.searchNormalized LIKE :pattern ESCAPE '\\' OR " +
+            "c.searchPhoneDigits LIKE :phonePattern" +
             ")")
-    Page<Customer> searchCustomers(@Param("query") String query, Pageable pageable);
+    Page<Customer> searchCustomers(@Param("pattern") String pattern,
+                                   @Param("phonePattern") String phonePattern,
+                                   Pageable pageable);
 
     /**
      * Search customers by code prefix - optimized for dropdown
@@ -89,8 +123,23 @@ public interface CustomerRepository extends JpaRepository<Customer, UUID> {
             "ORDER BY c.code")
     List<Customer> findByCodeStartingWith(@Param("codePrefix") String codePrefix);
 
+    /**
+     * Add a signed amount to the balance in the database - concurrent changes of the same
+     * customer cannot overwrite each other. Returns the affected row count.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Customer c SET c.currentBalance = c.currentBalance + :amount WHERE c.id = :customerId")
+    int addToBalance(@Param("customerId") UUID customerId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Current balance as stored, bypassing customers already loaded in the persistence context
+     */
+    @Query("SELECT c.currentBalance FROM Customer c WHERE c.id = :customerId")
+    Optional<BigDecimal> findCurrentBalance(@Param("customerId") UUID customerId);
+
     /**
      * Get customers with overdue balance (current balance > credit limit)
+     * Served by the partial index idx_customer_over_credit_limit on PostgreSQL (changelog 025)
      */
     @Query("SELECT c FROM Customer c WHERE " +
             "c.isActive = true AND " +
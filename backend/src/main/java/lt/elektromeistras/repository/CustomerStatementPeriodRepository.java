@@ -0,0 +1,90 @@
+package lt.elektromeistras.repository;
+
+import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.domain.CustomerStatementPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for CustomerStatementPeriod - the monthly statement snapshot.
+ * Periods are compared as periodYear * 12 + periodMonth.
+ */
+@Repository
+public interface CustomerStatementPeriodRepository extends JpaRepository<CustomerStatementPeriod, UUID> {
+
+    /**
+     * Statement totals of a customer together with the customer fields printed on the statement
+     */
+    interface StatementView {
+        UUID getCustomerId();
+        String getCode();
+        Customer.CustomerType getCustomerType();
+        String getCompanyName();
+        String getFirstName();
+        String getLastName();
+        String getVatCode();
+        Integer getPeriodYear();
+        Integer getPeriodMonth();
+        BigDecimal getOpeningBalance();
+        BigDecimal getPickupsAmount();
+        BigDecimal getReturnsAmount();
+        BigDecimal getAdjustmentsAmount();
+        BigDecimal getClosingBalance();
+        Integer getPickupCount();
+        Integer getReturnCount();
+    }
+
+    /**
+     * Add a ledger entry to a customer's month and set its closing balance.
+     * Returns the affected row count; 0 means the month has no row yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CustomerStatementPeriod s SET s.pickupsAmount = s.pickupsAmount + :pickups, " +
+           "s.returnsAmount = s.returnsAmount + :returns, s.adjustmentsAmount = s.adjustmentsAmount + :adjustments, " +
+           "s.pickupCount = s.pickupCount + :pickupCount, s.returnCount = s.returnCount + :returnCount, " +
+           "s.closingBalance = :closingBalance, s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.customerId = :customerId AND s.periodYear = :year AND s.periodMonth = :month")
+    int addToPeriod(@Param("customerId") UUID customerId,
+                    @Param("year") int year,
+                    @Param("month") int month,
+                    @Param("pickups") BigDecimal pickups,
+                    @Param("returns") BigDecimal returns,
+                    @Param("adjustments") BigDecimal adjustments,
+                    @Param("pickupCount") int pickupCount,
+                    @Param("returnCount") int returnCount,
+                    @Param("closingBalance") BigDecimal closingBalance);
+
+    /**
+     * Customers with any statement row up to the period, in statement order
+     */
+    @Query("SELECT c.id FROM Customer c WHERE EXISTS (SELECT 1 FROM CustomerStatementPeriod s " +
+           "WHERE s.customerId = c.id AND s.periodYear * 12 + s.periodMonth <= :periodIndex) " +
+           "ORDER BY c.code")
+    List<UUID> findCustomerIdsUpTo(@Param("periodIndex") int periodIndex);
+
+    /**
+     * Latest statement row of each customer up to the period - the period's own row, or the
+     * last earlier one when the customer had no activity in the period
+     */
+    @Query("SELECT s.customerId AS customerId, c.code AS code, c.customerType AS customerType, " +
+           "c.companyName AS companyName, c.firstName AS firstName, c.lastName AS lastName, c.vatCode AS vatCode, " +
+           "s.periodYear AS periodYear, s.periodMonth AS periodMonth, s.openingBalance AS openingBalance, " +
+           "s.pickupsAmount AS pickupsAmount, s.returnsAmount AS returnsAmount, " +
+           "s.adjustmentsAmount AS adjustmentsAmount, s.closingBalance AS closingBalance, " +
+           "s.pickupCount AS pickupCount, s.returnCount AS returnCount " +
+           "FROM CustomerStatementPeriod s JOIN Customer c ON c.id = s.customerId " +
+           "WHERE s.customerId IN :customerIds AND s.periodYear * 12 + s.periodMonth = " +
+           "(SELECT MAX(p.periodYear * 12 + p.periodMonth) FROM CustomerStatementPeriod p " +
+           "WHERE p.customerId = s.customerId AND p.periodYear * 12 + p.periodMonth <= :periodIndex) " +
+           "ORDER BY c.code")
+    List<StatementView> findLatestUpTo(@Param("customerIds") Collection<UUID> customerIds,
+                                       @Param("periodIndex") int periodIndex);
+}
@@ -0,0 +1,53 @@
+package lt.elektromeistras.repository;
+
+import jakarta.persistence.LockModeType;
+import lt.elektromeistras.domain.GLAccountBalanceDelta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for GLAccountBalanceDelta stripes
+ */
+@Repository
+public interface GLAccountBalanceDeltaRepository extends JpaRepository<GLAccountBalanceDelta, UUID> {
+
+    /**
+     * Add a signed delta to one stripe of an account.
+     * Returns the affected row count; 0 means the stripe does not exist yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE GLAccountBalanceDelta d SET d.delta = d.delta + :delta, d.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE d.glAccount.id = :accountId AND d.stripe = :stripe")
+    int addToStripe(@Param("accountId") UUID accountId, @Param("stripe") int stripe, @Param("delta") BigDecimal delta);
+
+    /**
+     * Subtract the amount the compactor folded into the base balance. Deltas added to the
+     * stripe since it was read are kept.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE GLAccountBalanceDelta d SET d.delta = d.delta - :amount, d.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE d.id = :id")
+    int subtractFromStripe(@Param("id") UUID id, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT d.stripe FROM GLAccountBalanceDelta d WHERE d.glAccount.id = :accountId")
+    List<Integer> findStripeNumbers(@Param("accountId") UUID accountId);
+
+    @Query("SELECT DISTINCT d.glAccount.id FROM GLAccountBalanceDelta d WHERE d.delta <> 0")
+    List<UUID> findAccountIdsWithPendingDeltas();
+
+    /**
+     * Pending stripes of an account, locked until the compaction transaction ends - a second
+     * compactor waits and then sees the stripes already folded
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM GLAccountBalanceDelta d WHERE d.glAccount.id = :accountId AND d.delta <> 0 ORDER BY d.stripe")
+    List<GLAccountBalanceDelta> findPendingByAccountId(@Param("accountId") UUID accountId);
+}
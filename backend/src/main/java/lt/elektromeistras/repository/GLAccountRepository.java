@@ -2,8 +2,12 @@ package lt.elektromeistras.repository;
 
 import lt.elektromeistras.domain.GLAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,4 +30,13 @@ public interface GLAccountRepository extends JpaRepository<GLAccount, UUID> {
     List<GLAccount> findByAllowDirectPostingTrue();
 
     boolean existsByCode(String code);
+
+    /**
+     * Add a signed delta to the compacted base balance - used by the balance compactor.
+     * Returns the affected row count; 0 means the account does not exist.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE GLAccount a SET a.baseBalance = COALESCE(a.baseBalance, 0) + :delta, " +
+           "a.updatedAt = CURRENT_TIMESTAMP WHERE a.id = :id")
+    int addToBaseBalance(@Param("id") UUID id, @Param("delta") BigDecimal delta);
 }
@@ -0,0 +1,102 @@
+package lt.elektromeistras.repository;
+
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.domain.GLPeriodBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for GLPeriodBalance - the trial balance cube
+ */
+@Repository
+public interface GLPeriodBalanceRepository extends JpaRepository<GLPeriodBalance, UUID> {
+
+    /**
+     * Posted totals of one account in one period
+     */
+    interface PeriodTotalView {
+        UUID getGlAccountId();
+        String getCode();
+        String getName();
+        GLAccount.AccountType getAccountType();
+        GLAccount.NormalBalance getNormalBalance();
+        UUID getBudgetPeriodId();
+        String getBudgetPeriodCode();
+        BigDecimal getDebitTotal();
+        BigDecimal getCreditTotal();
+    }
+
+    /**
+     * Grouped journal entry lines of a period, in the shape of the cube rows - used by rebuild
+     */
+    interface LineTotalView {
+        UUID getGlAccountId();
+        UUID getDepartmentId();
+        UUID getCostCenterId();
+        UUID getBusinessObjectId();
+        BigDecimal getDebitTotal();
+        BigDecimal getCreditTotal();
+    }
+
+    /**
+     * Add posted amounts to one cube row.
+     * Returns the affected row count; 0 means the row does not exist yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE GLPeriodBalance b SET b.debitTotal = b.debitTotal + :debit, " +
+           "b.creditTotal = b.creditTotal + :credit, b.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE b.glAccount.id = :accountId AND b.budgetPeriod.id = :periodId AND b.dimensionKey = :dimensionKey")
+    int addToBalance(@Param("accountId") UUID accountId,
+                     @Param("periodId") UUID periodId,
+                     @Param("dimensionKey") String dimensionKey,
+                     @Param("debit") BigDecimal debit,
+                     @Param("credit") BigDecimal credit);
+
+    /**
+     * Trial balance of a period - one row per account with postings
+     */
+    @Query("SELECT a.id AS glAccountId, a.code AS code, a.name AS name, a.accountType AS accountType, " +
+           "a.normalBalance AS normalBalance, p.id AS budgetPeriodId, p.code AS budgetPeriodCode, " +
+           "SUM(b.debitTotal) AS debitTotal, SUM(b.creditTotal) AS creditTotal " +
+           "FROM GLPeriodBalance b JOIN b.glAccount a JOIN b.budgetPeriod p " +
+           "WHERE p.id = :periodId " +
+           "GROUP BY a.id, a.code, a.name, a.accountType, a.normalBalance, p.id, p.code " +
+           "ORDER BY a.code")
+    List<PeriodTotalView> findTrialBalance(@Param("periodId") UUID periodId);
+
+    /**
+     * Totals of one account per period
+     */
+    @Query("SELECT a.id AS glAccountId, a.code AS code, a.name AS name, a.accountType AS accountType, " +
+           "a.normalBalance AS normalBalance, p.id AS budgetPeriodId, p.code AS budgetPeriodCode, " +
+           "SUM(b.debitTotal) AS debitTotal, SUM(b.creditTotal) AS creditTotal " +
+           "FROM GLPeriodBalance b JOIN b.glAccount a JOIN b.budgetPeriod p " +
+           "WHERE a.id = :accountId " +
+           "GROUP BY a.id, a.code, a.name, a.accountType, a.normalBalance, p.id, p.code, p.startDate " +
+           "ORDER BY p.startDate")
+    List<PeriodTotalView> findAccountPeriodTotals(@Param("accountId") UUID accountId);
+
+    /**
+     * Journal entry lines of a period grouped like the cube - the source of a rebuild.
+     * REVERSED entries count too: their postings stay in the ledger and are offset by the
+     * POSTED reversal entry.
+     */
+    @Query("SELECT l.glAccount.id AS glAccountId, d.id AS departmentId, c.id AS costCenterId, " +
+           "o.id AS businessObjectId, SUM(l.debitAmount) AS debitTotal, SUM(l.creditAmount) AS creditTotal " +
+           "FROM JournalEntryLine l JOIN l.journalEntry e " +
+           "LEFT JOIN l.department d LEFT JOIN l.costCenter c LEFT JOIN l.businessObject o " +
+           "WHERE e.status IN ('POSTED', 'REVERSED') AND e.budgetPeriod.id = :periodId " +
+           "GROUP BY l.glAccount.id, d.id, c.id, o.id")
+    List<LineTotalView> sumPostedLinesByPeriod(@Param("periodId") UUID periodId);
+
+    @Modifying
+    @Query("DELETE FROM GLPeriodBalance b WHERE b.budgetPeriod.id = :periodId")
+    int deleteByPeriodId(@Param("periodId") UUID periodId);
+}
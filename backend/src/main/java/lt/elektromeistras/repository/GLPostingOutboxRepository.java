@@ -0,0 +1,43 @@
+package lt.elektromeistras.repository;
+
+import jakarta.persistence.LockModeType;
+import lt.elektromeistras.domain.GLPostingOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for GL posting outbox events
+ */
+@Repository
+public interface GLPostingOutboxRepository extends JpaRepository<GLPostingOutboxEvent, UUID> {
+
+    /**
+     * Ids of pending events whose next attempt is due, oldest first
+     */
+    @Query("SELECT e.id FROM GLPostingOutboxEvent e " +
+           "WHERE e.status = lt.elektromeistras.domain.GLPostingOutboxEvent.OutboxStatus.PENDING " +
+           "AND e.nextAttemptAt <= :now ORDER BY e.createdAt")
+    List<UUID> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Load an event for posting. The row lock keeps two pollers from posting the same event.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM GLPostingOutboxEvent e WHERE e.id = :id")
+    Optional<GLPostingOutboxEvent> findByIdForUpdate(@Param("id") UUID id);
+
+    List<GLPostingOutboxEvent> findByStatusOrderByUpdatedAtDesc(GLPostingOutboxEvent.OutboxStatus status);
+
+    long countByStatus(GLPostingOutboxEvent.OutboxStatus status);
+
+    boolean existsByEventTypeAndSourceDocumentId(GLPostingOutboxEvent.EventType eventType, UUID sourceDocumentId);
+}
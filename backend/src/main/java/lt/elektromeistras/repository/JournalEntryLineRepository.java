@@ -5,8 +5,13 @@ import lt.elektromeistras.domain.GLAccount;
 import lt.elektromeistras.domain.JournalEntry;
 import lt.elektromeistras.domain.JournalEntryLine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,4 +23,30 @@ public interface JournalEntryLineRepository extends JpaRepository<JournalEntryLi
     List<JournalEntryLine> findByGlAccount(GLAccount glAccount);
 
     List<JournalEntryLine> findByDepartment(Department department);
+
+    /**
+     * Net posted amount per account, department and cost center
+     */
+    interface AccountActualView {
+        UUID getGlAccountId();
+        UUID getDepartmentId();
+        UUID getCostCenterId();
+        BigDecimal getNetAmount();
+    }
+
+    /**
+     * Sum debit - credit of POSTED entries in the date range, grouped by account and the
+     * dimensions budget lines are matched on - one aggregate instead of loading every line
+     */
+    @Query("SELECT l.glAccount.id AS glAccountId, d.id AS departmentId, c.id AS costCenterId, " +
+           "SUM(l.debitAmount - l.creditAmount) AS netAmount " +
+           "FROM JournalEntryLine l JOIN l.journalEntry e " +
+           "LEFT JOIN l.department d LEFT JOIN l.costCenter c " +
+           "WHERE e.status = 'POSTED' " +
+           "AND e.entryDate BETWEEN :startDate AND :endDate " +
+           "AND l.glAccount.id IN :glAccountIds " +
+           "GROUP BY l.glAccount.id, d.id, c.id")
+    List<AccountActualView> sumPostedAmounts(@Param("glAccountIds") Collection<UUID> glAccountIds,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
 }
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,11 +34,30 @@ public interface JournalEntryRepository extends JpaRepository<JournalEntry, UUID
             @Param("endDate") LocalDate endDate
     );
 
-    @Query("SELECT je FROM JournalEntry je WHERE je.sourceType = :sourceType AND je.sourceDocumentId = :sourceDocumentId")
+    /**
+     * Entries posting a source document - its own entries and summarized entries linking it
+     */
+    @Query("SELECT je FROM JournalEntry je WHERE je.sourceType = :sourceType AND (je.sourceDocumentId = :sourceDocumentId " +
+           "OR EXISTS (SELECT d FROM JournalEntrySourceDocument d WHERE d.journalEntry = je " +
+           "AND d.sourceType = :sourceType AND d.sourceDocumentId = :sourceDocumentId))")
     List<JournalEntry> findBySourceDocument(
             @Param("sourceType") JournalEntry.SourceType sourceType,
             @Param("sourceDocumentId") UUID sourceDocumentId
     );
 
     boolean existsByEntryNumber(String entryNumber);
+
+    /**
+     * Which of the given documents already have an entry of their own
+     */
+    @Query("SELECT je.sourceDocumentId FROM JournalEntry je " +
+           "WHERE je.sourceType = :sourceType AND je.sourceDocumentId IN :sourceDocumentIds")
+    List<UUID> findPostedSourceDocumentIds(@Param("sourceType") JournalEntry.SourceType sourceType,
+                                           @Param("sourceDocumentIds") Collection<UUID> sourceDocumentIds);
+
+    /**
+     * Which of the given entry numbers are already taken - one IN query per import batch
+     */
+    @Query("SELECT je.entryNumber FROM JournalEntry je WHERE je.entryNumber IN :entryNumbers")
+    List<String> findExistingEntryNumbers(@Param("entryNumbers") Collection<String> entryNumbers);
 }
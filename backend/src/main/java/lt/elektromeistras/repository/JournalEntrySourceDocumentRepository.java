@@ -0,0 +1,31 @@
+package lt.elektromeistras.repository;
+
+import lt.elektromeistras.domain.JournalEntry;
+import lt.elektromeistras.domain.JournalEntrySourceDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for source document links of summarized journal entries
+ */
+@Repository
+public interface JournalEntrySourceDocumentRepository extends JpaRepository<JournalEntrySourceDocument, UUID> {
+
+    @Query("SELECT d FROM JournalEntrySourceDocument d WHERE d.journalEntry.id = :journalEntryId " +
+           "ORDER BY d.sourceDocumentNumber")
+    List<JournalEntrySourceDocument> findByJournalEntryId(@Param("journalEntryId") UUID journalEntryId);
+
+    /**
+     * Which of the given documents are already part of a summarized entry
+     */
+    @Query("SELECT d.sourceDocumentId FROM JournalEntrySourceDocument d " +
+           "WHERE d.sourceType = :sourceType AND d.sourceDocumentId IN :sourceDocumentIds")
+    List<UUID> findLinkedDocumentIds(@Param("sourceType") JournalEntry.SourceType sourceType,
+                                     @Param("sourceDocumentIds") Collection<UUID> sourceDocumentIds);
+}
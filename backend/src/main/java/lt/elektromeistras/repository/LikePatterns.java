@@ -0,0 +1,19 @@
+package lt.elektromeistras.repository;
+
+/**
+ * LIKE patterns built from user input, for queries declaring ESCAPE '\'
+ */
+public final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Escape LIKE wildcards so "%" or "_" typed by the user match literally
+     */
+    public static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -1,14 +1,17 @@
 package lt.elektromeistras.repository;
 
+import jakarta.persistence.LockModeType;
 import lt.elektromeistras.domain.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -89,4 +92,29 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             "o.paymentStatus IN ('UNPAID', 'PARTIAL') " +
             "ORDER BY o.orderDate DESC")
     List<Order> findUnpaidOrdersByCustomerId(@Param("customerId") UUID customerId);
+
+    /**
+     * Ids of COMPLETED orders dated in [from, to) that have not been posted to GL yet,
+     * neither by an entry of their own nor as part of a summarized entry
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'COMPLETED' " +
+            "AND o.orderDate >= :from AND o.orderDate < :to " +
+            "AND NOT EXISTS (SELECT je FROM JournalEntry je WHERE je.sourceType = 'ORDER' AND je.sourceDocumentId = o.id) " +
+            "AND NOT EXISTS (SELECT d FROM JournalEntrySourceDocument d WHERE d.sourceType = 'ORDER' AND d.sourceDocumentId = o.id) " +
+            "ORDER BY o.orderNumber")
+    List<UUID> findUnpostedCompletedOrderIds(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Find an order and lock its row - GL postings of an order take this lock before checking
+     * whether the order is already posted, so two posters cannot both post it
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Lock the rows of the orders in id order, for a posting that covers many orders at once
+     */
+    @Query(value = "SELECT id FROM orders WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<UUID> lockByIds(@Param("ids") Collection<UUID> ids);
 }
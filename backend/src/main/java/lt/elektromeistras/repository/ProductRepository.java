@@ -1,16 +1,23 @@
 package lt.elektromeistras.repository;
 
+import jakarta.persistence.QueryHint;
 import lt.elektromeistras.domain.Product;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
@@ -20,6 +27,11 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
      */
     Optional<Product> findByCode(String code);
 
+    /**
+     * Find products by codes - one query per import batch instead of one per row
+     */
+    List<Product> findByCodeIn(Collection<String> codes);
+
     /**
      * Find product by SKU
      */
@@ -55,16 +67,47 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     List<Product> searchProducts(@Param("query") String query);
 
     /**
-     * FAST product search with pagination
+     * Ranked product search for autocomplete - served by the pg_trgm GIN indexes on
+     * LOWER(code/sku/name/ean) (changelog 017), plain scan on H2.
+     * Ranking: exact code, code prefix, exact SKU, exact EAN, other matches - then by name.
+     * The limit is applied in the database instead of loading every match.
+     *
+     * @param query Lower-cased search text
+     * @param pattern Lower-cased '%query%' with LIKE wildcards in the query escaped
+     * @param prefixPattern Lower-cased 'query%' with LIKE wildcards in the query escaped
+     */
+    @Query(value = "SELECT p.* FROM products p WHERE " +
+            "p.is_active = true AND (" +
+            "LOWER(p.code) LIKE :pattern ESCAPE '\\' OR " +
+            "LOWER(p.sku) LIKE :pattern ESCAPE '\\' OR " +
+            "LOWER(p.name) LIKE :pattern ESCAPE '\\' OR " +
+            "LOWER(p.ean) LIKE :pattern ESCAPE '\\'" +
+            ") ORDER BY " +
+            "CASE WHEN LOWER(p.code) = :query THEN 1 " +
+            "WHEN LOWER(p.code) LIKE :prefixPattern ESCAPE '\\' THEN 2 " +
+            "WHEN LOWER(p.sku) = :query THEN 3 " +
+            "WHEN LOWER(p.ean) = :query THEN 4 " +
+            "ELSE 5 END, p.name " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Product> searchProductsRanked(@Param("query") String query,
+                                       @Param("pattern") String pattern,
+                                       @Param("prefixPattern") String prefixPattern,
+                                       @Param("limit") int limit);
+
+    /**
+     * FAST product search with pagination - same predicates as searchProductsRanked, so the
+     * pg_trgm GIN indexes on LOWER(code/sku/name/ean) serve it as well
+     *
+     * @param pattern Lower-cased '%query%' with LIKE wildcards in the query escaped
      */
     @Query("SELECT p FROM Product p WHERE " +
             "p.isActive = true AND (" +
-            "LOWER(p.code) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(p.sku) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(p.ean) LIKE LOWER(CONCAT('%', :query, '%'))" +
+            "LOWER(p.code) LIKE :pattern ESCAPE '\\' OR " +
+            "LOWER(p.sku) LIKE :pattern ESCAPE '\\' OR " +
+            "LOWER(p.name) LIKE :pattern ESCAPE '\\' OR " +
+            "LOWER(p.ean) LIKE :pattern ESCAPE '\\'" +
             ")")
-    Page<Product> searchProducts(@Param("query") String query, Pageable pageable);
+    Page<Product> searchProducts(@Param("pattern") String pattern, Pageable pageable);
 
     /**
      * Search products starting with code - OPTIMIZED for direct code entry like "0010006"
@@ -97,4 +140,31 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
      */
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.minStockLevel IS NOT NULL")
     List<Product> findLowStockProducts();
+
+    /**
+     * Fields kept by ProductLookupIndex for code/SKU/EAN entry
+     */
+    interface ProductLookupView {
+        UUID getId();
+        String getCode();
+        String getSku();
+        String getEan();
+        String getName();
+        String getUnitOfMeasure();
+        BigDecimal getBasePrice();
+        BigDecimal getTaxRate();
+        Boolean getIsCable();
+        Boolean getIsActive();
+        Instant getUpdatedAt();
+    }
+
+    /**
+     * Lookup fields of every product, streamed for building ProductLookupIndex.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id AS id, p.code AS code, p.sku AS sku, p.ean AS ean, p.name AS name, " +
+           "p.unitOfMeasure AS unitOfMeasure, p.basePrice AS basePrice, p.taxRate AS taxRate, " +
+           "p.isCable AS isCable, p.isActive AS isActive, p.updatedAt AS updatedAt FROM Product p")
+    Stream<ProductLookupView> streamLookupViews();
 }
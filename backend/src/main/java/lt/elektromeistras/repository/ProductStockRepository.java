@@ -3,20 +3,28 @@ package lt.elektromeistras.repository;
 import lt.elektromeistras.domain.Product;
 import lt.elektromeistras.domain.ProductStock;
 import lt.elektromeistras.domain.Warehouse;
+import jakarta.persistence.QueryHint;
+import lt.elektromeistras.domain.WarehouseLocation;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for ProductStock entity operations.
  */
 @Repository
-public interface ProductStockRepository extends JpaRepository<ProductStock, UUID> {
+public interface ProductStockRepository extends JpaRepository<ProductStock, UUID>, ProductStockRepositoryCustom {
 
     /**
      * Find stock by product and warehouse
@@ -87,4 +95,105 @@ public interface ProductStockRepository extends JpaRepository<ProductStock, UUID
     @Query("SELECT ps FROM ProductStock ps WHERE ps.warehouse.id = :warehouseId AND ps.product.code = :productCode")
     Optional<ProductStock> findByWarehouseIdAndProductCode(@Param("warehouseId") UUID warehouseId,
                                                              @Param("productCode") String productCode);
+
+    /**
+     * Find stock for a set of products in one warehouse - single query for batch reservation
+     * @param warehouseId Warehouse UUID
+     * @param productIds Product UUIDs
+     * @return List of stock records with products fetched
+     */
+    @Query("SELECT ps FROM ProductStock ps JOIN FETCH ps.product " +
+           "WHERE ps.warehouse.id = :warehouseId AND ps.product.id IN :productIds")
+    List<ProductStock> findByWarehouseIdAndProductIdIn(@Param("warehouseId") UUID warehouseId,
+                                                       @Param("productIds") Collection<UUID> productIds);
+
+    /**
+     * Quantities of one product/warehouse pair summed over all locations
+     */
+    interface StockQuantityView {
+        UUID getProductId();
+        UUID getWarehouseId();
+        BigDecimal getQuantity();
+        BigDecimal getReservedQuantity();
+    }
+
+    /**
+     * Summed quantities for one product in one warehouse
+     */
+    @Query("SELECT ps.product.id AS productId, ps.warehouse.id AS warehouseId, " +
+           "SUM(ps.quantity) AS quantity, SUM(ps.reservedQuantity) AS reservedQuantity " +
+           "FROM ProductStock ps WHERE ps.product.id = :productId AND ps.warehouse.id = :warehouseId " +
+           "GROUP BY ps.product.id, ps.warehouse.id")
+    Optional<StockQuantityView> sumQuantities(@Param("productId") UUID productId,
+                                              @Param("warehouseId") UUID warehouseId);
+
+    /**
+     * Stream summed quantities of all product/warehouse pairs in one scan - used to warm caches.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT ps.product.id AS productId, ps.warehouse.id AS warehouseId, " +
+           "SUM(ps.quantity) AS quantity, SUM(ps.reservedQuantity) AS reservedQuantity " +
+           "FROM ProductStock ps GROUP BY ps.product.id, ps.warehouse.id")
+    Stream<StockQuantityView> streamAllQuantities();
+
+    // Atomic delta operations - the database applies the change, so concurrent
+    // updates of the same row cannot overwrite each other. Each returns the affected row count;
+    // 0 means the row is missing or its guard was not met.
+
+    /**
+     * Reserve quantity if enough stock is available (quantity - reserved >= qty)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductStock ps SET ps.reservedQuantity = ps.reservedQuantity + :qty, " +
+           "ps.version = ps.version + 1, ps.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE ps.id = :id AND ps.quantity - ps.reservedQuantity >= :qty")
+    int incrementReserved(@Param("id") UUID id, @Param("qty") BigDecimal qty);
+
+    /**
+     * Release previously reserved quantity (never below zero)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductStock ps SET ps.reservedQuantity = ps.reservedQuantity - :qty, " +
+           "ps.version = ps.version + 1, ps.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE ps.id = :id AND ps.reservedQuantity >= :qty")
+    int decrementReserved(@Param("id") UUID id, @Param("qty") BigDecimal qty);
+
+    /**
+     * Ship reserved quantity: reduce both quantity and reserved quantity
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductStock ps SET ps.quantity = ps.quantity - :qty, " +
+           "ps.reservedQuantity = ps.reservedQuantity - :qty, " +
+           "ps.version = ps.version + 1, ps.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE ps.id = :id AND ps.quantity >= :qty AND ps.reservedQuantity >= :qty")
+    int decrementQuantity(@Param("id") UUID id, @Param("qty") BigDecimal qty);
+
+    /**
+     * Adjust on-hand quantity by a signed delta without going below the reserved quantity
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductStock ps SET ps.quantity = ps.quantity + :delta, " +
+           "ps.version = ps.version + 1, ps.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE ps.id = :id AND ps.quantity + :delta >= ps.reservedQuantity")
+    int adjustQuantity(@Param("id") UUID id, @Param("delta") BigDecimal delta);
+
+    /**
+     * Add quantity back to stock and move it to a warehouse location
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductStock ps SET ps.quantity = ps.quantity + :qty, ps.location = :location, " +
+           "ps.version = ps.version + 1, ps.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE ps.id = :id")
+    int incrementQuantityAtLocation(@Param("id") UUID id, @Param("qty") BigDecimal qty,
+                                    @Param("location") WarehouseLocation location);
+
+    /**
+     * Reduce the remaining length of a cable roll
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductStock ps SET ps.rollCurrentLength = ps.rollCurrentLength - :length, " +
+           "ps.version = ps.version + 1, ps.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE ps.id = :id AND ps.rollCurrentLength IS NOT NULL")
+    int decrementRollLength(@Param("id") UUID id, @Param("length") BigDecimal length);
 }
@@ -0,0 +1,41 @@
+package lt.elektromeistras.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based stock operations that are executed with JDBC batching instead of
+ * one entity load and save per row.
+ */
+public interface ProductStockRepositoryCustom {
+
+    /**
+     * Reserve quantities on several stock rows in one batched round trip.
+     * Each row is only updated if its available quantity (quantity - reserved) covers the request.
+     *
+     * @param quantitiesByStockId Quantity to reserve keyed by stock record ID
+     * @return IDs of stock records that could not be reserved (insufficient available quantity)
+     */
+    Set<UUID> reserveAll(Map<UUID, BigDecimal> quantitiesByStockId);
+
+    /**
+     * Apply signed quantity changes to several stock rows in one batched round trip, in the
+     * order given. Like {@link ProductStockRepository#adjustQuantity}, a change is only applied
+     * if the quantity stays at or above the reserved quantity.
+     *
+     * @param adjustments Quantity changes and counted values to apply
+     * @return Adjustments that were not applied (missing row or quantity would drop below reserved)
+     */
+    List<QuantityAdjustment> adjustAll(List<QuantityAdjustment> adjustments);
+
+    /**
+     * Signed quantity change of one stock row together with the count it comes from
+     */
+    record QuantityAdjustment(UUID stockId, BigDecimal delta, LocalDateTime lastCountedDate,
+                              BigDecimal lastCountedQuantity) {
+    }
+}
@@ -0,0 +1,85 @@
+package lt.elektromeistras.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * JDBC implementation of {@link ProductStockRepositoryCustom}.
+ * Participates in the surrounding JPA transaction through the shared DataSource.
+ */
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepositoryCustom {
+
+    private static final String RESERVE_SQL =
+            "UPDATE product_stock SET reserved_quantity = reserved_quantity + ?, version = version + 1, updated_at = ? " +
+            "WHERE id = ? AND quantity - reserved_quantity >= ?";
+
+    private static final String ADJUST_SQL =
+            "UPDATE product_stock SET quantity = quantity + ?, last_counted_date = ?, last_counted_quantity = ?, " +
+            "version = version + 1, updated_at = ? " +
+            "WHERE id = ? AND quantity + ? >= reserved_quantity";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<UUID> reserveAll(Map<UUID, BigDecimal> quantitiesByStockId) {
+        if (quantitiesByStockId.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        // Lock rows in a stable order so concurrent orders with overlapping products cannot deadlock
+        List<UUID> stockIds = new ArrayList<>(quantitiesByStockId.keySet());
+        Collections.sort(stockIds);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(stockIds.size());
+        for (UUID stockId : stockIds) {
+            BigDecimal quantity = quantitiesByStockId.get(stockId);
+            batchArgs.add(new Object[]{quantity, now, stockId, quantity});
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, batchArgs);
+
+        Set<UUID> rejected = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(stockIds.get(i));
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public List<QuantityAdjustment> adjustAll(List<QuantityAdjustment> adjustments) {
+        if (adjustments.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Stable sort: rows are locked in ID order, changes of the same row keep their order
+        List<QuantityAdjustment> ordered = new ArrayList<>(adjustments);
+        ordered.sort(Comparator.comparing(QuantityAdjustment::stockId));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(ordered.size());
+        for (QuantityAdjustment adjustment : ordered) {
+            Timestamp countedDate = adjustment.lastCountedDate() != null
+                    ? Timestamp.valueOf(adjustment.lastCountedDate())
+                    : null;
+            batchArgs.add(new Object[]{adjustment.delta(), countedDate, adjustment.lastCountedQuantity(), now,
+                    adjustment.stockId(), adjustment.delta()});
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(ADJUST_SQL, batchArgs);
+
+        List<QuantityAdjustment> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(ordered.get(i));
+            }
+        }
+        return rejected;
+    }
+}
@@ -2,6 +2,9 @@ package lt.elektromeistras.repository;
 
 import lt.elektromeistras.domain.Series;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -18,4 +21,17 @@ public interface SeriesRepository extends JpaRepository<Series, UUID> {
     List<Series> findBySeriesType(Series.SeriesType seriesType);
 
     boolean existsByCode(String code);
+
+    Optional<Series> findFirstBySeriesTypeAndIsActiveTrueOrderByCodeAsc(Series.SeriesType seriesType);
+
+    /**
+     * Atomically advance an active series - the row stays locked until the transaction ends
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Series s SET s.currentNumber = COALESCE(s.currentNumber, 0) + :count " +
+           "WHERE s.code = :code AND s.isActive = true")
+    int advance(@Param("code") String code, @Param("count") long count);
+
+    @Query("SELECT s.currentNumber FROM Series s WHERE s.code = :code")
+    Optional<Long> findCurrentNumber(@Param("code") String code);
 }
@@ -0,0 +1,24 @@
+package lt.elektromeistras.repository;
+
+import lt.elektromeistras.domain.SupplierImportFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for SupplierImportFingerprint entity
+ */
+@Repository
+public interface SupplierImportFingerprintRepository extends JpaRepository<SupplierImportFingerprint, UUID> {
+
+    /**
+     * Fingerprints of all suppliers for the given product codes - one query per import batch
+     */
+    @Query("SELECT f FROM SupplierImportFingerprint f JOIN FETCH f.product p WHERE p.code IN :productCodes")
+    List<SupplierImportFingerprint> findByProductCodeIn(@Param("productCodes") Collection<String> productCodes);
+}
@@ -1,5 +1,6 @@
 package lt.elektromeistras.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -19,13 +21,16 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * JWT authentication filter that validates JWT tokens on every request
+ * JWT authentication filter that validates JWT tokens on every request.
+ * Each token is parsed and verified once; repeat requests with the same token are served
+ * from VerifiedTokenCache until the token expires.
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
 
     @Override
     protected void doFilterInternal(
@@ -36,22 +41,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = extractJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
-
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    if (jwtUtil.validateToken(jwt, username)) {
-                        Set<String> permissions = jwtUtil.extractPermissions(jwt);
-                        Set<SimpleGrantedAuthority> authorities = permissions.stream()
-                                .map(SimpleGrantedAuthority::new)
-                                .collect(Collectors.toSet());
+            if (StringUtils.hasText(jwt) && SecurityContextHolder.getContext().getAuthentication() == null) {
+                Authentication verified = tokenCache.get(jwt);
+                if (verified == null) {
+                    verified = verify(jwt);
+                }
 
-                        UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(username, null, authorities);
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (verified != null) {
+                    // Fresh token per request - details (remote address) belong to this request only
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            verified.getPrincipal(), null, verified.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                    }
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
         } catch (Exception ex) {
@@ -61,6 +63,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Parse and verify the token once and cache the result until the token expires
+     *
+     * @return Authentication for the token, or null if it is not an access token
+     */
+    private Authentication verify(String jwt) {
+        Claims claims = jwtUtil.parseVerifiedClaims(jwt);
+
+        // Refresh tokens carry no permissions and are not accepted as access tokens
+        if (claims.getSubject() == null || claims.get("permissions") == null) {
+            return null;
+        }
+
+        Set<SimpleGrantedAuthority> authorities = jwtUtil.extractPermissions(claims).stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toSet());
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(claims.getSubject(), null, authorities);
+        tokenCache.put(jwt, authentication, claims.getExpiration());
+        return authentication;
+    }
+
     /**
      * Extract JWT token from Authorization header
      */
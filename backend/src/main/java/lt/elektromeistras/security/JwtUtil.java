@@ -1,6 +1,7 @@
 package lt.elektromeistras.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -10,6 +11,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -32,10 +34,14 @@ public class JwtUtil {
     private Long refreshExpiration;
 
     private Key key;
+    private JwtParser parser;
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
     }
 
     /**
@@ -97,15 +103,21 @@ public class JwtUtil {
         return (String) extractClaims(token).get("userId");
     }
 
+    /**
+     * Parse and verify token once - signature and expiry are checked, claims can be read
+     * without parsing again
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseVerifiedClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     /**
      * Extract all claims from token
      */
     public Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parseVerifiedClaims(token);
     }
 
     /**
@@ -130,16 +142,40 @@ public class JwtUtil {
     /**
      * Extract roles from token
      */
-    @SuppressWarnings("unchecked")
     public Set<String> extractRoles(String token) {
-        return (Set<String>) extractClaims(token).get("roles");
+        return extractRoles(extractClaims(token));
+    }
+
+    /**
+     * Extract roles from verified claims
+     */
+    public Set<String> extractRoles(Claims claims) {
+        return toStringSet(claims.get("roles"));
     }
 
     /**
      * Extract permissions from token
      */
-    @SuppressWarnings("unchecked")
     public Set<String> extractPermissions(String token) {
-        return (Set<String>) extractClaims(token).get("permissions");
+        return extractPermissions(extractClaims(token));
+    }
+
+    /**
+     * Extract permissions from verified claims
+     */
+    public Set<String> extractPermissions(Claims claims) {
+        return toStringSet(claims.get("permissions"));
+    }
+
+    /**
+     * Set claims are serialized as JSON arrays and come back as lists
+     */
+    private Set<String> toStringSet(Object claim) {
+        if (!(claim instanceof Collection<?> values)) {
+            return Set.of();
+        }
+        return values.stream()
+                .map(String::valueOf)
+                .collect(Collectors.toSet());
     }
 }
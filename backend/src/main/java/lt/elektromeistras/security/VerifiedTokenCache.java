@@ -0,0 +1,98 @@
+package lt.elektromeistras.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of already verified access tokens.
+ *
+ * A client sends the same token with every request of its session. Once the signature has been
+ * checked, the resulting Authentication is kept until the token's own expiry, so repeat requests
+ * skip parsing and HMAC verification. Entries are keyed by a SHA-256 hash - raw tokens are not
+ * kept in memory. The cache is bounded: when full, expired entries are purged and new tokens are
+ * not cached until there is room again (they are still verified normally).
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Authentication of a verified, not yet expired token
+     *
+     * @return Cached authentication, or null if the token has to be verified
+     */
+    public Authentication get(String token) {
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.authentication;
+    }
+
+    /**
+     * Remember a verified token until it expires
+     */
+    public void put(String token, Authentication authentication, Date expiresAt) {
+        if (expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            removeExpired();
+            if (entries.size() >= maxSize) {
+                log.debug("Verified token cache full ({} entries), not caching", entries.size());
+                return;
+            }
+        }
+        entries.put(hash(token), new Entry(authentication, expiresAt.getTime()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Entry {
+        private final Authentication authentication;
+        private final long expiresAtMillis;
+
+        private Entry(Authentication authentication, long expiresAtMillis) {
+            this.authentication = authentication;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -2,13 +2,17 @@ package lt.elektromeistras.service;
 
 import lt.elektromeistras.domain.*;
 import lt.elektromeistras.repository.*;
+import lt.elektromeistras.repository.BudgetLineRepository.BudgetedAccountView;
+import lt.elektromeistras.repository.JournalEntryLineRepository.AccountActualView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -26,12 +30,98 @@ public class BudgetVarianceService {
     private final BudgetLineRepository budgetLineRepository;
     private final JournalEntryLineRepository journalEntryLineRepository;
     private final GLAccountRepository glAccountRepository;
+    private final BudgetVarianceDirtyKeyRepository dirtyKeyRepository;
+
+    /**
+     * Budgets whose variances are or may still be calculated - postings mark them dirty
+     */
+    private static final Set<Budget.BudgetStatus> OPEN_STATUSES = EnumSet.of(Budget.BudgetStatus.DRAFT,
+            Budget.BudgetStatus.SUBMITTED, Budget.BudgetStatus.APPROVED, Budget.BudgetStatus.ACTIVE);
+
+    /**
+     * Mark the accounts and dimensions of posted entries dirty for every open budget with lines
+     * on the account and a period containing the entry date. Called by JournalEntryService in
+     * the posting transaction, so the keys commit or roll back with the entries.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPosted(List<JournalEntry> journalEntries) {
+        Set<UUID> glAccountIds = new HashSet<>();
+        LocalDate fromDate = null;
+        LocalDate toDate = null;
+        for (JournalEntry journalEntry : journalEntries) {
+            LocalDate entryDate = journalEntry.getEntryDate();
+            fromDate = fromDate == null || entryDate.isBefore(fromDate) ? entryDate : fromDate;
+            toDate = toDate == null || entryDate.isAfter(toDate) ? entryDate : toDate;
+            for (JournalEntryLine line : journalEntry.getJournalEntryLines()) {
+                glAccountIds.add(line.getGlAccount().getId());
+            }
+        }
+        if (glAccountIds.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, List<BudgetedAccountView>> budgetsByAccount = new HashMap<>();
+        for (BudgetedAccountView budgeted : budgetLineRepository.findBudgetedAccounts(glAccountIds, OPEN_STATUSES,
+                fromDate, toDate)) {
+            budgetsByAccount.computeIfAbsent(budgeted.getGlAccountId(), id -> new ArrayList<>()).add(budgeted);
+        }
+        if (budgetsByAccount.isEmpty()) {
+            return;
+        }
+
+        Set<DirtyKey> keys = new LinkedHashSet<>();
+        for (JournalEntry journalEntry : journalEntries) {
+            LocalDate entryDate = journalEntry.getEntryDate();
+            for (JournalEntryLine line : journalEntry.getJournalEntryLines()) {
+                for (BudgetedAccountView budgeted : budgetsByAccount.getOrDefault(line.getGlAccount().getId(), List.of())) {
+                    if (!entryDate.isBefore(budgeted.getStartDate()) && !entryDate.isAfter(budgeted.getEndDate())) {
+                        keys.add(new DirtyKey(budgeted.getBudgetId(), line.getGlAccount().getId(),
+                                idOf(line.getDepartment()), idOf(line.getCostCenter()), entryDate));
+                    }
+                }
+            }
+        }
+
+        dirtyKeyRepository.saveAll(keys.stream()
+                .map(key -> BudgetVarianceDirtyKey.builder()
+                        .budgetId(key.budgetId())
+                        .glAccountId(key.glAccountId())
+                        .departmentId(key.departmentId())
+                        .costCenterId(key.costCenterId())
+                        .entryDate(key.entryDate())
+                        .build())
+                .toList());
+    }
 
     /**
      * Calculate variances for a budget
      */
     @Transactional
     public List<BudgetVariance> calculateVariancesForBudget(UUID budgetId) {
+        return calculateVariancesForBudget(budgetId, false);
+    }
+
+    /**
+     * Calculate variances for a budget incrementally.
+     * Each budget line has one current variance row that is updated in place. Only lines whose
+     * account and dimensions were marked dirty by a posting, lines whose amount or dimensions
+     * differ from their row and lines without a current row are recalculated; the first run
+     * calculates all lines. The dirty keys the run counted are deleted with its results; keys of
+     * entries dated after the run's end date and keys of postings committed meanwhile stay for a
+     * later run.
+     *
+     * @param snapshot Also store a dated copy of every current row
+     * @return Current variance rows in budget line order
+     */
+    @Transactional
+    public List<BudgetVariance> calculateVariancesForBudget(UUID budgetId, boolean snapshot) {
+        return calculateVariancesForBudget(budgetId, snapshot, LocalDateTime.now());
+    }
+
+    /**
+     * Calculate variances as of the run start - actuals are counted up to its date
+     */
+    List<BudgetVariance> calculateVariancesForBudget(UUID budgetId, boolean snapshot, LocalDateTime runStartedAt) {
         log.info("Calculating variances for budget: {}", budgetId);
 
         Budget budget = budgetRepository.findById(budgetId)
@@ -41,99 +131,240 @@ public class BudgetVarianceService {
             throw new RuntimeException("Can only calculate variances for ACTIVE budgets");
         }
 
-        List<BudgetVariance> variances = new ArrayList<>();
+        LocalDate varianceDate = runStartedAt.toLocalDate();
+        LocalDate endDate = budget.getBudgetPeriod().getEndDate().isBefore(varianceDate)
+                ? budget.getBudgetPeriod().getEndDate()
+                : varianceDate;
 
-        // Get budget period dates
-        LocalDate startDate = budget.getBudgetPeriod().getStartDate();
-        LocalDate endDate = budget.getBudgetPeriod().getEndDate();
-        LocalDate varianceDate = LocalDate.now();
-
-        // Group budget lines by GL account and dimensions
+        // Keys of entries dated after the end date are not counted yet - they wait for their date
+        List<BudgetVarianceDirtyKey> dirtyKeys = dirtyKeyRepository.findByBudgetId(budgetId).stream()
+                .filter(key -> !key.getEntryDate().isAfter(endDate))
+                .toList();
         List<BudgetLine> budgetLines = budgetLineRepository.findByBudget(budget);
+        Map<UUID, BudgetVariance> currentByLine = loadCurrentVariances(budget, budgetLines);
 
-        for (BudgetLine budgetLine : budgetLines) {
-            // Calculate actual amount from journal entries
-            BigDecimal actualAmount = calculateActualAmount(
-                    budgetLine.getGlAccount(),
-                    budgetLine.getDepartment(),
-                    budgetLine.getCostCenter(),
-                    startDate,
-                    varianceDate
-            );
+        List<BudgetLine> staleLines = budget.getVariancesCalculatedAt() == null
+                ? budgetLines
+                : findStaleLines(budgetLines, currentByLine, dirtyKeys);
+
+        // Actuals of the stale lines' accounts up to today, matched to lines in memory
+        ActualAmounts actuals = loadActualAmounts(staleLines, budget.getBudgetPeriod().getStartDate(), endDate);
 
-            // Create variance record
-            BudgetVariance variance = BudgetVariance.builder()
+        List<BudgetVariance> changed = new ArrayList<>();
+        for (BudgetLine budgetLine : staleLines) {
+            BudgetVariance variance = currentByLine.computeIfAbsent(budgetLine.getId(), id -> BudgetVariance.builder()
                     .budget(budget)
                     .budgetLine(budgetLine)
-                    .glAccount(budgetLine.getGlAccount())
-                    .varianceDate(varianceDate)
-                    .budgetedAmount(budgetLine.getAmount())
-                    .actualAmount(actualAmount)
-                    .department(budgetLine.getDepartment())
-                    .businessObject(budgetLine.getBusinessObject())
-                    .costCenter(budgetLine.getCostCenter())
-                    .series(budgetLine.getSeries())
-                    .person(budgetLine.getPerson())
-                    .build();
-
+                    .build());
+            copyLine(budgetLine, variance);
+            variance.setVarianceDate(varianceDate);
+            variance.setActualAmount(actuals.get(
+                    budgetLine.getGlAccount(),
+                    budgetLine.getDepartment(),
+                    budgetLine.getCostCenter()
+            ));
             variance.calculateVariance();
+            changed.add(variance);
+        }
+        budgetVarianceRepository.saveAll(changed);
+
+        List<BudgetVariance> variances = budgetLines.stream()
+                .map(budgetLine -> currentByLine.get(budgetLine.getId()))
+                .toList();
+
+        if (snapshot) {
+            budgetVarianceRepository.saveAll(variances.stream()
+                    .map(variance -> snapshotOf(variance, varianceDate))
+                    .toList());
+        }
 
-            variances.add(budgetVarianceRepository.save(variance));
+        if (!dirtyKeys.isEmpty()) {
+            dirtyKeyRepository.deleteAllInBatch(dirtyKeys);
         }
+        budget.setVariancesCalculatedAt(runStartedAt);
 
-        log.info("Calculated {} variances for budget {}", variances.size(), budget.getCode());
+        log.info("Recalculated {} of {} variances for budget {}", changed.size(), variances.size(), budget.getCode());
 
         return variances;
     }
 
     /**
-     * Calculate actual amount from journal entries for specific criteria
+     * Current variance rows keyed by budget line. Rows of lines no longer in the budget are removed.
      */
-    private BigDecimal calculateActualAmount(
-            GLAccount glAccount,
-            Department department,
-            CostCenter costCenter,
-            LocalDate startDate,
-            LocalDate endDate) {
-
-        // Get all posted journal entry lines for the GL account
-        List<JournalEntryLine> lines = journalEntryLineRepository.findByGlAccount(glAccount);
+    private Map<UUID, BudgetVariance> loadCurrentVariances(Budget budget, List<BudgetLine> budgetLines) {
+        Set<UUID> lineIds = new HashSet<>();
+        for (BudgetLine budgetLine : budgetLines) {
+            lineIds.add(budgetLine.getId());
+        }
 
-        // Filter by date range and dimensions, sum the amounts
-        BigDecimal total = BigDecimal.ZERO;
+        Map<UUID, BudgetVariance> currentByLine = new HashMap<>();
+        List<BudgetVariance> orphaned = new ArrayList<>();
+        for (BudgetVariance variance : budgetVarianceRepository.findByBudgetAndIsSnapshotFalse(budget)) {
+            UUID lineId = variance.getBudgetLine() != null ? variance.getBudgetLine().getId() : null;
+            if (lineId != null && lineIds.contains(lineId) && !currentByLine.containsKey(lineId)) {
+                currentByLine.put(lineId, variance);
+            } else {
+                orphaned.add(variance);
+            }
+        }
+        if (!orphaned.isEmpty()) {
+            budgetVarianceRepository.deleteAll(orphaned);
+        }
+        return currentByLine;
+    }
 
-        for (JournalEntryLine line : lines) {
-            JournalEntry entry = line.getJournalEntry();
+    /**
+     * Budget lines to recalculate: lines without a current row, lines that no longer match their
+     * row and lines whose account and dimensions match a dirty key
+     */
+    private List<BudgetLine> findStaleLines(List<BudgetLine> budgetLines, Map<UUID, BudgetVariance> currentByLine,
+                                            List<BudgetVarianceDirtyKey> dirtyKeys) {
+        Set<ActualKey> postedKeys = new HashSet<>();
+        for (BudgetVarianceDirtyKey key : dirtyKeys) {
+            postedKeys.addAll(ActualKey.rollUps(key.getGlAccountId(), key.getDepartmentId(), key.getCostCenterId()));
+        }
 
-            // Only include posted entries within date range
-            if (entry.getStatus() != JournalEntry.EntryStatus.POSTED) {
-                continue;
+        List<BudgetLine> staleLines = new ArrayList<>();
+        for (BudgetLine budgetLine : budgetLines) {
+            BudgetVariance variance = currentByLine.get(budgetLine.getId());
+            if (variance == null
+                    || !matchesLine(budgetLine, variance)
+                    || postedKeys.contains(ActualKey.of(budgetLine))) {
+                staleLines.add(budgetLine);
             }
+        }
+        return staleLines;
+    }
 
-            if (entry.getEntryDate().isBefore(startDate) || entry.getEntryDate().isAfter(endDate)) {
-                continue;
-            }
+    /**
+     * Whether the row still carries the line's amount, account and dimensions
+     */
+    private boolean matchesLine(BudgetLine budgetLine, BudgetVariance variance) {
+        return variance.getBudgetedAmount() != null
+                && variance.getBudgetedAmount().compareTo(budgetLine.getAmount()) == 0
+                && Objects.equals(idOf(variance.getGlAccount()), idOf(budgetLine.getGlAccount()))
+                && Objects.equals(idOf(variance.getDepartment()), idOf(budgetLine.getDepartment()))
+                && Objects.equals(idOf(variance.getBusinessObject()), idOf(budgetLine.getBusinessObject()))
+                && Objects.equals(idOf(variance.getCostCenter()), idOf(budgetLine.getCostCenter()))
+                && Objects.equals(idOf(variance.getSeries()), idOf(budgetLine.getSeries()))
+                && Objects.equals(idOf(variance.getPerson()), idOf(budgetLine.getPerson()));
+    }
+
+    private static UUID idOf(BaseEntity entity) {
+        return entity != null ? entity.getId() : null;
+    }
+
+    private void copyLine(BudgetLine budgetLine, BudgetVariance variance) {
+        variance.setGlAccount(budgetLine.getGlAccount());
+        variance.setBudgetedAmount(budgetLine.getAmount());
+        variance.setDepartment(budgetLine.getDepartment());
+        variance.setBusinessObject(budgetLine.getBusinessObject());
+        variance.setCostCenter(budgetLine.getCostCenter());
+        variance.setSeries(budgetLine.getSeries());
+        variance.setPerson(budgetLine.getPerson());
+    }
+
+    private BudgetVariance snapshotOf(BudgetVariance variance, LocalDate varianceDate) {
+        return BudgetVariance.builder()
+                .budget(variance.getBudget())
+                .budgetLine(variance.getBudgetLine())
+                .glAccount(variance.getGlAccount())
+                .varianceDate(varianceDate)
+                .budgetedAmount(variance.getBudgetedAmount())
+                .actualAmount(variance.getActualAmount())
+                .varianceAmount(variance.getVarianceAmount())
+                .variancePercentage(variance.getVariancePercentage())
+                .varianceType(variance.getVarianceType())
+                .department(variance.getDepartment())
+                .businessObject(variance.getBusinessObject())
+                .costCenter(variance.getCostCenter())
+                .series(variance.getSeries())
+                .person(variance.getPerson())
+                .isSnapshot(true)
+                .build();
+    }
+
+    /**
+     * Sum posted amounts of the budgeted accounts by entry date, grouped by account, department
+     * and cost center. Dates rather than the entries' budget period, so month and quarter budgets
+     * see entries stamped with the enclosing year and entries without a period are counted.
+     */
+    private ActualAmounts loadActualAmounts(List<BudgetLine> budgetLines, LocalDate startDate, LocalDate endDate) {
+        Set<UUID> glAccountIds = new HashSet<>();
+        for (BudgetLine budgetLine : budgetLines) {
+            glAccountIds.add(budgetLine.getGlAccount().getId());
+        }
 
-            // Match dimensions if specified
-            if (department != null && !department.equals(line.getDepartment())) {
-                continue;
+        ActualAmounts actuals = new ActualAmounts();
+        if (!glAccountIds.isEmpty()) {
+            journalEntryLineRepository.sumPostedAmounts(glAccountIds, startDate, endDate).forEach(actuals::add);
+        }
+        return actuals;
+    }
+
+    /**
+     * Grouped actuals keyed for budget line lookup. Every group is also added to the roll-ups a
+     * budget line without department and/or cost center matches, so each line is one hash lookup.
+     */
+    private static class ActualAmounts {
+
+        private final Map<ActualKey, BigDecimal> amounts = new HashMap<>();
+
+        void add(AccountActualView row) {
+            BigDecimal netAmount = row.getNetAmount() != null ? row.getNetAmount() : BigDecimal.ZERO;
+            for (ActualKey key : ActualKey.rollUps(row.getGlAccountId(), row.getDepartmentId(), row.getCostCenterId())) {
+                amounts.merge(key, netAmount, BigDecimal::add);
             }
+        }
 
-            if (costCenter != null && !costCenter.equals(line.getCostCenter())) {
-                continue;
+        /**
+         * Actual amount of a budget line - a dimension left empty on the line matches any value
+         */
+        BigDecimal get(GLAccount glAccount, Department department, CostCenter costCenter) {
+            ActualKey key = ActualKey.of(glAccount.getId(), department, costCenter);
+            BigDecimal total = amounts.getOrDefault(key, BigDecimal.ZERO);
+
+            // For expense/cost accounts, use absolute value
+            if (glAccount.getAccountType() == GLAccount.AccountType.EXPENSE ||
+                glAccount.getAccountType() == GLAccount.AccountType.COST_OF_SALES) {
+                total = total.abs();
             }
 
-            // Add net amount (debit - credit)
-            total = total.add(line.getNetAmount());
+            return total;
+        }
+    }
+
+    private record DirtyKey(UUID budgetId, UUID glAccountId, UUID departmentId, UUID costCenterId,
+                            LocalDate entryDate) {
+    }
+
+    /**
+     * Group key - the flags tell a dimension matched on "none" apart from "any"
+     */
+    private record ActualKey(UUID glAccountId, UUID departmentId, UUID costCenterId,
+                             boolean byDepartment, boolean byCostCenter) {
+
+        /**
+         * Keys of every budget line shape a posting to this account and dimensions counts for
+         */
+        static List<ActualKey> rollUps(UUID glAccountId, UUID departmentId, UUID costCenterId) {
+            return List.of(
+                    new ActualKey(glAccountId, departmentId, costCenterId, true, true),
+                    new ActualKey(glAccountId, departmentId, null, true, false),
+                    new ActualKey(glAccountId, null, costCenterId, false, true),
+                    new ActualKey(glAccountId, null, null, false, false));
         }
 
-        // For expense/cost accounts, use absolute value
-        if (glAccount.getAccountType() == GLAccount.AccountType.EXPENSE ||
-            glAccount.getAccountType() == GLAccount.AccountType.COST_OF_SALES) {
-            total = total.abs();
+        static ActualKey of(BudgetLine budgetLine) {
+            return of(budgetLine.getGlAccount().getId(), budgetLine.getDepartment(), budgetLine.getCostCenter());
         }
 
-        return total;
+        static ActualKey of(UUID glAccountId, Department department, CostCenter costCenter) {
+            return new ActualKey(glAccountId,
+                    department != null ? department.getId() : null,
+                    costCenter != null ? costCenter.getId() : null,
+                    department != null, costCenter != null);
+        }
     }
 
     /**
@@ -142,7 +373,16 @@ public class BudgetVarianceService {
     public List<BudgetVariance> getVariancesForBudget(UUID budgetId) {
         Budget budget = budgetRepository.findById(budgetId)
                 .orElseThrow(() -> new RuntimeException("Budget not found with id: " + budgetId));
-        return budgetVarianceRepository.findByBudget(budget);
+        return budgetVarianceRepository.findByBudgetAndIsSnapshotFalse(budget);
+    }
+
+    /**
+     * Get dated variance snapshots of a budget, oldest first
+     */
+    public List<BudgetVariance> getVarianceSnapshots(UUID budgetId) {
+        Budget budget = budgetRepository.findById(budgetId)
+                .orElseThrow(() -> new RuntimeException("Budget not found with id: " + budgetId));
+        return budgetVarianceRepository.findByBudgetAndIsSnapshotTrueOrderByVarianceDateAsc(budget);
     }
 
     /**
@@ -237,18 +477,19 @@ public class BudgetVarianceService {
     }
 
     /**
-     * Refresh variances for a budget (recalculate all)
+     * Refresh variances for a budget (recalculate all). Snapshots are kept.
      */
     @Transactional
     public List<BudgetVariance> refreshVariances(UUID budgetId) {
         log.info("Refreshing variances for budget: {}", budgetId);
 
-        // Delete existing variances
+        // Delete current variances so every line is calculated again
         Budget budget = budgetRepository.findById(budgetId)
                 .orElseThrow(() -> new RuntimeException("Budget not found with id: " + budgetId));
 
-        List<BudgetVariance> existingVariances = budgetVarianceRepository.findByBudget(budget);
+        List<BudgetVariance> existingVariances = budgetVarianceRepository.findByBudgetAndIsSnapshotFalse(budget);
         budgetVarianceRepository.deleteAll(existingVariances);
+        budget.setVariancesCalculatedAt(null);
 
         // Recalculate
         return calculateVariancesForBudget(budgetId);
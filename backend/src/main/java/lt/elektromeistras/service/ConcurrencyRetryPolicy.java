@@ -0,0 +1,73 @@
+package lt.elektromeistras.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Retry-on-conflict policy for short stock transactions.
+ *
+ * Runs the action in its own transaction and retries it with exponential backoff when the
+ * database reports a concurrency failure (optimistic lock conflict, deadlock, lock timeout).
+ * If the caller already has a transaction open, the action joins it and runs once -
+ * a failed transaction cannot be retried from the inside, so the outer owner decides.
+ * Callers that combine stock updates with other writes therefore apply the policy at their own
+ * non-transactional entry point, as ReturnService.restockReturn does.
+ */
+@Component
+@Slf4j
+public class ConcurrencyRetryPolicy {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public ConcurrencyRetryPolicy(PlatformTransactionManager transactionManager,
+                                  @Value("${stock.retry.max-attempts:5}") int maxAttempts,
+                                  @Value("${stock.retry.backoff-ms:10}") long backoffMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Giving up after {} attempts: {}", attempt, e.getMessage());
+                    throw e;
+                }
+                log.debug("Concurrency conflict on attempt {}, retrying: {}", attempt, e.getMessage());
+                sleep(backoffMs << (attempt - 1));
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package lt.elektromeistras.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.CreditTransactionAttachment;
+import lt.elektromeistras.domain.CreditTransactionAttachment.Kind;
+import lt.elektromeistras.repository.CreditTransactionAttachmentRepository;
+import lt.elektromeistras.repository.CreditTransactionAttachmentRepository.AttachmentView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Signatures and photos of credit transactions, stored apart from the transaction rows.
+ * Clients still send them base64 encoded (optionally as a data URL); they are stored decoded
+ * and served as binary through GET /api/credit-transactions/{id}/attachments/{kind}.
+ * The content type is detected from the bytes - PNG, JPEG or WebP, anything else is stored and
+ * served as application/octet-stream. A media type claimed by the client is ignored.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class CreditTransactionAttachmentService {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final Set<String> IMAGE_CONTENT_TYPES = Set.of("image/png", "image/jpeg", "image/webp");
+
+    private final CreditTransactionAttachmentRepository attachmentRepository;
+
+    /**
+     * Store an attachment, replacing an earlier one of the same kind
+     *
+     * @param base64Data Base64 content, plain or as "data:image/png;base64,..."
+     */
+    @Transactional
+    public void store(UUID transactionId, Kind kind, String base64Data) {
+        String payload = base64Data.trim();
+        if (payload.startsWith("data:")) {
+            int comma = payload.indexOf(',');
+            if (comma < 0) {
+                throw new RuntimeException("Invalid " + kind.name().toLowerCase() + " data URL");
+            }
+            payload = payload.substring(comma + 1);
+        }
+
+        byte[] data;
+        try {
+            data = Base64.getMimeDecoder().decode(payload);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid " + kind.name().toLowerCase() + " data: " + e.getMessage());
+        }
+        String contentType = detectContentType(data);
+
+        attachmentRepository.deleteByTransactionIdAndKind(transactionId, kind);
+        attachmentRepository.save(CreditTransactionAttachment.builder()
+                .transactionId(transactionId)
+                .kind(kind)
+                .contentType(contentType)
+                .sizeBytes(data.length)
+                .data(data)
+                .build());
+        log.debug("Stored {} of credit transaction {} ({} bytes)", kind, transactionId, data.length);
+    }
+
+    /**
+     * Attachment kinds present per transaction - one query for a whole list of transactions
+     */
+    public Map<UUID, Set<Kind>> getKinds(Collection<UUID> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return Map.of();
+        }
+        return attachmentRepository.findViewsByTransactionIds(transactionIds).stream()
+                .collect(Collectors.groupingBy(AttachmentView::getTransactionId,
+                        Collectors.mapping(AttachmentView::getKind, Collectors.toSet())));
+    }
+
+    public Set<Kind> getKinds(UUID transactionId) {
+        return getKinds(List.of(transactionId)).getOrDefault(transactionId, Set.of());
+    }
+
+    /**
+     * Content type and size of an attachment, without its content
+     */
+    public Optional<AttachmentView> getAttachment(UUID transactionId, Kind kind) {
+        return attachmentRepository.findView(transactionId, kind);
+    }
+
+    /**
+     * Content type to serve a stored attachment with - rows stored before detection may carry
+     * any type, so only the image types are passed through
+     */
+    public String servedContentType(AttachmentView attachment) {
+        return IMAGE_CONTENT_TYPES.contains(attachment.getContentType())
+                ? attachment.getContentType()
+                : DEFAULT_CONTENT_TYPE;
+    }
+
+    /**
+     * Copy an attachment's content to the output stream
+     *
+     * @return false if the transaction has no attachment of that kind
+     */
+    public boolean stream(UUID transactionId, Kind kind, OutputStream out) {
+        return attachmentRepository.streamData(transactionId, kind, out);
+    }
+
+    /**
+     * Content type from the leading bytes of the common capture formats
+     */
+    private String detectContentType(byte[] data) {
+        if (data.length >= 8 && (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G') {
+            return "image/png";
+        }
+        if (data.length >= 3 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8 && (data[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (data.length >= 12 && data[0] == 'R' && data[1] == 'I' && data[2] == 'F' && data[3] == 'F'
+                && data[8] == 'W' && data[9] == 'E' && data[10] == 'B' && data[11] == 'P') {
+            return "image/webp";
+        }
+        return DEFAULT_CONTENT_TYPE;
+    }
+}
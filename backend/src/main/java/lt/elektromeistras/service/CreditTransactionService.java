@@ -4,12 +4,12 @@ import lt.elektromeistras.domain.*;
 import lt.elektromeistras.dto.request.*;
 import lt.elektromeistras.dto.response.*;
 import lt.elektromeistras.repository.*;
+import lt.elektromeistras.service.ProductLookupIndex.ProductSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +19,8 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.TemporalAdjusters;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -32,6 +34,10 @@ public class CreditTransactionService {
     private final CreditTransactionLineRepository lineRepository;
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
+    private final ProductLookupIndex productLookupIndex;
+    private final DocumentNumberService documentNumberService;
+    private final CustomerBalanceLedger customerBalanceLedger;
+    private final CreditTransactionAttachmentService attachmentService;
 
     /**
      * ULTRA FAST credit pickup - optimized for rapid entry
@@ -49,6 +55,7 @@ public class CreditTransactionService {
         CreditTransaction transaction = new CreditTransaction();
         transaction.setCustomer(customer);
         transaction.setTransactionType(CreditTransaction.TransactionType.PICKUP);
+        transaction.setTransactionNumber(documentNumberService.next(DocumentNumberService.DocumentSeries.CREDIT_PICKUP));
         transaction.setStatus(CreditTransaction.TransactionStatus.PENDING);
         transaction.setPerformedBy(request.getPerformedBy());
         transaction.setPerformedByRole(CreditTransaction.PerformedByRole.valueOf(request.getPerformedByRole()));
@@ -56,11 +63,12 @@ public class CreditTransactionService {
 
         // 3. Add line items
         for (QuickCreditPickupRequest.QuickCreditLineItem item : request.getItems()) {
-            Product product = productRepository.findByCode(item.getProductCode())
+            // In-memory lookup by code, SKU or EAN - no query per scanned line
+            ProductSnapshot product = productLookupIndex.resolve(item.getProductCode())
                     .orElseThrow(() -> new RuntimeException("Product not found: " + item.getProductCode()));
 
             CreditTransactionLine line = new CreditTransactionLine();
-            line.setProduct(product);
+            line.setProduct(productLookupIndex.reference(product));
             line.setProductCode(product.getCode());
             line.setProductName(product.getName());
             line.setQuantity(item.getQuantity());
@@ -76,7 +84,7 @@ public class CreditTransactionService {
         log.info("Quick credit pickup created: {} with {} items",
                 saved.getTransactionNumber(), saved.getTotalItems());
 
-        return mapToResponse(saved);
+        return mapToResponse(saved, Set.of());
     }
 
     /**
@@ -94,6 +102,10 @@ public class CreditTransactionService {
         CreditTransaction transaction = new CreditTransaction();
         transaction.setCustomer(customer);
         transaction.setTransactionType(CreditTransaction.TransactionType.valueOf(request.getTransactionType()));
+        transaction.setTransactionNumber(documentNumberService.next(
+                transaction.getTransactionType() == CreditTransaction.TransactionType.PICKUP
+                        ? DocumentNumberService.DocumentSeries.CREDIT_PICKUP
+                        : DocumentNumberService.DocumentSeries.CREDIT_RETURN));
         transaction.setStatus(CreditTransaction.TransactionStatus.PENDING);
         transaction.setPerformedBy(request.getPerformedBy());
         transaction.setPerformedByRole(CreditTransaction.PerformedByRole.valueOf(request.getPerformedByRole()));
@@ -128,7 +140,7 @@ public class CreditTransactionService {
         log.info("Credit transaction created: {} with {} items",
                 saved.getTransactionNumber(), saved.getTotalItems());
 
-        return mapToResponse(saved);
+        return mapToResponse(saved, Set.of());
     }
 
     /**
@@ -148,32 +160,30 @@ public class CreditTransactionService {
         // Confirm transaction
         transaction.confirm(request.getConfirmedBy());
         if (request.getSignatureData() != null) {
-            transaction.setSignatureData(request.getSignatureData());
+            attachmentService.store(transactionId, CreditTransactionAttachment.Kind.SIGNATURE, request.getSignatureData());
         }
         if (request.getPhotoData() != null) {
-            transaction.setPhotoData(request.getPhotoData());
+            attachmentService.store(transactionId, CreditTransactionAttachment.Kind.PHOTO, request.getPhotoData());
         }
         if (request.getNotes() != null) {
             transaction.setNotes(transaction.getNotes() + "\n" + request.getNotes());
         }
 
-        // Update customer balance
-        Customer customer = transaction.getCustomer();
-        if (transaction.getTransactionType() == CreditTransaction.TransactionType.PICKUP) {
-            // Pickup increases balance (debt)
-            customer.setCurrentBalance(customer.getCurrentBalance().add(transaction.getTotalAmount()));
-        } else {
-            // Return decreases balance (payment)
-            customer.setCurrentBalance(customer.getCurrentBalance().subtract(transaction.getTotalAmount()));
-        }
-        customerRepository.save(customer);
-
         CreditTransaction saved = transactionRepository.save(transaction);
 
+        // Update customer balance - pickup increases it (debt), return decreases it (payment)
+        boolean pickup = transaction.getTransactionType() == CreditTransaction.TransactionType.PICKUP;
+        BigDecimal balance = customerBalanceLedger.apply(
+                transaction.getCustomer().getId(),
+                pickup ? CustomerBalanceEntry.EntryType.CREDIT_PICKUP : CustomerBalanceEntry.EntryType.CREDIT_RETURN,
+                pickup ? transaction.getTotalAmount() : transaction.getTotalAmount().negate(),
+                transaction.getId(),
+                transaction.getTransactionNumber());
+
         log.info("Credit transaction confirmed: {} - Customer balance updated: {}",
-                saved.getTransactionNumber(), customer.getCurrentBalance());
+                saved.getTransactionNumber(), balance);
 
-        return mapToResponse(saved);
+        return mapToResponse(saved, attachmentService.getKinds(saved.getId()));
     }
 
     /**
@@ -192,13 +202,13 @@ public class CreditTransactionService {
 
         // If already confirmed, reverse customer balance
         if (transaction.getStatus() == CreditTransaction.TransactionStatus.CONFIRMED) {
-            Customer customer = transaction.getCustomer();
-            if (transaction.getTransactionType() == CreditTransaction.TransactionType.PICKUP) {
-                customer.setCurrentBalance(customer.getCurrentBalance().subtract(transaction.getTotalAmount()));
-            } else {
-                customer.setCurrentBalance(customer.getCurrentBalance().add(transaction.getTotalAmount()));
-            }
-            customerRepository.save(customer);
+            boolean pickup = transaction.getTransactionType() == CreditTransaction.TransactionType.PICKUP;
+            customerBalanceLedger.apply(
+                    transaction.getCustomer().getId(),
+                    CustomerBalanceEntry.EntryType.CREDIT_CANCELLATION,
+                    pickup ? transaction.getTotalAmount().negate() : transaction.getTotalAmount(),
+                    transaction.getId(),
+                    transaction.getTransactionNumber());
         }
 
         transaction.setStatus(CreditTransaction.TransactionStatus.CANCELLED);
@@ -214,7 +224,7 @@ public class CreditTransactionService {
     public CreditTransactionResponse getTransactionById(UUID id) {
         CreditTransaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found: " + id));
-        return mapToResponse(transaction);
+        return mapToResponse(transaction, attachmentService.getKinds(transaction.getId()));
     }
 
     /**
@@ -223,24 +233,24 @@ public class CreditTransactionService {
     public CreditTransactionResponse getTransactionByNumber(String transactionNumber) {
         CreditTransaction transaction = transactionRepository.findByTransactionNumber(transactionNumber)
                 .orElseThrow(() -> new RuntimeException("Transaction not found: " + transactionNumber));
-        return mapToResponse(transaction);
+        return mapToResponse(transaction, attachmentService.getKinds(transaction.getId()));
     }
 
     /**
      * Get all transactions for a customer
      */
     public Page<CreditTransactionSummaryResponse> getCustomerTransactions(UUID customerId, Pageable pageable) {
-        Page<CreditTransaction> transactions = transactionRepository.findByCustomerId(customerId, pageable);
-        return transactions.map(this::mapToSummaryResponse);
+        return transactionRepository.findSummariesByCustomerId(customerId, pageable)
+                .map(this::mapToSummaryResponse);
     }
 
     /**
      * Get recent transactions for a customer
      */
     public List<CreditTransactionSummaryResponse> getRecentCustomerTransactions(UUID customerId, int limit) {
-        List<CreditTransaction> transactions = transactionRepository.findRecentByCustomer(
+        List<CreditTransactionRepository.SummaryView> transactions = transactionRepository.findRecentByCustomer(
                 customerId,
-                PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"))
+                PageRequest.of(0, limit)
         );
         return transactions.stream()
                 .map(this::mapToSummaryResponse)
@@ -252,25 +262,23 @@ public class CreditTransactionService {
      */
     public List<CreditTransactionResponse> getPendingCustomerTransactions(UUID customerId) {
         List<CreditTransaction> transactions = transactionRepository.findPendingByCustomer(customerId);
-        return transactions.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(transactions);
     }
 
     /**
      * Search transactions
      */
     public Page<CreditTransactionSummaryResponse> searchTransactions(String query, Pageable pageable) {
-        Page<CreditTransaction> transactions = transactionRepository.searchTransactions(query, pageable);
-        return transactions.map(this::mapToSummaryResponse);
+        return transactionRepository.searchTransactions(query, pageable)
+                .map(this::mapToSummaryResponse);
     }
 
     /**
      * Get all transactions
      */
     public Page<CreditTransactionSummaryResponse> getAllTransactions(Pageable pageable) {
-        Page<CreditTransaction> transactions = transactionRepository.findAll(pageable);
-        return transactions.map(this::mapToSummaryResponse);
+        return transactionRepository.findAllSummaries(pageable)
+                .map(this::mapToSummaryResponse);
     }
 
     /**
@@ -290,15 +298,24 @@ public class CreditTransactionService {
                 customerId, startDate, endDate
         );
 
+        return mapToResponses(transactions);
+    }
+
+    /**
+     * Map a list to full responses - attachment kinds of all transactions in one query
+     */
+    private List<CreditTransactionResponse> mapToResponses(List<CreditTransaction> transactions) {
+        Map<UUID, Set<CreditTransactionAttachment.Kind>> kinds = attachmentService.getKinds(
+                transactions.stream().map(CreditTransaction::getId).toList());
         return transactions.stream()
-                .map(this::mapToResponse)
+                .map(t -> mapToResponse(t, kinds.getOrDefault(t.getId(), Set.of())))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Map to full response
+     * Map to full response - attachments as links, their content is fetched separately
      */
-    private CreditTransactionResponse mapToResponse(CreditTransaction t) {
+    private CreditTransactionResponse mapToResponse(CreditTransaction t, Set<CreditTransactionAttachment.Kind> attachments) {
         CreditTransactionResponse response = new CreditTransactionResponse();
         response.setId(t.getId());
         response.setTransactionNumber(t.getTransactionNumber());
@@ -313,8 +330,12 @@ public class CreditTransactionService {
         response.setPerformedByRole(t.getPerformedByRole().name());
         response.setConfirmedBy(t.getConfirmedBy());
         response.setConfirmedAt(t.getConfirmedAt());
-        response.setSignatureData(t.getSignatureData());
-        response.setPhotoData(t.getPhotoData());
+        if (attachments.contains(CreditTransactionAttachment.Kind.SIGNATURE)) {
+            response.setSignatureUrl(attachmentUrl(t.getId(), CreditTransactionAttachment.Kind.SIGNATURE));
+        }
+        if (attachments.contains(CreditTransactionAttachment.Kind.PHOTO)) {
+            response.setPhotoUrl(attachmentUrl(t.getId(), CreditTransactionAttachment.Kind.PHOTO));
+        }
         response.setNotes(t.getNotes());
         response.setCreatedAt(t.getCreatedAt());
         response.setUpdatedAt(t.getUpdatedAt());
@@ -328,15 +349,20 @@ public class CreditTransactionService {
         return response;
     }
 
+    private String attachmentUrl(UUID transactionId, CreditTransactionAttachment.Kind kind) {
+        return "/api/credit-transactions/" + transactionId + "/attachments/" + kind.name().toLowerCase();
+    }
+
     /**
-     * Map to summary response
+     * Map to summary response - from the projected row, no entity or customer is loaded
      */
-    private CreditTransactionSummaryResponse mapToSummaryResponse(CreditTransaction t) {
+    private CreditTransactionSummaryResponse mapToSummaryResponse(CreditTransactionRepository.SummaryView t) {
         return new CreditTransactionSummaryResponse(
                 t.getId(),
                 t.getTransactionNumber(),
-                t.getCustomer().getCode(),
-                t.getCustomer().getDisplayName(),
+                t.getCustomerCode(),
+                Customer.displayName(t.getCustomerType(), t.getCustomerCode(), t.getCompanyName(),
+                        t.getFirstName(), t.getLastName()),
                 t.getTransactionType().name(),
                 t.getStatus().name(),
                 t.getTotalAmount(),
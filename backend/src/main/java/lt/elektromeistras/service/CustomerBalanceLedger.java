@@ -0,0 +1,131 @@
+package lt.elektromeistras.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.CustomerBalanceEntry;
+import lt.elektromeistras.domain.CustomerBalanceEntry.EntryType;
+import lt.elektromeistras.dto.response.CustomerBalanceMismatchResponse;
+import lt.elektromeistras.repository.CustomerBalanceEntryRepository;
+import lt.elektromeistras.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer balance ledger.
+ *
+ * Balance changes are appended to customer_balance_entries and applied to customers.current_balance
+ * with one UPDATE ... SET current_balance = current_balance + ? in the same transaction. Two
+ * terminals confirming pickups for the same customer only wait for each other's row lock instead
+ * of overwriting each other's read-modify-write, and only the balance column is written.
+ * A background reconciler checks every customer.balance.reconcile-interval-ms that each balance
+ * still equals the sum of its entries and logs the customers where it does not.
+ * Each entry is also added to the customer's monthly statement snapshot.
+ */
+@Component
+@Slf4j
+public class CustomerBalanceLedger {
+
+    private final CustomerBalanceEntryRepository entryRepository;
+    private final CustomerRepository customerRepository;
+    private final CustomerStatementService customerStatementService;
+    private final long reconcileIntervalMs;
+    private final ScheduledExecutorService reconciler;
+
+    public CustomerBalanceLedger(CustomerBalanceEntryRepository entryRepository,
+                                 CustomerRepository customerRepository,
+                                 CustomerStatementService customerStatementService,
+                                 @Value("${customer.balance.reconcile-interval-ms:3600000}") long reconcileIntervalMs) {
+        this.entryRepository = entryRepository;
+        this.customerRepository = customerRepository;
+        this.customerStatementService = customerStatementService;
+        this.reconcileIntervalMs = reconcileIntervalMs;
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-balance-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Record a balance change and apply it atomically - must run inside the transaction of the
+     * document causing it. A document can change the balance once per entry type; a second
+     * attempt fails on the ledger's unique index and rolls back.
+     *
+     * @param amount Signed change - positive increases the customer's debt
+     * @return Balance after the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal apply(UUID customerId, EntryType entryType, BigDecimal amount,
+                            UUID sourceDocumentId, String sourceDocumentNumber) {
+        entryRepository.save(CustomerBalanceEntry.builder()
+                .customerId(customerId)
+                .entryType(entryType)
+                .amount(amount)
+                .sourceDocumentId(sourceDocumentId)
+                .sourceDocumentNumber(sourceDocumentNumber)
+                .build());
+        if (customerRepository.addToBalance(customerId, amount) == 0) {
+            throw new RuntimeException("Customer not found with id: " + customerId);
+        }
+        BigDecimal balance = customerRepository.findCurrentBalance(customerId)
+                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + customerId));
+        customerStatementService.record(customerId, entryType, amount, balance);
+        return balance;
+    }
+
+    /**
+     * Customers whose balance differs from the sum of their ledger entries
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerBalanceMismatchResponse> reconcile() {
+        List<CustomerBalanceMismatchResponse> mismatches = entryRepository.findBalanceMismatches().stream()
+                .map(view -> CustomerBalanceMismatchResponse.builder()
+                        .customerId(view.getCustomerId())
+                        .code(view.getCode())
+                        .currentBalance(view.getCurrentBalance())
+                        .ledgerBalance(view.getLedgerBalance())
+                        .difference(view.getCurrentBalance().subtract(view.getLedgerBalance()))
+                        .build())
+                .toList();
+        mismatches.forEach(mismatch -> log.warn("Customer {} balance {} does not match ledger balance {}",
+                mismatch.getCode(), mismatch.getCurrentBalance(), mismatch.getLedgerBalance()));
+        if (mismatches.isEmpty()) {
+            log.debug("Customer balances match the ledger");
+        }
+        return mismatches;
+    }
+
+    /**
+     * Start the background reconciler once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (reconcileIntervalMs <= 0) {
+            log.info("Customer balance reconciler disabled");
+            return;
+        }
+        reconciler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                log.error("Customer balance reconciliation failed: {}", e.getMessage(), e);
+            }
+        }, reconcileIntervalMs, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+}
@@ -1,7 +1,9 @@
 package lt.elektromeistras.service;
 
 import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.domain.CustomerBalanceEntry;
 import lt.elektromeistras.repository.CustomerRepository;
+import lt.elektromeistras.repository.LikePatterns;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -11,9 +13,11 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -21,12 +25,17 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class CustomerService {
 
+    private static final int AUTOCOMPLETE_LIMIT = 20;
+    private static final Pattern PHONE_QUERY = Pattern.compile("[0-9+()\\-\\s]*[0-9][0-9+()\\-\\s]*");
+
     private final CustomerRepository customerRepository;
+    private final CustomerBalanceLedger customerBalanceLedger;
 
     /**
      * FAST customer search for autocomplete - CRITICAL for UX
      * Limits results to top 20 for performance
-     * Searches by code, company name, first/last name, email, phone, VAT
+     * Searches by code, company name, first/last name, email, VAT - diacritics folded,
+     * so "siauliai" finds "Šiauliai" - and phone/mobile by digits only
      * Prioritizes exact code matches
      */
     public List<Customer> searchCustomers(String query) {
@@ -39,11 +48,15 @@ public class CustomerService {
             ).getContent();
         }
 
-        // Use repository search which has optimized ordering
-        List<Customer> results = customerRepository.searchCustomers(query.trim());
-
-        // Limit to 20 for autocomplete performance
-        return results.size() > 20 ? results.subList(0, 20) : results;
+        // Ranked, index-backed search - only the top 20 rows leave the database
+        String normalized = Customer.normalizeSearchText(query);
+        String escaped = LikePatterns.escape(normalized);
+        String phoneDigits = phoneDigits(query);
+        return customerRepository.searchCustomersRanked(normalized,
+                "%" + escaped + "%", escaped + "%", "% " + escaped + "%",
+                phoneDigits.isEmpty() ? "" : "%" + phoneDigits + "%",
+                phoneDigits.isEmpty() ? "" : phoneDigits + "%",
+                AUTOCOMPLETE_LIMIT);
     }
 
     /**
@@ -95,7 +108,20 @@ public class CustomerService {
         if (query == null || query.trim().isEmpty()) {
             return customerRepository.findByIsActiveTrue(pageable);
         }
-        return customerRepository.searchCustomers(query.trim(), pageable);
+        String phoneDigits = phoneDigits(query);
+        return customerRepository.searchCustomers(
+                "%" + LikePatterns.escape(Customer.normalizeSearchText(query)) + "%",
+                phoneDigits.isEmpty() ? "" : "%" + phoneDigits + "%",
+                pageable);
+    }
+
+    /**
+     * Digits of a query that looks like a phone number ("+370 612 34567"), empty otherwise -
+     * so a code like "B001" is not also matched against phone numbers
+     */
+    private String phoneDigits(String query) {
+        String trimmed = query.trim();
+        return PHONE_QUERY.matcher(trimmed).matches() ? Customer.digitsOnly(trimmed) : "";
     }
 
     /**
@@ -136,7 +162,16 @@ public class CustomerService {
             }
         }
 
-        return customerRepository.save(customer);
+        // A starting balance goes through the ledger like any other balance change
+        BigDecimal openingBalance = customer.getCurrentBalance();
+        customer.setCurrentBalance(BigDecimal.ZERO);
+        Customer saved = customerRepository.save(customer);
+        if (openingBalance != null && openingBalance.signum() != 0) {
+            BigDecimal balance = customerBalanceLedger.apply(saved.getId(), CustomerBalanceEntry.EntryType.OPENING,
+                    openingBalance, null, null);
+            saved.setCurrentBalance(balance);
+        }
+        return saved;
     }
 
     /**
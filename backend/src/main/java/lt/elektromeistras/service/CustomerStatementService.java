@@ -0,0 +1,266 @@
+package lt.elektromeistras.service;
+
+import com.opencsv.CSVWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.domain.CustomerBalanceEntry.EntryType;
+import lt.elektromeistras.domain.CustomerStatementPeriod;
+import lt.elektromeistras.dto.response.MonthlyStatementSummaryResponse;
+import lt.elektromeistras.repository.CustomerStatementPeriodRepository;
+import lt.elektromeistras.repository.CustomerStatementPeriodRepository.StatementView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Monthly credit statements from the statement snapshot.
+ *
+ * Every customer balance ledger entry is added to the customer's row for the current month in
+ * customer_statement_periods, in the entry's transaction and under the customer row lock taken
+ * by the balance update. A statement is then one row: opening balance, pickups, returns,
+ * adjustments and closing balance. A month without activity carries the last closing balance.
+ * Generating all statements splits the customers into partitions of
+ * customer.statement.partition-size, read in parallel on customer.statement.threads threads
+ * and handed to the caller in customer code order as each partition completes.
+ */
+@Service
+@Slf4j
+public class CustomerStatementService {
+
+    private static final String[] CSV_HEADER = {"customer_code", "customer_name", "vat_code", "year", "month",
+            "opening_balance", "pickups", "returns", "adjustments", "closing_balance", "pickup_count", "return_count"};
+
+    private final CustomerStatementPeriodRepository periodRepository;
+    private final TransactionTemplate readTransaction;
+    private final int partitionSize;
+    private final ExecutorService statementExecutor;
+
+    public CustomerStatementService(CustomerStatementPeriodRepository periodRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${customer.statement.threads:4}") int threads,
+                                    @Value("${customer.statement.partition-size:500}") int partitionSize) {
+        this.periodRepository = periodRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.partitionSize = Math.max(1, partitionSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.statementExecutor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "customer-statement-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Add a ledger entry to the customer's current month - called by CustomerBalanceLedger after
+     * the balance update, which holds the customer row lock until commit
+     *
+     * @param amount Signed change of the entry
+     * @param balance Customer balance after the entry
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UUID customerId, EntryType entryType, BigDecimal amount, BigDecimal balance) {
+        YearMonth period = YearMonth.now(ZoneId.systemDefault());
+        BigDecimal pickups = entryType == EntryType.CREDIT_PICKUP ? amount : BigDecimal.ZERO;
+        BigDecimal returns = entryType == EntryType.CREDIT_RETURN ? amount.negate() : BigDecimal.ZERO;
+        BigDecimal adjustments = entryType == EntryType.OPENING || entryType == EntryType.CREDIT_CANCELLATION
+                ? amount : BigDecimal.ZERO;
+        int pickupCount = entryType == EntryType.CREDIT_PICKUP ? 1 : 0;
+        int returnCount = entryType == EntryType.CREDIT_RETURN ? 1 : 0;
+
+        if (periodRepository.addToPeriod(customerId, period.getYear(), period.getMonthValue(),
+                pickups, returns, adjustments, pickupCount, returnCount, balance) > 0) {
+            return;
+        }
+
+        // First entry of the month - the balance before it is the month's opening balance
+        periodRepository.save(CustomerStatementPeriod.builder()
+                .customerId(customerId)
+                .periodYear(period.getYear())
+                .periodMonth(period.getMonthValue())
+                .openingBalance(balance.subtract(amount))
+                .pickupsAmount(pickups)
+                .returnsAmount(returns)
+                .adjustmentsAmount(adjustments)
+                .closingBalance(balance)
+                .pickupCount(pickupCount)
+                .returnCount(returnCount)
+                .build());
+    }
+
+    /**
+     * Statement totals of one customer; zero balances if the customer had no entries up to the month
+     */
+    @Transactional(readOnly = true)
+    public MonthlyStatementSummaryResponse getStatementSummary(UUID customerId, int year, int month) {
+        YearMonth period = YearMonth.of(year, month);
+        return periodRepository.findLatestUpTo(List.of(customerId), periodIndex(period)).stream()
+                .findFirst()
+                .map(view -> toResponse(view, period))
+                .orElseGet(() -> MonthlyStatementSummaryResponse.builder()
+                        .customerId(customerId)
+                        .year(year)
+                        .month(month)
+                        .openingBalance(BigDecimal.ZERO)
+                        .pickupsAmount(BigDecimal.ZERO)
+                        .returnsAmount(BigDecimal.ZERO)
+                        .adjustmentsAmount(BigDecimal.ZERO)
+                        .closingBalance(BigDecimal.ZERO)
+                        .build());
+    }
+
+    /**
+     * Statements of every customer with activity in the month or a balance carried into it,
+     * in customer code order
+     *
+     * @param sink Receives the statements partition by partition, on the calling thread
+     * @return Number of statements generated
+     */
+    public int generateAll(int year, int month, Consumer<MonthlyStatementSummaryResponse> sink) {
+        long start = System.nanoTime();
+        YearMonth period = YearMonth.of(year, month);
+        int periodIndex = periodIndex(period);
+        List<UUID> customerIds = periodRepository.findCustomerIdsUpTo(periodIndex);
+
+        List<Future<List<MonthlyStatementSummaryResponse>>> partitions = new ArrayList<>();
+        for (int from = 0; from < customerIds.size(); from += partitionSize) {
+            List<UUID> partition = customerIds.subList(from, Math.min(from + partitionSize, customerIds.size()));
+            partitions.add(statementExecutor.submit(() -> readTransaction.execute(status ->
+                    periodRepository.findLatestUpTo(partition, periodIndex).stream()
+                            .map(view -> toResponse(view, period))
+                            .filter(CustomerStatementService::isDue)
+                            .toList())));
+        }
+
+        int statements = 0;
+        try {
+            for (Future<List<MonthlyStatementSummaryResponse>> partition : partitions) {
+                for (MonthlyStatementSummaryResponse statement : partition.get()) {
+                    sink.accept(statement);
+                    statements++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Statement generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Statement generation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            partitions.forEach(partition -> partition.cancel(true));
+        }
+
+        log.info("Generated {} statements for {} from {} customers in {} partitions in {} ms", statements, period,
+                customerIds.size(), partitions.size(), (System.nanoTime() - start) / 1_000_000);
+        return statements;
+    }
+
+    /**
+     * Write all statements of the month as CSV with a header line, one row per customer
+     *
+     * @return Number of statements written
+     */
+    public int writeCsv(int year, int month, OutputStream out) {
+        try {
+            CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+            writer.writeNext(CSV_HEADER, false);
+            int statements = generateAll(year, month, statement -> writer.writeNext(csvRow(statement), false));
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("Statement CSV could not be written");
+            }
+            return statements;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        statementExecutor.shutdownNow();
+    }
+
+    private MonthlyStatementSummaryResponse toResponse(StatementView view, YearMonth period) {
+        boolean ownRow = view.getPeriodYear() == period.getYear() && view.getPeriodMonth() == period.getMonthValue();
+        MonthlyStatementSummaryResponse.MonthlyStatementSummaryResponseBuilder statement = MonthlyStatementSummaryResponse.builder()
+                .customerId(view.getCustomerId())
+                .customerCode(view.getCode())
+                .customerName(Customer.displayName(view.getCustomerType(), view.getCode(), view.getCompanyName(),
+                        view.getFirstName(), view.getLastName()))
+                .vatCode(view.getVatCode())
+                .year(period.getYear())
+                .month(period.getMonthValue())
+                .closingBalance(view.getClosingBalance());
+        if (!ownRow) {
+            // No entries in the month - the last closing balance carries over unchanged
+            return statement
+                    .openingBalance(view.getClosingBalance())
+                    .pickupsAmount(BigDecimal.ZERO)
+                    .returnsAmount(BigDecimal.ZERO)
+                    .adjustmentsAmount(BigDecimal.ZERO)
+                    .build();
+        }
+        return statement
+                .openingBalance(view.getOpeningBalance())
+                .pickupsAmount(view.getPickupsAmount())
+                .returnsAmount(view.getReturnsAmount())
+                .adjustmentsAmount(view.getAdjustmentsAmount())
+                .pickupCount(view.getPickupCount())
+                .returnCount(view.getReturnCount())
+                .build();
+    }
+
+    /**
+     * A statement is due for customers with entries in the month or an outstanding balance
+     */
+    private static boolean isDue(MonthlyStatementSummaryResponse statement) {
+        return statement.getPickupCount() > 0 || statement.getReturnCount() > 0
+                || statement.getAdjustmentsAmount().signum() != 0
+                || statement.getClosingBalance().signum() != 0;
+    }
+
+    private static String[] csvRow(MonthlyStatementSummaryResponse statement) {
+        return new String[] {
+                statement.getCustomerCode(),
+                statement.getCustomerName(),
+                statement.getVatCode(),
+                String.valueOf(statement.getYear()),
+                String.valueOf(statement.getMonth()),
+                statement.getOpeningBalance().toPlainString(),
+                statement.getPickupsAmount().toPlainString(),
+                statement.getReturnsAmount().toPlainString(),
+                statement.getAdjustmentsAmount().toPlainString(),
+                statement.getClosingBalance().toPlainString(),
+                String.valueOf(statement.getPickupCount()),
+                String.valueOf(statement.getReturnCount())
+        };
+    }
+
+    private static int periodIndex(YearMonth period) {
+        return period.getYear() * 12 + period.getMonthValue();
+    }
+}
@@ -0,0 +1,247 @@
+package lt.elektromeistras.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.Series;
+import lt.elektromeistras.repository.SeriesRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Document numbers from the series table.
+ *
+ * Every number comes from an atomic increment of series.current_number, so numbers are unique
+ * across transactions and application nodes. How a series is numbered depends on its settings:
+ * - gapless: incremented in the document's own transaction - a rollback returns the number,
+ *   documents of the series are numbered one transaction at a time (fiscal documents)
+ * - block size 1: incremented in a short transaction of its own - numbers of rolled back
+ *   documents are lost
+ * - block size N: a block of N numbers is leased per node and handed out from memory - numbers
+ *   left in a block at shutdown are lost, and numbers from different nodes interleave
+ *
+ * Settings are cached per node. Editing a series evicts them on the node that served the edit;
+ * other nodes re-read them when they lease their next block. A series numbered one at a time
+ * or gapless is not re-read on other nodes, so switching it to or from gapless numbering takes
+ * effect there only after a restart.
+ *
+ * Journal entries are numbered from a JOURNAL-type series users already set up, if there is
+ * one (the series journal postings used before), so entry numbers continue its prefix and
+ * current number instead of starting over at JE-000001.
+ */
+@Service
+@Slf4j
+public class DocumentNumberService {
+
+    /**
+     * Series used by the application's own documents - created on first use if missing, unless
+     * the kind adopts an existing series of its type
+     */
+    @Getter
+    public enum DocumentSeries {
+        JOURNAL("JOURNAL", "Journal entries", Series.SeriesType.JOURNAL, "JE-", true),
+        ORDER("ORDER", "Sales orders", Series.SeriesType.ORDER, "ORD-", false),
+        RETURN("RETURN", "Customer returns", Series.SeriesType.DOCUMENT, "RET-", false),
+        CREDIT_PICKUP("CREDIT_PICKUP", "Credit pickups", Series.SeriesType.DOCUMENT, "P", false),
+        CREDIT_RETURN("CREDIT_RETURN", "Credit returns", Series.SeriesType.DOCUMENT, "R", false);
+
+        private final String code;
+        private final String name;
+        private final Series.SeriesType seriesType;
+        private final String prefix;
+        private final boolean adoptsExistingSeries;
+
+        DocumentSeries(String code, String name, Series.SeriesType seriesType, String prefix,
+                       boolean adoptsExistingSeries) {
+            this.code = code;
+            this.name = name;
+            this.seriesType = seriesType;
+            this.prefix = prefix;
+            this.adoptsExistingSeries = adoptsExistingSeries;
+        }
+    }
+
+    private final SeriesRepository seriesRepository;
+    private final TransactionTemplate newTransaction;
+    private final Map<DocumentSeries, String> seriesCodes = new ConcurrentHashMap<>();
+    private final Map<String, SeriesSettings> settings = new ConcurrentHashMap<>();
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+    private final Map<String, Object> leaseLocks = new ConcurrentHashMap<>();
+
+    public DocumentNumberService(SeriesRepository seriesRepository, PlatformTransactionManager transactionManager) {
+        this.seriesRepository = seriesRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Next number of one of the application's series, creating the series if it does not exist
+     */
+    public String next(DocumentSeries series) {
+        String code = seriesCodes.get(series);
+        if (code == null) {
+            code = resolve(series);
+            seriesCodes.put(series, code);
+        }
+        SeriesSettings seriesSettings = settings.get(code);
+        if (seriesSettings == null) {
+            seriesSettings = load(code);
+        }
+        return seriesSettings.format(allocate(seriesSettings));
+    }
+
+    /**
+     * Next number of a series maintained by users (e.g. invoice series)
+     */
+    public String next(String seriesCode) {
+        SeriesSettings seriesSettings = settings.get(seriesCode);
+        if (seriesSettings == null) {
+            seriesSettings = load(seriesCode);
+        }
+        return seriesSettings.format(allocate(seriesSettings));
+    }
+
+    /**
+     * Forget cached settings and the leased block of a series after it was edited.
+     * Numbers left in the block are lost.
+     */
+    public void evict(String seriesCode) {
+        settings.remove(seriesCode);
+        blocks.remove(seriesCode);
+        seriesCodes.values().remove(seriesCode);
+    }
+
+    private long allocate(SeriesSettings seriesSettings) {
+        String code = seriesSettings.code();
+        if (seriesSettings.gapless()) {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw new RuntimeException("Gapless series " + code + " must be numbered inside the document's transaction");
+            }
+            return advance(code, 1);
+        }
+        if (seriesSettings.blockSize() <= 1) {
+            return newTransaction.execute(status -> advance(code, 1));
+        }
+        return nextFromBlock(code);
+    }
+
+    private long nextFromBlock(String code) {
+        while (true) {
+            Block block = blocks.get(code);
+            if (block != null) {
+                long number = block.next.getAndIncrement();
+                if (number <= block.last) {
+                    return number;
+                }
+            }
+
+            // Block used up - one thread leases the next one, the others wait and retry.
+            // Settings are re-read first, the series may have been edited on another node.
+            SeriesSettings current = null;
+            synchronized (leaseLocks.computeIfAbsent(code, key -> new Object())) {
+                if (blocks.get(code) == block) {
+                    current = load(code);
+                    if (current.gapless() || current.blockSize() <= 1) {
+                        blocks.remove(code);
+                    } else {
+                        int size = current.blockSize();
+                        long last = newTransaction.execute(status -> advance(code, size));
+                        blocks.put(code, new Block(last - size + 1, last));
+                        log.debug("Leased numbers {}-{} of series {}", last - size + 1, last, code);
+                    }
+                }
+            }
+            if (current != null && (current.gapless() || current.blockSize() <= 1)) {
+                return allocate(current);
+            }
+        }
+    }
+
+    /**
+     * Advance the series and return its new current number
+     */
+    private long advance(String code, int count) {
+        if (seriesRepository.advance(code, count) == 0) {
+            throw new RuntimeException("Series not found or inactive: " + code);
+        }
+        return seriesRepository.findCurrentNumber(code)
+                .orElseThrow(() -> new RuntimeException("Series not found: " + code));
+    }
+
+    private SeriesSettings load(String code) {
+        Series series = seriesRepository.findByCode(code)
+                .orElseThrow(() -> new RuntimeException("Series not found: " + code));
+        SeriesSettings seriesSettings = new SeriesSettings(series.getCode(), series.getPrefix(),
+                series.getBlockSize() != null ? series.getBlockSize() : 1,
+                Boolean.TRUE.equals(series.getIsGapless()));
+        settings.put(code, seriesSettings);
+        return seriesSettings;
+    }
+
+    /**
+     * Code of the series numbering one of the application's document kinds. A kind that adopts
+     * an existing series uses its own series once that exists, otherwise the first active series
+     * of its type - only when there is none is its own series created.
+     */
+    private String resolve(DocumentSeries series) {
+        if (series.isAdoptsExistingSeries() && !seriesRepository.existsByCode(series.getCode())) {
+            Optional<Series> existing = seriesRepository
+                    .findFirstBySeriesTypeAndIsActiveTrueOrderByCodeAsc(series.getSeriesType());
+            if (existing.isPresent()) {
+                log.info("Numbering {} from existing series {}", series.getCode(), existing.get().getCode());
+                return existing.get().getCode();
+            }
+        }
+        createIfMissing(series);
+        return series.getCode();
+    }
+
+    /**
+     * Create the series in its own transaction so every node sees it right away. Another node
+     * creating it at the same time is not an error.
+     */
+    private void createIfMissing(DocumentSeries series) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (seriesRepository.existsByCode(series.getCode())) {
+                    return;
+                }
+                seriesRepository.save(Series.builder()
+                        .code(series.getCode())
+                        .name(series.getName())
+                        .seriesType(series.getSeriesType())
+                        .prefix(series.getPrefix())
+                        .currentNumber(0L)
+                        .build());
+                log.info("Created document series {}", series.getCode());
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Document series {} created concurrently", series.getCode());
+        }
+    }
+
+    private record SeriesSettings(String code, String prefix, int blockSize, boolean gapless) {
+
+        String format(long number) {
+            return (prefix != null ? prefix : "") + String.format("%06d", number);
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package lt.elektromeistras.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.domain.GLAccountBalanceDelta;
+import lt.elektromeistras.repository.GLAccountBalanceDeltaRepository;
+import lt.elektromeistras.repository.GLAccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Striped GL account balances.
+ *
+ * Accounts such as receivables, revenue and VAT are hit by every order posting. Updating their
+ * gl_accounts row directly makes concurrent postings queue on that row lock until each commits.
+ * Postings instead add their delta to one of gl.balance.stripes rows in gl_account_balance_deltas,
+ * chosen at random, so two postings only wait for each other when they pick the same stripe.
+ * A background compactor folds the stripes into gl_accounts.current_balance; the posted balance
+ * (GLAccount.currentBalance) is always the base plus the remaining stripes.
+ */
+@Component
+@Slf4j
+public class GLAccountBalanceLedger {
+
+    private final GLAccountBalanceDeltaRepository deltaRepository;
+    private final GLAccountRepository glAccountRepository;
+    private final TransactionTemplate newTransaction;
+    private final int stripes;
+    private final long compactionIntervalMs;
+    private final ScheduledExecutorService compactor;
+
+    public GLAccountBalanceLedger(GLAccountBalanceDeltaRepository deltaRepository,
+                                  GLAccountRepository glAccountRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${gl.balance.stripes:16}") int stripes,
+                                  @Value("${gl.balance.compaction-interval-ms:5000}") long compactionIntervalMs) {
+        this.deltaRepository = deltaRepository;
+        this.glAccountRepository = glAccountRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripes = stripes;
+        this.compactionIntervalMs = compactionIntervalMs;
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gl-balance-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Add balance deltas in the current transaction - one stripe, picked at random, for the
+     * whole posting. Pass the deltas in account id order so concurrent postings lock stripes
+     * in the same order.
+     *
+     * @param deltasByAccountId Signed change per account in its normal balance direction
+     */
+    public void addDeltas(Map<UUID, BigDecimal> deltasByAccountId) {
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        deltasByAccountId.forEach((accountId, delta) -> {
+            if (delta.signum() == 0) {
+                return;
+            }
+            if (deltaRepository.addToStripe(accountId, stripe, delta) > 0) {
+                return;
+            }
+
+            // First posting to this account - create its stripes and try again
+            createStripes(accountId);
+            if (deltaRepository.addToStripe(accountId, stripe, delta) > 0) {
+                return;
+            }
+
+            // Stripes could not be created (account not committed yet) - post to the base balance
+            if (glAccountRepository.addToBaseBalance(accountId, delta) == 0) {
+                throw new RuntimeException("GL Account not found with id: " + accountId);
+            }
+        });
+    }
+
+    /**
+     * Fold all pending stripes into the accounts' base balance, one transaction per account.
+     * Only the amounts read are subtracted, so deltas posted meanwhile stay in their stripes.
+     *
+     * @return Number of accounts compacted
+     */
+    public int compact() {
+        List<UUID> accountIds = deltaRepository.findAccountIdsWithPendingDeltas();
+        for (UUID accountId : accountIds) {
+            newTransaction.executeWithoutResult(status -> compactAccount(accountId));
+        }
+        if (!accountIds.isEmpty()) {
+            log.debug("Compacted balance stripes of {} GL accounts", accountIds.size());
+        }
+        return accountIds.size();
+    }
+
+    /**
+     * Create missing stripes for all accounts and start the background compactor once the
+     * application is up. Creating stripes up front keeps postings from needing a second
+     * connection for it under load.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<UUID> accountIds = glAccountRepository.findAll().stream().map(GLAccount::getId).toList();
+        accountIds.forEach(this::createStripes);
+        log.info("GL balance stripes ready for {} accounts ({} stripes each)", accountIds.size(), stripes);
+
+        if (compactionIntervalMs <= 0) {
+            log.info("GL balance compaction disabled");
+            return;
+        }
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                log.error("GL balance compaction failed: {}", e.getMessage(), e);
+            }
+        }, compactionIntervalMs, compactionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compactor.shutdownNow();
+    }
+
+    private void compactAccount(UUID accountId) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (GLAccountBalanceDelta stripe : deltaRepository.findPendingByAccountId(accountId)) {
+            deltaRepository.subtractFromStripe(stripe.getId(), stripe.getDelta());
+            total = total.add(stripe.getDelta());
+        }
+        if (total.signum() != 0) {
+            glAccountRepository.addToBaseBalance(accountId, total);
+        }
+    }
+
+    /**
+     * Create the account's missing stripes in their own transaction, so they are visible to
+     * every posting right away. Another posting creating them at the same time is not an error.
+     */
+    private void createStripes(UUID accountId) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (!glAccountRepository.existsById(accountId)) {
+                    return;
+                }
+                Set<Integer> existing = new HashSet<>(deltaRepository.findStripeNumbers(accountId));
+                for (int stripe = 0; stripe < stripes; stripe++) {
+                    if (!existing.contains(stripe)) {
+                        GLAccountBalanceDelta delta = new GLAccountBalanceDelta();
+                        delta.setGlAccount(glAccountRepository.getReferenceById(accountId));
+                        delta.setStripe(stripe);
+                        deltaRepository.save(delta);
+                    }
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Balance stripes of GL account {} created concurrently", accountId);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package lt.elektromeistras.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.*;
+import lt.elektromeistras.dto.response.GLPeriodBalanceRebuildResponse;
+import lt.elektromeistras.dto.response.TrialBalanceLineResponse;
+import lt.elektromeistras.repository.BudgetPeriodRepository;
+import lt.elektromeistras.repository.GLPeriodBalanceRepository;
+import lt.elektromeistras.repository.GLPeriodBalanceRepository.LineTotalView;
+import lt.elektromeistras.repository.GLPeriodBalanceRepository.PeriodTotalView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GL period balances (trial balance cube).
+ *
+ * Every posted journal entry adds its lines to gl_period_balances, one row per account, budget
+ * period, department, cost center and business object, in the posting's own transaction.
+ * Reversals post swapped lines, so they are recorded the same way. Trial balance and period
+ * reports read the cube instead of scanning journal_entry_lines.
+ * Entries without a budget period do not belong to any period and are not recorded. An entry
+ * is stamped with one period only, so the cube cannot answer for overlapping periods - budget
+ * actuals are summed over the budget period's dates instead (see BudgetVarianceService).
+ */
+@Service
+@Slf4j
+public class GLPeriodBalanceService {
+
+    private final GLPeriodBalanceRepository periodBalanceRepository;
+    private final BudgetPeriodRepository budgetPeriodRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate newTransaction;
+    private final ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public GLPeriodBalanceService(GLPeriodBalanceRepository periodBalanceRepository,
+                                  BudgetPeriodRepository budgetPeriodRepository,
+                                  EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${gl.period-balance.rebuild-threads:4}") int rebuildThreads) {
+        this.periodBalanceRepository = periodBalanceRepository;
+        this.budgetPeriodRepository = budgetPeriodRepository;
+        this.entityManager = entityManager;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.rebuildExecutor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads), runnable -> {
+            Thread thread = new Thread(runnable, "gl-period-balance-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Add a posted entry's lines to the cube in the current transaction. Lines are summed per
+     * row first and rows are updated in key order, so concurrent postings lock them in the
+     * same order.
+     */
+    public void record(JournalEntry entry) {
+        if (entry.getBudgetPeriod() == null) {
+            return;
+        }
+        UUID periodId = entry.getBudgetPeriod().getId();
+
+        Map<String, RowDelta> rows = new TreeMap<>();
+        for (JournalEntryLine line : entry.getJournalEntryLines()) {
+            UUID departmentId = idOf(line.getDepartment());
+            UUID costCenterId = idOf(line.getCostCenter());
+            UUID businessObjectId = idOf(line.getBusinessObject());
+            String dimensionKey = GLPeriodBalance.dimensionKey(departmentId, costCenterId, businessObjectId);
+            RowDelta row = rows.computeIfAbsent(line.getGlAccount().getId() + "|" + dimensionKey,
+                    key -> new RowDelta(line.getGlAccount().getId(), departmentId, costCenterId, businessObjectId, dimensionKey));
+            row.debit = row.debit.add(line.getDebitAmount());
+            row.credit = row.credit.add(line.getCreditAmount());
+        }
+
+        rows.values().forEach(row -> addToRow(periodId, row));
+    }
+
+    /**
+     * Trial balance of a budget period - one line per account with postings
+     */
+    public List<TrialBalanceLineResponse> getTrialBalance(UUID periodId) {
+        return periodBalanceRepository.findTrialBalance(periodId).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Posted totals of a GL account per budget period
+     */
+    public List<TrialBalanceLineResponse> getAccountPeriodBalances(UUID glAccountId) {
+        return periodBalanceRepository.findAccountPeriodTotals(glAccountId).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Rebuild the cube from journal entry lines, periods in parallel. Each period is replaced in
+     * one transaction; postings to a period wait for its rebuild to commit.
+     *
+     * @return Rebuild result, empty if a rebuild is already running
+     */
+    public Optional<GLPeriodBalanceRebuildResponse> rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            long start = System.nanoTime();
+            List<UUID> periodIds = budgetPeriodRepository.findAll().stream().map(BudgetPeriod::getId).toList();
+
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (UUID periodId : periodIds) {
+                tasks.add(() -> newTransaction.execute(status -> rebuildPeriod(periodId)));
+            }
+            int rows = 0;
+            for (Future<Integer> future : rebuildExecutor.invokeAll(tasks)) {
+                rows += future.get();
+            }
+
+            long durationMs = (System.nanoTime() - start) / 1_000_000;
+            log.info("Rebuilt GL period balances: {} periods, {} rows in {} ms", periodIds.size(), rows, durationMs);
+            return Optional.of(GLPeriodBalanceRebuildResponse.builder()
+                    .periods(periodIds.size())
+                    .rows(rows)
+                    .durationMs(durationMs)
+                    .rebuiltAt(LocalDateTime.now())
+                    .build());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("GL period balance rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("GL period balance rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private int rebuildPeriod(UUID periodId) {
+        periodBalanceRepository.deleteByPeriodId(periodId);
+
+        List<GLPeriodBalance> balances = new ArrayList<>();
+        for (LineTotalView total : periodBalanceRepository.sumPostedLinesByPeriod(periodId)) {
+            RowDelta row = new RowDelta(total.getGlAccountId(), total.getDepartmentId(), total.getCostCenterId(),
+                    total.getBusinessObjectId(), GLPeriodBalance.dimensionKey(total.getDepartmentId(),
+                    total.getCostCenterId(), total.getBusinessObjectId()));
+            row.debit = total.getDebitTotal();
+            row.credit = total.getCreditTotal();
+            balances.add(newBalance(periodId, row));
+        }
+        periodBalanceRepository.saveAll(balances);
+        return balances.size();
+    }
+
+    private void addToRow(UUID periodId, RowDelta row) {
+        if (periodBalanceRepository.addToBalance(row.glAccountId, periodId, row.dimensionKey, row.debit, row.credit) > 0) {
+            return;
+        }
+
+        // First posting for this combination - create the row and try again
+        createRow(periodId, row);
+        if (periodBalanceRepository.addToBalance(row.glAccountId, periodId, row.dimensionKey, row.debit, row.credit) > 0) {
+            return;
+        }
+
+        // Row could not be created on its own (account or dimension not committed yet) - insert it here
+        periodBalanceRepository.saveAndFlush(newBalance(periodId, row));
+    }
+
+    /**
+     * Create an empty row in its own transaction, so the posting only holds a lock on it while
+     * adding. Another posting creating it at the same time is not an error.
+     */
+    private void createRow(UUID periodId, RowDelta row) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                RowDelta empty = new RowDelta(row.glAccountId, row.departmentId, row.costCenterId,
+                        row.businessObjectId, row.dimensionKey);
+                periodBalanceRepository.saveAndFlush(newBalance(periodId, empty));
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("GL period balance row {} of account {} not created: {}", row.dimensionKey, row.glAccountId,
+                    e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private GLPeriodBalance newBalance(UUID periodId, RowDelta row) {
+        GLPeriodBalance balance = new GLPeriodBalance();
+        balance.setGlAccount(entityManager.getReference(GLAccount.class, row.glAccountId));
+        balance.setBudgetPeriod(entityManager.getReference(BudgetPeriod.class, periodId));
+        if (row.departmentId != null) {
+            balance.setDepartment(entityManager.getReference(Department.class, row.departmentId));
+        }
+        if (row.costCenterId != null) {
+            balance.setCostCenter(entityManager.getReference(CostCenter.class, row.costCenterId));
+        }
+        if (row.businessObjectId != null) {
+            balance.setBusinessObject(entityManager.getReference(BusinessObject.class, row.businessObjectId));
+        }
+        balance.setDimensionKey(row.dimensionKey);
+        balance.setDebitTotal(row.debit);
+        balance.setCreditTotal(row.credit);
+        return balance;
+    }
+
+    private TrialBalanceLineResponse toResponse(PeriodTotalView view) {
+        BigDecimal net = view.getDebitTotal().subtract(view.getCreditTotal());
+        return TrialBalanceLineResponse.builder()
+                .glAccountId(view.getGlAccountId())
+                .glAccountCode(view.getCode())
+                .glAccountName(view.getName())
+                .accountType(view.getAccountType().name())
+                .normalBalance(view.getNormalBalance().name())
+                .budgetPeriodId(view.getBudgetPeriodId())
+                .budgetPeriodCode(view.getBudgetPeriodCode())
+                .debitTotal(view.getDebitTotal())
+                .creditTotal(view.getCreditTotal())
+                .balance(view.getNormalBalance() == GLAccount.NormalBalance.DEBIT ? net : net.negate())
+                .build();
+    }
+
+    private static UUID idOf(BaseEntity entity) {
+        return entity != null ? entity.getId() : null;
+    }
+
+    /**
+     * Amounts to add to one cube row
+     */
+    private static final class RowDelta {
+        private final UUID glAccountId;
+        private final UUID departmentId;
+        private final UUID costCenterId;
+        private final UUID businessObjectId;
+        private final String dimensionKey;
+        private BigDecimal debit = BigDecimal.ZERO;
+        private BigDecimal credit = BigDecimal.ZERO;
+
+        private RowDelta(UUID glAccountId, UUID departmentId, UUID costCenterId, UUID businessObjectId,
+                         String dimensionKey) {
+            this.glAccountId = glAccountId;
+            this.departmentId = departmentId;
+            this.costCenterId = costCenterId;
+            this.businessObjectId = businessObjectId;
+            this.dimensionKey = dimensionKey;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package lt.elektromeistras.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.GLPostingOutboxEvent;
+import lt.elektromeistras.domain.GLPostingOutboxEvent.EventType;
+import lt.elektromeistras.domain.GLPostingOutboxEvent.OutboxStatus;
+import lt.elektromeistras.domain.JournalEntry;
+import lt.elektromeistras.domain.Order;
+import lt.elektromeistras.domain.Return;
+import lt.elektromeistras.repository.GLPostingOutboxRepository;
+import lt.elektromeistras.repository.OrderRepository;
+import lt.elektromeistras.repository.ReturnRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox for GL postings.
+ *
+ * Orders, returns and payments only write an outbox event in their own transaction. A background
+ * poster drains due events in batches and posts each through GLPostingService in a transaction of
+ * its own, so accounting latency and errors (e.g. a missing GL account) never reach checkout.
+ * Failed events are retried with exponential backoff and end up DEAD after gl.outbox.max-attempts;
+ * dead events stay listed until retried by hand. Documents that already have a journal entry are
+ * not posted again; an order's row is locked before that check, as GL settlement does.
+ */
+@Component
+@Slf4j
+public class GLPostingOutbox {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final GLPostingOutboxRepository outboxRepository;
+    private final OrderRepository orderRepository;
+    private final ReturnRepository returnRepository;
+    private final GLPostingService glPostingService;
+    private final TransactionTemplate newTransaction;
+    private final long pollIntervalMs;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final ScheduledExecutorService poster;
+
+    public GLPostingOutbox(GLPostingOutboxRepository outboxRepository,
+                           OrderRepository orderRepository,
+                           ReturnRepository returnRepository,
+                           GLPostingService glPostingService,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${gl.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+                           @Value("${gl.outbox.batch-size:100}") int batchSize,
+                           @Value("${gl.outbox.max-attempts:8}") int maxAttempts,
+                           @Value("${gl.outbox.backoff-ms:5000}") long backoffMs,
+                           @Value("${gl.outbox.max-backoff-ms:3600000}") long maxBackoffMs) {
+        this.outboxRepository = outboxRepository;
+        this.orderRepository = orderRepository;
+        this.returnRepository = returnRepository;
+        this.glPostingService = glPostingService;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pollIntervalMs = pollIntervalMs;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.poster = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gl-outbox-poster");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a confirmed order for posting - must run inside the confirming transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueOrder(Order order) {
+        enqueue(GLPostingOutboxEvent.builder()
+                .eventType(EventType.ORDER)
+                .sourceDocumentId(order.getId())
+                .sourceDocumentNumber(order.getOrderNumber()));
+    }
+
+    /**
+     * Queue a refunded return for posting - must run inside the refund transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueReturn(Return customerReturn) {
+        enqueue(GLPostingOutboxEvent.builder()
+                .eventType(EventType.RETURN)
+                .sourceDocumentId(customerReturn.getId())
+                .sourceDocumentNumber(customerReturn.getReturnNumber()));
+    }
+
+    /**
+     * Queue a payment received on an order for posting - must run inside the transaction
+     * recording the payment. Each call is a separate payment with its own generated id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueuePayment(Order order, BigDecimal amount) {
+        enqueue(GLPostingOutboxEvent.builder()
+                .eventType(EventType.PAYMENT)
+                .sourceDocumentId(UUID.randomUUID())
+                .sourceDocumentNumber(order.getOrderNumber())
+                .customerId(order.getCustomer().getId())
+                .amount(amount)
+                .eventDate(LocalDate.now()));
+    }
+
+    /**
+     * Post all due events, one batch after another, until no full batch is left
+     *
+     * @return Number of events posted
+     */
+    public int drain() {
+        int posted = 0;
+        List<UUID> due;
+        do {
+            due = outboxRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            for (UUID eventId : due) {
+                if (process(eventId)) {
+                    posted++;
+                }
+            }
+        } while (due.size() == batchSize);
+
+        if (posted > 0) {
+            log.debug("Posted {} GL outbox events", posted);
+        }
+        return posted;
+    }
+
+    /**
+     * Dead events, most recently failed first
+     */
+    @Transactional(readOnly = true)
+    public List<GLPostingOutboxEvent> getDeadEvents() {
+        return outboxRepository.findByStatusOrderByUpdatedAtDesc(OutboxStatus.DEAD);
+    }
+
+    @Transactional(readOnly = true)
+    public long countByStatus(OutboxStatus status) {
+        return outboxRepository.countByStatus(status);
+    }
+
+    /**
+     * Put a dead event back in the queue with a fresh set of attempts
+     */
+    @Transactional
+    public GLPostingOutboxEvent retry(UUID eventId) {
+        GLPostingOutboxEvent event = outboxRepository.findByIdForUpdate(eventId)
+                .orElseThrow(() -> new RuntimeException("GL outbox event not found with id: " + eventId));
+        if (event.getStatus() != OutboxStatus.DEAD) {
+            throw new RuntimeException("Only DEAD outbox events can be retried");
+        }
+        event.setStatus(OutboxStatus.PENDING);
+        event.setAttempts(0);
+        event.setNextAttemptAt(LocalDateTime.now());
+        log.info("GL outbox event {} {} queued for retry", event.getEventType(), event.getSourceDocumentNumber());
+        return outboxRepository.save(event);
+    }
+
+    /**
+     * Start the background poster once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (pollIntervalMs <= 0) {
+            log.info("GL outbox poster disabled");
+            return;
+        }
+        poster.scheduleWithFixedDelay(() -> {
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                log.error("GL outbox drain failed: {}", e.getMessage(), e);
+            }
+        }, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poster.shutdownNow();
+    }
+
+    private void enqueue(GLPostingOutboxEvent.GLPostingOutboxEventBuilder event) {
+        GLPostingOutboxEvent saved = outboxRepository.save(event
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+        log.debug("Queued {} {} for GL posting", saved.getEventType(), saved.getSourceDocumentNumber());
+    }
+
+    /**
+     * Post one event in its own transaction; on failure record the error in another one
+     */
+    private boolean process(UUID eventId) {
+        try {
+            return Boolean.TRUE.equals(newTransaction.execute(status -> post(eventId)));
+        } catch (RuntimeException e) {
+            log.warn("GL posting of outbox event {} failed: {}", eventId, e.getMessage());
+            newTransaction.executeWithoutResult(status -> recordFailure(eventId, e));
+            return false;
+        }
+    }
+
+    private boolean post(UUID eventId) {
+        GLPostingOutboxEvent event = outboxRepository.findByIdForUpdate(eventId).orElse(null);
+        if (event == null || event.getStatus() != OutboxStatus.PENDING) {
+            // Handled by another poster meanwhile
+            return false;
+        }
+
+        JournalEntry.SourceType sourceType = event.getEventType().getSourceType();
+        Order order = event.getEventType() == EventType.ORDER
+                ? orderRepository.findByIdForUpdate(event.getSourceDocumentId())
+                        .orElseThrow(() -> new RuntimeException("Order not found with id: " + event.getSourceDocumentId()))
+                : null;
+        if (glPostingService.isAlreadyPosted(sourceType, event.getSourceDocumentId())) {
+            log.info("{} {} already posted to GL, skipping", sourceType, event.getSourceDocumentNumber());
+        } else {
+            JournalEntry entry = switch (event.getEventType()) {
+                case ORDER -> glPostingService.postOrderToGL(order);
+                case RETURN -> glPostingService.postReturnToGL(returnRepository.findById(event.getSourceDocumentId())
+                        .orElseThrow(() -> new RuntimeException("Return not found with id: " + event.getSourceDocumentId())));
+                case PAYMENT -> glPostingService.postPaymentToGL(event.getSourceDocumentId(), event.getCustomerId(),
+                        event.getAmount(), event.getEventDate(), event.getSourceDocumentNumber(), null);
+            };
+            event.setJournalEntryId(entry.getId());
+        }
+
+        event.setStatus(OutboxStatus.POSTED);
+        event.setPostedAt(LocalDateTime.now());
+        event.setLastError(null);
+        outboxRepository.save(event);
+        return true;
+    }
+
+    private void recordFailure(UUID eventId, RuntimeException error) {
+        GLPostingOutboxEvent event = outboxRepository.findByIdForUpdate(eventId).orElse(null);
+        if (event == null || event.getStatus() != OutboxStatus.PENDING) {
+            return;
+        }
+
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(error.getMessage() != null ? error.getMessage() : error.toString()));
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxStatus.DEAD);
+            log.error("GL outbox event {} {} gave up after {} attempts: {}",
+                    event.getEventType(), event.getSourceDocumentNumber(), attempts, event.getLastError());
+        } else {
+            event.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff(attempts) * 1_000_000));
+        }
+        outboxRepository.save(event);
+    }
+
+    /**
+     * backoff-ms doubled for every failed attempt, capped at max-backoff-ms
+     */
+    private long backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Math.min(backoffMs << doublings, maxBackoffMs);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,7 +1,7 @@
 package lt.elektromeistras.service;
 
 import lt.elektromeistras.domain.*;
-import lt.elektromeistras.repository.*;
+import lt.elektromeistras.repository.JournalEntrySourceDocumentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -23,9 +24,9 @@ import java.util.UUID;
 public class GLPostingService {
 
     private final JournalEntryService journalEntryService;
-    private final GLAccountRepository glAccountRepository;
-    private final BudgetPeriodRepository budgetPeriodRepository;
-    private final SeriesRepository seriesRepository;
+    private final GLReferenceDataCache referenceDataCache;
+    private final DocumentNumberService documentNumberService;
+    private final JournalEntrySourceDocumentRepository sourceDocumentRepository;
 
     /**
      * Post order to GL
@@ -42,42 +43,42 @@ public class GLPostingService {
         GLAccount vatPayableAccount = findAccountByCode("2410"); // VAT Payable
 
         // Get current budget period
-        BudgetPeriod period = getCurrentBudgetPeriod(order.getOrderDate().toLocalDate());
+        LocalDate orderDate = LocalDate.ofInstant(order.getOrderDate(), ZoneId.systemDefault());
+        BudgetPeriod period = referenceDataCache.getPeriodForDate(orderDate);
 
         // Create journal entry
         JournalEntry entry = JournalEntry.builder()
-                .entryNumber(generateEntryNumber("JE-ORDER"))
-                .entryDate(order.getOrderDate().toLocalDate())
+                .entryNumber(documentNumberService.next(DocumentNumberService.DocumentSeries.JOURNAL))
+                .entryDate(orderDate)
                 .entryType(JournalEntry.EntryType.AUTOMATIC)
                 .sourceType(JournalEntry.SourceType.ORDER)
                 .sourceDocumentId(order.getId())
                 .sourceDocumentNumber(order.getOrderNumber())
                 .description("Sales order: " + order.getOrderNumber())
                 .budgetPeriod(period)
-                .status(JournalEntry.EntryStatus.DRAFT)
                 .build();
 
-        entry = journalEntryService.createJournalEntry(entry);
+        List<JournalEntryLine> lines = new ArrayList<>();
 
         // Line 1: Debit Accounts Receivable (total including VAT)
         JournalEntryLine receivableLine = JournalEntryLine.builder()
                 .glAccount(receivableAccount)
                 .debitAmount(order.getTotalAmount())
                 .creditAmount(BigDecimal.ZERO)
-                .description("Customer: " + order.getCustomer().getName())
+                .description("Customer: " + order.getCustomer().getDisplayName())
                 .build();
 
-        entry = journalEntryService.addJournalEntryLine(entry.getId(), receivableLine);
+        lines.add(receivableLine);
 
-        // Line 2: Credit Sales Revenue (subtotal without VAT)
+        // Line 2: Credit Sales Revenue (subtotal without VAT, less order discount)
         JournalEntryLine revenueLine = JournalEntryLine.builder()
                 .glAccount(revenueAccount)
                 .debitAmount(BigDecimal.ZERO)
-                .creditAmount(order.getSubtotalAmount())
+                .creditAmount(SettledOrder.of(order).revenue())
                 .description("Sales revenue")
                 .build();
 
-        entry = journalEntryService.addJournalEntryLine(entry.getId(), revenueLine);
+        lines.add(revenueLine);
 
         // Line 3: Credit VAT Payable (if VAT exists)
         if (order.getTaxAmount() != null && order.getTaxAmount().compareTo(BigDecimal.ZERO) > 0) {
@@ -88,18 +89,92 @@ public class GLPostingService {
                     .description("VAT on sales")
                     .build();
 
-            entry = journalEntryService.addJournalEntryLine(entry.getId(), vatLine);
+            lines.add(vatLine);
         }
 
-        // Validate and post
-        entry = journalEntryService.validateJournalEntry(entry.getId());
-        entry = journalEntryService.postJournalEntry(entry.getId(), null);
+        // Validate, insert and post in one step
+        entry = journalEntryService.postBalancedEntry(entry, lines);
 
         log.info("Order {} posted to GL successfully. Entry: {}", order.getOrderNumber(), entry.getEntryNumber());
 
         return entry;
     }
 
+    /**
+     * Post a day's orders to GL as one summarized entry - one line per account, the totals of
+     * the same lines postOrderToGL would post per order. Every order is linked to the entry as
+     * a source document, so isAlreadyPosted and drill-down still work per order.
+     * Debit: Accounts Receivable
+     * Credit: Sales Revenue, VAT Payable
+     */
+    @Transactional
+    public JournalEntry postOrderSettlementToGL(LocalDate settlementDate, List<SettledOrder> orders) {
+        log.info("Posting settlement of {} orders for {} to GL", orders.size(), settlementDate);
+
+        GLAccount receivableAccount = findAccountByCode("1300"); // Accounts Receivable
+        GLAccount revenueAccount = findAccountByCode("4000"); // Sales Revenue
+        GLAccount vatPayableAccount = findAccountByCode("2410"); // VAT Payable
+
+        BigDecimal receivable = BigDecimal.ZERO;
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal vat = BigDecimal.ZERO;
+        for (SettledOrder order : orders) {
+            receivable = receivable.add(order.totalAmount());
+            revenue = revenue.add(order.revenue());
+            vat = vat.add(order.taxAmount());
+        }
+
+        JournalEntry entry = JournalEntry.builder()
+                .entryNumber(documentNumberService.next(DocumentNumberService.DocumentSeries.JOURNAL))
+                .entryDate(settlementDate)
+                .entryType(JournalEntry.EntryType.AUTOMATIC)
+                .sourceType(JournalEntry.SourceType.ORDER)
+                .sourceDocumentNumber("SETTLEMENT-" + settlementDate)
+                .description("Sales orders settlement " + settlementDate + ": " + orders.size() + " orders")
+                .budgetPeriod(referenceDataCache.getPeriodForDate(settlementDate))
+                .build();
+
+        List<JournalEntryLine> lines = new ArrayList<>();
+        lines.add(JournalEntryLine.builder()
+                .glAccount(receivableAccount)
+                .debitAmount(receivable)
+                .creditAmount(BigDecimal.ZERO)
+                .description("Customers: " + orders.size() + " orders")
+                .build());
+        lines.add(JournalEntryLine.builder()
+                .glAccount(revenueAccount)
+                .debitAmount(BigDecimal.ZERO)
+                .creditAmount(revenue)
+                .description("Sales revenue")
+                .build());
+        if (vat.compareTo(BigDecimal.ZERO) > 0) {
+            lines.add(JournalEntryLine.builder()
+                    .glAccount(vatPayableAccount)
+                    .debitAmount(BigDecimal.ZERO)
+                    .creditAmount(vat)
+                    .description("VAT on sales")
+                    .build());
+        }
+
+        entry = journalEntryService.postBalancedEntry(entry, lines);
+
+        List<JournalEntrySourceDocument> documents = new ArrayList<>(orders.size());
+        for (SettledOrder order : orders) {
+            documents.add(JournalEntrySourceDocument.builder()
+                    .journalEntry(entry)
+                    .sourceType(JournalEntry.SourceType.ORDER)
+                    .sourceDocumentId(order.id())
+                    .sourceDocumentNumber(order.orderNumber())
+                    .amount(order.totalAmount())
+                    .build());
+        }
+        sourceDocumentRepository.saveAll(documents);
+
+        log.info("Settlement for {} posted to GL successfully. Entry: {}", settlementDate, entry.getEntryNumber());
+
+        return entry;
+    }
+
     /**
      * Post payment to GL
      * Debit: Cash/Bank
@@ -112,6 +187,20 @@ public class GLPostingService {
             LocalDate paymentDate,
             String paymentReference,
             String bankAccountCode) {
+        return postPaymentToGL(null, customerId, amount, paymentDate, paymentReference, bankAccountCode);
+    }
+
+    /**
+     * Post payment to GL with the payment's id as source document, so isAlreadyPosted can find it
+     */
+    @Transactional
+    public JournalEntry postPaymentToGL(
+            UUID paymentId,
+            UUID customerId,
+            BigDecimal amount,
+            LocalDate paymentDate,
+            String paymentReference,
+            String bankAccountCode) {
 
         log.info("Posting payment to GL: {} from customer {}", amount, customerId);
 
@@ -120,21 +209,21 @@ public class GLPostingService {
         GLAccount receivableAccount = findAccountByCode("1300"); // Accounts Receivable
 
         // Get current budget period
-        BudgetPeriod period = getCurrentBudgetPeriod(paymentDate);
+        BudgetPeriod period = referenceDataCache.getPeriodForDate(paymentDate);
 
         // Create journal entry
         JournalEntry entry = JournalEntry.builder()
-                .entryNumber(generateEntryNumber("JE-PMT"))
+                .entryNumber(documentNumberService.next(DocumentNumberService.DocumentSeries.JOURNAL))
                 .entryDate(paymentDate)
                 .entryType(JournalEntry.EntryType.AUTOMATIC)
                 .sourceType(JournalEntry.SourceType.PAYMENT)
+                .sourceDocumentId(paymentId)
                 .sourceDocumentNumber(paymentReference)
                 .description("Payment received: " + paymentReference)
                 .budgetPeriod(period)
-                .status(JournalEntry.EntryStatus.DRAFT)
                 .build();
 
-        entry = journalEntryService.createJournalEntry(entry);
+        List<JournalEntryLine> lines = new ArrayList<>();
 
         // Line 1: Debit Cash/Bank
         JournalEntryLine cashLine = JournalEntryLine.builder()
@@ -144,7 +233,7 @@ public class GLPostingService {
                 .description("Payment received")
                 .build();
 
-        entry = journalEntryService.addJournalEntryLine(entry.getId(), cashLine);
+        lines.add(cashLine);
 
         // Line 2: Credit Accounts Receivable
         JournalEntryLine receivableLine = JournalEntryLine.builder()
@@ -154,11 +243,10 @@ public class GLPostingService {
                 .description("Payment received from customer")
                 .build();
 
-        entry = journalEntryService.addJournalEntryLine(entry.getId(), receivableLine);
+        lines.add(receivableLine);
 
-        // Validate and post
-        entry = journalEntryService.validateJournalEntry(entry.getId());
-        entry = journalEntryService.postJournalEntry(entry.getId(), null);
+        // Validate, insert and post in one step
+        entry = journalEntryService.postBalancedEntry(entry, lines);
 
         log.info("Payment posted to GL successfully. Entry: {}", entry.getEntryNumber());
 
@@ -181,10 +269,10 @@ public class GLPostingService {
         GLAccount receivableAccount = findAccountByCode("1300"); // Accounts Receivable
 
         // Get current budget period
-        BudgetPeriod period = getCurrentBudgetPeriod(customerReturn.getReturnDate().toLocalDate());
+        BudgetPeriod period = referenceDataCache.getPeriodForDate(customerReturn.getReturnDate().toLocalDate());
 
         // Calculate total refund amount
-        BigDecimal totalRefund = customerReturn.getReturnLines().stream()
+        BigDecimal totalRefund = customerReturn.getLines().stream()
                 .map(ReturnLine::getRefundAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
@@ -195,7 +283,7 @@ public class GLPostingService {
 
         // Create journal entry
         JournalEntry entry = JournalEntry.builder()
-                .entryNumber(generateEntryNumber("JE-RET"))
+                .entryNumber(documentNumberService.next(DocumentNumberService.DocumentSeries.JOURNAL))
                 .entryDate(customerReturn.getReturnDate().toLocalDate())
                 .entryType(JournalEntry.EntryType.AUTOMATIC)
                 .sourceType(JournalEntry.SourceType.RETURN)
@@ -203,10 +291,9 @@ public class GLPostingService {
                 .sourceDocumentNumber(customerReturn.getReturnNumber())
                 .description("Customer return: " + customerReturn.getReturnNumber())
                 .budgetPeriod(period)
-                .status(JournalEntry.EntryStatus.DRAFT)
                 .build();
 
-        entry = journalEntryService.createJournalEntry(entry);
+        List<JournalEntryLine> lines = new ArrayList<>();
 
         // Line 1: Debit Sales Returns (contra revenue)
         JournalEntryLine returnsLine = JournalEntryLine.builder()
@@ -216,7 +303,7 @@ public class GLPostingService {
                 .description("Sales returns")
                 .build();
 
-        entry = journalEntryService.addJournalEntryLine(entry.getId(), returnsLine);
+        lines.add(returnsLine);
 
         // Line 2: Debit VAT Payable (reduce VAT liability)
         if (vatAmount.compareTo(BigDecimal.ZERO) > 0) {
@@ -227,7 +314,7 @@ public class GLPostingService {
                     .description("VAT on returns")
                     .build();
 
-            entry = journalEntryService.addJournalEntryLine(entry.getId(), vatLine);
+            lines.add(vatLine);
         }
 
         // Line 3: Credit Accounts Receivable (reduce customer debt)
@@ -238,11 +325,10 @@ public class GLPostingService {
                 .description("Return from customer")
                 .build();
 
-        entry = journalEntryService.addJournalEntryLine(entry.getId(), receivableLine);
+        lines.add(receivableLine);
 
-        // Validate and post
-        entry = journalEntryService.validateJournalEntry(entry.getId());
-        entry = journalEntryService.postJournalEntry(entry.getId(), null);
+        // Validate, insert and post in one step
+        entry = journalEntryService.postBalancedEntry(entry, lines);
 
         log.info("Return {} posted to GL successfully. Entry: {}", customerReturn.getReturnNumber(), entry.getEntryNumber());
 
@@ -273,20 +359,19 @@ public class GLPostingService {
                 : findAccountByCode("2100"); // Accounts Payable if unpaid
 
         // Get current budget period
-        BudgetPeriod period = getCurrentBudgetPeriod(expenseDate);
+        BudgetPeriod period = referenceDataCache.getPeriodForDate(expenseDate);
 
         // Create journal entry
         JournalEntry entry = JournalEntry.builder()
-                .entryNumber(generateEntryNumber("JE-EXP"))
+                .entryNumber(documentNumberService.next(DocumentNumberService.DocumentSeries.JOURNAL))
                 .entryDate(expenseDate)
                 .entryType(JournalEntry.EntryType.MANUAL)
                 .sourceType(JournalEntry.SourceType.MANUAL)
                 .description(description)
                 .budgetPeriod(period)
-                .status(JournalEntry.EntryStatus.DRAFT)
                 .build();
 
-        entry = journalEntryService.createJournalEntry(entry);
+        List<JournalEntryLine> lines = new ArrayList<>();
 
         // Line 1: Debit Expense
         JournalEntryLine expenseLine = JournalEntryLine.builder()
@@ -298,7 +383,7 @@ public class GLPostingService {
                 .costCenter(costCenter)
                 .build();
 
-        entry = journalEntryService.addJournalEntryLine(entry.getId(), expenseLine);
+        lines.add(expenseLine);
 
         // Line 2: Credit Cash or Accounts Payable
         JournalEntryLine creditLine = JournalEntryLine.builder()
@@ -308,11 +393,10 @@ public class GLPostingService {
                 .description(isPaid ? "Cash payment" : "Accounts payable")
                 .build();
 
-        entry = journalEntryService.addJournalEntryLine(entry.getId(), creditLine);
+        lines.add(creditLine);
 
-        // Validate and post
-        entry = journalEntryService.validateJournalEntry(entry.getId());
-        entry = journalEntryService.postJournalEntry(entry.getId(), null);
+        // Validate, insert and post in one step
+        entry = journalEntryService.postBalancedEntry(entry, lines);
 
         log.info("Expense posted to GL successfully. Entry: {}", entry.getEntryNumber());
 
@@ -323,70 +407,38 @@ public class GLPostingService {
      * Helper method to find GL account by code
      */
     private GLAccount findAccountByCode(String code) {
-        return glAccountRepository.findByCode(code)
+        return referenceDataCache.findAccountByCode(code)
                 .orElseThrow(() -> new RuntimeException("GL Account not found with code: " + code));
     }
 
     /**
-     * Helper method to get current budget period for a date
+     * Check if a transaction has already been posted to GL
      */
-    private BudgetPeriod getCurrentBudgetPeriod(LocalDate date) {
-        List<BudgetPeriod> periods = budgetPeriodRepository.findByDate(date);
-        if (periods.isEmpty()) {
-            log.warn("No budget period found for date: {}. Creating default period.", date);
-            return createDefaultPeriod(date);
-        }
-        return periods.get(0);
+    public boolean isAlreadyPosted(JournalEntry.SourceType sourceType, UUID sourceDocumentId) {
+        List<JournalEntry> entries = journalEntryService.getJournalEntriesBySourceDocument(sourceType, sourceDocumentId);
+        return !entries.isEmpty();
     }
 
     /**
-     * Create default budget period if none exists
+     * Order amounts posted by settlement, read without keeping the order entity
      */
-    private BudgetPeriod createDefaultPeriod(LocalDate date) {
-        int year = date.getYear();
-        BudgetPeriod period = BudgetPeriod.builder()
-                .code("FY" + year)
-                .name("Fiscal Year " + year)
-                .periodType(BudgetPeriod.PeriodType.YEAR)
-                .fiscalYear(year)
-                .startDate(LocalDate.of(year, 1, 1))
-                .endDate(LocalDate.of(year, 12, 31))
-                .status(BudgetPeriod.PeriodStatus.ACTIVE)
-                .isActive(true)
-                .build();
-
-        return budgetPeriodRepository.save(period);
-    }
+    public record SettledOrder(UUID id, String orderNumber, BigDecimal totalAmount,
+                               BigDecimal subtotal, BigDecimal discountAmount, BigDecimal taxAmount) {
 
-    /**
-     * Generate entry number with prefix
-     */
-    private String generateEntryNumber(String prefix) {
-        // Try to find series for journal entries
-        try {
-            List<Series> journalSeries = seriesRepository.findBySeriesType(Series.SeriesType.JOURNAL);
-            if (!journalSeries.isEmpty()) {
-                Series series = journalSeries.get(0);
-                synchronized (series) {
-                    Long nextNumber = (series.getCurrentNumber() != null ? series.getCurrentNumber() : 0L) + 1;
-                    series.setCurrentNumber(nextNumber);
-                    seriesRepository.save(series);
-                    return series.getPrefix() + String.format("%06d", nextNumber);
-                }
-            }
-        } catch (Exception e) {
-            log.warn("Could not use series for entry number generation: {}", e.getMessage());
+        public static SettledOrder of(Order order) {
+            return new SettledOrder(order.getId(), order.getOrderNumber(), order.getTotalAmount(),
+                    order.getSubtotal(), zeroIfNull(order.getDiscountAmount()), zeroIfNull(order.getTaxAmount()));
         }
 
-        // Fallback to timestamp-based number
-        return prefix + "-" + System.currentTimeMillis();
-    }
+        /**
+         * Revenue without VAT - the subtotal less the order level discount
+         */
+        public BigDecimal revenue() {
+            return subtotal.subtract(discountAmount);
+        }
 
-    /**
-     * Check if a transaction has already been posted to GL
-     */
-    public boolean isAlreadyPosted(JournalEntry.SourceType sourceType, UUID sourceDocumentId) {
-        List<JournalEntry> entries = journalEntryService.getJournalEntriesBySourceDocument(sourceType, sourceDocumentId);
-        return !entries.isEmpty();
+        private static BigDecimal zeroIfNull(BigDecimal value) {
+            return value != null ? value : BigDecimal.ZERO;
+        }
     }
 }
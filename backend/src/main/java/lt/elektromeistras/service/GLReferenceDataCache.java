@@ -0,0 +1,304 @@
+package lt.elektromeistras.service;
+
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.BudgetPeriod;
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.repository.BudgetPeriodRepository;
+import lt.elektromeistras.repository.GLAccountRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory GL reference data for postings: the chart of accounts by code and id, and budget
+ * periods in an interval tree by date.
+ *
+ * Both are loaded once (at startup, and again on the first use after an invalidation) in a
+ * read-only transaction of their own, so the cached entities are detached and only their
+ * columns may be read. GLAccountController and BudgetPeriodController invalidate them after
+ * every write. Accounts and periods saved some other way are loaded on the first miss.
+ */
+@Component
+@Slf4j
+public class GLReferenceDataCache {
+
+    private final GLAccountRepository glAccountRepository;
+    private final BudgetPeriodRepository budgetPeriodRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate newTransaction;
+
+    private final Object loadLock = new Object();
+    private volatile Accounts accounts;
+    private volatile Periods periods;
+    private long accountsGeneration;
+    private long periodsGeneration;
+
+    public GLReferenceDataCache(GLAccountRepository glAccountRepository,
+                                BudgetPeriodRepository budgetPeriodRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.glAccountRepository = glAccountRepository;
+        this.budgetPeriodRepository = budgetPeriodRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * GL account by code
+     */
+    public Optional<GLAccount> findAccountByCode(String code) {
+        Accounts current = accounts();
+        GLAccount account = current.byCode.get(code);
+        if (account == null) {
+            account = readTransaction.execute(status -> glAccountRepository.findByCode(code).orElse(null));
+            current.add(account);
+        }
+        return Optional.ofNullable(account);
+    }
+
+    /**
+     * GL account by id
+     */
+    public Optional<GLAccount> findAccountById(UUID id) {
+        Accounts current = accounts();
+        GLAccount account = current.byId.get(id);
+        if (account == null) {
+            account = readTransaction.execute(status -> glAccountRepository.findById(id).orElse(null));
+            current.add(account);
+        }
+        return Optional.ofNullable(account);
+    }
+
+    /**
+     * Budget period by id
+     */
+    public Optional<BudgetPeriod> findPeriodById(UUID id) {
+        BudgetPeriod period = periods().byId.get(id);
+        if (period != null) {
+            return Optional.of(period);
+        }
+        Optional<BudgetPeriod> loaded = Optional.ofNullable(
+                readTransaction.execute(status -> budgetPeriodRepository.findById(id).orElse(null)));
+        if (loaded.isPresent()) {
+            invalidatePeriods();
+        }
+        return loaded;
+    }
+
+    /**
+     * Budget periods containing the date, the widest first (earliest start, then latest end)
+     */
+    public List<BudgetPeriod> findPeriodsByDate(LocalDate date) {
+        return periods().tree.containing(date);
+    }
+
+    /**
+     * Period stamped on an entry dated on the date: the widest period containing it, or the
+     * fiscal year period when no period does
+     */
+    public BudgetPeriod getPeriodForDate(LocalDate date) {
+        List<BudgetPeriod> periods = findPeriodsByDate(date);
+        if (periods.isEmpty()) {
+            log.warn("No budget period found for date: {}. Creating default period.", date);
+            return getOrCreateYearPeriod(date);
+        }
+        return periods.get(0);
+    }
+
+    /**
+     * The fiscal year period FY{year} of the date, created if missing. Creation runs in its own
+     * transaction and relies on the unique period code, so concurrent postings end up with the
+     * same period instead of duplicates.
+     */
+    public BudgetPeriod getOrCreateYearPeriod(LocalDate date) {
+        int year = date.getYear();
+        String code = "FY" + year;
+        BudgetPeriod period;
+        try {
+            period = newTransaction.execute(status -> budgetPeriodRepository.findByCode(code)
+                    .orElseGet(() -> budgetPeriodRepository.save(BudgetPeriod.builder()
+                            .code(code)
+                            .name("Fiscal Year " + year)
+                            .periodType(BudgetPeriod.PeriodType.YEAR)
+                            .fiscalYear(year)
+                            .startDate(LocalDate.of(year, 1, 1))
+                            .endDate(LocalDate.of(year, 12, 31))
+                            .status(BudgetPeriod.PeriodStatus.ACTIVE)
+                            .isActive(true)
+                            .build())));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Budget period {} created concurrently", code);
+            period = readTransaction.execute(status -> budgetPeriodRepository.findByCode(code)
+                    .orElseThrow(() -> new RuntimeException("Budget period not found with code: " + code)));
+        }
+        invalidatePeriods();
+        return period;
+    }
+
+    public void invalidateAccounts() {
+        synchronized (loadLock) {
+            accountsGeneration++;
+            accounts = null;
+        }
+    }
+
+    public void invalidatePeriods() {
+        synchronized (loadLock) {
+            periodsGeneration++;
+            periods = null;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        Accounts loadedAccounts = accounts();
+        Periods loadedPeriods = periods();
+        log.info("GL reference data cache loaded {} accounts and {} budget periods",
+                loadedAccounts.byId.size(), loadedPeriods.byId.size());
+    }
+
+    private Accounts accounts() {
+        Accounts current = accounts;
+        if (current != null) {
+            return current;
+        }
+        long generation;
+        synchronized (loadLock) {
+            generation = accountsGeneration;
+        }
+        Accounts loaded = new Accounts(readTransaction.execute(status -> glAccountRepository.findAll()));
+        synchronized (loadLock) {
+            // Not published if invalidated while loading - the next call loads again
+            if (generation == accountsGeneration) {
+                accounts = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private Periods periods() {
+        Periods current = periods;
+        if (current != null) {
+            return current;
+        }
+        long generation;
+        synchronized (loadLock) {
+            generation = periodsGeneration;
+        }
+        Periods loaded = new Periods(readTransaction.execute(status -> budgetPeriodRepository.findAll()));
+        synchronized (loadLock) {
+            if (generation == periodsGeneration) {
+                periods = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private static final class Accounts {
+        private final Map<String, GLAccount> byCode = new ConcurrentHashMap<>();
+        private final Map<UUID, GLAccount> byId = new ConcurrentHashMap<>();
+
+        private Accounts(List<GLAccount> accounts) {
+            accounts.forEach(this::add);
+        }
+
+        private void add(GLAccount account) {
+            if (account != null) {
+                byCode.put(account.getCode(), account);
+                byId.put(account.getId(), account);
+            }
+        }
+    }
+
+    private static final class Periods {
+        private final Map<UUID, BudgetPeriod> byId = new ConcurrentHashMap<>();
+        private final PeriodIntervalTree tree;
+
+        private Periods(List<BudgetPeriod> periods) {
+            periods.forEach(period -> byId.put(period.getId(), period));
+            tree = new PeriodIntervalTree(periods);
+        }
+    }
+
+    /**
+     * Static interval tree over budget periods: the periods sorted by start date form an implicit
+     * balanced tree (the middle of each range is its root), and every node keeps the latest end
+     * date of its subtree. A date lookup skips subtrees ending before the date and right subtrees
+     * starting after it, so it costs O(log n + matches).
+     */
+    static final class PeriodIntervalTree {
+        private final BudgetPeriod[] periods;
+        private final LocalDate[] maxEnd;
+
+        PeriodIntervalTree(List<BudgetPeriod> periods) {
+            this.periods = periods.stream()
+                    .filter(period -> period.getStartDate() != null && period.getEndDate() != null)
+                    .sorted(Comparator.comparing(BudgetPeriod::getStartDate)
+                            .thenComparing(BudgetPeriod::getEndDate, Comparator.reverseOrder()))
+                    .toArray(BudgetPeriod[]::new);
+            this.maxEnd = new LocalDate[this.periods.length];
+            build(0, this.periods.length - 1);
+        }
+
+        List<BudgetPeriod> containing(LocalDate date) {
+            List<BudgetPeriod> result = new ArrayList<>();
+            collect(0, periods.length - 1, date, result);
+            return result;
+        }
+
+        private LocalDate build(int low, int high) {
+            if (low > high) {
+                return null;
+            }
+            int mid = (low + high) >>> 1;
+            LocalDate max = periods[mid].getEndDate();
+            LocalDate left = build(low, mid - 1);
+            LocalDate right = build(mid + 1, high);
+            if (left != null && left.isAfter(max)) {
+                max = left;
+            }
+            if (right != null && right.isAfter(max)) {
+                max = right;
+            }
+            maxEnd[mid] = max;
+            return max;
+        }
+
+        /**
+         * In-order walk, so matches come out in start date order
+         */
+        private void collect(int low, int high, LocalDate date, List<BudgetPeriod> result) {
+            if (low > high) {
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            if (maxEnd[mid].isBefore(date)) {
+                return;
+            }
+            collect(low, mid - 1, date, result);
+            BudgetPeriod period = periods[mid];
+            if (period.getStartDate().isAfter(date)) {
+                return;
+            }
+            if (!period.getEndDate().isBefore(date)) {
+                result.add(period);
+            }
+            collect(mid + 1, high, date, result);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package lt.elektromeistras.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.JournalEntry;
+import lt.elektromeistras.domain.Order;
+import lt.elektromeistras.dto.response.GLSettlementResponse;
+import lt.elektromeistras.repository.JournalEntryRepository;
+import lt.elektromeistras.repository.JournalEntrySourceDocumentRepository;
+import lt.elektromeistras.repository.OrderRepository;
+import lt.elektromeistras.service.GLPostingService.SettledOrder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-of-day settlement of completed orders to GL.
+ *
+ * Picks up the day's COMPLETED orders that have no GL entry yet (neither their own nor as part
+ * of a settlement) and splits them into gl.settlement.threads partitions processed in parallel.
+ * Per-order mode posts each order like the GL outbox does, in a transaction of its own, so one
+ * failing order does not stop the others. Summarized mode reads the partitions in parallel and
+ * posts one entry for the whole day with the orders linked as its source documents.
+ * Orders posted meanwhile by the GL outbox are skipped in both modes: like the outbox, both modes
+ * lock the order rows before checking whether the orders are posted.
+ */
+@Service
+@Slf4j
+public class GLSettlementService {
+
+    private static final int MAX_ERRORS_TO_REPORT = 100;
+    private static final int ID_CHECK_CHUNK_SIZE = 1000;
+
+    private final OrderRepository orderRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final JournalEntrySourceDocumentRepository sourceDocumentRepository;
+    private final GLPostingService glPostingService;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate readTransaction;
+    private final int threads;
+    private final ExecutorService settlementExecutor;
+    private final AtomicBoolean settling = new AtomicBoolean();
+
+    public GLSettlementService(OrderRepository orderRepository,
+                               JournalEntryRepository journalEntryRepository,
+                               JournalEntrySourceDocumentRepository sourceDocumentRepository,
+                               GLPostingService glPostingService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${gl.settlement.threads:4}") int threads) {
+        this.orderRepository = orderRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.sourceDocumentRepository = sourceDocumentRepository;
+        this.glPostingService = glPostingService;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.threads = Math.max(1, threads);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.settlementExecutor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "gl-settlement-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Post the day's completed orders to GL
+     *
+     * @param date Order date to settle (system time zone)
+     * @param summarize One summarized entry for the day instead of one entry per order
+     * @return Settlement result, empty if a settlement is already running
+     */
+    public Optional<GLSettlementResponse> settle(LocalDate date, boolean summarize) {
+        if (!settling.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            long start = System.nanoTime();
+            Instant from = date.atStartOfDay(ZoneId.systemDefault()).toInstant();
+            Instant to = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+            List<UUID> orderIds = orderRepository.findUnpostedCompletedOrderIds(from, to);
+
+            GLSettlementResponse result = GLSettlementResponse.builder()
+                    .settlementDate(date)
+                    .summarized(summarize)
+                    .partitions(Math.min(threads, orderIds.size()))
+                    .ordersFound(orderIds.size())
+                    .build();
+
+            if (summarize) {
+                settleSummarized(date, orderIds, result);
+            } else {
+                settlePerOrder(orderIds, result);
+            }
+
+            long durationMs = (System.nanoTime() - start) / 1_000_000;
+            result.setDurationMs(durationMs);
+            result.setOrdersPerSecond(durationMs == 0 ? null : result.getOrdersPosted() * 1000.0 / durationMs);
+            result.setSettledAt(LocalDateTime.now());
+            log.info("Settled orders of {} ({}): {} found, {} posted, {} skipped, {} failed, {} entries / {} lines in {} ms",
+                    date, summarize ? "summarized" : "per order", result.getOrdersFound(), result.getOrdersPosted(),
+                    result.getOrdersSkipped(), result.getOrdersFailed(), result.getJournalEntries(),
+                    result.getJournalEntryLines(), durationMs);
+            return Optional.of(result);
+        } finally {
+            settling.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        settlementExecutor.shutdownNow();
+    }
+
+    private void settlePerOrder(List<UUID> orderIds, GLSettlementResponse result) {
+        List<Callable<PartitionResult>> tasks = new ArrayList<>();
+        for (List<UUID> partition : partition(orderIds)) {
+            tasks.add(() -> {
+                PartitionResult partitionResult = new PartitionResult();
+                partition.forEach(orderId -> postOrder(orderId, partitionResult));
+                return partitionResult;
+            });
+        }
+        for (PartitionResult partitionResult : runAll(tasks)) {
+            partitionResult.addTo(result);
+        }
+    }
+
+    private void postOrder(UUID orderId, PartitionResult result) {
+        try {
+            JournalEntry entry = newTransaction.execute(status -> {
+                Order order = orderRepository.findByIdForUpdate(orderId)
+                        .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+                if (glPostingService.isAlreadyPosted(JournalEntry.SourceType.ORDER, orderId)) {
+                    return null;
+                }
+                return glPostingService.postOrderToGL(order);
+            });
+            if (entry == null) {
+                result.skipped++;
+            } else {
+                result.posted++;
+                result.entries++;
+                result.lines += entry.getJournalEntryLines().size();
+            }
+        } catch (RuntimeException e) {
+            result.fail("Order " + orderId + ": " + e.getMessage());
+        }
+    }
+
+    private void settleSummarized(LocalDate date, List<UUID> orderIds, GLSettlementResponse result) {
+        List<Callable<PartitionResult>> tasks = new ArrayList<>();
+        for (List<UUID> partition : partition(orderIds)) {
+            tasks.add(() -> readTransaction.execute(status -> readOrders(partition)));
+        }
+        List<SettledOrder> orders = new ArrayList<>();
+        for (PartitionResult partitionResult : runAll(tasks)) {
+            orders.addAll(partitionResult.orders);
+            partitionResult.addTo(result);
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        try {
+            PartitionResult posted = newTransaction.execute(status -> postSummary(date, orders));
+            posted.addTo(result);
+        } catch (RuntimeException e) {
+            result.setOrdersFailed(result.getOrdersFailed() + orders.size());
+            addError(result, "Settlement entry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read a partition's order amounts; orders that would not post a balanced entry fail here
+     */
+    private PartitionResult readOrders(List<UUID> orderIds) {
+        PartitionResult result = new PartitionResult();
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            SettledOrder settled = SettledOrder.of(order);
+            if (settled.totalAmount().compareTo(settled.revenue().add(settled.taxAmount())) != 0) {
+                result.fail("Order " + order.getOrderNumber() + ": total " + settled.totalAmount()
+                        + " does not match revenue " + settled.revenue() + " + VAT " + settled.taxAmount());
+            } else {
+                result.orders.add(settled);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Post the summarized entry for the orders still unposted once their rows are locked
+     */
+    private PartitionResult postSummary(LocalDate date, List<SettledOrder> orders) {
+        List<UUID> orderIds = orders.stream().map(SettledOrder::id).sorted().toList();
+        for (int from = 0; from < orderIds.size(); from += ID_CHECK_CHUNK_SIZE) {
+            orderRepository.lockByIds(orderIds.subList(from, Math.min(from + ID_CHECK_CHUNK_SIZE, orderIds.size())));
+        }
+        Set<UUID> alreadyPosted = findPosted(orderIds);
+        List<SettledOrder> unposted = orders.stream()
+                .filter(order -> !alreadyPosted.contains(order.id()))
+                .toList();
+
+        PartitionResult result = new PartitionResult();
+        result.skipped = orders.size() - unposted.size();
+        if (!unposted.isEmpty()) {
+            JournalEntry entry = glPostingService.postOrderSettlementToGL(date, unposted);
+            result.posted = unposted.size();
+            result.entries = 1;
+            result.lines = entry.getJournalEntryLines().size();
+        }
+        return result;
+    }
+
+    private Set<UUID> findPosted(List<UUID> orderIds) {
+        Set<UUID> posted = new HashSet<>();
+        for (int from = 0; from < orderIds.size(); from += ID_CHECK_CHUNK_SIZE) {
+            List<UUID> chunk = orderIds.subList(from, Math.min(from + ID_CHECK_CHUNK_SIZE, orderIds.size()));
+            posted.addAll(journalEntryRepository.findPostedSourceDocumentIds(JournalEntry.SourceType.ORDER, chunk));
+            posted.addAll(sourceDocumentRepository.findLinkedDocumentIds(JournalEntry.SourceType.ORDER, chunk));
+        }
+        return posted;
+    }
+
+    /**
+     * Split the ids round robin into at most gl.settlement.threads partitions
+     */
+    private List<List<UUID>> partition(List<UUID> ids) {
+        int count = Math.min(threads, ids.size());
+        List<List<UUID>> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            partitions.get(i % count).add(ids.get(i));
+        }
+        return partitions;
+    }
+
+    private List<PartitionResult> runAll(List<Callable<PartitionResult>> tasks) {
+        try {
+            List<PartitionResult> results = new ArrayList<>(tasks.size());
+            for (Future<PartitionResult> future : settlementExecutor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("GL settlement interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("GL settlement failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static void addError(GLSettlementResponse result, String error) {
+        if (result.getErrors().size() < MAX_ERRORS_TO_REPORT) {
+            result.addError(error);
+        }
+    }
+
+    /**
+     * Counters of one partition, merged into the response once all partitions are done
+     */
+    private static final class PartitionResult {
+        private final List<SettledOrder> orders = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int posted;
+        private int skipped;
+        private int failed;
+        private int entries;
+        private int lines;
+
+        private void fail(String error) {
+            failed++;
+            if (errors.size() < MAX_ERRORS_TO_REPORT) {
+                errors.add(error);
+            }
+        }
+
+        private void addTo(GLSettlementResponse result) {
+            result.setOrdersPosted(result.getOrdersPosted() + posted);
+            result.setOrdersSkipped(result.getOrdersSkipped() + skipped);
+            result.setOrdersFailed(result.getOrdersFailed() + failed);
+            result.setJournalEntries(result.getJournalEntries() + entries);
+            result.setJournalEntryLines(result.getJournalEntryLines() + lines);
+            errors.forEach(error -> addError(result, error));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package lt.elektromeistras.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.dto.response.ImportResultResponse;
+import lt.elektromeistras.exception.ResourceNotFoundException;
+import lt.elektromeistras.service.SupplierInventoryImportService.ImportMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs supplier inventory imports in the background.
+ *
+ * The upload is copied to a temporary file (the multipart file is gone once the request ends),
+ * a job ID is returned immediately and the import streams the file on a worker thread.
+ * Progress is published as a snapshot after every batch and can be polled by job ID.
+ */
+@Service
+@Slf4j
+public class ImportJobService {
+
+    private static final long FINISHED_JOB_RETENTION_HOURS = 24;
+
+    private final SupplierInventoryImportService importService;
+    private final ExecutorService executor;
+    private final Map<UUID, ImportResultResponse> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(SupplierInventoryImportService importService,
+                            @Value("${import.max-concurrent-jobs:1}") int maxConcurrentJobs) {
+        this.importService = importService;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "import-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a supplier inventory import
+     *
+     * @return Initial job status with the job ID to poll
+     */
+    public ImportResultResponse startSupplierInventoryImport(MultipartFile file, String warehouseCode,
+                                                             ImportMode mode, int partitions) throws IOException {
+        removeExpiredJobs();
+
+        UUID jobId = UUID.randomUUID();
+        Path tempFile = Files.createTempFile("supplier-import-" + jobId, ".csv");
+        file.transferTo(tempFile);
+
+        ImportResultResponse initial = ImportResultResponse.builder()
+            .jobId(jobId)
+            .fileName(file.getOriginalFilename())
+            .totalBytes(file.getSize())
+            .status("QUEUED")
+            .build();
+        jobs.put(jobId, initial.snapshot());
+
+        executor.submit(() -> runImport(tempFile, initial, warehouseCode, mode, partitions));
+        log.info("Queued import job {} for file {}", jobId, file.getOriginalFilename());
+        return initial.snapshot();
+    }
+
+    /**
+     * Latest progress of an import job
+     */
+    public ImportResultResponse getJob(UUID jobId) {
+        ImportResultResponse job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", "id", jobId);
+        }
+        return job;
+    }
+
+    private void runImport(Path tempFile, ImportResultResponse result, String warehouseCode, ImportMode mode,
+                           int partitions) {
+        UUID jobId = result.getJobId();
+        Consumer<ImportResultResponse> publish = progress -> jobs.put(jobId, progress.snapshot());
+        try (InputStream input = Files.newInputStream(tempFile)) {
+            if (partitions > 1) {
+                importService.importFromCsvPartitioned(input, result, warehouseCode, mode, partitions, publish);
+            } else {
+                importService.importFromCsv(input, result, warehouseCode, mode, publish);
+            }
+        } catch (Exception e) {
+            log.error("Import job {} failed", jobId, e);
+            result.addError("Fatal error: " + e.getMessage());
+            result.setStatus("FAILED");
+            result.setEndTime(LocalDateTime.now());
+            result.calculateDuration();
+            jobs.put(jobId, result.snapshot());
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Could not delete temporary import file {}", tempFile);
+            }
+        }
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(FINISHED_JOB_RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.getEndTime() != null && job.getEndTime().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
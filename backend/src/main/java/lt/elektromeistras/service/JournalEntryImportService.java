@@ -0,0 +1,588 @@
+package lt.elektromeistras.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.bean.HeaderColumnNameMappingStrategy;
+import com.opencsv.exceptions.CsvException;
+import com.opencsv.exceptions.CsvMalformedLineException;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.*;
+import lt.elektromeistras.dto.request.JournalEntryImportRow;
+import lt.elektromeistras.dto.response.JournalEntryImportResponse;
+import lt.elektromeistras.repository.*;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of manual journal entries from CSV or NDJSON files.
+ *
+ * Lines stream through a pipeline - parser, grouping into entries, validation, persistence in
+ * bounded batches - so memory use does not depend on file size. Accounts, dimensions and budget
+ * periods are loaded once into in-memory maps keyed by code, so validating a line needs no query.
+ * A line that cannot be parsed or an invalid entry is reported and the entry skipped; valid
+ * entries are written in batches of BATCH_SIZE, each in its own transaction, with JDBC batched
+ * inserts. Entries without a budget period code get the period of their entry date, as
+ * automatic postings do.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JournalEntryImportService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_ERRORS_TO_REPORT = 100;
+
+    private final JournalEntryService journalEntryService;
+    private final JournalEntryRepository journalEntryRepository;
+    private final GLAccountRepository glAccountRepository;
+    private final DepartmentRepository departmentRepository;
+    private final CostCenterRepository costCenterRepository;
+    private final BusinessObjectRepository businessObjectRepository;
+    private final BudgetPeriodRepository budgetPeriodRepository;
+    private final GLReferenceDataCache referenceDataCache;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Import journal entries from an uploaded file - the format follows the file extension
+     *
+     * @param post Post the imported entries, otherwise they are saved as VALIDATED
+     */
+    public JournalEntryImportResponse importEntries(MultipartFile file, boolean post) {
+        ImportFormat format = ImportFormat.of(file.getOriginalFilename());
+        JournalEntryImportResponse result = JournalEntryImportResponse.builder()
+            .fileName(file.getOriginalFilename())
+            .build();
+
+        try (InputStream input = file.getInputStream()) {
+            return importEntries(input, format, post, result);
+        } catch (IOException e) {
+            log.error("Failed to read uploaded journal entry file", e);
+            result.addError("Fatal error: " + e.getMessage());
+            result.setStatus("FAILED");
+            return result;
+        }
+    }
+
+    /**
+     * Import journal entries from a stream. Lines of one entry must follow each other.
+     *
+     * @param input CSV with a header line, or one JSON object per line
+     * @param post Post the imported entries, otherwise they are saved as VALIDATED
+     * @param result Result to fill in - may carry the file name
+     * @return Import result with counts and per-entry errors
+     */
+    public JournalEntryImportResponse importEntries(InputStream input, ImportFormat format, boolean post,
+                                                   JournalEntryImportResponse result) {
+        log.info("Starting journal entry import from file: {}, format: {}, post: {}",
+            result.getFileName(), format, post);
+
+        result.setFormat(format.name());
+        result.setPosted(post);
+        result.setStartTime(LocalDateTime.now());
+
+        try {
+            ReferenceData referenceData = loadReferenceData();
+            TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+                readEntries(rowReader(reader, format), referenceData, result,
+                    batch -> persistBatch(batch, post, batchTransaction, result));
+            }
+
+            result.setEndTime(LocalDateTime.now());
+            result.calculateDuration();
+            result.determineStatus();
+
+        } catch (Exception e) {
+            log.error("Failed to import journal entries", e);
+            result.addError("Fatal error: " + e.getMessage());
+            result.setStatus("FAILED");
+            result.setEndTime(LocalDateTime.now());
+            result.calculateDuration();
+        }
+
+        log.info("Journal entry import completed. Status: {}, Lines: {}, Imported entries: {}, Errors: {}",
+            result.getStatus(), result.getTotalLines(), result.getImportedEntries(), result.getErrorEntries());
+        return result;
+    }
+
+    /**
+     * Accounts, dimensions and budget periods keyed by code - loaded once per import
+     */
+    private ReferenceData loadReferenceData() {
+        return new ReferenceData(
+            byCode(glAccountRepository.findAll(), GLAccount::getCode),
+            byCode(departmentRepository.findAll(), Department::getCode),
+            byCode(costCenterRepository.findAll(), CostCenter::getCode),
+            byCode(businessObjectRepository.findAll(), BusinessObject::getCode),
+            byCode(budgetPeriodRepository.findAll(), BudgetPeriod::getCode));
+    }
+
+    private static <T> Map<String, T> byCode(List<T> values, Function<T, String> code) {
+        return values.stream().collect(Collectors.toMap(code, Function.identity(), (a, b) -> a, HashMap::new));
+    }
+
+    /**
+     * Lazily parse rows - one bean in memory at a time. Each line is parsed on its own, so a
+     * malformed line comes back as a row with its parse error instead of ending the file.
+     */
+    private RowReader rowReader(BufferedReader reader, ImportFormat format) throws IOException {
+        if (format == ImportFormat.NDJSON) {
+            return () -> {
+                String line = reader.readLine();
+                while (line != null && line.isBlank()) {
+                    line = reader.readLine();
+                }
+                return line != null ? parseJson(line) : null;
+            };
+        }
+        return new CsvRowReader(reader);
+    }
+
+    private JournalEntryImportRow parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, JournalEntryImportRow.class);
+        } catch (JsonProcessingException e) {
+            String entryNumber = null;
+            try {
+                entryNumber = objectMapper.readTree(line).path("entryNumber").asText(null);
+            } catch (JsonProcessingException notJson) {
+                // Not even valid JSON - the line cannot be placed in an entry
+            }
+            return unparsedRow(entryNumber, "invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static JournalEntryImportRow unparsedRow(String entryNumber, String parseError) {
+        JournalEntryImportRow row = new JournalEntryImportRow();
+        row.setEntryNumber(entryNumber);
+        row.setParseError(parseError);
+        return row;
+    }
+
+    /**
+     * Grouping and validation stage: collect consecutive lines of one entry, validate the entry
+     * when the next one starts and hand full batches of valid entries to the persistence stage
+     */
+    private void readEntries(RowReader rows, ReferenceData referenceData, JournalEntryImportResponse result,
+                             Consumer<List<JournalEntry>> batchSink) throws IOException {
+        Set<String> seenEntryNumbers = new HashSet<>();
+        List<JournalEntry> batch = new ArrayList<>(BATCH_SIZE);
+        List<JournalEntryImportRow> entryRows = new ArrayList<>();
+
+        int rowNumber = 0;
+        JournalEntryImportRow row;
+        while ((row = rows.next()) != null) {
+            rowNumber++;
+            row.cleanData();
+            row.setRowNumber(rowNumber);
+            result.setTotalLines(rowNumber);
+
+            if (startsNewEntry(entryRows, row)) {
+                completeEntry(entryRows, seenEntryNumbers, referenceData, result, batch);
+                entryRows = new ArrayList<>();
+                if (batch.size() >= BATCH_SIZE) {
+                    batchSink.accept(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            entryRows.add(row);
+        }
+
+        // Hand over remaining entries
+        if (!entryRows.isEmpty()) {
+            completeEntry(entryRows, seenEntryNumbers, referenceData, result, batch);
+        }
+        if (!batch.isEmpty()) {
+            batchSink.accept(batch);
+        }
+    }
+
+    /**
+     * A row starts the next entry when its entry number differs from the current entry's. A line
+     * that could not be parsed and has no readable entry number stays with the current entry,
+     * so that entry is rejected rather than imported without the line.
+     */
+    private static boolean startsNewEntry(List<JournalEntryImportRow> entryRows, JournalEntryImportRow row) {
+        if (entryRows.isEmpty() || isUnplaced(row)) {
+            return false;
+        }
+        for (JournalEntryImportRow entryRow : entryRows) {
+            if (!isUnplaced(entryRow)) {
+                return !Objects.equals(entryRow.getEntryNumber(), row.getEntryNumber());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnplaced(JournalEntryImportRow row) {
+        return row.getParseError() != null && row.getEntryNumber() == null;
+    }
+
+    private void completeEntry(List<JournalEntryImportRow> entryRows, Set<String> seenEntryNumbers,
+                               ReferenceData referenceData, JournalEntryImportResponse result,
+                               List<JournalEntry> batch) {
+        result.setTotalEntries(result.getTotalEntries() + 1);
+
+        List<String> errors = new ArrayList<>();
+        for (JournalEntryImportRow row : entryRows) {
+            if (row.getParseError() != null) {
+                errors.add("row " + row.getRowNumber() + ": " + row.getParseError());
+            }
+        }
+        if (!errors.isEmpty()) {
+            rejectEntry(result, describe(entryRows), String.join("; ", errors));
+            return;
+        }
+
+        String entryNumber = entryRows.get(0).getEntryNumber();
+        if (entryNumber != null && !seenEntryNumbers.add(entryNumber)) {
+            errors.add("entry number appears more than once in the file - lines of an entry must follow each other");
+        }
+        JournalEntry entry = buildEntry(entryRows, referenceData, errors);
+
+        if (errors.isEmpty()) {
+            batch.add(entry);
+        } else {
+            rejectEntry(result, describe(entryRows), String.join("; ", errors));
+        }
+    }
+
+    /**
+     * Validate the lines of one entry and build it - accounts, required dimensions, amounts and
+     * balance. Problems are added to errors; the entry is only usable when there are none.
+     */
+    private JournalEntry buildEntry(List<JournalEntryImportRow> entryRows, ReferenceData referenceData,
+                                    List<String> errors) {
+        JournalEntryImportRow first = entryRows.get(0);
+
+        JournalEntry entry = JournalEntry.builder()
+            .entryNumber(first.getEntryNumber())
+            .entryType(JournalEntry.EntryType.MANUAL)
+            .sourceType(JournalEntry.SourceType.MANUAL)
+            .description(first.getDescription())
+            .build();
+
+        if (first.getEntryNumber() == null) {
+            errors.add("entry number is required");
+        }
+        if (first.getEntryDate() == null) {
+            errors.add("entry date is required");
+        } else {
+            try {
+                entry.setEntryDate(LocalDate.parse(first.getEntryDate()));
+            } catch (DateTimeParseException e) {
+                errors.add("invalid entry date '" + first.getEntryDate() + "', expected yyyy-MM-dd");
+            }
+        }
+        if (first.getEntryType() != null) {
+            try {
+                entry.setEntryType(JournalEntry.EntryType.valueOf(first.getEntryType().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                errors.add("unknown entry type " + first.getEntryType());
+            }
+        }
+        if (first.getBudgetPeriodCode() != null) {
+            entry.setBudgetPeriod(resolve(referenceData.budgetPeriods, first.getBudgetPeriodCode(), "budget period", errors));
+        } else if (entry.getEntryDate() != null) {
+            entry.setBudgetPeriod(referenceDataCache.getPeriodForDate(entry.getEntryDate()));
+        }
+
+        int lineNumber = 1;
+        for (JournalEntryImportRow row : entryRows) {
+            JournalEntryLine line = buildLine(row, referenceData, errors);
+            if (line != null) {
+                line.setLineNumber(lineNumber++);
+                entry.addJournalEntryLine(line);
+            }
+        }
+
+        if (errors.isEmpty() && !entry.isBalanced()) {
+            errors.add("not balanced - debit " + entry.getTotalDebit() + ", credit " + entry.getTotalCredit());
+        }
+        return entry;
+    }
+
+    private JournalEntryLine buildLine(JournalEntryImportRow row, ReferenceData referenceData, List<String> errors) {
+        String prefix = "row " + row.getRowNumber() + ": ";
+        int errorCount = errors.size();
+
+        GLAccount glAccount = null;
+        if (row.getAccountCode() == null) {
+            errors.add(prefix + "account code is required");
+        } else {
+            glAccount = referenceData.accounts.get(row.getAccountCode());
+            if (glAccount == null) {
+                errors.add(prefix + "GL account " + row.getAccountCode() + " not found");
+            } else if (!glAccount.getIsActive()) {
+                errors.add(prefix + "GL account " + glAccount.getCode() + " is not active");
+            } else if (!glAccount.getAllowDirectPosting()) {
+                errors.add(prefix + "GL account " + glAccount.getCode() + " does not allow direct posting");
+            }
+        }
+
+        BigDecimal debit = parseAmount(row.getDebitAmount(), prefix + "debit", errors);
+        BigDecimal credit = parseAmount(row.getCreditAmount(), prefix + "credit", errors);
+        if (debit != null && credit != null && (debit.signum() == 0) == (credit.signum() == 0)) {
+            errors.add(prefix + "exactly one of debit and credit must be set");
+        }
+
+        Department department = row.getDepartmentCode() != null
+            ? resolve(referenceData.departments, row.getDepartmentCode(), prefix + "department", errors)
+            : null;
+        CostCenter costCenter = row.getCostCenterCode() != null
+            ? resolve(referenceData.costCenters, row.getCostCenterCode(), prefix + "cost center", errors)
+            : null;
+        BusinessObject businessObject = row.getBusinessObjectCode() != null
+            ? resolve(referenceData.businessObjects, row.getBusinessObjectCode(), prefix + "business object", errors)
+            : null;
+
+        if (glAccount != null) {
+            if (glAccount.getRequireDepartment() && row.getDepartmentCode() == null) {
+                errors.add(prefix + "department is required for GL account " + glAccount.getCode());
+            }
+            if (glAccount.getRequireCostCenter() && row.getCostCenterCode() == null) {
+                errors.add(prefix + "cost center is required for GL account " + glAccount.getCode());
+            }
+            if (glAccount.getRequireBusinessObject() && row.getBusinessObjectCode() == null) {
+                errors.add(prefix + "business object is required for GL account " + glAccount.getCode());
+            }
+        }
+
+        if (errors.size() > errorCount) {
+            return null;
+        }
+        return JournalEntryLine.builder()
+            .glAccount(glAccount)
+            .debitAmount(debit)
+            .creditAmount(credit)
+            .description(row.getLineDescription())
+            .department(department)
+            .costCenter(costCenter)
+            .businessObject(businessObject)
+            .build();
+    }
+
+    private BigDecimal parseAmount(String value, String field, List<String> errors) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        try {
+            BigDecimal amount = new BigDecimal(value);
+            if (amount.signum() < 0) {
+                errors.add(field + " amount must not be negative");
+                return null;
+            }
+            if (amount.scale() > 2) {
+                errors.add(field + " amount has more than 2 decimals");
+                return null;
+            }
+            return amount;
+        } catch (NumberFormatException e) {
+            errors.add("invalid " + field + " amount '" + value + "'");
+            return null;
+        }
+    }
+
+    private static <T> T resolve(Map<String, T> valuesByCode, String code, String name, List<String> errors) {
+        T value = valuesByCode.get(code);
+        if (value == null) {
+            errors.add(name + " " + code + " not found");
+        }
+        return value;
+    }
+
+    /**
+     * Persistence stage: drop entries whose number is already taken, then save the rest in one
+     * transaction. A failing batch rolls back only its own entries.
+     */
+    private void persistBatch(List<JournalEntry> batch, boolean post, TransactionTemplate batchTransaction,
+                              JournalEntryImportResponse result) {
+        Set<String> existing = new HashSet<>(journalEntryRepository.findExistingEntryNumbers(
+            batch.stream().map(JournalEntry::getEntryNumber).toList()));
+        List<JournalEntry> entries = new ArrayList<>(batch.size());
+        for (JournalEntry entry : batch) {
+            if (existing.contains(entry.getEntryNumber())) {
+                rejectEntry(result, "Entry " + entry.getEntryNumber(), "entry number already exists");
+            } else {
+                entries.add(entry);
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try {
+            batchTransaction.executeWithoutResult(status -> {
+                // Let Hibernate send the entries and their lines as JDBC batches
+                entityManager.unwrap(Session.class).setJdbcBatchSize(BATCH_SIZE);
+                journalEntryService.saveImportedEntries(entries, post);
+                entityManager.flush();
+                entityManager.clear();
+            });
+
+            result.setImportedEntries(result.getImportedEntries() + entries.size());
+            result.setImportedLines(result.getImportedLines()
+                + entries.stream().mapToInt(entry -> entry.getJournalEntryLines().size()).sum());
+            log.info("Imported {} journal entries ({} lines read)", result.getImportedEntries(), result.getTotalLines());
+
+        } catch (Exception e) {
+            String range = entries.get(0).getEntryNumber() + " - " + entries.get(entries.size() - 1).getEntryNumber();
+            log.error("Journal entry batch ({}) rolled back: {}", range, e.getMessage());
+            result.setErrorEntries(result.getErrorEntries() + entries.size());
+            if (result.getErrors().size() < MAX_ERRORS_TO_REPORT) {
+                result.addError("Entries " + range + " rolled back: " + e.getMessage());
+            }
+        }
+    }
+
+    private void rejectEntry(JournalEntryImportResponse result, String entry, String error) {
+        result.setErrorEntries(result.getErrorEntries() + 1);
+        if (result.getErrors().size() < MAX_ERRORS_TO_REPORT) {
+            result.addError(entry + ": " + error);
+        }
+    }
+
+    private static String describe(List<JournalEntryImportRow> entryRows) {
+        String rows = entryRows.size() == 1
+            ? "row " + entryRows.get(0).getRowNumber()
+            : "rows " + entryRows.get(0).getRowNumber() + "-" + entryRows.get(entryRows.size() - 1).getRowNumber();
+        String entryNumber = entryRows.stream()
+            .map(JournalEntryImportRow::getEntryNumber)
+            .filter(Objects::nonNull)
+            .findFirst()
+            .orElse(null);
+        return entryNumber != null ? "Entry " + entryNumber + " (" + rows + ")" : "Entry at " + rows;
+    }
+
+    /**
+     * Next row of the file, null at its end
+     */
+    @FunctionalInterface
+    private interface RowReader {
+        JournalEntryImportRow next() throws IOException;
+    }
+
+    /**
+     * CSV rows mapped by header column name. A line whose column count does not match the
+     * header is returned unparsed with the entry number still read from its column; an
+     * unterminated quote swallows the rest of the file, so it is the last row returned.
+     */
+    private static final class CsvRowReader implements RowReader {
+        private final CSVReader csvReader;
+        private final HeaderColumnNameMappingStrategy<JournalEntryImportRow> mappingStrategy;
+        private final int entryNumberColumn;
+        private boolean ended;
+
+        CsvRowReader(Reader reader) throws IOException {
+            this.csvReader = new CSVReaderBuilder(reader)
+                .withCSVParser(new CSVParserBuilder().withIgnoreLeadingWhiteSpace(true).build())
+                .build();
+            this.mappingStrategy = new HeaderColumnNameMappingStrategy<>();
+            this.mappingStrategy.setType(JournalEntryImportRow.class);
+            try {
+                String[] header = csvReader.peek();
+                this.entryNumberColumn = header != null ? columnIndex(header, "entryNumber") : -1;
+                this.ended = header == null;
+                if (!ended) {
+                    mappingStrategy.captureHeader(csvReader);
+                }
+            } catch (CsvException e) {
+                throw new RuntimeException("Invalid CSV header: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public JournalEntryImportRow next() throws IOException {
+            if (ended) {
+                return null;
+            }
+            String[] line;
+            try {
+                do {
+                    line = csvReader.readNext();
+                } while (line != null && line.length == 1 && line[0].isEmpty());
+            } catch (CsvMalformedLineException e) {
+                ended = true;
+                return unparsedRow(null, "invalid CSV: " + e.getMessage());
+            } catch (CsvException e) {
+                return unparsedRow(null, "invalid CSV: " + e.getMessage());
+            }
+            if (line == null) {
+                ended = true;
+                return null;
+            }
+
+            try {
+                return mappingStrategy.populateNewBean(line);
+            } catch (CsvException e) {
+                String entryNumber = entryNumberColumn >= 0 && entryNumberColumn < line.length
+                    ? line[entryNumberColumn]
+                    : null;
+                return unparsedRow(entryNumber, "invalid CSV: " + e.getMessage());
+            }
+        }
+
+        private static int columnIndex(String[] header, String column) {
+            for (int i = 0; i < header.length; i++) {
+                if (header[i] != null && header[i].trim().equalsIgnoreCase(column)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Supported file formats
+     */
+    public enum ImportFormat {
+        CSV,        // Header line with JournalEntryImportRow column names
+        NDJSON;     // One JSON object per line
+
+        /**
+         * Format of a file by its extension - .csv, or .ndjson / .jsonl
+         */
+        public static ImportFormat of(String fileName) {
+            String name = fileName != null ? fileName.toLowerCase() : "";
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("File must be a CSV or NDJSON (.ndjson, .jsonl) file");
+        }
+    }
+
+    /**
+     * Accounts, dimensions and budget periods resolved during one import
+     */
+    private record ReferenceData(Map<String, GLAccount> accounts,
+                                 Map<String, Department> departments,
+                                 Map<String, CostCenter> costCenters,
+                                 Map<String, BusinessObject> businessObjects,
+                                 Map<String, BudgetPeriod> budgetPeriods) {
+    }
+}
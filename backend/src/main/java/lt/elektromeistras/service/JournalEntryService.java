@@ -1,6 +1,7 @@
 package lt.elektromeistras.service;
 
 import lt.elektromeistras.domain.*;
+import lt.elektromeistras.dto.response.JournalEntrySourceDocumentResponse;
 import lt.elektromeistras.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,7 +12,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 /**
@@ -27,6 +32,11 @@ public class JournalEntryService {
     private final JournalEntryLineRepository journalEntryLineRepository;
     private final GLAccountRepository glAccountRepository;
     private final BudgetPeriodRepository budgetPeriodRepository;
+    private final GLAccountBalanceLedger balanceLedger;
+    private final GLPeriodBalanceService periodBalanceService;
+    private final GLReferenceDataCache referenceDataCache;
+    private final JournalEntrySourceDocumentRepository sourceDocumentRepository;
+    private final BudgetVarianceService budgetVarianceService;
 
     /**
      * Get journal entry by ID
@@ -73,6 +83,31 @@ public class JournalEntryService {
         return journalEntryRepository.findBySourceDocument(sourceType, sourceDocumentId);
     }
 
+    /**
+     * Source documents posted by an entry - the linked documents of a summarized entry,
+     * otherwise the entry's own source document
+     */
+    public List<JournalEntrySourceDocumentResponse> getSourceDocuments(UUID journalEntryId) {
+        JournalEntry journalEntry = getById(journalEntryId);
+        List<JournalEntrySourceDocumentResponse> documents = sourceDocumentRepository.findByJournalEntryId(journalEntryId).stream()
+                .map(document -> JournalEntrySourceDocumentResponse.builder()
+                        .sourceType(document.getSourceType().name())
+                        .sourceDocumentId(document.getSourceDocumentId())
+                        .sourceDocumentNumber(document.getSourceDocumentNumber())
+                        .amount(document.getAmount())
+                        .build())
+                .toList();
+        if (!documents.isEmpty() || journalEntry.getSourceDocumentId() == null) {
+            return documents;
+        }
+        return List.of(JournalEntrySourceDocumentResponse.builder()
+                .sourceType(journalEntry.getSourceType() != null ? journalEntry.getSourceType().name() : null)
+                .sourceDocumentId(journalEntry.getSourceDocumentId())
+                .sourceDocumentNumber(journalEntry.getSourceDocumentNumber())
+                .amount(journalEntry.getTotalDebit())
+                .build());
+    }
+
     /**
      * Create new journal entry
      */
@@ -128,6 +163,120 @@ public class JournalEntryService {
         return journalEntryRepository.save(journalEntry);
     }
 
+    /**
+     * Validate and post a complete entry in one step - used for automatic postings.
+     *
+     * Lines, dimensions and balance are checked in memory before anything is written. The header
+     * is inserted together with its lines in one JDBC batch and each account's balance moves once
+     * by the net of its lines. Accounts already loaded in the current transaction come from the
+     * persistence context without a query.
+     *
+     * @param header Entry header - number, dates, source and budget period
+     * @param lines Lines in posting order, line numbers are assigned here
+     */
+    @Transactional
+    public JournalEntry postBalancedEntry(JournalEntry header, List<JournalEntryLine> lines) {
+        log.info("Posting balanced journal entry: {}", header.getEntryNumber());
+
+        if (lines.isEmpty()) {
+            throw new RuntimeException("Cannot post journal entry with no lines");
+        }
+
+        // Validate budget period if provided - reference data comes from the cache, not the database
+        if (header.getBudgetPeriod() != null) {
+            BudgetPeriod period = referenceDataCache.findPeriodById(header.getBudgetPeriod().getId())
+                    .orElseThrow(() -> new RuntimeException("Budget period not found"));
+            header.setBudgetPeriod(period);
+        }
+
+        // Validate GL accounts and dimensions
+        for (JournalEntryLine line : lines) {
+            GLAccount glAccount = referenceDataCache.findAccountById(line.getGlAccount().getId())
+                    .orElseThrow(() -> new RuntimeException("GL Account not found"));
+
+            if (!glAccount.getAllowDirectPosting()) {
+                throw new RuntimeException("GL Account " + glAccount.getCode() + " does not allow direct posting");
+            }
+            validateRequiredDimensions(glAccount, line);
+
+            line.setGlAccount(glAccount);
+        }
+
+        header.getJournalEntryLines().clear();
+        int lineNumber = 1;
+        for (JournalEntryLine line : lines) {
+            line.setLineNumber(lineNumber++);
+            header.addJournalEntryLine(line);
+        }
+
+        if (!header.isBalanced()) {
+            throw new RuntimeException("Journal entry is not balanced. Debit: " +
+                    header.getTotalDebit() + ", Credit: " + header.getTotalCredit());
+        }
+
+        header.setStatus(JournalEntry.EntryStatus.POSTED);
+        header.setPostingDate(LocalDate.now());
+        header.setPostedAt(LocalDateTime.now());
+
+        JournalEntry posted = journalEntryRepository.save(header);
+        applyBalanceDeltas(List.of(posted));
+
+        return posted;
+    }
+
+    /**
+     * Save entries the bulk import has already validated - accounts, dimensions and balance.
+     * The batch goes out as JDBC batched inserts. Posted entries move each account's balance
+     * once by the net of the whole batch.
+     *
+     * @param entries Balanced entries with resolved accounts, dimensions and line numbers
+     * @param post Post the entries, otherwise they are saved as VALIDATED
+     */
+    @Transactional
+    public List<JournalEntry> saveImportedEntries(List<JournalEntry> entries, boolean post) {
+        LocalDateTime now = LocalDateTime.now();
+        for (JournalEntry entry : entries) {
+            if (post) {
+                entry.setStatus(JournalEntry.EntryStatus.POSTED);
+                entry.setPostingDate(now.toLocalDate());
+                entry.setPostedAt(now);
+            } else {
+                entry.setStatus(JournalEntry.EntryStatus.VALIDATED);
+            }
+        }
+
+        List<JournalEntry> saved = journalEntryRepository.saveAll(entries);
+        if (post) {
+            applyBalanceDeltas(saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Move each account's balance once by the net of its lines. Debit normal balance accounts
+     * increase on debit, credit normal balance accounts increase on credit.
+     * Deltas go to the striped balance ledger in account id order, so concurrent postings lock
+     * stripes in the same order. The lines are also added to the entries' period balances and
+     * their accounts and dimensions marked dirty for the budget variance runs.
+     */
+    private void applyBalanceDeltas(List<JournalEntry> journalEntries) {
+        Map<UUID, BigDecimal> deltas = new TreeMap<>();
+        for (JournalEntry journalEntry : journalEntries) {
+            for (JournalEntryLine line : journalEntry.getJournalEntryLines()) {
+                GLAccount glAccount = line.getGlAccount();
+                BigDecimal netAmount = line.getNetAmount();
+                BigDecimal delta = glAccount.getNormalBalance() == GLAccount.NormalBalance.DEBIT
+                        ? netAmount
+                        : netAmount.negate();
+                deltas.merge(glAccount.getId(), delta, BigDecimal::add);
+            }
+        }
+
+        balanceLedger.addDeltas(deltas);
+        journalEntries.forEach(periodBalanceService::record);
+        budgetVarianceService.recordPosted(journalEntries);
+    }
+
     /**
      * Validate required dimensions for GL account
      */
@@ -212,24 +361,7 @@ public class JournalEntryService {
         }
 
         // Post to GL accounts
-        for (JournalEntryLine line : journalEntry.getJournalEntryLines()) {
-            GLAccount glAccount = line.getGlAccount();
-            BigDecimal netAmount = line.getNetAmount();
-
-            // Update GL account balance
-            BigDecimal currentBalance = glAccount.getCurrentBalance() != null ?
-                    glAccount.getCurrentBalance() : BigDecimal.ZERO;
-
-            // For debit normal balance accounts, increase on debit, decrease on credit
-            // For credit normal balance accounts, decrease on debit, increase on credit
-            if (glAccount.getNormalBalance() == GLAccount.NormalBalance.DEBIT) {
-                glAccount.setCurrentBalance(currentBalance.add(netAmount));
-            } else {
-                glAccount.setCurrentBalance(currentBalance.subtract(netAmount));
-            }
-
-            glAccountRepository.save(glAccount);
-        }
+        applyBalanceDeltas(List.of(journalEntry));
 
         journalEntry.setStatus(JournalEntry.EntryStatus.POSTED);
         journalEntry.setPostingDate(LocalDate.now());
@@ -264,12 +396,10 @@ public class JournalEntryService {
                 .status(JournalEntry.EntryStatus.DRAFT)
                 .build();
 
-        reversalEntry = journalEntryRepository.save(reversalEntry);
-
         // Copy lines with reversed amounts
+        List<JournalEntryLine> reversalLines = new ArrayList<>();
         for (JournalEntryLine originalLine : originalEntry.getJournalEntryLines()) {
             JournalEntryLine reversalLine = JournalEntryLine.builder()
-                    .lineNumber(originalLine.getLineNumber())
                     .glAccount(originalLine.getGlAccount())
                     .description("Reversal: " + originalLine.getDescription())
                     .debitAmount(originalLine.getCreditAmount())  // Swap debit and credit
@@ -281,14 +411,11 @@ public class JournalEntryService {
                     .person(originalLine.getPerson())
                     .build();
 
-            reversalEntry.addJournalEntryLine(reversalLine);
+            reversalLines.add(reversalLine);
         }
 
-        reversalEntry = journalEntryRepository.save(reversalEntry);
-
         // Validate and post the reversal
-        validateJournalEntry(reversalEntry.getId());
-        postJournalEntry(reversalEntry.getId(), null);
+        reversalEntry = postBalancedEntry(reversalEntry, reversalLines);
 
         // Mark original entry as reversed
         originalEntry.setStatus(JournalEntry.EntryStatus.REVERSED);
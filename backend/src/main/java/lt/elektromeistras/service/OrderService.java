@@ -5,6 +5,7 @@ import lt.elektromeistras.domain.Order;
 import lt.elektromeistras.domain.OrderLine;
 import lt.elektromeistras.domain.Product;
 import lt.elektromeistras.repository.OrderRepository;
+import lt.elektromeistras.service.ProductLookupIndex.ProductSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -15,10 +16,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,6 +28,9 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final CustomerService customerService;
     private final ProductService productService;
+    private final ProductLookupIndex productLookupIndex;
+    private final DocumentNumberService documentNumberService;
+    private final GLPostingOutbox glPostingOutbox;
 
     /**
      * Get order by ID with all lines loaded
@@ -140,12 +140,19 @@ public class OrderService {
         order.setOrderNumber(generateOrderNumber());
         order.setStatus(Order.OrderStatus.DRAFT);
 
-        // Process each quick line
+        // Process each quick line - resolved from the in-memory lookup index (code, SKU or EAN)
         for (QuickOrderLine quickLine : quickLines) {
-            Product product = productService.getByCode(quickLine.getProductCode());
+            ProductSnapshot product = productLookupIndex.resolve(quickLine.getProductCode())
+                    .orElseThrow(() -> new RuntimeException("Product not found with code: " + quickLine.getProductCode()));
 
             OrderLine line = new OrderLine();
-            line.initializeFromProduct(product);
+            line.setProduct(productLookupIndex.reference(product));
+            line.setProductCode(product.getCode());
+            line.setProductName(product.getName());
+            line.setUnitOfMeasure(product.getUnitOfMeasure());
+            line.setIsCable(product.getIsCable());
+            line.setUnitPrice(product.getBasePrice());
+            line.setTaxRate(product.getTaxRate());
             line.setQuantity(quickLine.getQuantity());
 
             // Calculate amounts
@@ -168,6 +175,7 @@ public class OrderService {
         log.info("Updating order with id: {}", id);
 
         Order order = getById(id);
+        BigDecimal previouslyPaid = order.getPaidAmount() != null ? order.getPaidAmount() : BigDecimal.ZERO;
 
         // Update fields
         order.setStatus(orderDetails.getStatus());
@@ -182,6 +190,11 @@ public class OrderService {
         order.setDeliveryNotes(orderDetails.getDeliveryNotes());
         order.setNotes(orderDetails.getNotes());
 
+        // Newly received payment goes to the GL through the outbox
+        if (order.getPaidAmount() != null && order.getPaidAmount().compareTo(previouslyPaid) > 0) {
+            glPostingOutbox.enqueuePayment(order, order.getPaidAmount().subtract(previouslyPaid));
+        }
+
         return orderRepository.save(order);
     }
 
@@ -203,7 +216,11 @@ public class OrderService {
         }
 
         order.setStatus(Order.OrderStatus.CONFIRMED);
-        return orderRepository.save(order);
+        Order confirmed = orderRepository.save(order);
+
+        // Posted to the GL in the background - confirmation does not wait for accounting
+        glPostingOutbox.enqueueOrder(confirmed);
+        return confirmed;
     }
 
     /**
@@ -228,19 +245,10 @@ public class OrderService {
     }
 
     /**
-     * Generate order number: ORD-YYYYMMDD-0001
+     * Generate order number from the ORDER series: ORD-000001
      */
     private String generateOrderNumber() {
-        LocalDate today = LocalDate.now(ZoneId.systemDefault());
-        String datePart = today.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-
-        // Count orders created today
-        Instant startOfDay = today.atStartOfDay(ZoneId.systemDefault()).toInstant();
-        long todayCount = orderRepository.countOrdersSince(startOfDay);
-
-        int sequenceNumber = (int) (todayCount + 1);
-
-        return String.format("ORD-%s-%04d", datePart, sequenceNumber);
+        return documentNumberService.next(DocumentNumberService.DocumentSeries.ORDER);
     }
 
     /**
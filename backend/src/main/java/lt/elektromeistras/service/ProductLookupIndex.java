@@ -0,0 +1,349 @@
+package lt.elektromeistras.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.domain.Product;
+import lt.elektromeistras.dto.response.ProductLookupIndexStatsResponse;
+import lt.elektromeistras.repository.ProductRepository;
+import lt.elektromeistras.repository.ProductRepository.ProductLookupView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory product lookup by code, SKU or EAN for quick order, credit pickup and
+ * barcode scanner entry.
+ *
+ * Each key maps to a compact ProductSnapshot holding only what an entry line needs, so a
+ * scanned line resolves with a few hash lookups and no database round trip. The index is built
+ * from one streaming scan of products in the background at startup and kept current
+ * write-through by ProductService and the supplier importer after each commit. Until it is
+ * built, and for keys not in the index, lookups fall back to the database. Products changed on
+ * another node are only seen by the next rebuild, which runs every
+ * product.lookup-index.refresh-interval-ms - that interval bounds how long a stale price or tax
+ * rate can be served.
+ *
+ * A rebuild fills new tables while lookups keep using the current ones, then swaps them in.
+ * Writes made during the rebuild go to both, and every snapshot carries the product's
+ * updated_at so a row read early in the scan cannot overwrite a later write.
+ */
+@Component
+@Slf4j
+public class ProductLookupIndex {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ScheduledExecutorService rebuildExecutor;
+    private final long refreshIntervalMs;
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+
+    private volatile Tables tables = new Tables();
+    private Tables building;    // guarded by this - tables being filled by a running rebuild
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    private volatile LocalDateTime lastRebuiltAt;
+    private volatile long lastRebuildDurationMs;
+
+    public ProductLookupIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                              @Value("${product.lookup-index.refresh-interval-ms:300000}") long refreshIntervalMs) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.rebuildExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-lookup-index-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Resolve entered or scanned text - product code first, then SKU, then EAN
+     */
+    public Optional<ProductSnapshot> resolve(String value) {
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        String key = value.trim();
+
+        ProductSnapshot snapshot = tables.find(key);
+        if (snapshot != null) {
+            hits.increment();
+            return Optional.of(snapshot);
+        }
+
+        misses.increment();
+        Optional<ProductSnapshot> loaded = productRepository.findByCode(key)
+                .or(() -> productRepository.findBySku(key))
+                .or(() -> productRepository.findByEan(key))
+                .map(ProductSnapshot::of);
+        loaded.ifPresent(this::apply);
+        return loaded;
+    }
+
+    /**
+     * Product entity reference for a resolved snapshot - sets the association without a SELECT
+     */
+    public Product reference(ProductSnapshot snapshot) {
+        return productRepository.getReferenceById(snapshot.getId());
+    }
+
+    public void index(Product product) {
+        index(List.of(product));
+    }
+
+    /**
+     * Index products once the surrounding transaction commits (immediately if there is none).
+     * Snapshots are taken now, so products must already be flushed to carry their updated_at.
+     */
+    public void index(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<ProductSnapshot> snapshots = products.stream().map(ProductSnapshot::of).toList();
+        afterCommit(() -> {
+            snapshots.forEach(this::apply);
+            writes.add(snapshots.size());
+        });
+    }
+
+    /**
+     * Build the index in the background once the application is up, then rebuild it every
+     * refresh interval so changes made on other nodes are picked up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        rebuildInBackground();
+        if (refreshIntervalMs > 0) {
+            rebuildExecutor.scheduleWithFixedDelay(this::rebuildInBackground,
+                    refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Queue a rebuild from the database. Lookups keep using the current tables until it completes.
+     *
+     * @return false if a rebuild is already running
+     */
+    public boolean rebuildInBackground() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildExecutor.submit(this::runRebuild);
+        return true;
+    }
+
+    /**
+     * Rebuild from the database on the calling thread
+     *
+     * @return false if a rebuild is already running
+     */
+    public boolean rebuild() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        runRebuild();
+        return true;
+    }
+
+    public ProductLookupIndexStatsResponse getStats() {
+        Tables current = tables;
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        return ProductLookupIndexStatsResponse.builder()
+                .products(current.byId.size())
+                .codes(current.byCode.size())
+                .skus(current.bySku.size())
+                .eans(current.byEan.size())
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRatio(hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount))
+                .writes(writes.sum())
+                .rebuilding(rebuildRunning.get())
+                .lastRebuiltAt(lastRebuiltAt)
+                .lastRebuildDurationMs(lastRebuildDurationMs)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void runRebuild() {
+        long start = System.currentTimeMillis();
+        Tables fresh = new Tables();
+        synchronized (this) {
+            building = fresh;
+        }
+        try {
+            Integer count = readOnlyTransaction.execute(status -> {
+                int loaded = 0;
+                try (Stream<ProductLookupView> rows = productRepository.streamLookupViews()) {
+                    for (ProductLookupView row : (Iterable<ProductLookupView>) rows::iterator) {
+                        fresh.apply(ProductSnapshot.of(row));
+                        loaded++;
+                    }
+                }
+                return loaded;
+            });
+            synchronized (this) {
+                tables = fresh;
+            }
+            lastRebuiltAt = LocalDateTime.now();
+            lastRebuildDurationMs = System.currentTimeMillis() - start;
+            log.info("Product lookup index built with {} products in {} ms", count, lastRebuildDurationMs);
+        } catch (RuntimeException e) {
+            log.error("Product lookup index rebuild failed, keeping the previous index: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                building = null;
+            }
+            rebuildRunning.set(false);
+        }
+    }
+
+    private synchronized void apply(ProductSnapshot snapshot) {
+        tables.apply(snapshot);
+        if (building != null) {
+            building.apply(snapshot);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Key maps of one generation of the index. Writes are serialized per instance so a
+     * product's old keys are removed together with its snapshot being replaced.
+     */
+    private static final class Tables {
+        private final Map<UUID, ProductSnapshot> byId = new ConcurrentHashMap<>();
+        private final Map<String, ProductSnapshot> byCode = new ConcurrentHashMap<>();
+        private final Map<String, ProductSnapshot> bySku = new ConcurrentHashMap<>();
+        private final Map<String, ProductSnapshot> byEan = new ConcurrentHashMap<>();
+
+        private ProductSnapshot find(String key) {
+            ProductSnapshot snapshot = byCode.get(key);
+            if (snapshot == null) {
+                snapshot = bySku.get(key);
+            }
+            if (snapshot == null) {
+                snapshot = byEan.get(key);
+            }
+            return snapshot;
+        }
+
+        private synchronized void apply(ProductSnapshot snapshot) {
+            ProductSnapshot previous = byId.get(snapshot.id);
+            if (previous != null) {
+                if (previous.updatedAtMillis > snapshot.updatedAtMillis) {
+                    return;
+                }
+                remove(byCode, previous.code, previous);
+                remove(bySku, previous.sku, previous);
+                remove(byEan, previous.ean, previous);
+            }
+            byId.put(snapshot.id, snapshot);
+            put(byCode, snapshot.code, snapshot);
+            put(bySku, snapshot.sku, snapshot);
+            put(byEan, snapshot.ean, snapshot);
+        }
+
+        private static void put(Map<String, ProductSnapshot> map, String key, ProductSnapshot snapshot) {
+            if (key != null && !key.isBlank()) {
+                map.put(key, snapshot);
+            }
+        }
+
+        private static void remove(Map<String, ProductSnapshot> map, String key, ProductSnapshot snapshot) {
+            if (key != null) {
+                map.remove(key, snapshot);
+            }
+        }
+    }
+
+    /**
+     * Immutable product fields needed by an entry line - replaced, never modified
+     */
+    @Getter
+    public static final class ProductSnapshot {
+        private final UUID id;
+        private final String code;
+        private final String sku;
+        private final String ean;
+        private final String name;
+        private final String unitOfMeasure;
+        private final BigDecimal basePrice;
+        private final BigDecimal taxRate;
+        private final Boolean isCable;
+        private final Boolean isActive;
+        @Getter(AccessLevel.NONE)
+        private final long updatedAtMillis;
+
+        private ProductSnapshot(UUID id, String code, String sku, String ean, String name, String unitOfMeasure,
+                                BigDecimal basePrice, BigDecimal taxRate, Boolean isCable, Boolean isActive,
+                                Instant updatedAt) {
+            this.id = Objects.requireNonNull(id);
+            this.code = code;
+            this.sku = sku;
+            this.ean = ean;
+            this.name = name;
+            this.unitOfMeasure = unitOfMeasure;
+            this.basePrice = basePrice;
+            this.taxRate = taxRate;
+            this.isCable = isCable;
+            this.isActive = isActive;
+            this.updatedAtMillis = updatedAt != null ? updatedAt.toEpochMilli() : 0;
+        }
+
+        static ProductSnapshot of(Product product) {
+            return new ProductSnapshot(product.getId(), product.getCode(), product.getSku(), product.getEan(),
+                    product.getName(), product.getUnitOfMeasure(), product.getBasePrice(), product.getTaxRate(),
+                    product.getIsCable(), product.getIsActive(), product.getUpdatedAt());
+        }
+
+        private static ProductSnapshot of(ProductLookupView row) {
+            return new ProductSnapshot(row.getId(), row.getCode(), row.getSku(), row.getEan(),
+                    row.getName(), row.getUnitOfMeasure(), row.getBasePrice(), row.getTaxRate(),
+                    row.getIsCable(), row.getIsActive(), row.getUpdatedAt());
+        }
+    }
+}
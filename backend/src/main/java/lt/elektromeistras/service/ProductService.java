@@ -1,6 +1,7 @@
 package lt.elektromeistras.service;
 
 import lt.elektromeistras.domain.Product;
+import lt.elektromeistras.repository.LikePatterns;
 import lt.elektromeistras.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Service
@@ -21,6 +23,7 @@ import java.util.UUID;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductLookupIndex productLookupIndex;
 
     /**
      * FAST product search for autocomplete - CRITICAL for UX
@@ -38,11 +41,10 @@ public class ProductService {
             ).getContent();
         }
 
-        // Use repository search which has optimized ordering
-        List<Product> results = productRepository.searchProducts(query.trim());
-
-        // Limit to 20 for autocomplete performance
-        return results.size() > 20 ? results.subList(0, 20) : results;
+        // Ranked, index-backed search - only the top 20 rows leave the database
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        String escaped = LikePatterns.escape(normalized);
+        return productRepository.searchProductsRanked(normalized, "%" + escaped + "%", escaped + "%", 20);
     }
 
     /**
@@ -86,7 +88,8 @@ public class ProductService {
         if (query == null || query.trim().isEmpty()) {
             return productRepository.findByIsActiveTrue(pageable);
         }
-        return productRepository.searchProducts(query.trim(), pageable);
+        String escaped = LikePatterns.escape(query.trim().toLowerCase(Locale.ROOT));
+        return productRepository.searchProducts("%" + escaped + "%", pageable);
     }
 
     /**
@@ -127,7 +130,10 @@ public class ProductService {
             throw new RuntimeException("Product with SKU already exists: " + product.getSku());
         }
 
-        return productRepository.save(product);
+        // Flushed so the lookup index snapshot carries updated_at
+        Product saved = productRepository.saveAndFlush(product);
+        productLookupIndex.index(saved);
+        return saved;
     }
 
     /**
@@ -156,7 +162,9 @@ public class ProductService {
         product.setIsActive(productDetails.getIsActive());
         product.setMinStockLevel(productDetails.getMinStockLevel());
 
-        return productRepository.save(product);
+        Product saved = productRepository.saveAndFlush(product);
+        productLookupIndex.index(saved);
+        return saved;
     }
 
     /**
@@ -167,7 +175,7 @@ public class ProductService {
         log.info("Deleting product with id: {}", id);
         Product product = getById(id);
         product.setIsActive(false);
-        productRepository.save(product);
+        productLookupIndex.index(productRepository.saveAndFlush(product));
     }
 
     /**
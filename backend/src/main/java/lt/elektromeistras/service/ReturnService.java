@@ -13,7 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -37,6 +36,9 @@ public class ReturnService {
     private final WarehouseLocationRepository warehouseLocationRepository;
     private final ProductRepository productRepository;
     private final StockService stockService;
+    private final DocumentNumberService documentNumberService;
+    private final GLPostingOutbox glPostingOutbox;
+    private final ConcurrencyRetryPolicy retryPolicy;
 
     @Transactional
     public ReturnResponse createReturn(CreateReturnRequest request) {
@@ -237,8 +239,16 @@ public class ReturnService {
         return toReturnResponse(savedReturn);
     }
 
-    @Transactional
+    /**
+     * Put the accepted quantities of an inspected return back into stock.
+     * Not transactional itself: the whole restock runs in one transaction of ConcurrencyRetryPolicy,
+     * which retries it from the start when a stock update hits a deadlock or version conflict.
+     */
     public ReturnResponse restockReturn(UUID returnId) {
+        return retryPolicy.execute(() -> doRestockReturn(returnId));
+    }
+
+    private ReturnResponse doRestockReturn(UUID returnId) {
         Return returnEntity = getReturnById(returnId);
 
         if (returnEntity.getStatus() != Return.ReturnStatus.INSPECTED) {
@@ -299,6 +309,7 @@ public class ReturnService {
         }
 
         Return savedReturn = returnRepository.save(returnEntity);
+        glPostingOutbox.enqueueReturn(savedReturn);
         log.info("Processed refund for return: {} - Amount: {} - Method: {}",
                 savedReturn.getReturnNumber(),
                 request.getRefundAmount(),
@@ -363,11 +374,7 @@ public class ReturnService {
     }
 
     private String generateReturnNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long count = returnRepository.countReturnsSince(
-                LocalDateTime.now().withHour(0).withMinute(0).withSecond(0)
-        );
-        return String.format("RET-%s-%04d", timestamp, count + 1);
+        return documentNumberService.next(DocumentNumberService.DocumentSeries.RETURN);
     }
 
     // Mapper methods
@@ -0,0 +1,271 @@
+package lt.elektromeistras.service;
+
+import lombok.extern.slf4j.Slf4j;
+import lt.elektromeistras.dto.response.StockCacheConsistencyResponse;
+import lt.elektromeistras.dto.response.StockCacheStatsResponse;
+import lt.elektromeistras.repository.ProductStockRepository;
+import lt.elektromeistras.repository.ProductStockRepository.StockQuantityView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory available-to-promise (ATP) cache keyed by (productId, warehouseId).
+ *
+ * Quantities are kept as longs scaled by 1000 (product_stock columns have scale 3), so reads
+ * do no BigDecimal arithmetic and entries stay small. The cache is warmed from one streaming
+ * scan of product_stock at startup and updated write-through by StockService after each
+ * committed change. Entries older than stock.cache.max-staleness-ms are reloaded from the
+ * database, which bounds drift from writes made outside this node.
+ */
+@Component
+@Slf4j
+public class StockAvailabilityCache {
+
+    private static final int SCALE = 3;
+    private static final int MAX_MISMATCHES_TO_REPORT = 100;
+
+    private final ProductStockRepository stockRepository;
+    private final long maxStalenessMs;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    private volatile LocalDateTime lastWarmedAt;
+    private volatile long lastWarmDurationMs;
+    private volatile LocalDateTime lastCheckedAt;
+    private volatile int lastCheckMismatches;
+
+    public StockAvailabilityCache(ProductStockRepository stockRepository,
+                                  @Value("${stock.cache.max-staleness-ms:60000}") long maxStalenessMs) {
+        this.stockRepository = stockRepository;
+        this.maxStalenessMs = maxStalenessMs;
+    }
+
+    /**
+     * Available quantity (quantity - reserved) for a product in a warehouse
+     */
+    public BigDecimal getAvailable(UUID productId, UUID warehouseId) {
+        Key key = new Key(productId, warehouseId);
+        Entry entry = entries.get(key);
+        if (entry != null && System.currentTimeMillis() - entry.loadedAtMillis <= maxStalenessMs) {
+            hits.increment();
+            return fromScaled(entry.quantity - entry.reserved);
+        }
+
+        misses.increment();
+        entry = stockRepository.sumQuantities(productId, warehouseId)
+                .map(this::toEntry)
+                .orElseGet(() -> new Entry(0, 0, System.currentTimeMillis()));
+        entries.put(key, entry);
+        return fromScaled(entry.quantity - entry.reserved);
+    }
+
+    /**
+     * Apply a stock change once the surrounding transaction commits (immediately if there is none)
+     */
+    public void applyDelta(UUID productId, UUID warehouseId, BigDecimal quantityDelta, BigDecimal reservedDelta) {
+        long quantity = toScaled(quantityDelta);
+        long reserved = toScaled(reservedDelta);
+        afterCommit(() -> {
+            entries.computeIfPresent(new Key(productId, warehouseId),
+                    (key, e) -> new Entry(e.quantity + quantity, e.reserved + reserved, e.loadedAtMillis));
+            writes.increment();
+        });
+    }
+
+    /**
+     * Drop an entry now and again after commit, so the next read loads the committed value
+     */
+    public void evict(UUID productId, UUID warehouseId) {
+        Key key = new Key(productId, warehouseId);
+        entries.remove(key);
+        afterCommit(() -> {
+            entries.remove(key);
+            writes.increment();
+        });
+    }
+
+    /**
+     * Load all entries with one streaming scan of product_stock
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        long start = System.currentTimeMillis();
+        int count = 0;
+        try (Stream<StockQuantityView> rows = stockRepository.streamAllQuantities()) {
+            for (StockQuantityView row : (Iterable<StockQuantityView>) rows::iterator) {
+                entries.put(new Key(row.getProductId(), row.getWarehouseId()), toEntry(row));
+                count++;
+            }
+        }
+        lastWarmedAt = LocalDateTime.now();
+        lastWarmDurationMs = System.currentTimeMillis() - start;
+        log.info("Stock availability cache warmed with {} entries in {} ms", count, lastWarmDurationMs);
+    }
+
+    /**
+     * Compare every cached entry against the database.
+     * Stock changing while the check runs can show up as a transient mismatch.
+     *
+     * @param repair Replace mismatching entries with the database values
+     */
+    @Transactional(readOnly = true)
+    public StockCacheConsistencyResponse verify(boolean repair) {
+        StockCacheConsistencyResponse result = StockCacheConsistencyResponse.builder()
+                .checkedEntries(0)
+                .mismatches(0)
+                .repaired(repair)
+                .build();
+
+        try (Stream<StockQuantityView> rows = stockRepository.streamAllQuantities()) {
+            for (StockQuantityView row : (Iterable<StockQuantityView>) rows::iterator) {
+                Key key = new Key(row.getProductId(), row.getWarehouseId());
+                Entry cached = entries.get(key);
+                if (cached == null) {
+                    continue;
+                }
+                result.setCheckedEntries(result.getCheckedEntries() + 1);
+
+                Entry actual = toEntry(row);
+                if (cached.quantity != actual.quantity || cached.reserved != actual.reserved) {
+                    result.setMismatches(result.getMismatches() + 1);
+                    if (result.getDetails().size() < MAX_MISMATCHES_TO_REPORT) {
+                        result.addDetail(String.format("product %s, warehouse %s: cached %s/%s, database %s/%s",
+                                key.productId, key.warehouseId,
+                                fromScaled(cached.quantity), fromScaled(cached.reserved),
+                                fromScaled(actual.quantity), fromScaled(actual.reserved)));
+                    }
+                    if (repair) {
+                        entries.put(key, actual);
+                    }
+                }
+            }
+        }
+
+        lastCheckedAt = LocalDateTime.now();
+        lastCheckMismatches = result.getMismatches();
+        result.setCheckedAt(lastCheckedAt);
+        if (result.getMismatches() > 0) {
+            log.warn("Stock availability cache check found {} mismatches out of {} entries",
+                    result.getMismatches(), result.getCheckedEntries());
+        }
+        return result;
+    }
+
+    public StockCacheStatsResponse getStats() {
+        long now = System.currentTimeMillis();
+        long oldest = 0;
+        int staleEntries = 0;
+        for (Entry entry : entries.values()) {
+            long age = now - entry.loadedAtMillis;
+            oldest = Math.max(oldest, age);
+            if (age > maxStalenessMs) {
+                staleEntries++;
+            }
+        }
+
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        return StockCacheStatsResponse.builder()
+                .entries(entries.size())
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRatio(hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount))
+                .writes(writes.sum())
+                .staleEntries(staleEntries)
+                .oldestEntryAgeMs(oldest)
+                .maxStalenessMs(maxStalenessMs)
+                .lastWarmedAt(lastWarmedAt)
+                .lastWarmDurationMs(lastWarmDurationMs)
+                .lastCheckedAt(lastCheckedAt)
+                .lastCheckMismatches(lastCheckMismatches)
+                .build();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Entry toEntry(StockQuantityView row) {
+        return new Entry(toScaled(row.getQuantity()), toScaled(row.getReservedQuantity()), System.currentTimeMillis());
+    }
+
+    private static long toScaled(BigDecimal value) {
+        if (value == null) {
+            return 0;
+        }
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromScaled(long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    private static final class Key {
+        private final UUID productId;
+        private final UUID warehouseId;
+
+        private Key(UUID productId, UUID warehouseId) {
+            this.productId = productId;
+            this.warehouseId = warehouseId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return productId.equals(other.productId) && warehouseId.equals(other.warehouseId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, warehouseId);
+        }
+    }
+
+    /**
+     * Immutable snapshot - replaced on every change so readers never see a half-applied delta
+     */
+    private static final class Entry {
+        private final long quantity;
+        private final long reserved;
+        private final long loadedAtMillis;
+
+        private Entry(long quantity, long reserved, long loadedAtMillis) {
+            this.quantity = quantity;
+            this.reserved = reserved;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+    }
+}
@@ -6,15 +6,21 @@ import lt.elektromeistras.domain.*;
 import lt.elektromeistras.exception.InsufficientStockException;
 import lt.elektromeistras.repository.ProductStockRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Stock Management Service
- * Handles inventory operations including stock reservation
+ * Handles inventory operations including stock reservation.
+ *
+ * All counter changes are atomic delta updates in the database (see ProductStockRepository),
+ * so concurrent sales of the same SKU never lose updates. Each operation runs through
+ * ConcurrencyRetryPolicy, which retries the transaction on deadlocks and version conflicts
+ * when the operation starts it; called inside a caller's transaction, the operation joins it
+ * and the caller owns the retry (see ReturnService.restockReturn).
+ * Committed changes are written through to StockAvailabilityCache.
  */
 @Service
 @RequiredArgsConstructor
@@ -22,120 +28,162 @@ import java.util.UUID;
 public class StockService {
 
     private final ProductStockRepository stockRepository;
+    private final ConcurrencyRetryPolicy retryPolicy;
+    private final StockAvailabilityCache availabilityCache;
 
-    @Transactional
+    /**
+     * Reserve stock for all order lines at once.
+     * Loads every stock row for the order's products in one query, checks availability in memory
+     * and reserves all rows with one batched conditional UPDATE. Every short line is reported.
+     */
     public void reserveStock(Order order) {
-        log.info("Reserving stock for order: {}", order.getOrderNumber());
+        retryPolicy.run(() -> doReserveStock(order));
+    }
 
-        for (OrderLine line : order.getLines()) {
-            ProductStock stock = stockRepository.findByProductAndWarehouse(
-                    line.getProduct(), 
-                    order.getWarehouse()
-            ).orElseThrow(() -> new InsufficientStockException(
-                    "No stock found for product: " + line.getProduct().getSku()
-            ));
-
-            BigDecimal availableQuantity = stock.getAvailableQuantity();
-            if (availableQuantity.compareTo(line.getQuantity()) < 0) {
-                throw new InsufficientStockException(
-                        String.format("Insufficient stock for product %s. Available: %s, Required: %s",
-                                line.getProduct().getSku(),
-                                availableQuantity,
-                                line.getQuantity())
-                );
-            }
+    private void doReserveStock(Order order) {
+        log.info("Reserving stock for order: {} ({} lines)", order.getOrderNumber(), order.getLines().size());
 
-            stock.setReservedQuantity(
-                    stock.getReservedQuantity().add(line.getQuantity())
-            );
-            stockRepository.save(stock);
+        Map<UUID, BigDecimal> requiredByProduct = sumQuantitiesByProduct(order);
+        Map<UUID, Product> products = productsById(order);
+        Map<UUID, ProductStock> stockByProduct = loadStock(order, requiredByProduct.keySet());
 
-            log.debug("Reserved {} units of {} for order {}", 
-                    line.getQuantity(), line.getProduct().getSku(), order.getOrderNumber());
+        List<InsufficientStockException.Shortage> shortages = new ArrayList<>();
+        Map<UUID, BigDecimal> quantitiesByStockId = new LinkedHashMap<>();
+        Map<UUID, UUID> productByStockId = new HashMap<>();
+        requiredByProduct.forEach((productId, required) -> {
+            ProductStock stock = stockByProduct.get(productId);
+            BigDecimal available = stock != null ? stock.getAvailableQuantity() : BigDecimal.ZERO;
+            if (stock == null || available.compareTo(required) < 0) {
+                shortages.add(new InsufficientStockException.Shortage(
+                        products.get(productId).getSku(), required, available));
+            } else {
+                quantitiesByStockId.put(stock.getId(), required);
+                productByStockId.put(stock.getId(), productId);
+            }
+        });
+        throwIfShort(order, shortages);
+
+        // Guarded UPDATE rejects rows whose availability changed since they were read
+        Set<UUID> rejected = stockRepository.reserveAll(quantitiesByStockId);
+        for (UUID stockId : rejected) {
+            UUID productId = productByStockId.get(stockId);
+            shortages.add(new InsufficientStockException.Shortage(
+                    products.get(productId).getSku(),
+                    quantitiesByStockId.get(stockId),
+                    stockByProduct.get(productId).getAvailableQuantity()));
         }
+        throwIfShort(order, shortages);
+
+        productByStockId.forEach((stockId, productId) -> availabilityCache.applyDelta(
+                productId, order.getWarehouse().getId(), BigDecimal.ZERO, quantitiesByStockId.get(stockId)));
+
+        log.debug("Reserved {} products for order {}", quantitiesByStockId.size(), order.getOrderNumber());
     }
 
-    @Transactional
     public void releaseStock(Order order) {
+        retryPolicy.run(() -> doReleaseStock(order));
+    }
+
+    private void doReleaseStock(Order order) {
         log.info("Releasing stock for order: {}", order.getOrderNumber());
 
-        for (OrderLine line : order.getLines()) {
-            ProductStock stock = stockRepository.findByProductAndWarehouse(
-                    line.getProduct(),
-                    order.getWarehouse()
-            ).orElse(null);
+        if (order.getWarehouse() == null) {
+            return;
+        }
 
-            if (stock != null) {
-                stock.setReservedQuantity(
-                        stock.getReservedQuantity().subtract(line.getQuantity())
-                );
-                stockRepository.save(stock);
+        Map<UUID, BigDecimal> releaseByProduct = sumQuantitiesByProduct(order);
+        Map<UUID, ProductStock> stockByProduct = loadStock(order, releaseByProduct.keySet());
 
+        releaseByProduct.forEach((productId, quantity) -> {
+            ProductStock stock = stockByProduct.get(productId);
+            if (stock == null) {
+                return;
+            }
+            if (stockRepository.decrementReserved(stock.getId(), quantity) == 0) {
+                log.warn("Reserved quantity of stock {} is lower than {} - nothing released for order {}",
+                        stock.getId(), quantity, order.getOrderNumber());
+            } else {
+                availabilityCache.applyDelta(productId, order.getWarehouse().getId(), BigDecimal.ZERO, quantity.negate());
                 log.debug("Released {} units of {} from order {}",
-                        line.getQuantity(), line.getProduct().getSku(), order.getOrderNumber());
+                        quantity, stock.getProduct().getSku(), order.getOrderNumber());
             }
-        }
+        });
     }
 
-    @Transactional
     public void commitStock(Order order) {
+        retryPolicy.run(() -> doCommitStock(order));
+    }
+
+    private void doCommitStock(Order order) {
         log.info("Committing stock for order: {}", order.getOrderNumber());
 
-        for (OrderLine line : order.getLines()) {
-            ProductStock stock = stockRepository.findByProductAndWarehouse(
-                    line.getProduct(),
-                    order.getWarehouse()
-            ).orElseThrow(() -> new InsufficientStockException(
-                    "No stock found for product: " + line.getProduct().getSku()
-            ));
+        Map<UUID, BigDecimal> committedByProduct = sumQuantitiesByProduct(order);
+        Map<UUID, ProductStock> stockByProduct = loadStock(order, committedByProduct.keySet());
+        Map<UUID, Product> products = productsById(order);
 
-            // Reduce both quantity and reserved quantity
-            stock.setQuantity(stock.getQuantity().subtract(line.getQuantity()));
-            stock.setReservedQuantity(stock.getReservedQuantity().subtract(line.getQuantity()));
-            stockRepository.save(stock);
+        committedByProduct.forEach((productId, quantity) -> {
+            ProductStock stock = stockByProduct.get(productId);
+            if (stock == null) {
+                throw new InsufficientStockException(
+                        "No stock found for product: " + products.get(productId).getSku());
+            }
 
-            // Handle cable roll updates if applicable
-            if (Boolean.TRUE.equals(line.getIsCable()) && line.getCutLength() != null) {
-                updateCableRoll(stock, line.getCutLength());
+            // Reduce both quantity and reserved quantity
+            if (stockRepository.decrementQuantity(stock.getId(), quantity) == 0) {
+                throw new InsufficientStockException(
+                        String.format("Cannot commit %s units of %s - not enough reserved stock",
+                                quantity, products.get(productId).getSku()));
             }
+            availabilityCache.applyDelta(productId, order.getWarehouse().getId(), quantity.negate(), quantity.negate());
 
             log.debug("Committed {} units of {} for order {}",
-                    line.getQuantity(), line.getProduct().getSku(), order.getOrderNumber());
-        }
-    }
+                    quantity, products.get(productId).getSku(), order.getOrderNumber());
+        });
 
-    private void updateCableRoll(ProductStock stock, BigDecimal cutLength) {
-        if (stock.getRollCurrentLength() != null) {
-            BigDecimal newLength = stock.getRollCurrentLength().subtract(cutLength);
-            stock.setRollCurrentLength(newLength);
-            log.debug("Updated cable roll {} from {} to {}",
-                    stock.getRollId(), stock.getRollCurrentLength(), newLength);
+        // Handle cable roll updates if applicable
+        for (OrderLine line : order.getLines()) {
+            if (Boolean.TRUE.equals(line.getIsCable()) && line.getCutLength() != null) {
+                ProductStock stock = stockByProduct.get(line.getProduct().getId());
+                if (stock.getRollCurrentLength() != null) {
+                    stockRepository.decrementRollLength(stock.getId(), line.getCutLength());
+                    log.debug("Cut {} from cable roll {}", line.getCutLength(), stock.getRollId());
+                }
+            }
         }
     }
 
+    /**
+     * Available quantity served from StockAvailabilityCache - no database hit on repeat lookups
+     */
     public BigDecimal getAvailableStock(UUID productId, UUID warehouseId) {
-        return stockRepository.findByProductIdAndWarehouseId(productId, warehouseId)
-                .map(ProductStock::getAvailableQuantity)
-                .orElse(BigDecimal.ZERO);
+        return availabilityCache.getAvailable(productId, warehouseId);
     }
 
     public List<ProductStock> getLowStockItems() {
         return stockRepository.findLowStockItems();
     }
 
-    @Transactional
     public void adjustStock(UUID productId, UUID warehouseId, BigDecimal quantity, String reason) {
-        ProductStock stock = stockRepository.findByProductIdAndWarehouseId(productId, warehouseId)
-                .orElseThrow(() -> new IllegalArgumentException("Stock not found"));
+        retryPolicy.run(() -> {
+            ProductStock stock = stockRepository.findByProductIdAndWarehouseId(productId, warehouseId)
+                    .orElseThrow(() -> new IllegalArgumentException("Stock not found"));
 
-        stock.setQuantity(stock.getQuantity().add(quantity));
-        stockRepository.save(stock);
+            if (stockRepository.adjustQuantity(stock.getId(), quantity) == 0) {
+                throw new InsufficientStockException(
+                        String.format("Cannot adjust stock of product %s by %s - quantity would drop below reserved",
+                                productId, quantity));
+            }
+            availabilityCache.applyDelta(productId, warehouseId, quantity, BigDecimal.ZERO);
 
-        log.info("Stock adjusted for product {} by {}. Reason: {}", productId, quantity, reason);
+            log.info("Stock adjusted for product {} by {}. Reason: {}", productId, quantity, reason);
+        });
     }
 
-    @Transactional
     public void restockFromReturn(ReturnLine returnLine) {
+        retryPolicy.run(() -> doRestockFromReturn(returnLine));
+    }
+
+    private void doRestockFromReturn(ReturnLine returnLine) {
         log.info("Restocking from return: Product {}, Quantity: {}",
                 returnLine.getProduct().getSku(),
                 returnLine.getQuantityAccepted());
@@ -148,19 +196,62 @@ public class StockService {
                 "No stock record found for product: " + returnLine.getProduct().getSku()
         ));
 
-        // Add accepted quantity back to inventory
-        stock.setQuantity(stock.getQuantity().add(returnLine.getQuantityAccepted()));
-
-        // Update location if specified
-        if (returnLine.getWarehouseLocation() != null) {
-            stock.setLocation(returnLine.getWarehouseLocation());
-        }
-
-        stockRepository.save(stock);
+        // Add accepted quantity back to inventory, moving it to the return location if specified
+        WarehouseLocation location = returnLine.getWarehouseLocation() != null
+                ? returnLine.getWarehouseLocation()
+                : stock.getLocation();
+        stockRepository.incrementQuantityAtLocation(stock.getId(), returnLine.getQuantityAccepted(), location);
+        availabilityCache.applyDelta(returnLine.getProduct().getId(), warehouse.getId(),
+                returnLine.getQuantityAccepted(), BigDecimal.ZERO);
 
         log.info("Restocked {} units of {} to warehouse {}",
                 returnLine.getQuantityAccepted(),
                 returnLine.getProduct().getSku(),
                 warehouse.getName());
     }
+
+    /**
+     * Sum line quantities per product - the same product may appear on several lines
+     */
+    private Map<UUID, BigDecimal> sumQuantitiesByProduct(Order order) {
+        Map<UUID, BigDecimal> quantities = new LinkedHashMap<>();
+        for (OrderLine line : order.getLines()) {
+            quantities.merge(line.getProduct().getId(), line.getQuantity(), BigDecimal::add);
+        }
+        return quantities;
+    }
+
+    private Map<UUID, Product> productsById(Order order) {
+        Map<UUID, Product> products = new HashMap<>();
+        for (OrderLine line : order.getLines()) {
+            products.putIfAbsent(line.getProduct().getId(), line.getProduct());
+        }
+        return products;
+    }
+
+    /**
+     * Load the stock rows of the given products in the order's warehouse with one query
+     */
+    private Map<UUID, ProductStock> loadStock(Order order, Collection<UUID> productIds) {
+        if (order.getWarehouse() == null) {
+            throw new InsufficientStockException("No warehouse set for order: " + order.getOrderNumber());
+        }
+
+        Map<UUID, ProductStock> stockByProduct = new HashMap<>();
+        for (ProductStock stock : stockRepository.findByWarehouseIdAndProductIdIn(
+                order.getWarehouse().getId(), productIds)) {
+            stockByProduct.putIfAbsent(stock.getProduct().getId(), stock);
+        }
+        return stockByProduct;
+    }
+
+    private void throwIfShort(Order order, List<InsufficientStockException.Shortage> shortages) {
+        if (!shortages.isEmpty()) {
+            throw new InsufficientStockException(
+                    String.format("Insufficient stock for order %s: %s",
+                            order.getOrderNumber(),
+                            shortages.stream().map(Object::toString).collect(Collectors.joining("; "))),
+                    shortages);
+        }
+    }
 }
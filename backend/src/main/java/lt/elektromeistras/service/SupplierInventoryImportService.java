@@ -1,6 +1,7 @@
 package lt.elektromeistras.service;
 
 import com.opencsv.bean.CsvToBeanBuilder;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,15 +9,25 @@ import lt.elektromeistras.domain.*;
 import lt.elektromeistras.dto.request.SupplierInventoryCsvRow;
 import lt.elektromeistras.dto.response.ImportResultResponse;
 import lt.elektromeistras.repository.*;
+import lt.elektromeistras.repository.ProductStockRepositoryCustom.QuantityAdjustment;
+import org.hibernate.Session;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.*;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -29,172 +40,578 @@ public class SupplierInventoryImportService {
 
     private static final int BATCH_SIZE = 500;
     private static final int MAX_ERRORS_TO_REPORT = 100;
+    private static final int MAX_PARTITIONS = 8;
+    private static final List<SupplierInventoryCsvRow> END_OF_PARTITION = new ArrayList<>();
 
     private final ProductRepository productRepository;
     private final ProductStockRepository productStockRepository;
     private final SupplierRepository supplierRepository;
     private final WarehouseRepository warehouseRepository;
     private final ProductCategoryRepository categoryRepository;
+    private final SupplierImportFingerprintRepository fingerprintRepository;
+    private final StockAvailabilityCache availabilityCache;
+    private final ProductLookupIndex productLookupIndex;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
 
     /**
      * Import supplier inventory from CSV file
      *
      * @param file CSV file from FORMAPAK system
      * @param warehouseCode Warehouse code to import stock into
-     * @param updateExisting Whether to update existing products or skip them
+     * @param mode What to do with existing products - skip, update, or update only changed rows
      * @return Import result with statistics
      */
     @Transactional
-    public ImportResultResponse importFromCsv(MultipartFile file, String warehouseCode, boolean updateExisting) {
-        log.info("Starting import from file: {}, warehouse: {}, updateExisting: {}",
-            file.getOriginalFilename(), warehouseCode, updateExisting);
-
-        ImportResultResponse result = ImportResultResponse.builder()
-            .startTime(LocalDateTime.now())
-            .totalRows(0)
-            .processedRows(0)
-            .createdProducts(0)
-            .updatedProducts(0)
-            .createdStock(0)
-            .updatedStock(0)
-            .skippedRows(0)
-            .errorRows(0)
-            .build();
+    public ImportResultResponse importFromCsv(MultipartFile file, String warehouseCode, ImportMode mode) {
+        ImportResultResponse result = newResult(file);
+
+        try (InputStream input = file.getInputStream()) {
+            return importFromCsv(input, result, warehouseCode, mode, progress -> { });
+        } catch (IOException e) {
+            return failUnreadable(result, e);
+        }
+    }
+
+    /**
+     * Import supplier inventory from CSV file in parallel partitions - see
+     * {@link #importFromCsvPartitioned(InputStream, ImportResultResponse, String, ImportMode, int, Consumer)}
+     *
+     * @param partitions Number of partitions/worker threads, 1 to MAX_PARTITIONS
+     */
+    public ImportResultResponse importFromCsvPartitioned(MultipartFile file, String warehouseCode,
+                                                         ImportMode mode, int partitions) {
+        ImportResultResponse result = newResult(file);
+
+        try (InputStream input = file.getInputStream()) {
+            return importFromCsvPartitioned(input, result, warehouseCode, mode, partitions, progress -> { });
+        } catch (IOException e) {
+            return failUnreadable(result, e);
+        }
+    }
+
+    /**
+     * Import supplier inventory from a CSV stream.
+     * Rows flow through a pipeline - CSV iterator, validation, persistence in bounded batches -
+     * so memory use does not depend on file size. The result is updated after every batch and
+     * handed to the progress listener.
+     * The whole file is imported in one transaction.
+     *
+     * @param input CSV content from FORMAPAK system
+     * @param result Result to fill in - may carry job ID, file name and total size
+     * @param warehouseCode Warehouse code to import stock into
+     * @param mode What to do with existing products - skip, update, or update only changed rows
+     * @param progressListener Called after every batch and when the import finishes
+     * @return Import result with statistics
+     */
+    @Transactional
+    public ImportResultResponse importFromCsv(InputStream input, ImportResultResponse result, String warehouseCode,
+                                              ImportMode mode, Consumer<ImportResultResponse> progressListener) {
+        log.info("Starting import from file: {}, warehouse: {}, mode: {}",
+            result.getFileName(), warehouseCode, mode);
+
+        startResult(result, progressListener);
 
         try {
-            // Find warehouse
-            Warehouse warehouse = warehouseRepository.findByCode(warehouseCode)
-                .orElseThrow(() -> new IllegalArgumentException("Warehouse not found: " + warehouseCode));
+            Warehouse warehouse = findWarehouse(warehouseCode);
+            ReferenceData referenceData = new ReferenceData(requiresNewTransaction());
+
+            CountingInputStream countingInput = new CountingInputStream(input);
+            try (Reader reader = new BufferedReader(new InputStreamReader(countingInput, StandardCharsets.UTF_8))) {
+                readRows(csvIterator(reader), 1, countingInput, result, (partition, batch) -> {
+                    persistBatch(batch, warehouse, mode, referenceData, result);
+                    log.info("Processed {} rows ({} bytes read)", result.getProcessedRows(), result.getBytesRead());
+                    progressListener.accept(result);
+                });
+            }
+
+            finishResult(result);
 
-            // Parse CSV file
-            List<SupplierInventoryCsvRow> rows = parseCsvFile(file);
-            result.setTotalRows(rows.size());
-            log.info("Parsed {} rows from CSV", rows.size());
+        } catch (Exception e) {
+            failResult(result, e);
+        }
 
-            // Process in batches
-            processBatches(rows, warehouse, updateExisting, result);
+        progressListener.accept(result);
+        return result;
+    }
 
+    /**
+     * Import supplier inventory from a CSV stream in parallel partitions.
+     * Rows are routed by product code hash to one of N worker threads, so all rows of one product
+     * land in the same partition and partitions never touch the same product or stock row.
+     * Each worker commits every batch in its own transaction - a failing batch rolls back only
+     * its own rows, the rest of the import carries on. Suppliers and categories are shared
+     * between partitions through a concurrent cache and created in their own transactions.
+     *
+     * @param input CSV content from FORMAPAK system
+     * @param result Result to fill in - may carry job ID, file name and total size
+     * @param warehouseCode Warehouse code to import stock into
+     * @param mode What to do with existing products - skip, update, or update only changed rows
+     * @param partitions Number of partitions/worker threads, 1 to MAX_PARTITIONS
+     * @param progressListener Called after every committed batch and when the import finishes
+     * @return Import result with totals and per-partition statistics
+     */
+    public ImportResultResponse importFromCsvPartitioned(InputStream input, ImportResultResponse result,
+                                                         String warehouseCode, ImportMode mode, int partitions,
+                                                         Consumer<ImportResultResponse> progressListener) {
+        int partitionCount = Math.max(1, Math.min(partitions, MAX_PARTITIONS));
+        log.info("Starting partitioned import from file: {}, warehouse: {}, mode: {}, partitions: {}",
+            result.getFileName(), warehouseCode, mode, partitionCount);
+
+        startResult(result, progressListener);
+        List<ImportResultResponse.PartitionResult> partitionResults = new ArrayList<>();
+        for (int i = 0; i < partitionCount; i++) {
+            partitionResults.add(ImportResultResponse.PartitionResult.builder().partition(i).build());
+        }
+        result.setPartitions(partitionResults);
+
+        try {
+            Warehouse warehouse = findWarehouse(warehouseCode);
+            ReferenceData referenceData = new ReferenceData(requiresNewTransaction());
+            TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+
+            List<BlockingQueue<List<SupplierInventoryCsvRow>>> queues = new ArrayList<>();
+            ExecutorService workers = Executors.newFixedThreadPool(partitionCount, partitionThreadFactory());
+            for (int i = 0; i < partitionCount; i++) {
+                // Two batches in flight per partition - the reader waits when a worker falls behind
+                BlockingQueue<List<SupplierInventoryCsvRow>> queue = new ArrayBlockingQueue<>(2);
+                queues.add(queue);
+                ImportResultResponse.PartitionResult partitionResult = partitionResults.get(i);
+                workers.submit(() -> runPartition(queue, partitionResult, batchTransaction, warehouse,
+                    mode, referenceData, result, progressListener));
+            }
+
+            CountingInputStream countingInput = new CountingInputStream(input);
+            try (Reader reader = new BufferedReader(new InputStreamReader(countingInput, StandardCharsets.UTF_8))) {
+                readRows(csvIterator(reader), partitionCount, countingInput, result,
+                    (partition, batch) -> putUninterruptibly(queues.get(partition), batch));
+            } finally {
+                queues.forEach(queue -> putUninterruptibly(queue, END_OF_PARTITION));
+                workers.shutdown();
+                awaitUninterruptibly(workers);
+            }
+
+            finishResult(result);
+
+        } catch (Exception e) {
+            failResult(result, e);
+        }
+
+        synchronized (result) {
+            progressListener.accept(result);
+        }
+        return result;
+    }
+
+    private ImportResultResponse newResult(MultipartFile file) {
+        return ImportResultResponse.builder()
+            .fileName(file.getOriginalFilename())
+            .totalBytes(file.getSize())
+            .build();
+    }
+
+    private ImportResultResponse failUnreadable(ImportResultResponse result, IOException e) {
+        log.error("Failed to read uploaded CSV", e);
+        result.addError("Fatal error: " + e.getMessage());
+        result.setStatus("FAILED");
+        return result;
+    }
+
+    private void startResult(ImportResultResponse result, Consumer<ImportResultResponse> progressListener) {
+        result.setStartTime(LocalDateTime.now());
+        result.setTotalRows(0);
+        result.setProcessedRows(0);
+        result.setCreatedProducts(0);
+        result.setUpdatedProducts(0);
+        result.setUnchangedRows(0);
+        result.setCreatedStock(0);
+        result.setUpdatedStock(0);
+        result.setSkippedRows(0);
+        result.setErrorRows(0);
+        result.setStatus("RUNNING");
+        result.updateProgress(0);
+        progressListener.accept(result);
+    }
+
+    private void finishResult(ImportResultResponse result) {
+        synchronized (result) {
             result.setEndTime(LocalDateTime.now());
             result.calculateDuration();
             result.determineStatus();
+        }
 
-            log.info("Import completed. Status: {}, Processed: {}, Created products: {}, Updated products: {}, Errors: {}",
-                result.getStatus(), result.getProcessedRows(), result.getCreatedProducts(),
-                result.getUpdatedProducts(), result.getErrorRows());
+        log.info("Import completed. Status: {}, Processed: {}, Created products: {}, Updated products: {}, Errors: {}",
+            result.getStatus(), result.getProcessedRows(), result.getCreatedProducts(),
+            result.getUpdatedProducts(), result.getErrorRows());
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to import CSV", e);
+    private void failResult(ImportResultResponse result, Exception e) {
+        log.error("Failed to import CSV", e);
+        synchronized (result) {
             result.addError("Fatal error: " + e.getMessage());
             result.setStatus("FAILED");
             result.setEndTime(LocalDateTime.now());
             result.calculateDuration();
         }
+    }
 
-        return result;
+    private Warehouse findWarehouse(String warehouseCode) {
+        return warehouseRepository.findByCode(warehouseCode)
+            .orElseThrow(() -> new IllegalArgumentException("Warehouse not found: " + warehouseCode));
     }
 
     /**
-     * Parse CSV file into DTO objects
+     * Suppliers and categories are committed on their own, so rows in other transactions
+     * (partitions) can reference them right away
      */
-    private List<SupplierInventoryCsvRow> parseCsvFile(MultipartFile file) throws Exception {
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-
-            List<SupplierInventoryCsvRow> rows = new CsvToBeanBuilder<SupplierInventoryCsvRow>(reader)
-                .withType(SupplierInventoryCsvRow.class)
-                .withIgnoreLeadingWhiteSpace(true)
-                .withIgnoreEmptyLine(true)
-                .build()
-                .parse();
-
-            // Clean data
-            rows.forEach(SupplierInventoryCsvRow::cleanData);
-
-            return rows;
-        }
+    private TransactionTemplate requiresNewTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
     }
 
     /**
-     * Process rows in batches for performance
+     * Lazily parse CSV rows - one bean in memory at a time
      */
-    private void processBatches(List<SupplierInventoryCsvRow> rows, Warehouse warehouse,
-                                boolean updateExisting, ImportResultResponse result) {
+    private Iterator<SupplierInventoryCsvRow> csvIterator(Reader reader) {
+        return new CsvToBeanBuilder<SupplierInventoryCsvRow>(reader)
+            .withType(SupplierInventoryCsvRow.class)
+            .withIgnoreLeadingWhiteSpace(true)
+            .withIgnoreEmptyLine(true)
+            .build()
+            .iterator();
+    }
 
-        // Cache for suppliers and categories to avoid repeated DB lookups
-        Map<String, Supplier> supplierCache = new HashMap<>();
-        Map<String, ProductCategory> categoryCache = new HashMap<>();
+    /**
+     * Validation stage: validate each row as it is read, route it to its partition by product
+     * code and hand full batches to the persistence stage
+     */
+    private void readRows(Iterator<SupplierInventoryCsvRow> rows, int partitionCount, CountingInputStream input,
+                          ImportResultResponse result, BiConsumer<Integer, List<SupplierInventoryCsvRow>> batchSink) {
 
-        List<Product> productsToSave = new ArrayList<>();
-        List<ProductStock> stockToSave = new ArrayList<>();
+        List<List<SupplierInventoryCsvRow>> batches = new ArrayList<>();
+        for (int i = 0; i < partitionCount; i++) {
+            batches.add(new ArrayList<>(BATCH_SIZE));
+        }
 
         int rowNumber = 0;
-        for (SupplierInventoryCsvRow row : rows) {
+        while (rows.hasNext()) {
+            SupplierInventoryCsvRow row = rows.next();
             rowNumber++;
 
-            try {
-                // Validate row
-                if (!row.isValid()) {
+            row.cleanData();
+            row.setRowNumber(rowNumber);
+            if (!row.isValid()) {
+                synchronized (result) {
                     result.setSkippedRows(result.getSkippedRows() + 1);
                     if (result.getErrors().size() < MAX_ERRORS_TO_REPORT) {
                         result.addWarning("Row " + rowNumber + ": Invalid data - missing required fields");
                     }
-                    continue;
                 }
+                continue;
+            }
+
+            int partition = Math.floorMod(row.getProductCode().hashCode(), partitionCount);
+            List<SupplierInventoryCsvRow> batch = batches.get(partition);
+            batch.add(row);
+            if (batch.size() >= BATCH_SIZE) {
+                updateReadProgress(result, rowNumber, input);
+                batchSink.accept(partition, batch);
+                batches.set(partition, new ArrayList<>(BATCH_SIZE));
+            }
+        }
+
+        // Hand over remaining rows
+        updateReadProgress(result, rowNumber, input);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            if (!batches.get(partition).isEmpty()) {
+                batchSink.accept(partition, batches.get(partition));
+            }
+        }
+    }
+
+    private void updateReadProgress(ImportResultResponse result, int rowsRead, CountingInputStream input) {
+        synchronized (result) {
+            result.setTotalRows(rowsRead);
+            result.updateProgress(input.getCount());
+        }
+    }
+
+    /**
+     * Worker loop of one partition: persist each batch in its own transaction until the
+     * reader signals the end of the file
+     */
+    private void runPartition(BlockingQueue<List<SupplierInventoryCsvRow>> queue,
+                              ImportResultResponse.PartitionResult partitionResult,
+                              TransactionTemplate batchTransaction, Warehouse warehouse, ImportMode mode,
+                              ReferenceData referenceData, ImportResultResponse result,
+                              Consumer<ImportResultResponse> progressListener) {
+        while (true) {
+            List<SupplierInventoryCsvRow> batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == END_OF_PARTITION) {
+                return;
+            }
+
+            ImportResultResponse batchResult = ImportResultResponse.builder()
+                .processedRows(0).createdProducts(0).updatedProducts(0).unchangedRows(0)
+                .createdStock(0).updatedStock(0).errorRows(0)
+                .build();
+            try {
+                batchTransaction.executeWithoutResult(status ->
+                    persistBatch(batch, warehouse, mode, referenceData, batchResult));
+
+                synchronized (result) {
+                    partitionResult.add(batchResult);
+                    result.addCounts(batchResult);
+                    batchResult.getErrors().stream()
+                        .limit(Math.max(0, MAX_ERRORS_TO_REPORT - result.getErrors().size()))
+                        .forEach(result::addError);
+                    batchResult.getWarnings().stream()
+                        .limit(Math.max(0, MAX_ERRORS_TO_REPORT - result.getWarnings().size()))
+                        .forEach(result::addWarning);
+                    progressListener.accept(result);
+                }
+            } catch (Exception e) {
+                String rows = "rows " + batch.get(0).getRowNumber() + "-" + batch.get(batch.size() - 1).getRowNumber();
+                log.error("Partition {} batch ({}) rolled back: {}", partitionResult.getPartition(), rows, e.getMessage());
+                synchronized (result) {
+                    partitionResult.addFailedBatch(batch.size());
+                    result.setErrorRows(result.getErrorRows() + batch.size());
+                    if (result.getErrors().size() < MAX_ERRORS_TO_REPORT) {
+                        result.addError("Partition " + partitionResult.getPartition() + ", " + rows
+                            + " rolled back: " + e.getMessage());
+                    }
+                    progressListener.accept(result);
+                }
+            }
+        }
+    }
+
+    private ThreadFactory partitionThreadFactory() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "import-partition-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static <T> void putUninterruptibly(BlockingQueue<T> queue, T element) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(element);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitUninterruptibly(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Persistence stage: create or update products and stock for one batch, then flush and
+     * detach everything so the persistence context does not grow with the file.
+     * Existing products and stock are prefetched with one IN query each instead of two
+     * lookups per row.
+     */
+    private void persistBatch(List<SupplierInventoryCsvRow> batch, Warehouse warehouse, ImportMode mode,
+                              ReferenceData referenceData, ImportResultResponse result) {
+
+        // Let Hibernate send the batch of inserts/updates as JDBC batches
+        entityManager.unwrap(Session.class).setJdbcBatchSize(BATCH_SIZE);
+
+        // Diff mode: drop rows identical to the last import before touching products or stock
+        Map<String, SupplierImportFingerprint> fingerprints = new HashMap<>();
+        List<SupplierInventoryCsvRow> rows = batch;
+        if (mode == ImportMode.DIFF) {
+            fingerprints = prefetchFingerprints(batch);
+            rows = skipUnchangedRows(batch, referenceData, fingerprints, result);
+        }
+
+        Map<String, Product> productsByCode = prefetchProducts(rows);
+        Map<String, ProductStock> stockByProductCode = prefetchStock(productsByCode.values(), warehouse);
+
+        // Insertion ordered and de-duplicated - the same code may appear more than once in a batch
+        Map<String, Product> productsToSave = new LinkedHashMap<>();
+        Map<String, ProductStock> stockToCreate = new LinkedHashMap<>();
+        List<StockAdjustment> stockAdjustments = new ArrayList<>();
+        // Diff mode: fingerprints advance only once the row's stock change is known to be applied
+        List<FingerprintUpdate> fingerprintUpdates = new ArrayList<>();
+        Map<String, BigDecimal> batchQuantities = new HashMap<>();
 
+        for (SupplierInventoryCsvRow row : rows) {
+            try {
                 // Get or create supplier
-                Supplier supplier = getOrCreateSupplier(row, supplierCache);
+                Supplier supplier = getOrCreateSupplier(row, referenceData);
 
                 // Get or create category
-                ProductCategory category = getOrCreateCategory(row, categoryCache);
+                ProductCategory category = getOrCreateCategory(row, referenceData);
 
                 // Process product
-                Product product = processProduct(row, supplier, category, updateExisting, result);
+                Product product = processProduct(row, supplier, category, mode != ImportMode.SKIP_EXISTING, productsByCode, result);
                 if (product != null) {
-                    productsToSave.add(product);
-
-                    // Process stock
-                    ProductStock stock = processStock(row, product, warehouse, result);
-                    if (stock != null) {
-                        stockToSave.add(stock);
+                    productsToSave.put(product.getCode(), product);
+
+                    // Process stock - in diff mode only the change since the last import is added
+                    String fingerprintKey = fingerprintKey(product.getCode(), supplier);
+                    BigDecimal quantityToAdd = mode == ImportMode.DIFF
+                        ? importedQuantity(row).subtract(batchQuantities.getOrDefault(fingerprintKey,
+                            lastImportedQuantity(fingerprints.get(fingerprintKey))))
+                        : importedQuantity(row);
+                    boolean stockAccepted = processStock(row, quantityToAdd, product, warehouse, stockByProductCode,
+                        stockToCreate, stockAdjustments, result);
+
+                    if (mode == ImportMode.DIFF && stockAccepted) {
+                        batchQuantities.put(fingerprintKey, importedQuantity(row));
+                        fingerprintUpdates.add(new FingerprintUpdate(fingerprintKey, row, product, supplier));
                     }
                 }
 
                 result.setProcessedRows(result.getProcessedRows() + 1);
 
-                // Save in batches
-                if (productsToSave.size() >= BATCH_SIZE) {
-                    saveBatch(productsToSave, stockToSave);
-                    productsToSave.clear();
-                    stockToSave.clear();
-                    log.info("Processed {} / {} rows", result.getProcessedRows(), result.getTotalRows());
-                }
-
             } catch (Exception e) {
                 result.setErrorRows(result.getErrorRows() + 1);
                 if (result.getErrors().size() < MAX_ERRORS_TO_REPORT) {
-                    result.addError("Row " + rowNumber + " (product: " + row.getProductCode() + "): " + e.getMessage());
+                    result.addError("Row " + row.getRowNumber() + " (product: " + row.getProductCode() + "): " + e.getMessage());
                 }
-                log.error("Error processing row {}: {}", rowNumber, e.getMessage());
+                log.error("Error processing row {}: {}", row.getRowNumber(), e.getMessage());
             }
         }
 
-        // Save remaining batch
-        if (!productsToSave.isEmpty()) {
-            saveBatch(productsToSave, stockToSave);
-            log.info("Processed final batch. Total: {} rows", result.getProcessedRows());
+        Set<SupplierInventoryCsvRow> rejectedRows = applyStockAdjustments(stockAdjustments, warehouse, result);
+        Collection<SupplierImportFingerprint> fingerprintsToSave =
+            advanceFingerprints(fingerprintUpdates, rejectedRows, fingerprints);
+        saveBatch(productsToSave.values(), stockToCreate.values(), fingerprintsToSave);
+        entityManager.flush();
+        productLookupIndex.index(productsToSave.values());
+        entityManager.clear();
+    }
+
+    /**
+     * Load the last imported fingerprints of the batch's products, keyed by product code and supplier
+     */
+    private Map<String, SupplierImportFingerprint> prefetchFingerprints(List<SupplierInventoryCsvRow> batch) {
+        Set<String> codes = batch.stream()
+            .map(SupplierInventoryCsvRow::getProductCode)
+            .collect(Collectors.toSet());
+
+        return fingerprintRepository.findByProductCodeIn(codes).stream()
+            .collect(Collectors.toMap(
+                fingerprint -> fingerprintKey(fingerprint.getProduct().getCode(), fingerprint.getSupplier()),
+                Function.identity(), (a, b) -> a, HashMap::new));
+    }
+
+    /**
+     * Count rows whose fingerprint matches the last import as processed and unchanged
+     *
+     * @return Rows that are new or changed
+     */
+    private List<SupplierInventoryCsvRow> skipUnchangedRows(List<SupplierInventoryCsvRow> batch,
+                                                            ReferenceData referenceData,
+                                                            Map<String, SupplierImportFingerprint> fingerprints,
+                                                            ImportResultResponse result) {
+        List<SupplierInventoryCsvRow> changed = new ArrayList<>(batch.size());
+        for (SupplierInventoryCsvRow row : batch) {
+            SupplierImportFingerprint last = null;
+            if (!fingerprints.isEmpty()) {
+                try {
+                    last = fingerprints.get(fingerprintKey(row.getProductCode(), getOrCreateSupplier(row, referenceData)));
+                } catch (Exception e) {
+                    // Leave the row to the persistence loop, which reports the error
+                }
+            }
+
+            if (last != null && last.getFingerprint().equals(row.fingerprint())) {
+                result.setUnchangedRows(result.getUnchangedRows() + 1);
+                result.setProcessedRows(result.getProcessedRows() + 1);
+            } else {
+                changed.add(row);
+            }
         }
+        return changed;
+    }
+
+    private String fingerprintKey(String productCode, Supplier supplier) {
+        return productCode + "|" + supplier.getId();
     }
 
     /**
-     * Get or create supplier from cache or database
+     * Quantity a row brings in - rows without a positive quantity bring nothing
      */
-    private Supplier getOrCreateSupplier(SupplierInventoryCsvRow row, Map<String, Supplier> cache) {
+    private BigDecimal importedQuantity(SupplierInventoryCsvRow row) {
+        return row.getQuantity() != null && row.getQuantity().compareTo(BigDecimal.ZERO) > 0
+            ? row.getQuantity()
+            : BigDecimal.ZERO;
+    }
+
+    private BigDecimal lastImportedQuantity(SupplierImportFingerprint fingerprint) {
+        return fingerprint != null && fingerprint.getQuantity() != null ? fingerprint.getQuantity() : BigDecimal.ZERO;
+    }
+
+    /**
+     * Load all products of the batch that already exist, keyed by code
+     */
+    private Map<String, Product> prefetchProducts(List<SupplierInventoryCsvRow> batch) {
+        Set<String> codes = batch.stream()
+            .map(SupplierInventoryCsvRow::getProductCode)
+            .collect(Collectors.toSet());
+
+        return productRepository.findByCodeIn(codes).stream()
+            .collect(Collectors.toMap(Product::getCode, Function.identity(), (a, b) -> a, HashMap::new));
+    }
+
+    /**
+     * Load stock of the given products in the import warehouse, keyed by product code
+     */
+    private Map<String, ProductStock> prefetchStock(Collection<Product> products, Warehouse warehouse) {
+        if (products.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Set<UUID> productIds = products.stream()
+            .map(Product::getId)
+            .collect(Collectors.toSet());
+
+        return productStockRepository.findByWarehouseIdAndProductIdIn(warehouse.getId(), productIds).stream()
+            .collect(Collectors.toMap(stock -> stock.getProduct().getCode(), Function.identity(), (a, b) -> a, HashMap::new));
+    }
+
+    /**
+     * Get or create supplier from cache or database.
+     * computeIfAbsent makes concurrent partitions wait for one creation instead of racing.
+     */
+    private Supplier getOrCreateSupplier(SupplierInventoryCsvRow row, ReferenceData referenceData) {
         String supplierCode = row.getSupplierCode();
         if (supplierCode == null || supplierCode.isEmpty()) {
             supplierCode = "UNKNOWN";
         }
 
-        return cache.computeIfAbsent(supplierCode, code -> {
+        return referenceData.suppliers.computeIfAbsent(supplierCode, code -> referenceData.transaction.execute(status -> {
             Optional<Supplier> existing = supplierRepository.findByCode(code);
             if (existing.isPresent()) {
                 return existing.get();
@@ -206,19 +623,19 @@ public class SupplierInventoryImportService {
             supplier.setName(row.getSupplierName() != null ? row.getSupplierName() : code);
             supplier.setIsActive(true);
             return supplierRepository.save(supplier);
-        });
+        }));
     }
 
     /**
      * Get or create category from cache or database
      */
-    private ProductCategory getOrCreateCategory(SupplierInventoryCsvRow row, Map<String, ProductCategory> cache) {
+    private ProductCategory getOrCreateCategory(SupplierInventoryCsvRow row, ReferenceData referenceData) {
         String categoryCode = row.getCategoryCode();
         if (categoryCode == null || categoryCode.isEmpty()) {
             categoryCode = "UNCATEGORIZED";
         }
 
-        return cache.computeIfAbsent(categoryCode, code -> {
+        return referenceData.categories.computeIfAbsent(categoryCode, code -> referenceData.transaction.execute(status -> {
             Optional<ProductCategory> existing = categoryRepository.findByCode(code);
             if (existing.isPresent()) {
                 return existing.get();
@@ -230,7 +647,7 @@ public class SupplierInventoryImportService {
             category.setName(row.getCategoryName() != null ? row.getCategoryName() : code);
             category.setIsActive(true);
             return categoryRepository.save(category);
-        });
+        }));
     }
 
     /**
@@ -238,25 +655,23 @@ public class SupplierInventoryImportService {
      */
     private Product processProduct(SupplierInventoryCsvRow row, Supplier supplier,
                                    ProductCategory category, boolean updateExisting,
-                                   ImportResultResponse result) {
+                                   Map<String, Product> productsByCode, ImportResultResponse result) {
 
-        Optional<Product> existingOpt = productRepository.findByCode(row.getProductCode());
+        Product existing = productsByCode.get(row.getProductCode());
 
-        if (existingOpt.isPresent()) {
+        if (existing != null) {
             if (updateExisting) {
-                Product existing = existingOpt.get();
                 updateProductFromRow(existing, row, category);
                 result.setUpdatedProducts(result.getUpdatedProducts() + 1);
-                return existing;
-            } else {
-                // Skip existing products
-                return existingOpt.get();
             }
+            // Otherwise skip existing products
+            return existing;
         } else {
             // Create new product
             Product product = new Product();
             product.setCode(row.getProductCode());
             updateProductFromRow(product, row, category);
+            productsByCode.put(product.getCode(), product);
             result.setCreatedProducts(result.getCreatedProducts() + 1);
             return product;
         }
@@ -324,50 +739,222 @@ public class SupplierInventoryImportService {
     }
 
     /**
-     * Process stock entry
+     * Process stock entry. New stock is created as an entity; quantity changes of existing stock
+     * are collected and applied with one guarded UPDATE per row, so the import never overwrites
+     * reservations or adjustments committed by concurrent orders - see applyStockAdjustments.
+     *
+     * @return false if the change was rejected because the quantity would drop below reserved
      */
-    private ProductStock processStock(SupplierInventoryCsvRow row, Product product,
-                                     Warehouse warehouse, ImportResultResponse result) {
+    private boolean processStock(SupplierInventoryCsvRow row, BigDecimal quantityToAdd, Product product,
+                              Warehouse warehouse, Map<String, ProductStock> stockByProductCode,
+                              Map<String, ProductStock> stockToCreate, List<StockAdjustment> stockAdjustments,
+                              ImportResultResponse result) {
 
-        if (row.getQuantity() == null || row.getQuantity().compareTo(BigDecimal.ZERO) <= 0) {
-            return null;
+        if (quantityToAdd.signum() == 0) {
+            return true;
         }
 
         // Find existing stock
-        Optional<ProductStock> existingStock = productStockRepository
-            .findByProductAndWarehouse(product, warehouse);
-
-        ProductStock stock;
-        if (existingStock.isPresent()) {
-            stock = existingStock.get();
-            // Update quantity (add to existing)
-            stock.setQuantity(stock.getQuantity().add(row.getQuantity()));
-            result.setUpdatedStock(result.getUpdatedStock() + 1);
-        } else {
+        ProductStock stock = stockByProductCode.get(product.getCode());
+
+        if (stock == null && quantityToAdd.signum() < 0) {
+            return true;
+        }
+
+        LocalDate receivingDate = row.getParsedReceivingDate();
+        LocalDateTime countedDate = receivingDate != null ? receivingDate.atStartOfDay() : null;
+
+        if (stock == null) {
             // Create new stock entry
             stock = new ProductStock();
             stock.setProduct(product);
             stock.setWarehouse(warehouse);
-            stock.setQuantity(row.getQuantity());
+            stock.setQuantity(quantityToAdd);
             stock.setReservedQuantity(BigDecimal.ZERO);
+            stockByProductCode.put(product.getCode(), stock);
+            stockToCreate.put(product.getCode(), stock);
             result.setCreatedStock(result.getCreatedStock() + 1);
+        } else if (stockToCreate.containsKey(product.getCode())) {
+            // Created earlier in this batch and not yet visible to anyone else
+            if (stock.getQuantity().add(quantityToAdd).compareTo(stock.getReservedQuantity()) < 0) {
+                addStockWarning(row, quantityToAdd, result);
+                return false;
+            }
+            stock.setQuantity(stock.getQuantity().add(quantityToAdd));
+        } else {
+            // Add to existing stock (a diff import may also take away) - applied after the loop
+            stockAdjustments.add(new StockAdjustment(row, product, new QuantityAdjustment(
+                stock.getId(), quantityToAdd, countedDate, row.getQuantity())));
+            return true;
         }
 
-        stock.setLastCountedDate(row.getParsedReceivingDate());
+        stock.setLastCountedDate(countedDate);
         stock.setLastCountedQuantity(row.getQuantity());
+        return true;
+    }
+
+    /**
+     * Apply the batch's quantity changes of existing stock in one batched guarded UPDATE.
+     * A change that would take the quantity below the reserved quantity is not applied and
+     * reported as a warning; the stock row is left as it is.
+     *
+     * @return Rows whose change was not applied
+     */
+    private Set<SupplierInventoryCsvRow> applyStockAdjustments(List<StockAdjustment> stockAdjustments,
+                                                               Warehouse warehouse, ImportResultResponse result) {
+        Set<SupplierInventoryCsvRow> rejectedRows = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (stockAdjustments.isEmpty()) {
+            return rejectedRows;
+        }
+
+        Set<QuantityAdjustment> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        rejected.addAll(productStockRepository.adjustAll(stockAdjustments.stream()
+            .map(StockAdjustment::adjustment)
+            .toList()));
+
+        for (StockAdjustment stockAdjustment : stockAdjustments) {
+            if (rejected.contains(stockAdjustment.adjustment())) {
+                rejectedRows.add(stockAdjustment.row());
+                addStockWarning(stockAdjustment.row(), stockAdjustment.adjustment().delta(), result);
+            } else {
+                result.setUpdatedStock(result.getUpdatedStock() + 1);
+                availabilityCache.evict(stockAdjustment.product().getId(), warehouse.getId());
+            }
+        }
+        return rejectedRows;
+    }
+
+    /**
+     * Diff mode: record the rows whose stock change was applied as the last import of their
+     * product and supplier. A rejected row keeps the previous fingerprint, so the next import
+     * computes its difference against the quantity the stock actually reflects.
+     *
+     * @return Fingerprints to save, one per product and supplier
+     */
+    private Collection<SupplierImportFingerprint> advanceFingerprints(List<FingerprintUpdate> fingerprintUpdates,
+                                                                      Set<SupplierInventoryCsvRow> rejectedRows,
+                                                                      Map<String, SupplierImportFingerprint> fingerprints) {
+        Map<String, SupplierImportFingerprint> fingerprintsToSave = new LinkedHashMap<>();
+        for (FingerprintUpdate update : fingerprintUpdates) {
+            if (rejectedRows.contains(update.row())) {
+                continue;
+            }
+            SupplierImportFingerprint fingerprint = fingerprints.computeIfAbsent(update.key(),
+                key -> new SupplierImportFingerprint());
+            fingerprint.setProduct(update.product());
+            fingerprint.setSupplier(update.supplier());
+            fingerprint.setFingerprint(update.row().fingerprint());
+            fingerprint.setQuantity(importedQuantity(update.row()));
+            fingerprintsToSave.put(update.key(), fingerprint);
+        }
+        return fingerprintsToSave.values();
+    }
 
-        return stock;
+    private void addStockWarning(SupplierInventoryCsvRow row, BigDecimal quantityToAdd, ImportResultResponse result) {
+        if (result.getWarnings().size() < MAX_ERRORS_TO_REPORT) {
+            result.addWarning("Row " + row.getRowNumber() + " (product: " + row.getProductCode() + "): stock not changed by "
+                + quantityToAdd.toPlainString() + " - quantity would drop below reserved");
+        }
+        log.warn("Stock of product {} not changed by {} at row {}: quantity would drop below reserved",
+            row.getProductCode(), quantityToAdd, row.getRowNumber());
     }
 
     /**
-     * Save batch of products and stock
+     * Save batch of new products and stock and diff mode fingerprints
      */
-    private void saveBatch(List<Product> products, List<ProductStock> stocks) {
+    private void saveBatch(Collection<Product> products, Collection<ProductStock> newStock,
+                           Collection<SupplierImportFingerprint> fingerprints) {
         if (!products.isEmpty()) {
             productRepository.saveAll(products);
         }
-        if (!stocks.isEmpty()) {
-            productStockRepository.saveAll(stocks);
+        if (!newStock.isEmpty()) {
+            productStockRepository.saveAll(newStock);
+            // A cached zero for a product without stock would hide the new row - let the cache reload it
+            newStock.forEach(stock -> availabilityCache.evict(stock.getProduct().getId(), stock.getWarehouse().getId()));
+        }
+        if (!fingerprints.isEmpty()) {
+            fingerprintRepository.saveAll(fingerprints);
+        }
+    }
+
+    /**
+     * Quantity change of an existing stock row together with the row and product it comes from
+     */
+    private record StockAdjustment(SupplierInventoryCsvRow row, Product product, QuantityAdjustment adjustment) {
+    }
+
+    /**
+     * Diff mode row to record as the last import of its product and supplier
+     */
+    private record FingerprintUpdate(String key, SupplierInventoryCsvRow row, Product product, Supplier supplier) {
+    }
+
+    /**
+     * What an import does with products that already exist
+     */
+    public enum ImportMode {
+        SKIP_EXISTING,      // Create new products only, existing ones are left as they are
+        UPDATE_EXISTING,    // Overwrite existing products from every row
+        DIFF;               // Update only rows changed since the last import, see SupplierImportFingerprint
+
+        public static ImportMode of(boolean updateExisting, boolean diff) {
+            if (diff) {
+                return DIFF;
+            }
+            return updateExisting ? UPDATE_EXISTING : SKIP_EXISTING;
+        }
+    }
+
+    /**
+     * Suppliers and categories resolved during one import, shared by all partitions
+     */
+    private static class ReferenceData {
+        private final Map<String, Supplier> suppliers = new ConcurrentHashMap<>();
+        private final Map<String, ProductCategory> categories = new ConcurrentHashMap<>();
+        private final TransactionTemplate transaction;
+
+        ReferenceData(TransactionTemplate transaction) {
+            this.transaction = transaction;
+        }
+    }
+
+    /**
+     * Counts bytes read so progress can be reported without knowing the row count up front
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
         }
     }
 }
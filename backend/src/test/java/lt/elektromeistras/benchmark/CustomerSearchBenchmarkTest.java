@@ -0,0 +1,172 @@
+package lt.elektromeistras.benchmark;
+
+import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.repository.CustomerRepository;
+import lt.elektromeistras.service.CustomerService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: customer picker latency on 200k customers - previous eight-column JPQL search
+ * (all matches loaded, cut to 20 in Java) vs the ranked search on the normalized columns.
+ * p50/p99 targets are checked on PostgreSQL, where the pg_trgm indexes exist:
+ * mvn test -Pbenchmark -Dspring.datasource.url=jdbc:postgresql://... (plus credentials,
+ * liquibase enabled). On H2 the numbers are printed only.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Customer Search Benchmark")
+class CustomerSearchBenchmarkTest {
+
+    private static final int CUSTOMER_COUNT = 200_000;
+    private static final int WARMUP_QUERIES = 20;
+    private static final int MEASURED_QUERIES = 100;
+    private static final long P50_TARGET_MS = 10;
+    private static final long P99_TARGET_MS = 50;
+
+    private static final String[] FIRST_NAMES = {
+            "Jonas", "Petras", "Šarūnas", "Mindaugas", "Žydrūnas", "Rūta", "Aušra", "Gintarė", "Tomas", "Eglė"
+    };
+    private static final String[] LAST_NAMES = {
+            "Kazlauskas", "Jankauskas", "Petrauskas", "Žukauskas", "Butkus", "Paulauskas", "Vasiliauskas",
+            "Šimkus", "Navickas", "Ramanauskas", "Stankevičius", "Žilinskas"
+    };
+    private static final String[] COMPANY_WORDS = {
+            "Elektros", "Šviesos", "Montavimo", "Statybų", "Įrengimų", "Sprendimai", "Technika", "Grupė"
+    };
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<String> queries = new ArrayList<>();
+
+    @BeforeAll
+    void createCustomers() {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(10_000);
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            Customer customer = new Customer();
+            customer.setCode(String.format("K%07d", i));
+            if (i % 3 == 0) {
+                customer.setCustomerType(Customer.CustomerType.BUSINESS);
+                customer.setCompanyName("UAB " + COMPANY_WORDS[random.nextInt(COMPANY_WORDS.length)] + " "
+                        + COMPANY_WORDS[random.nextInt(COMPANY_WORDS.length)] + " " + i);
+                customer.setVatCode("LT" + (100_000_000L + i));
+            } else {
+                customer.setCustomerType(Customer.CustomerType.RETAIL);
+                customer.setFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                customer.setLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+            }
+            customer.setEmail("customer" + i + "@example.lt");
+            customer.setPhone(String.format("+370 6%02d %05d", random.nextInt(100), i % 100_000));
+            customer.updateSearchColumns();
+
+            rows.add(new Object[] {UUID.randomUUID(), customer.getCode(), customer.getCustomerType().name(),
+                    customer.getCompanyName(), customer.getVatCode(), customer.getFirstName(), customer.getLastName(),
+                    customer.getEmail(), customer.getPhone(), customer.getSearchNormalized(),
+                    customer.getSearchPhoneDigits(), true, now, now});
+            if (rows.size() == 10_000) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+        insert(rows);
+
+        // Typical picker input: codes being typed, name fragments without diacritics, phone fragments
+        for (int i = 0; i < WARMUP_QUERIES + MEASURED_QUERIES; i++) {
+            String code = String.format("K%07d", random.nextInt(CUSTOMER_COUNT));
+            switch (i % 4) {
+                case 0 -> queries.add(code);
+                case 1 -> queries.add(code.substring(0, 4 + random.nextInt(4)));
+                case 2 -> {
+                    String name = Customer.normalizeSearchText(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                    queries.add(name.substring(0, 4 + random.nextInt(3)));
+                }
+                default -> queries.add(String.format("6%02d %03d", random.nextInt(100), random.nextInt(1000)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Search latency p50/p99: previous JPQL search vs ranked normalized search")
+    void compareSearchLatency() throws Exception {
+        long[] previous = measure(query -> {
+            List<Customer> results = customerRepository.searchCustomers(query);
+            return results.size() > 20 ? results.subList(0, 20) : results;
+        });
+        long[] ranked = measure(customerService::searchCustomers);
+
+        System.out.printf("customer search, %d customers: previous p50 %d ms p99 %d ms, ranked p50 %d ms p99 %d ms%n",
+                CUSTOMER_COUNT, percentile(previous, 50), percentile(previous, 99),
+                percentile(ranked, 50), percentile(ranked, 99));
+
+        if (isPostgreSql()) {
+            assertThat(percentile(ranked, 50)).isLessThanOrEqualTo(P50_TARGET_MS);
+            assertThat(percentile(ranked, 99)).isLessThanOrEqualTo(P99_TARGET_MS);
+        }
+    }
+
+    private long[] measure(Function<String, List<Customer>> search) {
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            search.apply(queries.get(i));
+        }
+        long[] millis = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            long start = System.nanoTime();
+            List<Customer> results = search.apply(queries.get(WARMUP_QUERIES + i));
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+            assertThat(results).hasSizeLessThanOrEqualTo(20);
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private long percentile(long[] sortedMillis, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedMillis.length) - 1;
+        return sortedMillis[Math.max(0, index)];
+    }
+
+    private boolean isPostgreSql() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        }
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO customers (id, code, customer_type, company_name, vat_code, first_name, " +
+                "last_name, email, phone, search_normalized, search_phone_digits, is_active, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,117 @@
+package lt.elektromeistras.benchmark;
+
+import lt.elektromeistras.domain.Series;
+import lt.elektromeistras.repository.SeriesRepository;
+import lt.elektromeistras.service.DocumentNumberService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: concurrent document number allocation - one database increment per number
+ * (block size 1) vs leased blocks of 500.
+ * The 10k allocations per second target is checked on PostgreSQL:
+ * mvn test -Pbenchmark -Dspring.datasource.url=jdbc:postgresql://... (plus credentials,
+ * liquibase enabled). On H2 the numbers are printed only.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Document Number Benchmark")
+class DocumentNumberBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int ALLOCATIONS = 20_000;
+    private static final double TARGET_PER_SECOND = 10_000;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private SeriesRepository seriesRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private String prefix;
+
+    @BeforeAll
+    void createPrefix() {
+        prefix = UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    @DisplayName("Allocations per second: one increment per number vs leased blocks")
+    void compareBlockSizes() throws Exception {
+        // Warm-up
+        run(createSeries(100), 2_000);
+
+        double single = run(createSeries(1), ALLOCATIONS / 10);
+        double leased = run(createSeries(500), ALLOCATIONS);
+
+        System.out.printf("document numbers, %d threads: block size 1 %.0f allocations/s, block size 500 %.0f allocations/s%n",
+                THREADS, single, leased);
+
+        if (isPostgreSql()) {
+            assertThat(leased).isGreaterThanOrEqualTo(TARGET_PER_SECOND);
+        }
+    }
+
+    private double run(String code, int count) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < count / THREADS; i++) {
+                        documentNumberService.next(code);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return count / ((System.nanoTime() - start) / 1_000_000_000.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private boolean isPostgreSql() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        }
+    }
+
+    private String createSeries(int blockSize) {
+        String code = "B" + prefix + "-" + blockSize;
+        seriesRepository.save(Series.builder()
+                .code(code)
+                .name("Benchmark series")
+                .seriesType(Series.SeriesType.DOCUMENT)
+                .prefix(code + "-")
+                .currentNumber(0L)
+                .blockSize(blockSize)
+                .isGapless(false)
+                .build());
+        return code;
+    }
+}
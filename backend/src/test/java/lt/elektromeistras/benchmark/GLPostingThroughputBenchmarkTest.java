@@ -0,0 +1,145 @@
+package lt.elektromeistras.benchmark;
+
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.domain.JournalEntry;
+import lt.elektromeistras.domain.JournalEntryLine;
+import lt.elektromeistras.repository.GLAccountRepository;
+import lt.elektromeistras.service.GLAccountBalanceLedger;
+import lt.elektromeistras.service.JournalEntryService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: concurrent order postings hitting the same receivable, revenue and VAT accounts -
+ * one balance row per account (1 stripe) vs the default 16 stripes.
+ * Run with: mvn test -Pbenchmark
+ */
+@SpringBootTest(properties = "gl.balance.compaction-interval-ms=0")
+@ActiveProfiles("test")
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("GL Posting Throughput Benchmark")
+class GLPostingThroughputBenchmarkTest {
+
+    private static final int POSTINGS_PER_RUN = 2_000;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    @Autowired
+    private JournalEntryService journalEntryService;
+
+    @Autowired
+    private GLAccountBalanceLedger balanceLedger;
+
+    @Autowired
+    private GLAccountRepository glAccountRepository;
+
+    private final AtomicInteger entryNumber = new AtomicInteger();
+    private String prefix;
+    private GLAccount receivable;
+    private GLAccount revenue;
+    private GLAccount vatPayable;
+
+    @BeforeAll
+    void createAccounts() {
+        prefix = UUID.randomUUID().toString().substring(0, 8);
+        receivable = createAccount("1300", GLAccount.AccountType.ASSET, GLAccount.AccountCategory.CURRENT_ASSET,
+                GLAccount.NormalBalance.DEBIT);
+        revenue = createAccount("4000", GLAccount.AccountType.REVENUE, GLAccount.AccountCategory.OPERATING_REVENUE,
+                GLAccount.NormalBalance.CREDIT);
+        vatPayable = createAccount("2410", GLAccount.AccountType.LIABILITY, GLAccount.AccountCategory.CURRENT_LIABILITY,
+                GLAccount.NormalBalance.CREDIT);
+    }
+
+    @Test
+    @DisplayName("Postings per second: single balance row vs striped balances")
+    void compareStripes() throws Exception {
+        // Warm-up
+        run(16, 4);
+
+        for (int threads : THREAD_COUNTS) {
+            double single = run(1, threads);
+            double striped = run(16, threads);
+            System.out.printf("GL posting, %d threads: 1 stripe %.0f postings/s, 16 stripes %.0f postings/s%n",
+                    threads, single, striped);
+        }
+
+        // Every posting reached the balance: 1 warm-up + 2 runs per thread count
+        int runs = 1 + 2 * THREAD_COUNTS.length;
+        BigDecimal expected = new BigDecimal("121.00").multiply(BigDecimal.valueOf((long) runs * POSTINGS_PER_RUN));
+        assertThat(glAccountRepository.findById(receivable.getId()).orElseThrow().getCurrentBalance())
+                .isEqualByComparingTo(expected);
+    }
+
+    private double run(int stripes, int threads) throws Exception {
+        ReflectionTestUtils.setField(balanceLedger, "stripes", stripes);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < POSTINGS_PER_RUN; i++) {
+                futures.add(executor.submit(() -> journalEntryService.postBalancedEntry(header(), orderLines())));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return POSTINGS_PER_RUN / ((System.nanoTime() - start) / 1_000_000_000.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<JournalEntryLine> orderLines() {
+        return List.of(
+                line(receivable, "121.00", "0"),
+                line(revenue, "0", "100.00"),
+                line(vatPayable, "0", "21.00"));
+    }
+
+    private JournalEntry header() {
+        return JournalEntry.builder()
+                .entryNumber("JE-" + prefix + "-" + entryNumber.incrementAndGet())
+                .entryDate(LocalDate.now())
+                .entryType(JournalEntry.EntryType.AUTOMATIC)
+                .sourceType(JournalEntry.SourceType.ORDER)
+                .description("Sales order")
+                .build();
+    }
+
+    private JournalEntryLine line(GLAccount account, String debit, String credit) {
+        return JournalEntryLine.builder()
+                .glAccount(account)
+                .debitAmount(new BigDecimal(debit))
+                .creditAmount(new BigDecimal(credit))
+                .build();
+    }
+
+    private GLAccount createAccount(String code, GLAccount.AccountType type, GLAccount.AccountCategory category,
+                                    GLAccount.NormalBalance normalBalance) {
+        return glAccountRepository.save(GLAccount.builder()
+                .code(prefix + "-" + code)
+                .name("Account " + code)
+                .accountType(type)
+                .accountCategory(category)
+                .normalBalance(normalBalance)
+                .build());
+    }
+}
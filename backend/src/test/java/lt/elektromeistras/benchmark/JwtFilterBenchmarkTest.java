@@ -0,0 +1,117 @@
+package lt.elektromeistras.benchmark;
+
+import lt.elektromeistras.security.JwtAuthenticationFilter;
+import lt.elektromeistras.security.JwtUtil;
+import lt.elektromeistras.security.VerifiedTokenCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: JWT filter overhead per request.
+ * Compares the previous three separate parses (extractUsername, validateToken, extractPermissions),
+ * a single verified parse (first request with a token) and a verified-token cache hit.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DisplayName("JWT Filter Benchmark")
+class JwtFilterBenchmarkTest {
+
+    private static final int WARMUP_REQUESTS = 20_000;
+    private static final int MEASURED_REQUESTS = 100_000;
+
+    @Test
+    @DisplayName("Filter overhead per request: three parses vs one parse vs cache hit")
+    void compareFilterOverhead() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "benchmark-secret-key-for-benchmark-purposes-only-minimum-256-bits");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 604_800_000L);
+        jwtUtil.init();
+
+        String token = accessToken(jwtUtil);
+
+        // Cache that never stores anything - every request parses once
+        JwtAuthenticationFilter singleParse = new JwtAuthenticationFilter(jwtUtil, new VerifiedTokenCache(0));
+        JwtAuthenticationFilter cached = new JwtAuthenticationFilter(jwtUtil, new VerifiedTokenCache(10_000));
+
+        double threeParsesNanos = measure(() -> threeParses(jwtUtil, token));
+        double singleParseNanos = measure(() -> filter(singleParse, token));
+        double cachedNanos = measure(() -> filter(cached, token));
+
+        System.out.printf("JWT filter per request: three parses %8.2f us, single parse %8.2f us, cache hit %8.2f us%n",
+                threeParsesNanos / 1000, singleParseNanos / 1000, cachedNanos / 1000);
+
+        assertThat(cachedNanos).isLessThan(singleParseNanos);
+    }
+
+    private double measure(ThrowingRunnable request) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            request.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            request.run();
+        }
+        return (double) (System.nanoTime() - start) / MEASURED_REQUESTS;
+    }
+
+    private void filter(JwtAuthenticationFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            throw new IllegalStateException("Token not accepted");
+        }
+    }
+
+    /**
+     * The previous filter body: each call parses and verifies the token again
+     */
+    private void threeParses(JwtUtil jwtUtil, String token) {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+        String jwt = request.getHeader("Authorization").substring(7);
+        String username = jwtUtil.extractUsername(jwt);
+        if (!jwtUtil.validateToken(jwt, username) || jwtUtil.extractPermissions(jwt).isEmpty()) {
+            throw new IllegalStateException("Token not accepted");
+        }
+    }
+
+    /**
+     * Token with a realistic claim set - a role and 40 permission codes
+     */
+    private String accessToken(JwtUtil jwtUtil) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", UUID.randomUUID().toString());
+        claims.put("username", "jonas");
+        claims.put("email", "jonas@example.com");
+        claims.put("roles", Set.of("SALES"));
+        claims.put("permissions", IntStream.range(0, 40)
+                .mapToObj(i -> "PERMISSION_" + i)
+                .collect(Collectors.toSet()));
+        return ReflectionTestUtils.invokeMethod(jwtUtil, "createToken", claims, "jonas", 3_600_000L);
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,120 @@
+package lt.elektromeistras.benchmark;
+
+import lt.elektromeistras.repository.ProductRepository;
+import lt.elektromeistras.service.ProductLookupIndex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: scanned-line resolution on a 200k product catalog - repository lookup by code,
+ * then SKU, then EAN (what quick order and credit pickup did per line) vs ProductLookupIndex.
+ * Run with: mvn test -Pbenchmark
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Product Lookup Benchmark")
+class ProductLookupBenchmarkTest {
+
+    private static final int CATALOG_SIZE = 200_000;
+    private static final int WARMUP_LOOKUPS = 1_000;
+    private static final int MEASURED_LOOKUPS = 10_000;
+    private static final long EAN_BASE = 4_780_000_000_000L;
+
+    @Autowired
+    private ProductLookupIndex productLookupIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> scans = new ArrayList<>();
+
+    @BeforeAll
+    void createCatalog() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(10_000);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            String code = String.format("L%07d", i);
+            rows.add(new Object[] {UUID.randomUUID(), code, "SKU-" + code, String.valueOf(EAN_BASE + i),
+                    "Gaminys " + i, "PCS", 9.99, 21.00, false, false, true, now, now});
+            if (rows.size() == 10_000) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+        insert(rows);
+
+        // Counter entry mix: typed codes, SKUs and scanned EANs
+        Random random = new Random(42);
+        for (int i = 0; i < WARMUP_LOOKUPS + MEASURED_LOOKUPS; i++) {
+            int n = random.nextInt(CATALOG_SIZE);
+            switch (i % 3) {
+                case 0 -> scans.add(String.format("L%07d", n));
+                case 1 -> scans.add(String.format("SKU-L%07d", n));
+                default -> scans.add(String.valueOf(EAN_BASE + n));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Per-line lookup: repository vs in-memory index")
+    void compareLookup() throws InterruptedException {
+        // The startup build may still be running
+        long rebuildStart = System.nanoTime();
+        while (!productLookupIndex.rebuild()) {
+            Thread.sleep(50);
+            rebuildStart = System.nanoTime();
+        }
+        long rebuildMillis = (System.nanoTime() - rebuildStart) / 1_000_000;
+
+        double repositoryMicros = measure(value -> productRepository.findByCode(value)
+                .or(() -> productRepository.findBySku(value))
+                .or(() -> productRepository.findByEan(value)));
+        long missesBefore = productLookupIndex.getStats().getMisses();
+        double indexMicros = measure(productLookupIndex::resolve);
+
+        System.out.printf("product lookup, %d products: index rebuild %d ms, repository %.1f µs/line, index %.2f µs/line%n",
+                CATALOG_SIZE, rebuildMillis, repositoryMicros, indexMicros);
+
+        // Every scan was served from memory
+        assertThat(productLookupIndex.getStats().getMisses()).isEqualTo(missesBefore);
+    }
+
+    private double measure(Function<String, Optional<?>> lookup) {
+        for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+            lookup.apply(scans.get(i));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_LOOKUPS; i++) {
+            assertThat(lookup.apply(scans.get(WARMUP_LOOKUPS + i))).isPresent();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / MEASURED_LOOKUPS;
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, code, sku, ean, name, unit_of_measure, base_price, tax_rate, " +
+                "is_cable, is_modular, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,150 @@
+package lt.elektromeistras.benchmark;
+
+import lt.elektromeistras.domain.Product;
+import lt.elektromeistras.repository.ProductRepository;
+import lt.elektromeistras.service.ProductService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: search-as-you-type latency on a 500k product catalog - previous JPQL search
+ * (all matches loaded, cut to 20 in Java) vs the ranked, limited native search.
+ * p50/p99 targets are checked on PostgreSQL, where the pg_trgm indexes exist:
+ * mvn test -Pbenchmark -Dspring.datasource.url=jdbc:postgresql://... (plus credentials,
+ * liquibase enabled). On H2 the numbers are printed only.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Product Search Benchmark")
+class ProductSearchBenchmarkTest {
+
+    private static final int CATALOG_SIZE = 500_000;
+    private static final int WARMUP_QUERIES = 20;
+    private static final int MEASURED_QUERIES = 100;
+    private static final long P50_TARGET_MS = 20;
+    private static final long P99_TARGET_MS = 100;
+
+    private static final String[] WORDS = {
+            "kabelis", "jungiklis", "lizdas", "automatas", "dėžutė", "lempa", "šviestuvas", "gnybtas",
+            "vamzdis", "laidas", "relė", "skydelis", "kištukas", "rėmelis", "apsauga", "movos"
+    };
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<String> queries = new ArrayList<>();
+
+    @BeforeAll
+    void createCatalog() {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(10_000);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            String code = String.format("B%07d", i);
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + (random.nextInt(900) + 100) + "mm";
+            rows.add(new Object[] {UUID.randomUUID(), code, "SKU-" + code, String.valueOf(4_770_000_000_000L + i),
+                    name, "PCS", 9.99, 21.00, false, false, true, now, now});
+            if (rows.size() == 10_000) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+        insert(rows);
+
+        // Typical keystroke sequences: codes being typed, name fragments, scanned EANs
+        for (int i = 0; i < WARMUP_QUERIES + MEASURED_QUERIES; i++) {
+            String code = String.format("B%07d", random.nextInt(CATALOG_SIZE));
+            switch (i % 4) {
+                case 0 -> queries.add(code);
+                case 1 -> queries.add(code.substring(0, 3 + random.nextInt(4)));
+                case 2 -> {
+                    String word = WORDS[random.nextInt(WORDS.length)];
+                    queries.add(word.substring(0, Math.min(5, word.length())));
+                }
+                default -> queries.add(String.valueOf(4_770_000_000_000L + random.nextInt(CATALOG_SIZE)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Search latency p50/p99: previous JPQL search vs ranked native search")
+    void compareSearchLatency() throws Exception {
+        long[] previous = measure(query -> {
+            List<Product> results = productRepository.searchProducts(query);
+            return results.size() > 20 ? results.subList(0, 20) : results;
+        });
+        long[] ranked = measure(productService::searchProducts);
+
+        System.out.printf("product search, %d products: previous p50 %d ms p99 %d ms, ranked p50 %d ms p99 %d ms%n",
+                CATALOG_SIZE, percentile(previous, 50), percentile(previous, 99),
+                percentile(ranked, 50), percentile(ranked, 99));
+
+        if (isPostgreSql()) {
+            assertThat(percentile(ranked, 50)).isLessThanOrEqualTo(P50_TARGET_MS);
+            assertThat(percentile(ranked, 99)).isLessThanOrEqualTo(P99_TARGET_MS);
+        }
+    }
+
+    private long[] measure(Function<String, List<Product>> search) {
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            search.apply(queries.get(i));
+        }
+        long[] millis = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            long start = System.nanoTime();
+            List<Product> results = search.apply(queries.get(WARMUP_QUERIES + i));
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+            assertThat(results).hasSizeLessThanOrEqualTo(20);
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private long percentile(long[] sortedMillis, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedMillis.length) - 1;
+        return sortedMillis[Math.max(0, index)];
+    }
+
+    private boolean isPostgreSql() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        }
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, code, sku, ean, name, unit_of_measure, base_price, tax_rate, " +
+                "is_cable, is_modular, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
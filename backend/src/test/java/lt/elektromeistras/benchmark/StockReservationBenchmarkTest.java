@@ -0,0 +1,131 @@
+package lt.elektromeistras.benchmark;
+
+import lt.elektromeistras.domain.*;
+import lt.elektromeistras.exception.InsufficientStockException;
+import lt.elektromeistras.repository.ProductRepository;
+import lt.elektromeistras.repository.ProductStockRepository;
+import lt.elektromeistras.repository.WarehouseRepository;
+import lt.elektromeistras.service.StockService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: batch stock reservation vs the previous per-line find + save loop.
+ * Not transactional: every reservation commits on its own, as it does in production.
+ * Run with: mvn test -Pbenchmark
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+@DisplayName("Stock Reservation Benchmark")
+class StockReservationBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductStockRepository stockRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @ParameterizedTest(name = "{0} lines")
+    @ValueSource(ints = {10, 100, 1000})
+    @DisplayName("Batch reservation vs per-line loop")
+    void compareReservation(int lineCount) {
+        Order order = createOrderWithStock(lineCount);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            reservePerLine(order);
+            stockService.reserveStock(order);
+        }
+
+        long loopNanos = 0;
+        long batchNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            reservePerLine(order);
+            loopNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            stockService.reserveStock(order);
+            batchNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("reserveStock %4d lines: per-line loop %8.2f ms, batch %8.2f ms%n",
+                lineCount,
+                loopNanos / 1_000_000.0 / MEASURED_ROUNDS,
+                batchNanos / 1_000_000.0 / MEASURED_ROUNDS);
+
+        // Both paths reserved one unit per line per round
+        int rounds = 2 * (WARMUP_ROUNDS + MEASURED_ROUNDS);
+        ProductStock sample = stockRepository.findByProductAndWarehouse(
+                order.getLines().get(0).getProduct(), order.getWarehouse()).orElseThrow();
+        assertThat(sample.getReservedQuantity()).isEqualByComparingTo(BigDecimal.valueOf(rounds));
+    }
+
+    /**
+     * The previous implementation: one SELECT and one UPDATE per order line
+     */
+    private void reservePerLine(Order order) {
+        for (OrderLine line : order.getLines()) {
+            ProductStock stock = stockRepository.findByProductAndWarehouse(line.getProduct(), order.getWarehouse())
+                    .orElseThrow(() -> new InsufficientStockException("No stock"));
+            if (stock.getAvailableQuantity().compareTo(line.getQuantity()) < 0) {
+                throw new InsufficientStockException("Insufficient stock");
+            }
+            stock.setReservedQuantity(stock.getReservedQuantity().add(line.getQuantity()));
+            stockRepository.saveAndFlush(stock);
+        }
+    }
+
+    private Order createOrderWithStock(int lineCount) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setCode("BENCH-" + lineCount);
+        warehouse.setName("Benchmark warehouse");
+        warehouse = warehouseRepository.save(warehouse);
+
+        List<ProductStock> stocks = new ArrayList<>();
+        Order order = new Order();
+        order.setOrderNumber("BENCH-" + lineCount);
+        order.setWarehouse(warehouse);
+        for (int i = 0; i < lineCount; i++) {
+            Product product = new Product();
+            product.setCode("BENCH-" + lineCount + "-" + i);
+            product.setSku("BENCH-SKU-" + lineCount + "-" + i);
+            product.setName("Benchmark product " + i);
+            product.setBasePrice(BigDecimal.TEN);
+            product = productRepository.save(product);
+
+            ProductStock stock = new ProductStock();
+            stock.setProduct(product);
+            stock.setWarehouse(warehouse);
+            stock.setQuantity(BigDecimal.valueOf(1_000_000));
+            stocks.add(stock);
+
+            OrderLine line = new OrderLine();
+            line.setProduct(product);
+            line.setQuantity(BigDecimal.ONE);
+            order.addOrderLine(line);
+        }
+        stockRepository.saveAllAndFlush(stocks);
+        return order;
+    }
+}
@@ -0,0 +1,130 @@
+package lt.elektromeistras.benchmark;
+
+import lt.elektromeistras.domain.Warehouse;
+import lt.elektromeistras.dto.response.ImportResultResponse;
+import lt.elektromeistras.repository.WarehouseRepository;
+import lt.elektromeistras.service.SupplierInventoryImportService;
+import lt.elektromeistras.service.SupplierInventoryImportService.ImportMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: supplier CSV import of 100k rows - first as new products, then as updates of
+ * the same products - in a single transaction and in parallel partitions. Finally the nightly
+ * case: a diff mode import of a file that has not changed since the previous diff import.
+ * The 60 s create/update targets are checked on PostgreSQL:
+ * mvn test -Pbenchmark -Dspring.datasource.url=jdbc:postgresql://... (plus credentials,
+ * liquibase enabled). On H2 the timings are printed only.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+@DisplayName("Supplier Import Benchmark")
+class SupplierImportBenchmarkTest {
+
+    private static final int ROWS = 100_000;
+    private static final int CATEGORIES = 200;
+    private static final int SUPPLIERS = 50;
+    private static final long TARGET_MS = 60_000;
+
+    private static final String HEADER = "Padalinio kodas,Padalinys,Padalinio Nr.,Grupės kodas,Grupės pavadinimas," +
+            "Balanso sąskaita,PVM %,Pogrupio kodas,Pogrupio pavadinimas,Mat.vnt,Brūkšninis kodas,Specifikacija," +
+            "Pajamavimo data,Pajamavimo kaina EUR,Didmeninė kaina,Mažmeninė kaina,Kiekis,Suma EUR," +
+            "Tiekėjo kodas,Tiekėjo pavadinimas";
+
+    @Autowired
+    private SupplierInventoryImportService importService;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @ParameterizedTest(name = "{0} partitions")
+    @ValueSource(ints = {1, 4})
+    @DisplayName("Import 100k rows - create, then update")
+    void importHundredThousandRows(int partitions) throws Exception {
+        String warehouseCode = "BENCH-IMPORT-" + partitions;
+        Warehouse warehouse = new Warehouse();
+        warehouse.setCode(warehouseCode);
+        warehouse.setName("Benchmark warehouse");
+        warehouseRepository.save(warehouse);
+
+        byte[] csv = generateCsv("P" + partitions + "-");
+
+        long start = System.nanoTime();
+        ImportResultResponse created = runImport(csv, warehouseCode, ImportMode.SKIP_EXISTING, partitions);
+        long createMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        ImportResultResponse updated = runImport(csv, warehouseCode, ImportMode.UPDATE_EXISTING, partitions);
+        long updateMillis = (System.nanoTime() - start) / 1_000_000;
+
+        runImport(csv, warehouseCode, ImportMode.DIFF, partitions);
+        start = System.nanoTime();
+        ImportResultResponse unchanged = runImport(csv, warehouseCode, ImportMode.DIFF, partitions);
+        long diffMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("supplier import %d rows, %d partitions: create %d ms, update %d ms, unchanged diff %d ms%n",
+                ROWS, partitions, createMillis, updateMillis, diffMillis);
+
+        assertThat(created.getStatus()).isEqualTo("SUCCESS");
+        assertThat(created.getCreatedProducts()).isEqualTo(ROWS);
+        assertThat(created.getCreatedStock()).isEqualTo(ROWS);
+        assertThat(updated.getStatus()).isEqualTo("SUCCESS");
+        assertThat(updated.getUpdatedProducts()).isEqualTo(ROWS);
+        assertThat(updated.getUpdatedStock()).isEqualTo(ROWS);
+        assertThat(unchanged.getUnchangedRows()).isEqualTo(ROWS);
+
+        if (isPostgreSql()) {
+            assertThat(createMillis).isLessThan(TARGET_MS);
+            assertThat(updateMillis).isLessThan(TARGET_MS);
+        }
+    }
+
+    private boolean isPostgreSql() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        }
+    }
+
+    private ImportResultResponse runImport(byte[] csv, String warehouseCode, ImportMode mode, int partitions) {
+        ImportResultResponse result = ImportResultResponse.builder()
+                .fileName("benchmark.csv")
+                .totalBytes((long) csv.length)
+                .build();
+        if (partitions > 1) {
+            return importService.importFromCsvPartitioned(new ByteArrayInputStream(csv), result, warehouseCode,
+                    mode, partitions, progress -> { });
+        }
+        return importService.importFromCsv(new ByteArrayInputStream(csv), result, warehouseCode,
+                mode, progress -> { });
+    }
+
+    private byte[] generateCsv(String codePrefix) {
+        StringBuilder csv = new StringBuilder(ROWS * 160).append(HEADER).append('\n');
+        for (int i = 0; i < ROWS; i++) {
+            int category = i % CATEGORIES;
+            int supplier = i % SUPPLIERS;
+            csv.append("001,UAB \"LITNESTA\",1,")
+                    .append("BG").append(category).append(",Group ").append(category).append(",20140,21,")
+                    .append(codePrefix).append(i).append(",Benchmark product ").append(i).append(",vnt,")
+                    .append(4770000000000L + i).append(",,2024.01.15,1.50,2.40,2.90,10.00,15.00,")
+                    .append("BS").append(supplier).append(",Supplier ").append(supplier).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,191 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.CreditTransaction;
+import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.dto.request.ConfirmCreditTransactionRequest;
+import lt.elektromeistras.dto.response.CreditTransactionResponse;
+import lt.elektromeistras.repository.CreditTransactionRepository;
+import lt.elektromeistras.repository.CustomerRepository;
+import lt.elektromeistras.service.CreditTransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Credit transaction signatures and photos: stored apart from the transaction, returned as links
+ * and streamed by their own endpoint.
+ * Not transactional: the attachment is streamed on another thread and must be committed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(authorities = "CREDIT_VIEW")
+@DisplayName("Credit Transaction Attachment Integration Tests")
+class CreditTransactionAttachmentIntegrationTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1, 2, 3, 4};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 5, 6, 7, 8};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CreditTransactionService creditTransactionService;
+
+    @Autowired
+    private CreditTransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setCode("ATT-" + UUID.randomUUID().toString().substring(0, 8));
+        customer.setCustomerType(Customer.CustomerType.CONTRACTOR);
+        customer.setCompanyName("Attachment contractor");
+        customer = customerRepository.save(customer);
+    }
+
+    @Test
+    @DisplayName("Should return attachment links and stream the stored bytes")
+    void shouldStreamAttachments() throws Exception {
+        // Given
+        CreditTransaction transaction = createPending();
+
+        // When
+        CreditTransactionResponse response = creditTransactionService.confirmTransaction(transaction.getId(),
+                new ConfirmCreditTransactionRequest("Counter",
+                        "data:image/png;base64," + Base64.getEncoder().encodeToString(PNG),
+                        Base64.getMimeEncoder().encodeToString(JPEG), null));
+
+        // Then
+        assertThat(response.getSignatureUrl())
+                .isEqualTo("/api/credit-transactions/" + transaction.getId() + "/attachments/signature");
+        assertThat(response.getPhotoUrl())
+                .isEqualTo("/api/credit-transactions/" + transaction.getId() + "/attachments/photo");
+
+        MvcResult signature = mockMvc.perform(get(response.getSignatureUrl()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(signature))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(content().bytes(PNG));
+
+        MvcResult photo = mockMvc.perform(get(response.getPhotoUrl()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(photo))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/jpeg"))
+                .andExpect(content().bytes(JPEG));
+    }
+
+    @Test
+    @DisplayName("Should serve content that is not an image as octet-stream whatever the client claimed")
+    void shouldIgnoreClaimedContentType() throws Exception {
+        // Given
+        CreditTransaction transaction = createPending();
+        byte[] html = "<script>alert(1)</script>".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        CreditTransactionResponse response = creditTransactionService.confirmTransaction(transaction.getId(),
+                new ConfirmCreditTransactionRequest("Counter",
+                        "data:text/html;base64," + Base64.getEncoder().encodeToString(html), null, null));
+
+        // Then
+        MvcResult signature = mockMvc.perform(get(response.getSignatureUrl()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(signature))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/octet-stream"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(content().bytes(html));
+    }
+
+    @Test
+    @DisplayName("Should list statement rows with links only for transactions that have attachments")
+    void shouldListLinksInStatement() throws Exception {
+        // Given
+        CreditTransaction signed = createPending();
+        CreditTransaction unsigned = createPending();
+        creditTransactionService.confirmTransaction(signed.getId(), new ConfirmCreditTransactionRequest(
+                "Counter", Base64.getEncoder().encodeToString(PNG), null, null));
+        creditTransactionService.confirmTransaction(unsigned.getId(), new ConfirmCreditTransactionRequest(
+                "Counter", null, null, null));
+
+        // When
+        LocalDate today = LocalDate.now();
+        List<CreditTransactionResponse> statement = creditTransactionService.getMonthlyStatement(
+                customer.getId(), today.getYear(), today.getMonthValue());
+
+        // Then
+        assertThat(statement).hasSize(2);
+        assertThat(statement).filteredOn(t -> t.getId().equals(signed.getId())).singleElement()
+                .satisfies(t -> {
+                    assertThat(t.getSignatureUrl()).endsWith("/attachments/signature");
+                    assertThat(t.getPhotoUrl()).isNull();
+                });
+        assertThat(statement).filteredOn(t -> t.getId().equals(unsigned.getId())).singleElement()
+                .satisfies(t -> assertThat(t.getSignatureUrl()).isNull());
+
+        mockMvc.perform(get("/api/credit-transactions/" + unsigned.getId() + "/attachments/signature"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/credit-transactions/" + signed.getId() + "/attachments/fingerprint"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should reject data that is not base64")
+    void shouldRejectInvalidData() {
+        // Given
+        CreditTransaction transaction = createPending();
+
+        // When / Then
+        assertThatThrownBy(() -> creditTransactionService.confirmTransaction(transaction.getId(),
+                new ConfirmCreditTransactionRequest("Counter", "not*base64!", null, null)))
+                .hasMessageContaining("Invalid signature data");
+        assertThat(transactionRepository.findById(transaction.getId()).orElseThrow().getStatus())
+                .isEqualTo(CreditTransaction.TransactionStatus.PENDING);
+    }
+
+    private CreditTransaction createPending() {
+        CreditTransaction transaction = new CreditTransaction();
+        transaction.setCustomer(customer);
+        transaction.setTransactionNumber("ATT-" + UUID.randomUUID());
+        transaction.setTransactionType(CreditTransaction.TransactionType.PICKUP);
+        transaction.setPerformedBy("Counter");
+        transaction.setPerformedByRole(CreditTransaction.PerformedByRole.EMPLOYEE);
+        transaction.setNotes("Attachment test");
+        transaction.setTotalAmount(new BigDecimal("10.00"));
+        return transactionRepository.save(transaction);
+    }
+}
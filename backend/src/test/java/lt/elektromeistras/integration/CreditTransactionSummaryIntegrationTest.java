@@ -0,0 +1,172 @@
+package lt.elektromeistras.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import lt.elektromeistras.domain.CreditTransaction;
+import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.dto.response.CreditTransactionSummaryResponse;
+import lt.elektromeistras.repository.CreditTransactionRepository;
+import lt.elektromeistras.repository.CustomerRepository;
+import lt.elektromeistras.service.CreditTransactionService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Credit transaction lists: a page of summaries is read with its customers in one SELECT plus the
+ * count query, without loading any entity.
+ * Not transactional: customers must not already sit in the persistence context.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("Credit Transaction Summary Integration Tests")
+class CreditTransactionSummaryIntegrationTest {
+
+    private static final int TRANSACTIONS = 60;
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private CreditTransactionService creditTransactionService;
+
+    @Autowired
+    private CreditTransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String prefix;
+    private Customer business;
+    private Customer retail;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "SUM-" + UUID.randomUUID().toString().substring(0, 8);
+
+        business = new Customer();
+        business.setCode(prefix + "-B");
+        business.setCustomerType(Customer.CustomerType.BUSINESS);
+        business.setCompanyName("Summary Statyba UAB");
+        business = customerRepository.save(business);
+
+        retail = new Customer();
+        retail.setCode(prefix + "-R");
+        retail.setCustomerType(Customer.CustomerType.RETAIL);
+        retail.setFirstName("Jonas");
+        retail.setLastName("Jonaitis");
+        retail = customerRepository.save(retail);
+
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            createPending(i % 2 == 0 ? business : retail, i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read a page of 50 customer transactions with one SELECT plus the count")
+    void shouldReadCustomerPageInOneSelect() {
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            createPending(business, TRANSACTIONS + i);
+        }
+        Statistics statistics = statistics();
+
+        // When
+        statistics.clear();
+        Page<CreditTransactionSummaryResponse> page = creditTransactionService.getCustomerTransactions(
+                business.getId(), PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        // Then
+        assertStatements(statistics);
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(TRANSACTIONS / 2 + TRANSACTIONS);
+        assertThat(page.getContent()).allSatisfy(summary -> {
+            assertThat(summary.getCustomerCode()).isEqualTo(business.getCode());
+            assertThat(summary.getCustomerName()).isEqualTo("Summary Statyba UAB");
+            assertThat(summary.getTransactionType()).isEqualTo("PICKUP");
+            assertThat(summary.getStatus()).isEqualTo("PENDING");
+        });
+    }
+
+    @Test
+    @DisplayName("Should search a page of 50 transactions with one SELECT plus the count")
+    void shouldSearchPageInOneSelect() {
+        Statistics statistics = statistics();
+
+        // When
+        statistics.clear();
+        Page<CreditTransactionSummaryResponse> page = creditTransactionService.searchTransactions(
+                prefix, PageRequest.of(0, PAGE_SIZE));
+
+        // Then
+        assertStatements(statistics);
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(TRANSACTIONS);
+        assertThat(page.getContent()).extracting(CreditTransactionSummaryResponse::getCustomerName)
+                .containsOnly("Summary Statyba UAB", "Jonas Jonaitis");
+    }
+
+    @Test
+    @DisplayName("Should list a page of 50 of all transactions with one SELECT plus the count")
+    void shouldListAllInOneSelect() {
+        Statistics statistics = statistics();
+
+        // When
+        statistics.clear();
+        Page<CreditTransactionSummaryResponse> page = creditTransactionService.getAllTransactions(
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        // Then
+        assertStatements(statistics);
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(TRANSACTIONS);
+    }
+
+    @Test
+    @DisplayName("Should list recent transactions of a customer newest first")
+    void shouldListRecentNewestFirst() {
+        // When
+        List<CreditTransactionSummaryResponse> recent =
+                creditTransactionService.getRecentCustomerTransactions(retail.getId(), 5);
+
+        // Then
+        assertThat(recent).hasSize(5);
+        assertThat(recent).extracting(CreditTransactionSummaryResponse::getCustomerName).containsOnly("Jonas Jonaitis");
+        assertThat(recent).extracting(CreditTransactionSummaryResponse::getCreatedAt)
+                .isSortedAccordingTo((a, b) -> b.compareTo(a));
+    }
+
+    private void createPending(Customer customer, int index) {
+        CreditTransaction transaction = new CreditTransaction();
+        transaction.setCustomer(customer);
+        transaction.setTransactionNumber(prefix + "-" + index);
+        transaction.setTransactionType(CreditTransaction.TransactionType.PICKUP);
+        transaction.setPerformedBy("Counter");
+        transaction.setPerformedByRole(CreditTransaction.PerformedByRole.EMPLOYEE);
+        transaction.setTotalAmount(new BigDecimal("10.00"));
+        transactionRepository.save(transaction);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void assertStatements(Statistics statistics) {
+        // Page SELECT joined to customers, then the count query
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
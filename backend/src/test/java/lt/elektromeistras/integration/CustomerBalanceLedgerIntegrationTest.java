@@ -0,0 +1,192 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.CreditTransaction;
+import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.dto.request.ConfirmCreditTransactionRequest;
+import lt.elektromeistras.dto.response.CustomerBalanceMismatchResponse;
+import lt.elektromeistras.repository.CreditTransactionRepository;
+import lt.elektromeistras.repository.CustomerBalanceEntryRepository;
+import lt.elektromeistras.repository.CustomerRepository;
+import lt.elektromeistras.service.CreditTransactionService;
+import lt.elektromeistras.service.CustomerBalanceLedger;
+import lt.elektromeistras.service.CustomerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Customer balance ledger: concurrent confirmations for one customer lose no update, the balance
+ * always equals the ledger sum, and the reconciler reports balances that do not.
+ * Not transactional: every confirmation commits on its own, as it does at the counter.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Customer Balance Ledger Integration Tests")
+class CustomerBalanceLedgerIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final int PICKUPS_PER_THREAD = 10;
+
+    @Autowired
+    private CreditTransactionService creditTransactionService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerBalanceLedger customerBalanceLedger;
+
+    @Autowired
+    private CreditTransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerBalanceEntryRepository entryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setCode("LEDGER-" + UUID.randomUUID().toString().substring(0, 8));
+        customer.setCustomerType(Customer.CustomerType.CONTRACTOR);
+        customer.setCompanyName("Ledger contractor");
+        customer.setCreditLimit(new BigDecimal("100000.00"));
+        customer = customerRepository.save(customer);
+    }
+
+    @Test
+    @DisplayName("Should keep every confirmation when 16 terminals confirm pickups for one customer")
+    void shouldKeepEveryConfirmation() throws Exception {
+        // Given
+        List<UUID> transactionIds = new ArrayList<>();
+        for (int i = 0; i < THREADS * PICKUPS_PER_THREAD; i++) {
+            transactionIds.add(createPending(CreditTransaction.TransactionType.PICKUP, "12.50").getId());
+        }
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<UUID> own = transactionIds.subList(t * PICKUPS_PER_THREAD, (t + 1) * PICKUPS_PER_THREAD);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (UUID transactionId : own) {
+                    creditTransactionService.confirmTransaction(transactionId, confirmRequest());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Then
+        BigDecimal expected = new BigDecimal("12.50").multiply(BigDecimal.valueOf(THREADS * PICKUPS_PER_THREAD));
+        assertThat(balance()).isEqualByComparingTo(expected);
+        assertThat(entryRepository.sumByCustomerId(customer.getId())).isEqualByComparingTo(expected);
+        assertThat(mismatchesOfCustomer()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reverse confirmed pickups and returns on cancellation")
+    void shouldReverseOnCancellation() {
+        // Given
+        CreditTransaction pickup = createPending(CreditTransaction.TransactionType.PICKUP, "100.00");
+        CreditTransaction creditReturn = createPending(CreditTransaction.TransactionType.RETURN, "30.00");
+        creditTransactionService.confirmTransaction(pickup.getId(), confirmRequest());
+        creditTransactionService.confirmTransaction(creditReturn.getId(), confirmRequest());
+        assertThat(balance()).isEqualByComparingTo("70.00");
+
+        // When
+        creditTransactionService.cancelTransaction(pickup.getId(), "Wrong customer");
+        creditTransactionService.cancelTransaction(creditReturn.getId(), "Wrong customer");
+
+        // Then
+        assertThat(balance()).isEqualByComparingTo("0.00");
+        assertThat(entryRepository.sumByCustomerId(customer.getId())).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    @DisplayName("Should not overwrite the balance when a stale customer is saved")
+    void shouldNotOverwriteBalanceOnCustomerUpdate() {
+        // Given
+        Customer stale = customerRepository.findById(customer.getId()).orElseThrow();
+        creditTransactionService.confirmTransaction(
+                createPending(CreditTransaction.TransactionType.PICKUP, "40.00").getId(), confirmRequest());
+
+        // When
+        stale.setCompanyName("Renamed contractor");
+        customerService.updateCustomer(customer.getId(), stale);
+
+        // Then
+        assertThat(balance()).isEqualByComparingTo("40.00");
+        assertThat(customerRepository.findById(customer.getId()).orElseThrow().getCompanyName())
+                .isEqualTo("Renamed contractor");
+    }
+
+    @Test
+    @DisplayName("Should report a balance changed outside the ledger")
+    void shouldReportMismatch() {
+        // Given
+        creditTransactionService.confirmTransaction(
+                createPending(CreditTransaction.TransactionType.PICKUP, "25.00").getId(), confirmRequest());
+        jdbcTemplate.update("UPDATE customers SET current_balance = current_balance + 5 WHERE id = ?", customer.getId());
+
+        // When
+        List<CustomerBalanceMismatchResponse> mismatches = mismatchesOfCustomer();
+
+        // Then
+        assertThat(mismatches).singleElement().satisfies(mismatch -> {
+            assertThat(mismatch.getCurrentBalance()).isEqualByComparingTo("30.00");
+            assertThat(mismatch.getLedgerBalance()).isEqualByComparingTo("25.00");
+            assertThat(mismatch.getDifference()).isEqualByComparingTo("5.00");
+        });
+    }
+
+    private CreditTransaction createPending(CreditTransaction.TransactionType type, String amount) {
+        CreditTransaction transaction = new CreditTransaction();
+        transaction.setCustomer(customer);
+        transaction.setTransactionNumber("LEDGER-" + UUID.randomUUID());
+        transaction.setTransactionType(type);
+        transaction.setPerformedBy("Counter");
+        transaction.setPerformedByRole(CreditTransaction.PerformedByRole.EMPLOYEE);
+        transaction.setNotes("Ledger test");
+        transaction.setTotalAmount(new BigDecimal(amount));
+        return transactionRepository.save(transaction);
+    }
+
+    private ConfirmCreditTransactionRequest confirmRequest() {
+        return new ConfirmCreditTransactionRequest("Counter", null, null, null);
+    }
+
+    private BigDecimal balance() {
+        return customerRepository.findCurrentBalance(customer.getId()).orElseThrow();
+    }
+
+    private List<CustomerBalanceMismatchResponse> mismatchesOfCustomer() {
+        return customerBalanceLedger.reconcile().stream()
+                .filter(mismatch -> mismatch.getCustomerId().equals(customer.getId()))
+                .toList();
+    }
+}
@@ -0,0 +1,129 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.repository.CustomerRepository;
+import lt.elektromeistras.service.CustomerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranked customer search on the normalized search columns: ranking, diacritic folding,
+ * digits-only phone matching and refresh of the columns on update.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Customer Search Integration Tests")
+class CustomerSearchIntegrationTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        key = "q" + UUID.randomUUID().toString().substring(0, 6);
+    }
+
+    @Test
+    @DisplayName("Should rank exact code, code prefix, word prefix, then other matches")
+    void shouldRankMatches() {
+        // Given - saved in reverse rank order so insertion order cannot fake the ranking
+        createCustomer("I-" + UUID.randomUUID(), "Aaa inside x" + key, null, null, null);
+        createCustomer("W-" + UUID.randomUUID(), "Zzz " + key + " word", null, null, null);
+        createCustomer(key + "-001", "Prefix match", null, null, null);
+        createCustomer(key, "Exact match", null, null, null);
+        Customer inactive = createCustomer(key + "-INACTIVE", "Inactive", null, null, null);
+        inactive.setIsActive(false);
+        customerRepository.save(inactive);
+
+        // When
+        List<Customer> results = customerService.searchCustomers(key.toUpperCase());
+
+        // Then
+        assertThat(results).extracting(Customer::getCompanyName)
+                .containsExactly("Exact match", "Prefix match", "Zzz " + key + " word", "Aaa inside x" + key);
+    }
+
+    @Test
+    @DisplayName("Should fold Lithuanian diacritics in both the data and the query")
+    void shouldFoldDiacritics() {
+        // Given
+        createCustomer("D-" + key, null, "Šarūnas", "Žilinskas-" + key, null);
+
+        // When / Then
+        assertThat(customerService.searchCustomers("sarunas zilinskas-" + key)).hasSize(1);
+        assertThat(customerService.searchCustomers("ŽILINSKAS-" + key.toUpperCase())).hasSize(1);
+        assertThat(customerService.searchCustomers("žilinskas-" + key)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should match phone numbers by digits only")
+    void shouldMatchPhoneDigits() {
+        // Given
+        String digits = String.valueOf(ThreadLocalRandom.current().nextLong(100_000_000L, 999_999_999L));
+        String formatted = "+370 (" + digits.substring(0, 3) + ") " + digits.substring(3, 6) + "-" + digits.substring(6);
+        createCustomer("P-" + key, "Phone " + key, null, null, formatted);
+
+        // When / Then
+        assertThat(customerService.searchCustomers("370" + digits))
+                .extracting(Customer::getCode).containsExactly("P-" + key);
+        assertThat(customerService.searchCustomers(digits.substring(0, 3) + " " + digits.substring(3, 7)))
+                .extracting(Customer::getCode).containsExactly("P-" + key);
+        assertThat(customerService.searchCustomers(digits, PageRequest.of(0, 10)).getContent())
+                .extracting(Customer::getCode).containsExactly("P-" + key);
+    }
+
+    @Test
+    @DisplayName("Should refresh the search columns when a customer is updated")
+    void shouldRefreshOnUpdate() {
+        // Given
+        Customer customer = createCustomer("U-" + key, "Before " + key, null, null, null);
+
+        // When
+        customer.setCompanyName("Après " + key);
+        customerRepository.saveAndFlush(customer);
+
+        // Then
+        assertThat(customerService.searchCustomers("apres " + key)).hasSize(1);
+        assertThat(customerService.searchCustomers("before " + key)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should match LIKE wildcards literally")
+    void shouldEscapeWildcards() {
+        // Given
+        createCustomer("X-" + key, "Plain " + key, null, null, null);
+
+        // When / Then
+        assertThat(customerService.searchCustomers(key + "%")).isEmpty();
+        assertThat(customerService.searchCustomers("plain_" + key)).isEmpty();
+    }
+
+    private Customer createCustomer(String code, String companyName, String firstName, String lastName, String phone) {
+        Customer customer = new Customer();
+        customer.setCode(code);
+        customer.setCustomerType(companyName != null ? Customer.CustomerType.BUSINESS : Customer.CustomerType.RETAIL);
+        customer.setCompanyName(companyName);
+        customer.setFirstName(firstName);
+        customer.setLastName(lastName);
+        customer.setPhone(phone);
+        return customerRepository.saveAndFlush(customer);
+    }
+}
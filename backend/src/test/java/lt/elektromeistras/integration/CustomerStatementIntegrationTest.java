@@ -0,0 +1,204 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.CreditTransaction;
+import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.dto.request.ConfirmCreditTransactionRequest;
+import lt.elektromeistras.dto.response.MonthlyStatementSummaryResponse;
+import lt.elektromeistras.repository.CreditTransactionRepository;
+import lt.elektromeistras.repository.CustomerRepository;
+import lt.elektromeistras.service.CreditTransactionService;
+import lt.elektromeistras.service.CustomerService;
+import lt.elektromeistras.service.CustomerStatementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Monthly statements from the statement snapshot: totals follow the balance ledger, quiet months
+ * carry the closing balance, and all statements are generated in partitions in code order.
+ * Not transactional: every confirmation commits on its own and partitions read on other threads.
+ */
+@SpringBootTest(properties = "customer.statement.partition-size=2")
+@ActiveProfiles("test")
+@DisplayName("Customer Statement Integration Tests")
+class CustomerStatementIntegrationTest {
+
+    @Autowired
+    private CustomerStatementService customerStatementService;
+
+    @Autowired
+    private CreditTransactionService creditTransactionService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CreditTransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private String prefix;
+    private YearMonth period;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "STMT-" + UUID.randomUUID().toString().substring(0, 8);
+        period = YearMonth.now(ZoneId.systemDefault());
+    }
+
+    @Test
+    @DisplayName("Should total opening balance, pickups, returns and cancellations of the month")
+    void shouldTotalTheMonth() {
+        // Given
+        Customer customer = createCustomer(prefix + "-A", "100.00");
+        CreditTransaction pickup = createPending(customer, CreditTransaction.TransactionType.PICKUP, "50.00");
+        CreditTransaction cancelled = createPending(customer, CreditTransaction.TransactionType.PICKUP, "30.00");
+        CreditTransaction creditReturn = createPending(customer, CreditTransaction.TransactionType.RETURN, "20.00");
+
+        // When
+        confirm(pickup);
+        confirm(cancelled);
+        confirm(creditReturn);
+        creditTransactionService.cancelTransaction(cancelled.getId(), "Wrong customer");
+
+        // Then
+        MonthlyStatementSummaryResponse statement = customerStatementService.getStatementSummary(
+                customer.getId(), period.getYear(), period.getMonthValue());
+        assertThat(statement.getCustomerCode()).isEqualTo(customer.getCode());
+        assertThat(statement.getOpeningBalance()).isEqualByComparingTo("0.00");
+        assertThat(statement.getPickupsAmount()).isEqualByComparingTo("80.00");
+        assertThat(statement.getReturnsAmount()).isEqualByComparingTo("20.00");
+        assertThat(statement.getAdjustmentsAmount()).isEqualByComparingTo("70.00");
+        assertThat(statement.getClosingBalance()).isEqualByComparingTo("130.00");
+        assertThat(statement.getPickupCount()).isEqualTo(2);
+        assertThat(statement.getReturnCount()).isEqualTo(1);
+        assertThat(statement.getClosingBalance())
+                .isEqualByComparingTo(customerRepository.findCurrentBalance(customer.getId()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should carry the closing balance into months without activity")
+    void shouldCarryClosingBalance() {
+        // Given
+        Customer customer = createCustomer(prefix + "-A", null);
+        confirm(createPending(customer, CreditTransaction.TransactionType.PICKUP, "45.00"));
+
+        // When
+        YearMonth next = period.plusMonths(1);
+        MonthlyStatementSummaryResponse nextMonth = customerStatementService.getStatementSummary(
+                customer.getId(), next.getYear(), next.getMonthValue());
+        YearMonth previous = period.minusMonths(1);
+        MonthlyStatementSummaryResponse previousMonth = customerStatementService.getStatementSummary(
+                customer.getId(), previous.getYear(), previous.getMonthValue());
+
+        // Then
+        assertThat(nextMonth.getOpeningBalance()).isEqualByComparingTo("45.00");
+        assertThat(nextMonth.getPickupsAmount()).isEqualByComparingTo("0.00");
+        assertThat(nextMonth.getPickupCount()).isZero();
+        assertThat(nextMonth.getClosingBalance()).isEqualByComparingTo("45.00");
+        assertThat(previousMonth.getOpeningBalance()).isEqualByComparingTo("0.00");
+        assertThat(previousMonth.getClosingBalance()).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    @DisplayName("Should generate all statements across partitions in customer code order")
+    void shouldGenerateAllInCodeOrder() {
+        // Given - created out of code order, the settled customer owes nothing and has no entries next month
+        List<String> codes = List.of(prefix + "-E", prefix + "-B", prefix + "-D", prefix + "-A", prefix + "-C");
+        for (String code : codes) {
+            confirm(createPending(createCustomer(code, null), CreditTransaction.TransactionType.PICKUP, "10.00"));
+        }
+        Customer settled = createCustomer(prefix + "-F", null);
+        confirm(createPending(settled, CreditTransaction.TransactionType.PICKUP, "15.00"));
+        confirm(createPending(settled, CreditTransaction.TransactionType.RETURN, "15.00"));
+        createCustomer(prefix + "-G", null);
+
+        // When
+        List<MonthlyStatementSummaryResponse> statements = new ArrayList<>();
+        customerStatementService.generateAll(period.getYear(), period.getMonthValue(), statements::add);
+        YearMonth next = period.plusMonths(1);
+        List<MonthlyStatementSummaryResponse> nextStatements = new ArrayList<>();
+        customerStatementService.generateAll(next.getYear(), next.getMonthValue(), nextStatements::add);
+
+        // Then
+        assertThat(ownStatements(statements)).extracting(MonthlyStatementSummaryResponse::getCustomerCode)
+                .containsExactly(prefix + "-A", prefix + "-B", prefix + "-C", prefix + "-D", prefix + "-E",
+                        prefix + "-F");
+        assertThat(ownStatements(nextStatements)).extracting(MonthlyStatementSummaryResponse::getCustomerCode)
+                .containsExactly(prefix + "-A", prefix + "-B", prefix + "-C", prefix + "-D", prefix + "-E");
+        assertThat(ownStatements(nextStatements)).allSatisfy(statement -> {
+            assertThat(statement.getOpeningBalance()).isEqualByComparingTo("10.00");
+            assertThat(statement.getClosingBalance()).isEqualByComparingTo("10.00");
+        });
+    }
+
+    @Test
+    @DisplayName("Should write all statements as CSV with a header line")
+    void shouldWriteCsv() {
+        // Given
+        Customer customer = createCustomer(prefix + "-A", null);
+        customer.setCompanyName("Statyba, UAB");
+        customerRepository.save(customer);
+        confirm(createPending(customer, CreditTransaction.TransactionType.PICKUP, "12.50"));
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = customerStatementService.writeCsv(period.getYear(), period.getMonthValue(), out);
+
+        // Then
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(written + 1);
+        assertThat(lines.get(0)).startsWith("customer_code,customer_name,vat_code,year,month,opening_balance");
+        assertThat(lines).contains(String.format("%s,\"Statyba, UAB\",,%d,%d,0.00,12.50,0.00,0.00,12.50,1,0",
+                customer.getCode(), period.getYear(), period.getMonthValue()));
+    }
+
+    private Customer createCustomer(String code, String openingBalance) {
+        Customer customer = new Customer();
+        customer.setCode(code);
+        customer.setCustomerType(Customer.CustomerType.BUSINESS);
+        customer.setCompanyName("Statement customer " + code);
+        customer.setCreditLimit(new BigDecimal("100000.00"));
+        if (openingBalance != null) {
+            customer.setCurrentBalance(new BigDecimal(openingBalance));
+        }
+        return customerService.createCustomer(customer);
+    }
+
+    private CreditTransaction createPending(Customer customer, CreditTransaction.TransactionType type, String amount) {
+        CreditTransaction transaction = new CreditTransaction();
+        transaction.setCustomer(customer);
+        transaction.setTransactionNumber(prefix + "-" + UUID.randomUUID());
+        transaction.setTransactionType(type);
+        transaction.setPerformedBy("Counter");
+        transaction.setPerformedByRole(CreditTransaction.PerformedByRole.EMPLOYEE);
+        transaction.setTotalAmount(new BigDecimal(amount));
+        return transactionRepository.save(transaction);
+    }
+
+    private void confirm(CreditTransaction transaction) {
+        creditTransactionService.confirmTransaction(transaction.getId(),
+                new ConfirmCreditTransactionRequest("Counter", null, null, null));
+    }
+
+    private List<MonthlyStatementSummaryResponse> ownStatements(List<MonthlyStatementSummaryResponse> statements) {
+        return statements.stream()
+                .filter(statement -> statement.getCustomerCode().startsWith(prefix))
+                .toList();
+    }
+}
@@ -0,0 +1,189 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.Series;
+import lt.elektromeistras.repository.SeriesRepository;
+import lt.elektromeistras.service.DocumentNumberService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Document numbers under concurrent allocation: unique in every mode, gap-free when the series
+ * is gapless. Throughput is measured by DocumentNumberBenchmarkTest.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Document Number Service Integration Tests")
+class DocumentNumberServiceIntegrationTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private SeriesRepository seriesRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    @DisplayName("Should hand out 20k unique, contiguous numbers from leased blocks")
+    void shouldAllocateUniqueNumbersFromBlocks() throws Exception {
+        // Given
+        String code = createSeries(500, false);
+
+        // When
+        Set<String> numbers = allocateConcurrently(code, 20_000, false);
+
+        // Then - every leased block was used up, so the numbers are also contiguous
+        assertThat(numbers).hasSize(20_000);
+        assertThat(numbers).contains(code + "-000001", code + "-020000");
+        assertThat(seriesRepository.findCurrentNumber(code)).contains(20_000L);
+    }
+
+    @Test
+    @DisplayName("Should hand out unique numbers with one database increment per number")
+    void shouldAllocateUniqueNumbersOneByOne() throws Exception {
+        // Given
+        String code = createSeries(1, false);
+
+        // When
+        Set<String> numbers = allocateConcurrently(code, 2_000, false);
+
+        // Then
+        assertThat(numbers).hasSize(2_000).contains(code + "-000001", code + "-002000");
+        assertThat(seriesRepository.findCurrentNumber(code)).contains(2_000L);
+    }
+
+    @Test
+    @DisplayName("Should return a gapless number when the document's transaction rolls back")
+    void shouldNotLeaveGapsInGaplessSeries() throws Exception {
+        // Given
+        String code = createSeries(100, true);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // When
+        String rolledBack = transaction.execute(status -> {
+            status.setRollbackOnly();
+            return documentNumberService.next(code);
+        });
+        Set<String> numbers = allocateConcurrently(code, 400, true);
+
+        // Then
+        assertThat(rolledBack).isEqualTo(code + "-000001");
+        assertThat(numbers).hasSize(400).contains(code + "-000001", code + "-000400");
+        assertThat(seriesRepository.findCurrentNumber(code)).contains(400L);
+    }
+
+    @Test
+    @DisplayName("Should refuse to number a gapless series outside a transaction")
+    void shouldRequireTransactionForGaplessSeries() {
+        // Given
+        String code = createSeries(1, true);
+
+        // When / Then
+        assertThatThrownBy(() -> documentNumberService.next(code))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("inside the document's transaction");
+    }
+
+    @Test
+    @DisplayName("Should re-read the series settings when leasing the next block")
+    void shouldReReadSettingsOnLease() {
+        // Given - a block of 5 is leased, then another node changes the block size without evicting here
+        String code = createSeries(5, false);
+        documentNumberService.next(code);
+        Series series = seriesRepository.findByCode(code).orElseThrow();
+        series.setBlockSize(1);
+        seriesRepository.save(series);
+
+        // When - 4 numbers from the leased block, then one with the new setting
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            numbers.add(documentNumberService.next(code));
+        }
+
+        // Then - numbering continues without leasing another block
+        assertThat(numbers).containsExactly(code + "-000002", code + "-000003", code + "-000004",
+                code + "-000005", code + "-000006");
+        assertThat(seriesRepository.findCurrentNumber(code)).contains(6L);
+    }
+
+    @Test
+    @DisplayName("Should create the application's series on first use")
+    void shouldCreateApplicationSeries() {
+        // When
+        String first = documentNumberService.next(DocumentNumberService.DocumentSeries.CREDIT_RETURN);
+        String second = documentNumberService.next(DocumentNumberService.DocumentSeries.CREDIT_RETURN);
+
+        // Then
+        assertThat(first).startsWith("R");
+        assertThat(second).isNotEqualTo(first);
+        assertThat(seriesRepository.existsByCode("CREDIT_RETURN")).isTrue();
+    }
+
+    private Set<String> allocateConcurrently(String code, int count, boolean inTransaction) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < count / THREADS; i++) {
+                        // Gapless series are numbered inside the document's transaction
+                        String number = inTransaction
+                                ? transaction.execute(status -> documentNumberService.next(code))
+                                : documentNumberService.next(code);
+                        assertThat(numbers.add(number)).as("duplicate %s", number).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return numbers;
+    }
+
+    private String createSeries(int blockSize, boolean gapless) {
+        String code = "T" + prefix + "-" + blockSize + (gapless ? "G" : "");
+        seriesRepository.save(Series.builder()
+                .code(code)
+                .name("Test series")
+                .seriesType(gapless ? Series.SeriesType.INVOICE : Series.SeriesType.DOCUMENT)
+                .prefix(code + "-")
+                .currentNumber(0L)
+                .blockSize(blockSize)
+                .isGapless(gapless)
+                .build());
+        return code;
+    }
+}
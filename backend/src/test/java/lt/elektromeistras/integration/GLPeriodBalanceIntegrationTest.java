@@ -0,0 +1,168 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.BudgetPeriod;
+import lt.elektromeistras.domain.Department;
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.domain.JournalEntry;
+import lt.elektromeistras.domain.JournalEntryLine;
+import lt.elektromeistras.dto.response.GLPeriodBalanceRebuildResponse;
+import lt.elektromeistras.dto.response.TrialBalanceLineResponse;
+import lt.elektromeistras.repository.BudgetPeriodRepository;
+import lt.elektromeistras.repository.DepartmentRepository;
+import lt.elektromeistras.repository.GLAccountRepository;
+import lt.elektromeistras.repository.GLPeriodBalanceRepository;
+import lt.elektromeistras.service.GLPeriodBalanceService;
+import lt.elektromeistras.service.JournalEntryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GL period balances maintained on posting and reversal, read by trial balance and budget
+ * actuals, and rebuilt from journal entry lines
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("GL Period Balance Integration Tests")
+class GLPeriodBalanceIntegrationTest {
+
+    @Autowired
+    private JournalEntryService journalEntryService;
+
+    @Autowired
+    private GLPeriodBalanceService periodBalanceService;
+
+    @Autowired
+    private GLPeriodBalanceRepository periodBalanceRepository;
+
+    @Autowired
+    private GLAccountRepository glAccountRepository;
+
+    @Autowired
+    private BudgetPeriodRepository budgetPeriodRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String prefix;
+    private BudgetPeriod period;
+    private Department sales;
+    private GLAccount receivable;
+    private GLAccount revenue;
+
+    @BeforeEach
+    void setUp() {
+        prefix = UUID.randomUUID().toString().substring(0, 8);
+        period = budgetPeriodRepository.save(BudgetPeriod.builder()
+                .code("P-" + prefix)
+                .name("Period " + prefix)
+                .periodType(BudgetPeriod.PeriodType.MONTH)
+                .fiscalYear(LocalDate.now().getYear())
+                .startDate(LocalDate.now().withDayOfMonth(1))
+                .endDate(LocalDate.now().withDayOfMonth(1).plusMonths(1).minusDays(1))
+                .build());
+        sales = departmentRepository.save(Department.builder()
+                .code("D-" + prefix)
+                .name("Sales " + prefix)
+                .build());
+        receivable = glAccountRepository.save(GLAccount.builder()
+                .code(prefix + "-1300")
+                .name("Receivables")
+                .accountType(GLAccount.AccountType.ASSET)
+                .accountCategory(GLAccount.AccountCategory.CURRENT_ASSET)
+                .normalBalance(GLAccount.NormalBalance.DEBIT)
+                .build());
+        revenue = glAccountRepository.save(GLAccount.builder()
+                .code(prefix + "-4000")
+                .name("Revenue")
+                .accountType(GLAccount.AccountType.REVENUE)
+                .accountCategory(GLAccount.AccountCategory.OPERATING_REVENUE)
+                .normalBalance(GLAccount.NormalBalance.CREDIT)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should add postings to the trial balance of their period")
+    void shouldMaintainTrialBalanceOnPosting() {
+        // When
+        post("100.00", sales);
+        post("50.00", sales);
+        post("30.00", null);
+
+        // Then
+        List<TrialBalanceLineResponse> trialBalance = periodBalanceService.getTrialBalance(period.getId());
+        assertThat(trialBalance).extracting(TrialBalanceLineResponse::getGlAccountCode)
+                .containsExactly(prefix + "-1300", prefix + "-4000");
+        assertThat(trialBalance.get(0).getDebitTotal()).isEqualByComparingTo("180.00");
+        assertThat(trialBalance.get(0).getBalance()).isEqualByComparingTo("180.00");
+        assertThat(trialBalance.get(1).getCreditTotal()).isEqualByComparingTo("180.00");
+        assertThat(trialBalance.get(1).getBalance()).isEqualByComparingTo("180.00");
+    }
+
+    @Test
+    @DisplayName("Should net a reversed entry to zero and keep it after a rebuild")
+    void shouldNetReversalAndRebuildToSameTotals() {
+        // Given
+        JournalEntry first = post("100.00", sales);
+        post("40.00", sales);
+
+        // When
+        journalEntryService.reverseJournalEntry(first.getId(), "Wrong amount");
+        List<TrialBalanceLineResponse> maintained = periodBalanceService.getTrialBalance(period.getId());
+
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> periodBalanceRepository.deleteByPeriodId(period.getId()));
+        GLPeriodBalanceRebuildResponse result = periodBalanceService.rebuild().orElseThrow();
+        List<TrialBalanceLineResponse> rebuilt = periodBalanceService.getTrialBalance(period.getId());
+
+        // Then
+        assertThat(maintained.get(0).getBalance()).isEqualByComparingTo("40.00");
+        assertThat(maintained.get(0).getDebitTotal()).isEqualByComparingTo("140.00");
+        assertThat(maintained.get(0).getCreditTotal()).isEqualByComparingTo("100.00");
+        assertThat(rebuilt).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(maintained);
+        assertThat(result.getPeriods()).isPositive();
+        assertThat(periodBalanceService.getAccountPeriodBalances(receivable.getId()))
+                .singleElement()
+                .satisfies(line -> assertThat(line.getBudgetPeriodCode()).isEqualTo("P-" + prefix));
+    }
+
+    private JournalEntry post(String amount, Department department) {
+        JournalEntry header = JournalEntry.builder()
+                .entryNumber("JE-" + prefix + "-" + UUID.randomUUID().toString().substring(0, 8))
+                .entryDate(LocalDate.now())
+                .entryType(JournalEntry.EntryType.AUTOMATIC)
+                .sourceType(JournalEntry.SourceType.ORDER)
+                .description("Sales order")
+                .budgetPeriod(period)
+                .build();
+        return journalEntryService.postBalancedEntry(header, List.of(
+                JournalEntryLine.builder()
+                        .glAccount(receivable)
+                        .debitAmount(new BigDecimal(amount))
+                        .creditAmount(BigDecimal.ZERO)
+                        .build(),
+                JournalEntryLine.builder()
+                        .glAccount(revenue)
+                        .debitAmount(BigDecimal.ZERO)
+                        .creditAmount(new BigDecimal(amount))
+                        .department(department)
+                        .build()));
+    }
+}
@@ -0,0 +1,170 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.domain.GLPostingOutboxEvent;
+import lt.elektromeistras.domain.GLPostingOutboxEvent.EventType;
+import lt.elektromeistras.domain.GLPostingOutboxEvent.OutboxStatus;
+import lt.elektromeistras.domain.JournalEntry;
+import lt.elektromeistras.domain.Order;
+import lt.elektromeistras.repository.GLAccountRepository;
+import lt.elektromeistras.repository.GLPostingOutboxRepository;
+import lt.elektromeistras.service.GLPostingOutbox;
+import lt.elektromeistras.service.GLPostingService;
+import lt.elektromeistras.service.JournalEntryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * GL posting outbox: background posting, skipping documents already posted, retry with
+ * backoff until the event is dead, and manual retry of dead events
+ */
+@SpringBootTest(properties = {
+        "gl.outbox.backoff-ms=0",
+        "gl.outbox.max-attempts=2"
+})
+@ActiveProfiles("test")
+@DisplayName("GL Posting Outbox Integration Tests")
+class GLPostingOutboxIntegrationTest {
+
+    @Autowired
+    private GLPostingOutbox glPostingOutbox;
+
+    @Autowired
+    private GLPostingOutboxRepository outboxRepository;
+
+    @Autowired
+    private GLPostingService glPostingService;
+
+    @Autowired
+    private JournalEntryService journalEntryService;
+
+    @Autowired
+    private GLAccountRepository glAccountRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Accounts GLPostingService posts payments to
+        ensureAccount("1000", "Cash");
+        ensureAccount("1300", "Accounts Receivable");
+    }
+
+    @Test
+    @DisplayName("Should post a queued payment and link its journal entry")
+    void shouldPostQueuedPayment() {
+        // Given
+        GLPostingOutboxEvent event = outboxRepository.save(payment(UUID.randomUUID()));
+
+        // When
+        glPostingOutbox.drain();
+
+        // Then
+        GLPostingOutboxEvent posted = outboxRepository.findById(event.getId()).orElseThrow();
+        assertThat(posted.getStatus()).isEqualTo(OutboxStatus.POSTED);
+        assertThat(posted.getPostedAt()).isNotNull();
+        assertThat(journalEntryService.getJournalEntriesBySourceDocument(
+                JournalEntry.SourceType.PAYMENT, event.getSourceDocumentId()))
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.getId()).isEqualTo(posted.getJournalEntryId());
+                    assertThat(entry.getStatus()).isEqualTo(JournalEntry.EntryStatus.POSTED);
+                    assertThat(entry.getTotalDebit()).isEqualByComparingTo("121.00");
+                });
+    }
+
+    @Test
+    @DisplayName("Should not post a document that already has a journal entry")
+    void shouldSkipAlreadyPostedDocument() {
+        // Given
+        UUID paymentId = UUID.randomUUID();
+        glPostingService.postPaymentToGL(paymentId, UUID.randomUUID(), new BigDecimal("121.00"),
+                LocalDate.now(), "PAY-" + paymentId, null);
+        GLPostingOutboxEvent event = outboxRepository.save(payment(paymentId));
+
+        // When
+        glPostingOutbox.drain();
+
+        // Then
+        GLPostingOutboxEvent posted = outboxRepository.findById(event.getId()).orElseThrow();
+        assertThat(posted.getStatus()).isEqualTo(OutboxStatus.POSTED);
+        assertThat(posted.getJournalEntryId()).isNull();
+        assertThat(journalEntryService.getJournalEntriesBySourceDocument(JournalEntry.SourceType.PAYMENT, paymentId))
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should retry a failing event, mark it dead after max attempts and requeue it on request")
+    void shouldRetryUntilDead() {
+        // Given - the order does not exist, so every attempt fails
+        GLPostingOutboxEvent event = outboxRepository.save(GLPostingOutboxEvent.builder()
+                .eventType(EventType.ORDER)
+                .sourceDocumentId(UUID.randomUUID())
+                .sourceDocumentNumber("ORD-MISSING")
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+
+        // When
+        glPostingOutbox.drain();
+        GLPostingOutboxEvent retried = outboxRepository.findById(event.getId()).orElseThrow();
+        glPostingOutbox.drain();
+        GLPostingOutboxEvent dead = outboxRepository.findById(event.getId()).orElseThrow();
+
+        // Then
+        assertThat(retried.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getLastError()).contains("Order not found");
+        assertThat(dead.getStatus()).isEqualTo(OutboxStatus.DEAD);
+        assertThat(dead.getAttempts()).isEqualTo(2);
+        assertThat(glPostingOutbox.getDeadEvents()).extracting(GLPostingOutboxEvent::getId).contains(event.getId());
+
+        GLPostingOutboxEvent requeued = glPostingOutbox.retry(event.getId());
+        assertThat(requeued.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(requeued.getAttempts()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should only enqueue inside the business transaction")
+    void shouldRequireTransactionToEnqueue() {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+
+        assertThatThrownBy(() -> glPostingOutbox.enqueueOrder(order))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    private GLPostingOutboxEvent payment(UUID paymentId) {
+        return GLPostingOutboxEvent.builder()
+                .eventType(EventType.PAYMENT)
+                .sourceDocumentId(paymentId)
+                .sourceDocumentNumber("PAY-" + paymentId)
+                .customerId(UUID.randomUUID())
+                .amount(new BigDecimal("121.00"))
+                .eventDate(LocalDate.now())
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void ensureAccount(String code, String name) {
+        if (glAccountRepository.findByCode(code).isEmpty()) {
+            glAccountRepository.save(GLAccount.builder()
+                    .code(code)
+                    .name(name)
+                    .accountType(GLAccount.AccountType.ASSET)
+                    .accountCategory(GLAccount.AccountCategory.CURRENT_ASSET)
+                    .normalBalance(GLAccount.NormalBalance.DEBIT)
+                    .build());
+        }
+    }
+}
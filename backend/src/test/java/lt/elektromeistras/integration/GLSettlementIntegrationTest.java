@@ -0,0 +1,166 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.Customer;
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.domain.JournalEntry;
+import lt.elektromeistras.domain.Order;
+import lt.elektromeistras.dto.response.GLSettlementResponse;
+import lt.elektromeistras.dto.response.JournalEntrySourceDocumentResponse;
+import lt.elektromeistras.repository.CustomerRepository;
+import lt.elektromeistras.repository.GLAccountRepository;
+import lt.elektromeistras.repository.OrderRepository;
+import lt.elektromeistras.service.GLPostingService;
+import lt.elektromeistras.service.GLSettlementService;
+import lt.elektromeistras.service.JournalEntryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-of-day order settlement: per-order entries in parallel partitions, one summarized entry
+ * with drill-down to its orders, and skipping orders that are already posted
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("GL Settlement Integration Tests")
+class GLSettlementIntegrationTest {
+
+    @Autowired
+    private GLSettlementService settlementService;
+
+    @Autowired
+    private GLPostingService glPostingService;
+
+    @Autowired
+    private JournalEntryService journalEntryService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private GLAccountRepository glAccountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String prefix;
+    private LocalDate day;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        // Accounts GLPostingService posts orders to
+        ensureAccount("1300", "Accounts Receivable", GLAccount.AccountType.ASSET,
+                GLAccount.AccountCategory.CURRENT_ASSET, GLAccount.NormalBalance.DEBIT);
+        ensureAccount("4000", "Sales Revenue", GLAccount.AccountType.REVENUE,
+                GLAccount.AccountCategory.OPERATING_REVENUE, GLAccount.NormalBalance.CREDIT);
+        ensureAccount("2410", "VAT Payable", GLAccount.AccountType.LIABILITY,
+                GLAccount.AccountCategory.CURRENT_LIABILITY, GLAccount.NormalBalance.CREDIT);
+
+        // A day of its own, so orders of other tests are not settled
+        prefix = UUID.randomUUID().toString().substring(0, 8);
+        day = LocalDate.of(2001, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(3650));
+        customer = new Customer();
+        customer.setCode("C-" + prefix);
+        customer.setFirstName("Settlement");
+        customer.setLastName(prefix);
+        customer = customerRepository.save(customer);
+    }
+
+    @Test
+    @DisplayName("Should post one entry per order and find nothing left on the next run")
+    void shouldPostEachOrder() {
+        // Given
+        List<Order> orders = List.of(order(1, "100.00", "0.00", "21.00"), order(2, "200.00", "0.00", "42.00"),
+                order(3, "50.00", "0.00", "10.50"), order(4, "10.00", "0.00", "0.00"));
+
+        // When
+        GLSettlementResponse result = settlementService.settle(day, false).orElseThrow();
+        GLSettlementResponse again = settlementService.settle(day, false).orElseThrow();
+
+        // Then
+        assertThat(result.getOrdersFound()).isEqualTo(4);
+        assertThat(result.getOrdersPosted()).isEqualTo(4);
+        assertThat(result.getOrdersFailed()).isZero();
+        assertThat(result.getJournalEntries()).isEqualTo(4);
+        assertThat(result.getJournalEntryLines()).isEqualTo(11);
+        assertThat(orders).allSatisfy(order ->
+                assertThat(glPostingService.isAlreadyPosted(JournalEntry.SourceType.ORDER, order.getId())).isTrue());
+        assertThat(again.getOrdersFound()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should post one summarized entry linked to its orders, without orders posted before")
+    void shouldPostSummarizedEntry() {
+        // Given
+        Order first = order(1, "100.00", "0.00", "21.00");
+        Order discounted = order(2, "100.00", "10.00", "21.00");
+        Order postedBefore = order(3, "300.00", "0.00", "63.00");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                glPostingService.postOrderToGL(orderRepository.findById(postedBefore.getId()).orElseThrow()));
+
+        // When
+        GLSettlementResponse result = settlementService.settle(day, true).orElseThrow();
+
+        // Then
+        assertThat(result.getOrdersFound()).isEqualTo(2);
+        assertThat(result.getOrdersPosted()).isEqualTo(2);
+        assertThat(result.getJournalEntries()).isEqualTo(1);
+        assertThat(result.getJournalEntryLines()).isEqualTo(3);
+
+        List<JournalEntry> entries = journalEntryService.getJournalEntriesBySourceDocument(
+                JournalEntry.SourceType.ORDER, discounted.getId());
+        assertThat(entries).singleElement().satisfies(entry -> {
+            assertThat(entry.getEntryDate()).isEqualTo(day);
+            assertThat(entry.getTotalDebit()).isEqualByComparingTo("232.00");
+            assertThat(entry.getStatus()).isEqualTo(JournalEntry.EntryStatus.POSTED);
+        });
+        assertThat(journalEntryService.getSourceDocuments(entries.get(0).getId()))
+                .extracting(JournalEntrySourceDocumentResponse::getSourceDocumentId)
+                .containsExactly(first.getId(), discounted.getId());
+        assertThat(glPostingService.isAlreadyPosted(JournalEntry.SourceType.ORDER, first.getId())).isTrue();
+    }
+
+    private Order order(int number, String subtotal, String discount, String tax) {
+        Order order = new Order();
+        order.setOrderNumber(prefix + "-" + number);
+        order.setCustomer(customer);
+        order.setStatus(Order.OrderStatus.COMPLETED);
+        order.setOrderDate(day.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant());
+        order.setSubtotal(new BigDecimal(subtotal));
+        order.setDiscountAmount(new BigDecimal(discount));
+        order.setTaxAmount(new BigDecimal(tax));
+        order.setTotalAmount(new BigDecimal(subtotal).subtract(new BigDecimal(discount)).add(new BigDecimal(tax)));
+        return orderRepository.save(order);
+    }
+
+    private void ensureAccount(String code, String name, GLAccount.AccountType type,
+                               GLAccount.AccountCategory category, GLAccount.NormalBalance normalBalance) {
+        if (glAccountRepository.findByCode(code).isEmpty()) {
+            glAccountRepository.save(GLAccount.builder()
+                    .code(code)
+                    .name(name)
+                    .accountType(type)
+                    .accountCategory(category)
+                    .normalBalance(normalBalance)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.BudgetPeriod;
+import lt.elektromeistras.domain.Department;
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.domain.JournalEntry;
+import lt.elektromeistras.dto.response.JournalEntryImportResponse;
+import lt.elektromeistras.dto.response.TrialBalanceLineResponse;
+import lt.elektromeistras.repository.BudgetPeriodRepository;
+import lt.elektromeistras.repository.DepartmentRepository;
+import lt.elektromeistras.repository.GLAccountRepository;
+import lt.elektromeistras.repository.JournalEntryRepository;
+import lt.elektromeistras.service.GLPeriodBalanceService;
+import lt.elektromeistras.service.JournalEntryImportService;
+import lt.elektromeistras.service.JournalEntryImportService.ImportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk journal entry import: entries validated against preloaded accounts and dimensions,
+ * invalid entries reported without stopping the file, valid ones written in batches.
+ * Not transactional: every batch commits on its own.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Journal Entry Import Integration Tests")
+class JournalEntryImportIntegrationTest {
+
+    private static final String HEADER = "entryNumber,entryDate,entryType,description,budgetPeriodCode," +
+            "accountCode,debitAmount,creditAmount,lineDescription,departmentCode,costCenterCode,businessObjectCode";
+
+    @Autowired
+    private JournalEntryImportService importService;
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private GLAccountRepository glAccountRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private BudgetPeriodRepository budgetPeriodRepository;
+
+    @Autowired
+    private GLPeriodBalanceService periodBalanceService;
+
+    private String prefix;
+    private BudgetPeriod period;
+
+    @BeforeEach
+    void setUp() {
+        prefix = UUID.randomUUID().toString().substring(0, 8);
+        period = budgetPeriodRepository.save(BudgetPeriod.builder()
+                .code("P-" + prefix)
+                .name("Period " + prefix)
+                .periodType(BudgetPeriod.PeriodType.MONTH)
+                .fiscalYear(LocalDate.now().getYear())
+                .startDate(LocalDate.now().withDayOfMonth(1))
+                .endDate(LocalDate.now().withDayOfMonth(1).plusMonths(1).minusDays(1))
+                .build());
+        departmentRepository.save(Department.builder()
+                .code("D-" + prefix)
+                .name("Sales " + prefix)
+                .build());
+        glAccountRepository.save(GLAccount.builder()
+                .code(prefix + "-2710")
+                .name("Bank")
+                .accountType(GLAccount.AccountType.ASSET)
+                .accountCategory(GLAccount.AccountCategory.CURRENT_ASSET)
+                .normalBalance(GLAccount.NormalBalance.DEBIT)
+                .build());
+        glAccountRepository.save(GLAccount.builder()
+                .code(prefix + "-6300")
+                .name("Rent")
+                .accountType(GLAccount.AccountType.EXPENSE)
+                .accountCategory(GLAccount.AccountCategory.OPERATING_EXPENSE)
+                .normalBalance(GLAccount.NormalBalance.DEBIT)
+                .requireDepartment(true)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should import valid entries and report invalid ones without aborting the file")
+    void shouldReportInvalidEntriesAndImportTheRest() {
+        // Given
+        String csv = HEADER + "\n" +
+                csvLine("JE-" + prefix + "-1", prefix + "-6300", "100.00", "", "D-" + prefix) +
+                csvLine("JE-" + prefix + "-1", prefix + "-2710", "", "100.00", "") +
+                // Not balanced
+                csvLine("JE-" + prefix + "-2", prefix + "-6300", "100.00", "", "D-" + prefix) +
+                csvLine("JE-" + prefix + "-2", prefix + "-2710", "", "90.00", "") +
+                // Department required on rent, unknown account
+                csvLine("JE-" + prefix + "-3", prefix + "-6300", "50.00", "", "") +
+                csvLine("JE-" + prefix + "-3", prefix + "-9999", "", "50.00", "") +
+                csvLine("JE-" + prefix + "-4", prefix + "-6300", "20.00", "", "D-" + prefix) +
+                csvLine("JE-" + prefix + "-4", prefix + "-2710", "", "20.00", "");
+
+        // When
+        JournalEntryImportResponse result = runImport(csv, ImportFormat.CSV, false);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo("PARTIAL");
+        assertThat(result.getTotalLines()).isEqualTo(8);
+        assertThat(result.getTotalEntries()).isEqualTo(4);
+        assertThat(result.getImportedEntries()).isEqualTo(2);
+        assertThat(result.getImportedLines()).isEqualTo(4);
+        assertThat(result.getErrorEntries()).isEqualTo(2);
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.getErrors().get(0)).contains("JE-" + prefix + "-2", "not balanced");
+        assertThat(result.getErrors().get(1))
+                .contains("JE-" + prefix + "-3", "department is required", prefix + "-9999 not found");
+
+        JournalEntry imported = journalEntryRepository.findByEntryNumber("JE-" + prefix + "-1").orElseThrow();
+        assertThat(imported.getStatus()).isEqualTo(JournalEntry.EntryStatus.VALIDATED);
+        assertThat(imported.getTotalDebit()).isEqualByComparingTo("100.00");
+        assertThat(journalEntryRepository.existsByEntryNumber("JE-" + prefix + "-2")).isFalse();
+        assertThat(periodBalanceService.getTrialBalance(period.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should post NDJSON entries to the period balances and reject numbers already taken")
+    void shouldPostNdjsonEntries() {
+        // Given
+        String ndjson = jsonLine("JE-" + prefix + "-1", prefix + "-6300", "250.00", null, "D-" + prefix) +
+                jsonLine("JE-" + prefix + "-1", prefix + "-2710", null, "250.00", null);
+        runImport(ndjson, ImportFormat.NDJSON, true);
+
+        // When
+        JournalEntryImportResponse again = runImport(ndjson, ImportFormat.NDJSON, true);
+
+        // Then
+        JournalEntry posted = journalEntryRepository.findByEntryNumber("JE-" + prefix + "-1").orElseThrow();
+        assertThat(posted.getStatus()).isEqualTo(JournalEntry.EntryStatus.POSTED);
+        List<TrialBalanceLineResponse> trialBalance = periodBalanceService.getTrialBalance(period.getId());
+        assertThat(trialBalance).extracting(TrialBalanceLineResponse::getGlAccountCode)
+                .containsExactly(prefix + "-2710", prefix + "-6300");
+        assertThat(trialBalance.get(1).getBalance()).isEqualByComparingTo("250.00");
+
+        assertThat(again.getStatus()).isEqualTo("FAILED");
+        assertThat(again.getErrors()).singleElement().asString().contains("already exists");
+    }
+
+    @Test
+    @DisplayName("Should reject only the entries of malformed lines and default the period from the entry date")
+    void shouldRejectMalformedLines() {
+        // Given - a CSV line with a missing column, an NDJSON line that is not JSON and one without a period
+        String csv = HEADER + "\n" +
+                csvLine("JE-" + prefix + "-1", prefix + "-6300", "100.00", "", "D-" + prefix) +
+                "JE-" + prefix + "-1," + LocalDate.now() + ",MANUAL\n" +
+                csvLine("JE-" + prefix + "-1", prefix + "-2710", "", "100.00", "") +
+                csvLine("JE-" + prefix + "-2", prefix + "-6300", "40.00", "", "D-" + prefix) +
+                csvLine("JE-" + prefix + "-2", prefix + "-2710", "", "40.00", "");
+        String ndjson = jsonLine("JE-" + prefix + "-3", prefix + "-6300", "60.00", null, "D-" + prefix) +
+                "{\"entryNumber\": \"JE-" + prefix + "-3\", \"accountCode\": \n" +
+                jsonLine("JE-" + prefix + "-3", prefix + "-2710", null, "60.00", null) +
+                jsonLine("JE-" + prefix + "-4", prefix + "-6300", "70.00", null, "D-" + prefix)
+                        .replace("\"budgetPeriodCode\":\"P-" + prefix + "\",", "") +
+                jsonLine("JE-" + prefix + "-4", prefix + "-2710", null, "70.00", null)
+                        .replace("\"budgetPeriodCode\":\"P-" + prefix + "\",", "");
+
+        // When
+        JournalEntryImportResponse csvResult = runImport(csv, ImportFormat.CSV, false);
+        JournalEntryImportResponse ndjsonResult = runImport(ndjson, ImportFormat.NDJSON, false);
+
+        // Then
+        assertThat(csvResult.getTotalLines()).isEqualTo(5);
+        assertThat(csvResult.getImportedEntries()).isEqualTo(1);
+        assertThat(csvResult.getErrors()).singleElement().asString()
+                .contains("JE-" + prefix + "-1", "row 2: invalid CSV");
+        assertThat(ndjsonResult.getTotalLines()).isEqualTo(5);
+        assertThat(ndjsonResult.getImportedEntries()).isEqualTo(1);
+        assertThat(ndjsonResult.getErrors()).singleElement().asString()
+                .contains("JE-" + prefix + "-3", "row 2: invalid JSON");
+        assertThat(journalEntryRepository.existsByEntryNumber("JE-" + prefix + "-1")).isFalse();
+        assertThat(journalEntryRepository.existsByEntryNumber("JE-" + prefix + "-3")).isFalse();
+        assertThat(journalEntryRepository.findByEntryNumber("JE-" + prefix + "-4").orElseThrow().getBudgetPeriod())
+                .isNotNull();
+    }
+
+    private JournalEntryImportResponse runImport(String content, ImportFormat format, boolean post) {
+        return importService.importEntries(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                format, post, JournalEntryImportResponse.builder().fileName("entries").build());
+    }
+
+    private String csvLine(String entryNumber, String accountCode, String debit, String credit, String department) {
+        return String.join(",", entryNumber, LocalDate.now().toString(), "MANUAL", "Month-end accrual",
+                "P-" + prefix, accountCode, debit, credit, "", department, "", "") + "\n";
+    }
+
+    private String jsonLine(String entryNumber, String accountCode, String debit, String credit, String department) {
+        return "{\"entryNumber\":\"" + entryNumber + "\",\"entryDate\":\"" + LocalDate.now() + "\"," +
+                "\"budgetPeriodCode\":\"P-" + prefix + "\",\"accountCode\":\"" + accountCode + "\"," +
+                (debit != null ? "\"debitAmount\":" + debit + "," : "") +
+                (credit != null ? "\"creditAmount\":" + credit + "," : "") +
+                (department != null ? "\"departmentCode\":\"" + department + "\"," : "") +
+                "\"description\":\"Month-end accrual\"}\n";
+    }
+}
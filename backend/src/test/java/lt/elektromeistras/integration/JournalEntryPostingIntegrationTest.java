@@ -0,0 +1,211 @@
+package lt.elektromeistras.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.domain.JournalEntry;
+import lt.elektromeistras.domain.JournalEntryLine;
+import lt.elektromeistras.repository.GLAccountRepository;
+import lt.elektromeistras.repository.GLAccountBalanceDeltaRepository;
+import lt.elektromeistras.repository.JournalEntryRepository;
+import lt.elektromeistras.service.GLAccountBalanceLedger;
+import lt.elektromeistras.service.JournalEntryService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Single-step journal entry posting: validation in memory, header and lines inserted together,
+ * one balance stripe update per account, stripes folded into the base balance by the compactor.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("Journal Entry Posting Integration Tests")
+class JournalEntryPostingIntegrationTest {
+
+    @Autowired
+    private JournalEntryService journalEntryService;
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private GLAccountRepository glAccountRepository;
+
+    @Autowired
+    private GLAccountBalanceDeltaRepository deltaRepository;
+
+    @Autowired
+    private GLAccountBalanceLedger balanceLedger;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String prefix;
+    private GLAccount receivable;
+    private GLAccount revenue;
+    private GLAccount vatPayable;
+
+    @BeforeEach
+    void setUp() {
+        prefix = UUID.randomUUID().toString().substring(0, 8);
+        receivable = createAccount("1300", GLAccount.AccountType.ASSET, GLAccount.NormalBalance.DEBIT);
+        revenue = createAccount("4000", GLAccount.AccountType.REVENUE, GLAccount.NormalBalance.CREDIT);
+        vatPayable = createAccount("2410", GLAccount.AccountType.LIABILITY, GLAccount.NormalBalance.CREDIT);
+    }
+
+    @Test
+    @DisplayName("Should post header, lines and balances in one call")
+    void shouldPostBalancedEntry() {
+        // When
+        JournalEntry posted = journalEntryService.postBalancedEntry(header("JE-" + prefix), orderLines());
+
+        // Then
+        JournalEntry stored = journalEntryRepository.findByEntryNumber("JE-" + prefix).orElseThrow();
+        assertThat(stored.getId()).isEqualTo(posted.getId());
+        assertThat(stored.getStatus()).isEqualTo(JournalEntry.EntryStatus.POSTED);
+        assertThat(stored.getTotalDebit()).isEqualByComparingTo("121.00");
+        assertThat(stored.getTotalCredit()).isEqualByComparingTo("121.00");
+        assertThat(balance(receivable)).isEqualByComparingTo("121.00");
+        assertThat(balance(revenue)).isEqualByComparingTo("100.00");
+        assertThat(balance(vatPayable)).isEqualByComparingTo("21.00");
+    }
+
+    @Test
+    @DisplayName("Should reject an unbalanced entry without writing anything")
+    void shouldRejectUnbalancedEntry() {
+        // Given
+        List<JournalEntryLine> lines = List.of(
+                line(receivable, "121.00", "0"),
+                line(revenue, "0", "100.00"));
+
+        // When / Then
+        assertThatThrownBy(() -> journalEntryService.postBalancedEntry(header("JE-" + prefix), lines))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("not balanced");
+        assertThat(journalEntryRepository.findByEntryNumber("JE-" + prefix)).isEmpty();
+        assertThat(balance(receivable)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Should fold balance stripes into the base balance without changing the posted balance")
+    void shouldCompactStripesIntoBaseBalance() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            journalEntryService.postBalancedEntry(header("JE-" + prefix + "-" + i), orderLines());
+        }
+        assertThat(balance(receivable)).isEqualByComparingTo("605.00");
+
+        // When
+        balanceLedger.compact();
+
+        // Then
+        GLAccount compacted = glAccountRepository.findById(receivable.getId()).orElseThrow();
+        assertThat(compacted.getBaseBalance()).isEqualByComparingTo("605.00");
+        assertThat(compacted.getCurrentBalance()).isEqualByComparingTo("605.00");
+        assertThat(balance(vatPayable)).isEqualByComparingTo("105.00");
+        assertThat(deltaRepository.findPendingByAccountId(receivable.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should use fewer statements than the create/add/validate/post workflow")
+    void shouldUseFewerStatementsThanWorkflow() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Previous workflow, accounts already loaded as GLPostingService does
+        statistics.clear();
+        transaction.executeWithoutResult(status -> {
+            loadAccounts();
+            JournalEntry entry = journalEntryService.createJournalEntry(header("JE-" + prefix + "-A"));
+            for (JournalEntryLine line : orderLines()) {
+                entry = journalEntryService.addJournalEntryLine(entry.getId(), line);
+            }
+            journalEntryService.validateJournalEntry(entry.getId());
+            journalEntryService.postJournalEntry(entry.getId(), null);
+        });
+        long workflowStatements = statistics.getPrepareStatementCount();
+
+        // Single step
+        statistics.clear();
+        transaction.executeWithoutResult(status -> {
+            loadAccounts();
+            journalEntryService.postBalancedEntry(header("JE-" + prefix + "-B"), orderLines());
+        });
+        long singleStepStatements = statistics.getPrepareStatementCount();
+
+        System.out.printf("journal entry posting: workflow %d statements, single step %d statements%n",
+                workflowStatements, singleStepStatements);
+
+        // 3 account loads, header insert, batched line insert, 3 balance stripe updates
+        assertThat(singleStepStatements).isLessThanOrEqualTo(8);
+        assertThat(singleStepStatements).isLessThan(workflowStatements);
+        assertThat(balance(receivable)).isEqualByComparingTo("242.00");
+    }
+
+    private void loadAccounts() {
+        receivable = glAccountRepository.findByCode(receivable.getCode()).orElseThrow();
+        revenue = glAccountRepository.findByCode(revenue.getCode()).orElseThrow();
+        vatPayable = glAccountRepository.findByCode(vatPayable.getCode()).orElseThrow();
+    }
+
+    private List<JournalEntryLine> orderLines() {
+        return List.of(
+                line(receivable, "121.00", "0"),
+                line(revenue, "0", "100.00"),
+                line(vatPayable, "0", "21.00"));
+    }
+
+    private JournalEntry header(String entryNumber) {
+        return JournalEntry.builder()
+                .entryNumber(entryNumber)
+                .entryDate(LocalDate.now())
+                .entryType(JournalEntry.EntryType.AUTOMATIC)
+                .sourceType(JournalEntry.SourceType.ORDER)
+                .description("Sales order")
+                .build();
+    }
+
+    private JournalEntryLine line(GLAccount account, String debit, String credit) {
+        return JournalEntryLine.builder()
+                .glAccount(account)
+                .debitAmount(new BigDecimal(debit))
+                .creditAmount(new BigDecimal(credit))
+                .build();
+    }
+
+    private GLAccount createAccount(String code, GLAccount.AccountType type, GLAccount.NormalBalance normalBalance) {
+        return glAccountRepository.save(GLAccount.builder()
+                .code(prefix + "-" + code)
+                .name("Account " + code)
+                .accountType(type)
+                .accountCategory(switch (type) {
+                    case ASSET -> GLAccount.AccountCategory.CURRENT_ASSET;
+                    case LIABILITY -> GLAccount.AccountCategory.CURRENT_LIABILITY;
+                    default -> GLAccount.AccountCategory.OPERATING_REVENUE;
+                })
+                .normalBalance(normalBalance)
+                .build());
+    }
+
+    private BigDecimal balance(GLAccount account) {
+        return glAccountRepository.findById(account.getId()).orElseThrow().getCurrentBalance();
+    }
+}
@@ -0,0 +1,113 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.Product;
+import lt.elektromeistras.repository.ProductRepository;
+import lt.elektromeistras.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranked product search: same matches and ranking as the previous JPQL search,
+ * limited in the database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Product Search Integration Tests")
+class ProductSearchIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        key = "q" + UUID.randomUUID().toString().substring(0, 6);
+
+        // Saved in reverse rank order so insertion order cannot fake the ranking
+        createProduct("N-" + UUID.randomUUID(), null, null, "Aaa name with " + key, true);
+        createProduct("E-" + UUID.randomUUID(), null, key, "Ean match", true);
+        createProduct("S-" + UUID.randomUUID(), key, null, "Sku match", true);
+        createProduct(key + "-001", null, null, "Prefix match", true);
+        createProduct(key, null, null, "Exact match", true);
+        createProduct(key + "-INACTIVE", null, null, "Inactive", false);
+    }
+
+    @Test
+    @DisplayName("Should rank exact code, code prefix, SKU, EAN, then other matches")
+    void shouldKeepRanking() {
+        // When
+        List<Product> results = productService.searchProducts(key.toUpperCase());
+
+        // Then
+        assertThat(results).extracting(Product::getName)
+                .containsExactly("Exact match", "Prefix match", "Sku match", "Ean match", "Aaa name with " + key);
+        assertThat(results).extracting(Product::getCode)
+                .containsExactlyElementsOf(productRepository.searchProducts(key).stream().map(Product::getCode).toList());
+    }
+
+    @Test
+    @DisplayName("Should limit results to 20")
+    void shouldLimitResults() {
+        // Given
+        for (int i = 0; i < 25; i++) {
+            createProduct(key + "-L" + i, null, null, "Limited " + i, true);
+        }
+
+        // When
+        List<Product> results = productService.searchProducts(key);
+
+        // Then
+        assertThat(results).hasSize(20);
+        assertThat(results.get(0).getCode()).isEqualTo(key);
+    }
+
+    @Test
+    @DisplayName("Should treat LIKE wildcards in the query literally")
+    void shouldEscapeWildcards() {
+        assertThat(productService.searchProducts(key.substring(0, 3) + "%")).isEmpty();
+        assertThat(productService.searchProducts(key.charAt(0) + "_" + key.substring(2))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should page case-insensitive matches and treat LIKE wildcards literally")
+    void shouldSearchPaginated() {
+        // When
+        Page<Product> firstPage = productService.searchProducts(key.toUpperCase(), PageRequest.of(0, 3, Sort.by("code")));
+        Page<Product> wildcard = productService.searchProducts(key.substring(0, 3) + "%", PageRequest.of(0, 3));
+
+        // Then
+        assertThat(firstPage.getTotalElements()).isEqualTo(5);
+        assertThat(firstPage.getContent()).hasSize(3);
+        assertThat(wildcard.getTotalElements()).isZero();
+    }
+
+    private void createProduct(String code, String sku, String ean, String name, boolean active) {
+        Product product = new Product();
+        product.setCode(code);
+        product.setSku(sku);
+        product.setEan(ean);
+        product.setName(name);
+        product.setBasePrice(BigDecimal.TEN);
+        product.setIsActive(active);
+        productRepository.save(product);
+    }
+}
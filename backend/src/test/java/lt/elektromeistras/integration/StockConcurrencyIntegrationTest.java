@@ -0,0 +1,122 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.*;
+import lt.elektromeistras.repository.ProductRepository;
+import lt.elektromeistras.repository.ProductStockRepository;
+import lt.elektromeistras.repository.WarehouseRepository;
+import lt.elektromeistras.service.StockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrency stress test for stock counters.
+ * Hammers one SKU from many threads and checks that no update is lost.
+ * Not transactional: every stock operation commits on its own, as it does at the counter.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Stock Concurrency Integration Tests")
+class StockConcurrencyIntegrationTest {
+
+    private static final int THREADS = 64;
+    private static final int ITERATIONS_PER_THREAD = 25;
+    private static final BigDecimal INITIAL_QUANTITY = BigDecimal.valueOf(10_000);
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductStockRepository stockRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    private Warehouse warehouse;
+    private Product product;
+    private ProductStock stock;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        warehouse = new Warehouse();
+        warehouse.setCode("STRESS-" + suffix);
+        warehouse.setName("Stress test warehouse");
+        warehouse = warehouseRepository.save(warehouse);
+
+        product = new Product();
+        product.setCode("STRESS-" + suffix);
+        product.setSku("STRESS-SKU-" + suffix);
+        product.setName("Hot SKU");
+        product.setBasePrice(BigDecimal.TEN);
+        product = productRepository.save(product);
+
+        stock = new ProductStock();
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        stock.setQuantity(INITIAL_QUANTITY);
+        stock = stockRepository.save(stock);
+    }
+
+    @Test
+    @DisplayName("Should keep exact quantity when 64 threads sell and restock one SKU")
+    void shouldKeepExactQuantityUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+                    Order sale = createOrder(BigDecimal.ONE);
+                    stockService.reserveStock(sale);
+                    stockService.commitStock(sale);
+                    stockService.adjustStock(product.getId(), warehouse.getId(), BigDecimal.valueOf(2), "Stress restock");
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        int operations = THREADS * ITERATIONS_PER_THREAD;
+        ProductStock result = stockRepository.findById(stock.getId()).orElseThrow();
+        assertThat(result.getQuantity())
+                .isEqualByComparingTo(INITIAL_QUANTITY.subtract(BigDecimal.valueOf(operations))
+                        .add(BigDecimal.valueOf(2L * operations)));
+        assertThat(result.getReservedQuantity()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(result.getVersion()).isEqualTo(3L * operations);
+    }
+
+    private Order createOrder(BigDecimal quantity) {
+        Order order = new Order();
+        order.setOrderNumber("STRESS-" + UUID.randomUUID());
+        order.setWarehouse(warehouse);
+
+        OrderLine line = new OrderLine();
+        line.setProduct(product);
+        line.setQuantity(quantity);
+        order.addOrderLine(line);
+        return order;
+    }
+}
@@ -0,0 +1,192 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.Product;
+import lt.elektromeistras.domain.ProductStock;
+import lt.elektromeistras.domain.Warehouse;
+import lt.elektromeistras.dto.response.ImportResultResponse;
+import lt.elektromeistras.repository.ProductRepository;
+import lt.elektromeistras.repository.ProductStockRepository;
+import lt.elektromeistras.repository.WarehouseRepository;
+import lt.elektromeistras.service.SupplierInventoryImportService;
+import lt.elektromeistras.service.SupplierInventoryImportService.ImportMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Diff mode supplier import: rows unchanged since the last import are skipped, changed rows
+ * update the product and move stock by the quantity difference. A difference that would take
+ * stock below its reserved quantity is reported and retried by the next import.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Supplier Import Diff Mode Integration Tests")
+class SupplierImportDiffIntegrationTest {
+
+    private static final int ROWS = 1000;
+
+    private static final String HEADER = "Padalinio kodas,Padalinys,Padalinio Nr.,Grupės kodas,Grupės pavadinimas," +
+            "Balanso sąskaita,PVM %,Pogrupio kodas,Pogrupio pavadinimas,Mat.vnt,Brūkšninis kodas,Specifikacija," +
+            "Pajamavimo data,Pajamavimo kaina EUR,Didmeninė kaina,Mažmeninė kaina,Kiekis,Suma EUR," +
+            "Tiekėjo kodas,Tiekėjo pavadinimas";
+
+    @Autowired
+    private SupplierInventoryImportService importService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockRepository stockRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    private String prefix;
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        prefix = UUID.randomUUID().toString().substring(0, 8) + "-";
+
+        warehouse = new Warehouse();
+        warehouse.setCode("DIFF-" + prefix);
+        warehouse.setName("Diff import warehouse");
+        warehouse = warehouseRepository.save(warehouse);
+    }
+
+    @Test
+    @DisplayName("Should skip unchanged rows without writing")
+    void shouldSkipUnchangedRows() {
+        // Given
+        byte[] csv = generateCsv(Map.of());
+        ImportResultResponse first = runImport(csv, 1);
+        Product before = productRepository.findByCode(prefix + 7).orElseThrow();
+
+        // When
+        ImportResultResponse second = runImport(csv, 1);
+
+        // Then
+        assertThat(first.getCreatedProducts()).isEqualTo(ROWS);
+        assertThat(second.getStatus()).isEqualTo("SUCCESS");
+        assertThat(second.getProcessedRows()).isEqualTo(ROWS);
+        assertThat(second.getUnchangedRows()).isEqualTo(ROWS);
+        assertThat(second.getCreatedProducts()).isZero();
+        assertThat(second.getUpdatedProducts()).isZero();
+        assertThat(second.getUpdatedStock()).isZero();
+
+        Product after = productRepository.findByCode(prefix + 7).orElseThrow();
+        assertThat(after.getUpdatedAt()).isEqualTo(before.getUpdatedAt());
+        assertThat(stockQuantity(prefix + 7)).isEqualByComparingTo("5");
+    }
+
+    @Test
+    @DisplayName("Should update changed rows and move stock by the quantity difference")
+    void shouldApplyOnlyChangedRows() {
+        // Given
+        runImport(generateCsv(Map.of()), 1);
+
+        // When - row 3 gets a new price, row 4 a new quantity
+        ImportResultResponse result = runImport(generateCsv(Map.of(3, "3.10,5.00", 4, "2.90,8.00")), 1);
+
+        // Then
+        assertThat(result.getUnchangedRows()).isEqualTo(ROWS - 2);
+        assertThat(result.getUpdatedProducts()).isEqualTo(2);
+        assertThat(result.getUpdatedStock()).isEqualTo(1);
+
+        assertThat(productRepository.findByCode(prefix + 3).orElseThrow().getBasePrice()).isEqualByComparingTo("3.10");
+        assertThat(stockQuantity(prefix + 3)).isEqualByComparingTo("5");
+        assertThat(stockQuantity(prefix + 4)).isEqualByComparingTo("8");
+    }
+
+    @Test
+    @DisplayName("Should not take stock below reserved and keep the row for the next import")
+    void shouldKeepReservedStock() {
+        // Given - 4 of the 5 units of row 5 are reserved
+        runImport(generateCsv(Map.of()), 1);
+        setReservedQuantity(prefix + 5, "4");
+
+        // When - the supplier now reports 2 units
+        byte[] csv = generateCsv(Map.of(5, "2.90,2.00"));
+        ImportResultResponse rejected = runImport(csv, 1);
+        setReservedQuantity(prefix + 5, "0");
+        ImportResultResponse retried = runImport(csv, 1);
+
+        // Then - the first import left the stock as it was, the second applied the difference
+        assertThat(rejected.getUpdatedStock()).isZero();
+        assertThat(rejected.getWarnings()).singleElement().asString().contains(prefix + 5);
+        assertThat(retried.getUnchangedRows()).isEqualTo(ROWS - 1);
+        assertThat(retried.getUpdatedStock()).isEqualTo(1);
+        assertThat(retried.getWarnings()).isEmpty();
+        assertThat(stockQuantity(prefix + 5)).isEqualByComparingTo("2");
+    }
+
+    @Test
+    @DisplayName("Should diff the same way in partitioned imports")
+    void shouldDiffInPartitionedImport() {
+        // Given
+        byte[] csv = generateCsv(Map.of());
+        runImport(csv, 4);
+
+        // When
+        ImportResultResponse result = runImport(csv, 4);
+
+        // Then
+        assertThat(result.getUnchangedRows()).isEqualTo(ROWS);
+        assertThat(result.getPartitions().stream().mapToInt(ImportResultResponse.PartitionResult::getUnchangedRows).sum())
+                .isEqualTo(ROWS);
+    }
+
+    private BigDecimal stockQuantity(String productCode) {
+        return stockRepository.findByWarehouseIdAndProductCode(warehouse.getId(), productCode)
+                .orElseThrow()
+                .getQuantity();
+    }
+
+    private void setReservedQuantity(String productCode, String reserved) {
+        ProductStock stock = stockRepository.findByWarehouseIdAndProductCode(warehouse.getId(), productCode)
+                .orElseThrow();
+        stock.setReservedQuantity(new BigDecimal(reserved));
+        stockRepository.save(stock);
+    }
+
+    private ImportResultResponse runImport(byte[] csv, int partitions) {
+        ImportResultResponse result = ImportResultResponse.builder()
+                .fileName("diff.csv")
+                .totalBytes((long) csv.length)
+                .build();
+        if (partitions > 1) {
+            return importService.importFromCsvPartitioned(new ByteArrayInputStream(csv), result, warehouse.getCode(),
+                    ImportMode.DIFF, partitions, progress -> { });
+        }
+        return importService.importFromCsv(new ByteArrayInputStream(csv), result, warehouse.getCode(),
+                ImportMode.DIFF, progress -> { });
+    }
+
+    /**
+     * @param priceAndQuantity Retail price and quantity overrides by row index, e.g. "3.10,5.00"
+     */
+    private byte[] generateCsv(Map<Integer, String> priceAndQuantity) {
+        StringBuilder csv = new StringBuilder().append(HEADER).append('\n');
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("001,UAB \"LITNESTA\",1,")
+                    .append(prefix).append("G,Group,20140,21,")
+                    .append(prefix).append(i).append(",Product ").append(i).append(",vnt,")
+                    .append(",,2024.01.15,1.50,2.40,")
+                    .append(priceAndQuantity.getOrDefault(i, "2.90,5.00")).append(",7.50,")
+                    .append(prefix).append("S,Supplier").append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
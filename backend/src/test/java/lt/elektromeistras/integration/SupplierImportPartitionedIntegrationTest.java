@@ -0,0 +1,147 @@
+package lt.elektromeistras.integration;
+
+import lt.elektromeistras.domain.Warehouse;
+import lt.elektromeistras.dto.response.ImportResultResponse;
+import lt.elektromeistras.repository.ProductCategoryRepository;
+import lt.elektromeistras.repository.ProductRepository;
+import lt.elektromeistras.repository.WarehouseRepository;
+import lt.elektromeistras.service.SupplierInventoryImportService;
+import lt.elektromeistras.service.SupplierInventoryImportService.ImportMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partitioned supplier import: rows are spread over worker threads, every partition commits
+ * its own batches.
+ * Not transactional: partitions commit on their own worker threads.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Partitioned Supplier Import Integration Tests")
+class SupplierImportPartitionedIntegrationTest {
+
+    private static final int ROWS = 3000;
+    private static final int CATEGORIES = 20;
+    private static final int PARTITIONS = 4;
+
+    private static final String HEADER = "Padalinio kodas,Padalinys,Padalinio Nr.,Grupės kodas,Grupės pavadinimas," +
+            "Balanso sąskaita,PVM %,Pogrupio kodas,Pogrupio pavadinimas,Mat.vnt,Brūkšninis kodas,Specifikacija," +
+            "Pajamavimo data,Pajamavimo kaina EUR,Didmeninė kaina,Mažmeninė kaina,Kiekis,Suma EUR," +
+            "Tiekėjo kodas,Tiekėjo pavadinimas";
+
+    @Autowired
+    private SupplierInventoryImportService importService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCategoryRepository categoryRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    private String prefix;
+    private String warehouseCode;
+
+    @BeforeEach
+    void setUp() {
+        prefix = UUID.randomUUID().toString().substring(0, 8) + "-";
+
+        warehouseCode = "PART-" + prefix;
+        Warehouse warehouse = new Warehouse();
+        warehouse.setCode(warehouseCode);
+        warehouse.setName("Partitioned import warehouse");
+        warehouseRepository.save(warehouse);
+    }
+
+    @Test
+    @DisplayName("Should import all rows and aggregate per-partition statistics")
+    void shouldImportAllRowsAcrossPartitions() {
+        // Given
+        byte[] csv = generateCsv(-1);
+
+        // When
+        ImportResultResponse result = runImport(csv);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo("SUCCESS");
+        assertThat(result.getTotalRows()).isEqualTo(ROWS);
+        assertThat(result.getProcessedRows()).isEqualTo(ROWS);
+        assertThat(result.getCreatedProducts()).isEqualTo(ROWS);
+        assertThat(result.getCreatedStock()).isEqualTo(ROWS);
+
+        assertThat(result.getPartitions()).hasSize(PARTITIONS);
+        assertThat(result.getPartitions()).allSatisfy(partition -> {
+            assertThat(partition.getProcessedRows()).isPositive();
+            assertThat(partition.getFailedBatches()).isZero();
+        });
+        assertThat(result.getPartitions().stream().mapToInt(ImportResultResponse.PartitionResult::getProcessedRows).sum())
+                .isEqualTo(ROWS);
+
+        // Shared categories were created once, not once per partition
+        for (int i = 0; i < CATEGORIES; i++) {
+            assertThat(categoryRepository.findByCode(prefix + "G" + i)).isPresent();
+        }
+        assertThat(productRepository.findByCode(prefix + 0)).isPresent();
+        assertThat(productRepository.findByCode(prefix + (ROWS - 1))).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should roll back only the failing partition batch")
+    void shouldRollBackOnlyFailingBatch() {
+        // Given - product name longer than the column, fails on flush
+        int badRow = 1234;
+        byte[] csv = generateCsv(badRow);
+
+        // When
+        ImportResultResponse result = runImport(csv);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo("PARTIAL");
+        assertThat(result.getPartitions()).filteredOn(partition -> partition.getFailedBatches() > 0).hasSize(1);
+        assertThat(result.getProcessedRows() + result.getErrorRows()).isEqualTo(ROWS);
+        assertThat(result.getErrorRows()).isPositive().isLessThan(ROWS / PARTITIONS + 1);
+        assertThat(result.getErrors()).anyMatch(error -> error.contains("rolled back"));
+
+        assertThat(productRepository.findByCode(prefix + badRow)).isEmpty();
+        long committed = IntStream.range(0, ROWS)
+                .filter(i -> productRepository.findByCode(prefix + i).isPresent())
+                .count();
+        assertThat(committed).isEqualTo(result.getProcessedRows().longValue());
+    }
+
+    private ImportResultResponse runImport(byte[] csv) {
+        ImportResultResponse result = ImportResultResponse.builder()
+                .fileName("partitioned.csv")
+                .totalBytes((long) csv.length)
+                .build();
+        return importService.importFromCsvPartitioned(new ByteArrayInputStream(csv), result, warehouseCode,
+                ImportMode.SKIP_EXISTING, PARTITIONS, progress -> { });
+    }
+
+    private byte[] generateCsv(int badRow) {
+        StringBuilder csv = new StringBuilder().append(HEADER).append('\n');
+        for (int i = 0; i < ROWS; i++) {
+            String name = i == badRow ? "X".repeat(600) : "Product " + i;
+            int category = i % CATEGORIES;
+            csv.append("001,UAB \"LITNESTA\",1,")
+                    .append(prefix).append('G').append(category).append(",Group ").append(category).append(",20140,21,")
+                    .append(prefix).append(i).append(',').append(name).append(",vnt,")
+                    .append(",,2024.01.15,1.50,2.40,2.90,5.00,7.50,")
+                    .append(prefix).append("S,Supplier").append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,131 @@
+package lt.elektromeistras.security;
+
+import lt.elektromeistras.domain.Permission;
+import lt.elektromeistras.domain.Role;
+import lt.elektromeistras.domain.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("JwtAuthenticationFilter Unit Tests")
+class JwtAuthenticationFilterTest {
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache tokenCache;
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(createJwtUtil(3_600_000L));
+        tokenCache = new VerifiedTokenCache(100);
+        filter = new JwtAuthenticationFilter(jwtUtil, tokenCache);
+        user = createUser();
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should authenticate access token with its permissions")
+    void shouldAuthenticateAccessToken() throws Exception {
+        // Given
+        String token = jwtUtil.generateAccessToken(user);
+
+        // When
+        Authentication authentication = filterRequest(token);
+
+        // Then
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isEqualTo("jonas");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ORDER_VIEW", "ORDER_CREATE");
+    }
+
+    @Test
+    @DisplayName("Should parse token once and serve repeat requests from cache")
+    void shouldVerifyTokenOnce() throws Exception {
+        // Given
+        String token = jwtUtil.generateAccessToken(user);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            SecurityContextHolder.clearContext();
+            assertThat(filterRequest(token)).isNotNull();
+        }
+
+        // Then
+        verify(jwtUtil, times(1)).parseVerifiedClaims(anyString());
+        assertThat(tokenCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject tampered, expired and refresh tokens")
+    void shouldRejectInvalidTokens() throws Exception {
+        String token = jwtUtil.generateAccessToken(user);
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char flipped = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signatureStart) + flipped + token.substring(signatureStart + 1);
+        String expired = createJwtUtil(-1000L).generateAccessToken(user);
+        String refresh = jwtUtil.generateRefreshToken(user);
+
+        assertThat(filterRequest(tampered)).isNull();
+        assertThat(filterRequest(expired)).isNull();
+        assertThat(filterRequest(refresh)).isNull();
+        assertThat(tokenCache.size()).isZero();
+    }
+
+    private Authentication filterRequest(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    static JwtUtil createJwtUtil(long expirationMs) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-key-for-testing-purposes-only-minimum-256-bits-required");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expirationMs);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 604_800_000L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static User createUser() {
+        Permission view = new Permission();
+        view.setCode("ORDER_VIEW");
+        Permission create = new Permission();
+        create.setCode("ORDER_CREATE");
+
+        Role role = new Role();
+        role.setCode("SALES");
+        role.setPermissions(Set.of(view, create));
+
+        return User.builder()
+                .id(UUID.randomUUID())
+                .username("jonas")
+                .email("jonas@example.com")
+                .roles(Set.of(role))
+                .build();
+    }
+}
@@ -0,0 +1,350 @@
+package lt.elektromeistras.service;
+
+import lt.elektromeistras.domain.*;
+import lt.elektromeistras.repository.*;
+import lt.elektromeistras.repository.JournalEntryLineRepository.AccountActualView;
+import lt.elektromeistras.repository.BudgetLineRepository.BudgetedAccountView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BudgetVarianceService
+ * Tests cover:
+ * - Actuals from one grouped query over the budget period's dates for all budget lines
+ * - Lines with and without department / cost center
+ * - Absolute actuals for expense accounts
+ * - Incremental runs recalculating only lines with postings since the last run
+ * - Dated snapshots next to the current rows
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BudgetVarianceService Unit Tests")
+class BudgetVarianceServiceTest {
+
+    @Mock
+    private BudgetVarianceRepository budgetVarianceRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private BudgetLineRepository budgetLineRepository;
+
+    @Mock
+    private JournalEntryLineRepository journalEntryLineRepository;
+
+    @Mock
+    private GLAccountRepository glAccountRepository;
+
+    @Mock
+    private BudgetVarianceDirtyKeyRepository dirtyKeyRepository;
+
+    @InjectMocks
+    private BudgetVarianceService budgetVarianceService;
+
+    private BudgetPeriod period;
+    private Budget budget;
+    private GLAccount revenue;
+    private GLAccount expense;
+    private Department sales;
+    private Department service;
+    private CostCenter vilnius;
+
+    @BeforeEach
+    void setUp() {
+        period = BudgetPeriod.builder()
+                .code("FY" + LocalDate.now().getYear())
+                .startDate(LocalDate.now().withDayOfYear(1))
+                .endDate(LocalDate.now().withDayOfYear(1).plusYears(1).minusDays(1))
+                .build();
+        period.setId(UUID.randomUUID());
+        budget = Budget.builder()
+                .code("B-1")
+                .budgetPeriod(period)
+                .status(Budget.BudgetStatus.ACTIVE)
+                .build();
+        budget.setId(UUID.randomUUID());
+
+        revenue = account(GLAccount.AccountType.REVENUE);
+        expense = account(GLAccount.AccountType.EXPENSE);
+        sales = new Department();
+        sales.setId(UUID.randomUUID());
+        service = new Department();
+        service.setId(UUID.randomUUID());
+        vilnius = new CostCenter();
+        vilnius.setId(UUID.randomUUID());
+
+        lenient().when(budgetRepository.findById(budget.getId())).thenReturn(Optional.of(budget));
+    }
+
+    @Test
+    @DisplayName("Should match grouped actuals to lines by department and cost center")
+    void shouldMatchGroupedActualsToLines() {
+        // Given
+        BudgetLine salesLine = line(revenue, sales, null, "-1000.00");
+        BudgetLine salesVilniusLine = line(revenue, sales, vilnius, "-400.00");
+        BudgetLine allRevenueLine = line(revenue, null, null, "-2000.00");
+        BudgetLine vilniusLine = line(revenue, null, vilnius, "-500.00");
+        when(budgetLineRepository.findByBudget(budget))
+                .thenReturn(List.of(salesLine, salesVilniusLine, allRevenueLine, vilniusLine));
+        when(journalEntryLineRepository.sumPostedAmounts(Set.of(revenue.getId()), period.getStartDate(), LocalDate.now())).thenReturn(List.of(
+                actual(revenue, sales, vilnius, "-300.00"),
+                actual(revenue, sales, null, "-600.00"),
+                actual(revenue, service, vilnius, "-50.00"),
+                actual(revenue, null, null, "-25.00")));
+
+        // When
+        List<BudgetVariance> variances = budgetVarianceService.calculateVariancesForBudget(budget.getId());
+
+        // Then
+        assertThat(variances).extracting(BudgetVariance::getActualAmount)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(
+                        new BigDecimal("-900.00"),
+                        new BigDecimal("-300.00"),
+                        new BigDecimal("-975.00"),
+                        new BigDecimal("-350.00"));
+        verify(journalEntryLineRepository, times(1)).sumPostedAmounts(anyCollection(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should use absolute actuals for expense accounts and zero when nothing was posted")
+    void shouldUseAbsoluteActualsForExpenses() {
+        // Given
+        BudgetLine expenseLine = line(expense, null, null, "300.00");
+        BudgetLine idleLine = line(revenue, service, null, "-100.00");
+        when(budgetLineRepository.findByBudget(budget)).thenReturn(List.of(expenseLine, idleLine));
+        when(journalEntryLineRepository.sumPostedAmounts(anyCollection(), any(), any()))
+                .thenReturn(List.of(actual(expense, null, null, "-120.00")));
+
+        // When
+        List<BudgetVariance> variances = budgetVarianceService.calculateVariancesForBudget(budget.getId());
+
+        // Then
+        assertThat(variances.get(0).getActualAmount()).isEqualByComparingTo("120.00");
+        assertThat(variances.get(1).getActualAmount()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Should sum actuals over the dates of a closed month budget")
+    void shouldSumActualsOverPeriodDates() {
+        // Given - last month's budget, its entries are stamped with the enclosing year period
+        LocalDate monthStart = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+        period.setPeriodType(BudgetPeriod.PeriodType.MONTH);
+        period.setStartDate(monthStart);
+        period.setEndDate(monthStart.plusMonths(1).minusDays(1));
+        BudgetLine expenseLine = line(expense, null, null, "300.00");
+        when(budgetLineRepository.findByBudget(budget)).thenReturn(List.of(expenseLine));
+        when(journalEntryLineRepository.sumPostedAmounts(Set.of(expense.getId()), monthStart, period.getEndDate()))
+                .thenReturn(List.of(actual(expense, null, null, "210.00")));
+
+        // When
+        List<BudgetVariance> variances = budgetVarianceService.calculateVariancesForBudget(budget.getId());
+
+        // Then
+        assertThat(variances).singleElement()
+                .satisfies(variance -> assertThat(variance.getActualAmount()).isEqualByComparingTo("210.00"));
+    }
+
+    @Test
+    @DisplayName("Should recalculate only lines with dirty keys and update them in place")
+    void shouldRecalculateOnlyTouchedLines() {
+        // Given
+        BudgetLine salesLine = line(revenue, sales, null, "-1000.00");
+        BudgetLine expenseLine = line(expense, null, null, "300.00");
+        when(budgetLineRepository.findByBudget(budget)).thenReturn(List.of(salesLine, expenseLine));
+        when(journalEntryLineRepository.sumPostedAmounts(anyCollection(), any(), any()))
+                .thenReturn(List.of(actual(revenue, sales, vilnius, "-400.00")));
+        budgetVarianceService.calculateVariancesForBudget(budget.getId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BudgetVariance>> saved = ArgumentCaptor.forClass(List.class);
+        verify(budgetVarianceRepository).saveAll(saved.capture());
+        List<BudgetVariance> current = saved.getValue();
+        BudgetVariance salesVariance = current.get(0);
+        BudgetVariance expenseVariance = current.get(1);
+        when(budgetVarianceRepository.findByBudgetAndIsSnapshotFalse(budget)).thenReturn(current);
+        BudgetVarianceDirtyKey dirtyKey = dirtyKey(revenue, sales, null, LocalDate.now());
+        when(dirtyKeyRepository.findByBudgetId(budget.getId())).thenReturn(List.of(dirtyKey));
+        when(journalEntryLineRepository.sumPostedAmounts(Set.of(revenue.getId()), period.getStartDate(), LocalDate.now()))
+                .thenReturn(List.of(actual(revenue, sales, vilnius, "-400.00"), actual(revenue, sales, null, "-250.00")));
+        clearInvocations(budgetVarianceRepository);
+
+        // When
+        List<BudgetVariance> variances = budgetVarianceService.calculateVariancesForBudget(budget.getId());
+
+        // Then
+        assertThat(variances).containsExactly(salesVariance, expenseVariance);
+        assertThat(salesVariance.getActualAmount()).isEqualByComparingTo("-650.00");
+        assertThat(expenseVariance.getActualAmount()).isEqualByComparingTo("0");
+        verify(budgetVarianceRepository).saveAll(List.of(salesVariance));
+        verify(dirtyKeyRepository).deleteAllInBatch(List.of(dirtyKey));
+        assertThat(budget.getVariancesCalculatedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should mark posted keys dirty for budgets whose period contains the entry date")
+    void shouldRecordPostedKeys() {
+        // Given - a second budget on the account covers only the next year
+        UUID nextYearBudgetId = UUID.randomUUID();
+        JournalEntry journalEntry = JournalEntry.builder()
+                .entryDate(LocalDate.now())
+                .build();
+        journalEntry.addJournalEntryLine(postedLine(revenue, sales, vilnius));
+        journalEntry.addJournalEntryLine(postedLine(revenue, sales, vilnius));
+        journalEntry.addJournalEntryLine(postedLine(expense, null, null));
+        when(budgetLineRepository.findBudgetedAccounts(eq(Set.of(revenue.getId(), expense.getId())), anyCollection(),
+                eq(LocalDate.now()), eq(LocalDate.now()))).thenReturn(List.of(
+                budgeted(budget.getId(), revenue, period.getStartDate(), period.getEndDate()),
+                budgeted(nextYearBudgetId, revenue, period.getEndDate().plusDays(1), period.getEndDate().plusYears(1))));
+
+        // When
+        budgetVarianceService.recordPosted(List.of(journalEntry));
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BudgetVarianceDirtyKey>> saved = ArgumentCaptor.forClass(List.class);
+        verify(dirtyKeyRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).singleElement().satisfies(key -> {
+            assertThat(key.getBudgetId()).isEqualTo(budget.getId());
+            assertThat(key.getGlAccountId()).isEqualTo(revenue.getId());
+            assertThat(key.getDepartmentId()).isEqualTo(sales.getId());
+            assertThat(key.getCostCenterId()).isEqualTo(vilnius.getId());
+            assertThat(key.getEntryDate()).isEqualTo(LocalDate.now());
+        });
+    }
+
+    @Test
+    @DisplayName("Should keep the dirty key of a future-dated entry until a run reaches its date")
+    void shouldCountFutureDatedEntryOnItsDate() {
+        // Given - a first run, then an entry posted five days ahead
+        LocalDate today = LocalDate.now();
+        period.setStartDate(today.minusDays(10));
+        period.setEndDate(today.plusDays(30));
+        BudgetLine salesLine = line(revenue, sales, null, "-1000.00");
+        when(budgetLineRepository.findByBudget(budget)).thenReturn(List.of(salesLine));
+        List<BudgetVariance> current = budgetVarianceService.calculateVariancesForBudget(budget.getId());
+        BudgetVariance salesVariance = current.get(0);
+        assertThat(salesVariance.getActualAmount()).isEqualByComparingTo("0");
+
+        when(budgetVarianceRepository.findByBudgetAndIsSnapshotFalse(budget)).thenReturn(current);
+        BudgetVarianceDirtyKey futureKey = dirtyKey(revenue, sales, null, today.plusDays(5));
+        when(dirtyKeyRepository.findByBudgetId(budget.getId())).thenReturn(List.of(futureKey));
+        when(journalEntryLineRepository.sumPostedAmounts(Set.of(revenue.getId()), period.getStartDate(), today.plusDays(5)))
+                .thenReturn(List.of(actual(revenue, sales, null, "-250.00")));
+
+        // When - a run today, then one once the entry date has come
+        budgetVarianceService.calculateVariancesForBudget(budget.getId(), false, LocalDateTime.now());
+        verify(dirtyKeyRepository, never()).deleteAllInBatch(anyIterable());
+        assertThat(salesVariance.getActualAmount()).isEqualByComparingTo("0");
+        budgetVarianceService.calculateVariancesForBudget(budget.getId(), false, LocalDateTime.now().plusDays(5));
+
+        // Then
+        assertThat(salesVariance.getActualAmount()).isEqualByComparingTo("-250.00");
+        verify(dirtyKeyRepository).deleteAllInBatch(List.of(futureKey));
+    }
+
+    @Test
+    @DisplayName("Should store a dated snapshot of every current row on request")
+    void shouldStoreSnapshots() {
+        // Given
+        BudgetLine expenseLine = line(expense, null, null, "300.00");
+        when(budgetLineRepository.findByBudget(budget)).thenReturn(List.of(expenseLine));
+        when(journalEntryLineRepository.sumPostedAmounts(anyCollection(), any(), any()))
+                .thenReturn(List.of(actual(expense, null, null, "-120.00")));
+
+        // When
+        List<BudgetVariance> variances = budgetVarianceService.calculateVariancesForBudget(budget.getId(), true);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BudgetVariance>> saved = ArgumentCaptor.forClass(List.class);
+        verify(budgetVarianceRepository, times(2)).saveAll(saved.capture());
+        assertThat(saved.getAllValues().get(0)).containsExactlyElementsOf(variances);
+        assertThat(saved.getAllValues().get(1)).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.getIsSnapshot()).isTrue();
+            assertThat(snapshot.getActualAmount()).isEqualByComparingTo("120.00");
+            assertThat(snapshot.getBudgetLine()).isSameAs(expenseLine);
+        });
+        assertThat(variances.get(0).getIsSnapshot()).isFalse();
+    }
+
+    private GLAccount account(GLAccount.AccountType type) {
+        GLAccount account = GLAccount.builder()
+                .code(type.name())
+                .accountType(type)
+                .normalBalance(type == GLAccount.AccountType.EXPENSE
+                        ? GLAccount.NormalBalance.DEBIT : GLAccount.NormalBalance.CREDIT)
+                .build();
+        account.setId(UUID.randomUUID());
+        return account;
+    }
+
+    private BudgetLine line(GLAccount account, Department department, CostCenter costCenter, String amount) {
+        BudgetLine budgetLine = BudgetLine.builder()
+                .budget(budget)
+                .glAccount(account)
+                .department(department)
+                .costCenter(costCenter)
+                .amount(new BigDecimal(amount))
+                .build();
+        budgetLine.setId(UUID.randomUUID());
+        budgetLine.setUpdatedAt(LocalDateTime.now().minusDays(1));
+        return budgetLine;
+    }
+
+    private BudgetVarianceDirtyKey dirtyKey(GLAccount account, Department department, CostCenter costCenter,
+                                            LocalDate entryDate) {
+        return BudgetVarianceDirtyKey.builder()
+                .budgetId(budget.getId())
+                .glAccountId(account.getId())
+                .departmentId(department != null ? department.getId() : null)
+                .costCenterId(costCenter != null ? costCenter.getId() : null)
+                .entryDate(entryDate)
+                .build();
+    }
+
+    private JournalEntryLine postedLine(GLAccount account, Department department, CostCenter costCenter) {
+        return JournalEntryLine.builder()
+                .glAccount(account)
+                .department(department)
+                .costCenter(costCenter)
+                .debitAmount(BigDecimal.TEN)
+                .build();
+    }
+
+    private BudgetedAccountView budgeted(UUID budgetId, GLAccount account, LocalDate startDate, LocalDate endDate) {
+        return new BudgetedAccountView() {
+            public UUID getBudgetId() { return budgetId; }
+            public UUID getGlAccountId() { return account.getId(); }
+            public LocalDate getStartDate() { return startDate; }
+            public LocalDate getEndDate() { return endDate; }
+        };
+    }
+
+    private AccountActualView actual(GLAccount account, Department department, CostCenter costCenter, String net) {
+        return new AccountActualView() {
+            public UUID getGlAccountId() { return account.getId(); }
+            public UUID getDepartmentId() { return department != null ? department.getId() : null; }
+            public UUID getCostCenterId() { return costCenter != null ? costCenter.getId() : null; }
+            public BigDecimal getNetAmount() { return new BigDecimal(net); }
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package lt.elektromeistras.service;
+
+import lt.elektromeistras.domain.Series;
+import lt.elektromeistras.repository.SeriesRepository;
+import lt.elektromeistras.service.DocumentNumberService.DocumentSeries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DocumentNumberService
+ * Tests cover:
+ * - Journal entries continuing an existing JOURNAL-type series
+ * - The application's own series created when there is nothing to adopt
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DocumentNumberService Unit Tests")
+class DocumentNumberServiceTest {
+
+    @Mock
+    private SeriesRepository seriesRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DocumentNumberService documentNumberService;
+
+    @BeforeEach
+    void setUp() {
+        documentNumberService = new DocumentNumberService(seriesRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should continue an existing JOURNAL-type series for journal entries")
+    void shouldAdoptExistingJournalSeries() {
+        // Given
+        Series existing = series("GL", "GL-");
+        when(seriesRepository.existsByCode("JOURNAL")).thenReturn(false);
+        when(seriesRepository.findFirstBySeriesTypeAndIsActiveTrueOrderByCodeAsc(Series.SeriesType.JOURNAL))
+                .thenReturn(Optional.of(existing));
+        when(seriesRepository.findByCode("GL")).thenReturn(Optional.of(existing));
+        when(seriesRepository.advance("GL", 1)).thenReturn(1);
+        when(seriesRepository.findCurrentNumber("GL")).thenReturn(Optional.of(42L), Optional.of(43L));
+
+        // When
+        String first = documentNumberService.next(DocumentSeries.JOURNAL);
+        String second = documentNumberService.next(DocumentSeries.JOURNAL);
+
+        // Then
+        assertThat(first).isEqualTo("GL-000042");
+        assertThat(second).isEqualTo("GL-000043");
+        verify(seriesRepository, never()).save(any());
+        verify(seriesRepository, times(1)).findFirstBySeriesTypeAndIsActiveTrueOrderByCodeAsc(Series.SeriesType.JOURNAL);
+    }
+
+    @Test
+    @DisplayName("Should create the JOURNAL series when no JOURNAL-type series exists")
+    void shouldCreateJournalSeriesWhenNoneExists() {
+        // Given
+        when(seriesRepository.existsByCode("JOURNAL")).thenReturn(false);
+        when(seriesRepository.findFirstBySeriesTypeAndIsActiveTrueOrderByCodeAsc(Series.SeriesType.JOURNAL))
+                .thenReturn(Optional.empty());
+        when(seriesRepository.findByCode("JOURNAL")).thenReturn(Optional.of(series("JOURNAL", "JE-")));
+        when(seriesRepository.advance("JOURNAL", 1)).thenReturn(1);
+        when(seriesRepository.findCurrentNumber("JOURNAL")).thenReturn(Optional.of(1L));
+
+        // When
+        String number = documentNumberService.next(DocumentSeries.JOURNAL);
+
+        // Then
+        assertThat(number).isEqualTo("JE-000001");
+        verify(seriesRepository).save(argThat(series -> "JOURNAL".equals(series.getCode())));
+    }
+
+    @Test
+    @DisplayName("Should keep using its own JOURNAL series once it exists")
+    void shouldPreferOwnJournalSeries() {
+        // Given
+        when(seriesRepository.existsByCode("JOURNAL")).thenReturn(true);
+        when(seriesRepository.findByCode("JOURNAL")).thenReturn(Optional.of(series("JOURNAL", "JE-")));
+        when(seriesRepository.advance("JOURNAL", 1)).thenReturn(1);
+        when(seriesRepository.findCurrentNumber("JOURNAL")).thenReturn(Optional.of(7L));
+
+        // When
+        String number = documentNumberService.next(DocumentSeries.JOURNAL);
+
+        // Then
+        assertThat(number).isEqualTo("JE-000007");
+        verify(seriesRepository, never()).findFirstBySeriesTypeAndIsActiveTrueOrderByCodeAsc(any());
+        verify(seriesRepository, never()).save(any());
+    }
+
+    private Series series(String code, String prefix) {
+        return Series.builder()
+                .code(code)
+                .name("Journal entries")
+                .seriesType(Series.SeriesType.JOURNAL)
+                .prefix(prefix)
+                .currentNumber(0L)
+                .blockSize(1)
+                .isGapless(false)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package lt.elektromeistras.service;
+
+import lt.elektromeistras.domain.BudgetPeriod;
+import lt.elektromeistras.domain.GLAccount;
+import lt.elektromeistras.repository.BudgetPeriodRepository;
+import lt.elektromeistras.repository.GLAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GLReferenceDataCache
+ * Tests cover:
+ * - Accounts by code served from memory until invalidated
+ * - Budget period lookup by date with overlapping and missing periods
+ * - Default period creation losing a race to a concurrent posting
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GLReferenceDataCache Unit Tests")
+class GLReferenceDataCacheTest {
+
+    @Mock
+    private GLAccountRepository glAccountRepository;
+
+    @Mock
+    private BudgetPeriodRepository budgetPeriodRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GLReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GLReferenceDataCache(glAccountRepository, budgetPeriodRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should serve accounts by code from memory until invalidated")
+    void shouldCacheAccountsUntilInvalidated() {
+        // Given
+        GLAccount receivable = account("1300");
+        when(glAccountRepository.findAll()).thenReturn(List.of(receivable, account("4000")));
+
+        // When
+        cache.findAccountByCode("1300");
+        cache.findAccountByCode("4000");
+        Optional<GLAccount> found = cache.findAccountById(receivable.getId());
+        cache.invalidateAccounts();
+        cache.findAccountByCode("1300");
+
+        // Then
+        assertThat(found).containsSame(receivable);
+        verify(glAccountRepository, times(2)).findAll();
+        verify(glAccountRepository, never()).findByCode(anyString());
+    }
+
+    @Test
+    @DisplayName("Should look up an account missing from the cache once")
+    void shouldLoadMissingAccount() {
+        // Given
+        GLAccount cash = account("1000");
+        when(glAccountRepository.findAll()).thenReturn(List.of());
+        when(glAccountRepository.findByCode("1000")).thenReturn(Optional.of(cash));
+
+        // When
+        cache.findAccountByCode("1000");
+        Optional<GLAccount> found = cache.findAccountByCode("1000");
+
+        // Then
+        assertThat(found).containsSame(cash);
+        verify(glAccountRepository, times(1)).findByCode("1000");
+    }
+
+    @Test
+    @DisplayName("Should find overlapping periods by date, widest first")
+    void shouldFindPeriodsByDate() {
+        // Given
+        BudgetPeriod year = period("FY2026", "2026-01-01", "2026-12-31");
+        BudgetPeriod january = period("2026-01", "2026-01-01", "2026-01-31");
+        BudgetPeriod march = period("2026-03", "2026-03-01", "2026-03-31");
+        BudgetPeriod lastYear = period("FY2025", "2025-01-01", "2025-12-31");
+        BudgetPeriod quarter = period("2026-Q1", "2026-01-01", "2026-03-31");
+        when(budgetPeriodRepository.findAll()).thenReturn(List.of(march, year, lastYear, january, quarter));
+
+        // When / Then
+        assertThat(cache.findPeriodsByDate(LocalDate.parse("2026-01-15"))).containsExactly(year, quarter, january);
+        assertThat(cache.findPeriodsByDate(LocalDate.parse("2026-03-31"))).containsExactly(year, quarter, march);
+        assertThat(cache.findPeriodsByDate(LocalDate.parse("2026-07-01"))).containsExactly(year);
+        assertThat(cache.findPeriodsByDate(LocalDate.parse("2025-12-31"))).containsExactly(lastYear);
+        assertThat(cache.findPeriodsByDate(LocalDate.parse("2027-01-01"))).isEmpty();
+        verify(budgetPeriodRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should use the period created by a concurrent posting instead of failing")
+    void shouldReadPeriodCreatedConcurrently() {
+        // Given
+        BudgetPeriod existing = period("FY2026", "2026-01-01", "2026-12-31");
+        when(budgetPeriodRepository.findByCode("FY2026"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(existing));
+        when(budgetPeriodRepository.save(any(BudgetPeriod.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key: FY2026"));
+
+        // When
+        BudgetPeriod period = cache.getOrCreateYearPeriod(LocalDate.parse("2026-05-05"));
+
+        // Then
+        assertThat(period).isSameAs(existing);
+        verify(budgetPeriodRepository, times(2)).findByCode("FY2026");
+    }
+
+    private GLAccount account(String code) {
+        GLAccount account = GLAccount.builder()
+                .code(code)
+                .name("Account " + code)
+                .build();
+        account.setId(UUID.randomUUID());
+        return account;
+    }
+
+    private BudgetPeriod period(String code, String start, String end) {
+        BudgetPeriod period = BudgetPeriod.builder()
+                .code(code)
+                .startDate(LocalDate.parse(start))
+                .endDate(LocalDate.parse(end))
+                .build();
+        period.setId(UUID.randomUUID());
+        return period;
+    }
+}
@@ -18,7 +18,6 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -50,6 +49,15 @@ class OrderServiceTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductLookupIndex productLookupIndex;
+
+    @Mock
+    private DocumentNumberService documentNumberService;
+
+    @Mock
+    private GLPostingOutbox glPostingOutbox;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -184,7 +192,7 @@ class OrderServiceTest {
         when(customerService.getById(testCustomer.getId())).thenReturn(testCustomer);
         when(productService.getById(testProduct.getId())).thenReturn(testProduct);
         when(orderRepository.findByOrderNumber(anyString())).thenReturn(Optional.empty());
-        when(orderRepository.countOrdersSince(any(Instant.class))).thenReturn(0L);
+        when(documentNumberService.next(DocumentNumberService.DocumentSeries.ORDER)).thenReturn("ORD-000001");
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order savedOrder = invocation.getArgument(0);
             savedOrder.setId(UUID.randomUUID());
@@ -240,9 +248,9 @@ class OrderServiceTest {
         product2.setTaxRate(BigDecimal.valueOf(21.00));
 
         when(customerService.getById(customerId)).thenReturn(testCustomer);
-        when(productService.getByCode("PROD001")).thenReturn(testProduct);
-        when(productService.getByCode("PROD002")).thenReturn(product2);
-        when(orderRepository.countOrdersSince(any(Instant.class))).thenReturn(0L);
+        when(productLookupIndex.resolve("PROD001")).thenReturn(Optional.of(ProductLookupIndex.ProductSnapshot.of(testProduct)));
+        when(productLookupIndex.resolve("PROD002")).thenReturn(Optional.of(ProductLookupIndex.ProductSnapshot.of(product2)));
+        when(documentNumberService.next(DocumentNumberService.DocumentSeries.ORDER)).thenReturn("ORD-000001");
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order savedOrder = invocation.getArgument(0);
             savedOrder.setId(UUID.randomUUID());
@@ -259,8 +267,8 @@ class OrderServiceTest {
         assertThat(result.getOrderLines()).hasSize(2);
         assertThat(result.getStatus()).isEqualTo(Order.OrderStatus.DRAFT);
         verify(customerService).getById(customerId);
-        verify(productService).getByCode("PROD001");
-        verify(productService).getByCode("PROD002");
+        verify(productLookupIndex).resolve("PROD001");
+        verify(productLookupIndex).resolve("PROD002");
         verify(orderRepository).save(any(Order.class));
     }
 
@@ -287,6 +295,7 @@ class OrderServiceTest {
         assertThat(result.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
         verify(orderRepository).findById(orderId);
         verify(orderRepository).save(testOrder);
+        verify(glPostingOutbox).enqueueOrder(testOrder);
     }
 
     @Test
@@ -461,5 +470,27 @@ class OrderServiceTest {
         assertThat(result.getNotes()).isEqualTo("Updated notes");
         verify(orderRepository).findById(orderId);
         verify(orderRepository).save(testOrder);
+        verifyNoInteractions(glPostingOutbox);
+    }
+
+    @Test
+    @DisplayName("Should queue newly paid amount for GL posting")
+    void shouldQueuePaymentForGLPosting() {
+        // Given
+        UUID orderId = testOrder.getId();
+        testOrder.setPaidAmount(BigDecimal.valueOf(50.00));
+        Order orderDetails = new Order();
+        orderDetails.setStatus(testOrder.getStatus());
+        orderDetails.setPaymentStatus(Order.PaymentStatus.PAID);
+        orderDetails.setPaidAmount(BigDecimal.valueOf(121.00));
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        // When
+        orderService.updateOrder(orderId, orderDetails);
+
+        // Then
+        verify(glPostingOutbox).enqueuePayment(eq(testOrder), argThat(amount -> amount.compareTo(BigDecimal.valueOf(71.00)) == 0));
     }
 }
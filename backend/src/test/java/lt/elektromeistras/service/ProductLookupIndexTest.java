@@ -0,0 +1,165 @@
+package lt.elektromeistras.service;
+
+import lt.elektromeistras.domain.Product;
+import lt.elektromeistras.repository.ProductRepository;
+import lt.elektromeistras.repository.ProductRepository.ProductLookupView;
+import lt.elektromeistras.service.ProductLookupIndex.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductLookupIndex
+ * Tests cover:
+ * - Lookup by code, SKU and EAN from memory
+ * - Database fallback on a miss
+ * - Write-through updates replacing old keys
+ * - Writes made during a rebuild winning over older rows
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductLookupIndex Unit Tests")
+class ProductLookupIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductLookupIndex index;
+
+    private final UUID productId = UUID.randomUUID();
+    private final Instant updatedAt = Instant.parse("2025-01-10T08:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductLookupIndex(productRepository, transactionManager, 0);
+    }
+
+    @Test
+    @DisplayName("Should resolve code, SKU and EAN from memory after a rebuild")
+    void shouldResolveAllKeysFromMemory() {
+        // Given
+        when(productRepository.streamLookupViews())
+                .thenReturn(Stream.of(view("0010006", "SKU-6", "4750000000061", "Kabelis YDYP 3x1.5", updatedAt)));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.resolve("0010006")).map(ProductSnapshot::getName).contains("Kabelis YDYP 3x1.5");
+        assertThat(index.resolve("SKU-6")).map(ProductSnapshot::getId).contains(productId);
+        assertThat(index.resolve(" 4750000000061 ")).map(ProductSnapshot::getCode).contains("0010006");
+        verify(productRepository, never()).findByCode(anyString());
+        assertThat(index.getStats().getHits()).isEqualTo(3);
+        assertThat(index.getStats().getProducts()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load a missing product from the database once")
+    void shouldFallBackToDatabaseOnMiss() {
+        // Given
+        when(productRepository.findByCode("0010006")).thenReturn(Optional.of(product("0010006", "Kabelis", updatedAt)));
+
+        // When
+        Optional<ProductSnapshot> first = index.resolve("0010006");
+        Optional<ProductSnapshot> second = index.resolve("0010006");
+
+        // Then
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        verify(productRepository, times(1)).findByCode("0010006");
+        assertThat(index.getStats().getMisses()).isEqualTo(1);
+        assertThat(index.getStats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return empty for unknown or blank input")
+    void shouldReturnEmptyForUnknownProduct() {
+        // Given
+        when(productRepository.findByCode("NOPE")).thenReturn(Optional.empty());
+        when(productRepository.findBySku("NOPE")).thenReturn(Optional.empty());
+        when(productRepository.findByEan("NOPE")).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThat(index.resolve("NOPE")).isEmpty();
+        assertThat(index.resolve("  ")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should replace the snapshot and drop keys the product no longer has")
+    void shouldReplaceOldKeysOnUpdate() {
+        // Given
+        Product product = product("0010006", "Kabelis", updatedAt);
+        product.setEan("4750000000061");
+        index.index(product);
+
+        // When
+        Product updated = product("0010006", "Kabelis YDYP 3x1.5", updatedAt.plusSeconds(60));
+        updated.setEan("4750000000078");
+        index.index(updated);
+
+        // Then
+        assertThat(index.resolve("0010006")).map(ProductSnapshot::getName).contains("Kabelis YDYP 3x1.5");
+        assertThat(index.resolve("4750000000078")).isPresent();
+        assertThat(index.getStats().getEans()).isEqualTo(1);
+        assertThat(index.getStats().getWrites()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep a write made during a rebuild over the older row read by the scan")
+    void shouldKeepWriteMadeDuringRebuild() {
+        // Given - the product is updated while the rebuild is streaming its old row
+        when(productRepository.streamLookupViews()).thenAnswer(invocation -> {
+            index.index(product("0010006", "New name", updatedAt.plusSeconds(60)));
+            return Stream.of(view("0010006", null, null, "Old name", updatedAt));
+        });
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.resolve("0010006")).map(ProductSnapshot::getName).contains("New name");
+    }
+
+    private Product product(String code, String name, Instant updated) {
+        Product product = new Product();
+        product.setId(productId);
+        product.setCode(code);
+        product.setName(name);
+        product.setBasePrice(new BigDecimal("1.25"));
+        product.setUnitOfMeasure("M");
+        product.setIsCable(true);
+        product.setUpdatedAt(updated);
+        return product;
+    }
+
+    private ProductLookupView view(String code, String sku, String ean, String name, Instant updated) {
+        return new ProductLookupView() {
+            public UUID getId() { return productId; }
+            public String getCode() { return code; }
+            public String getSku() { return sku; }
+            public String getEan() { return ean; }
+            public String getName() { return name; }
+            public String getUnitOfMeasure() { return "M"; }
+            public BigDecimal getBasePrice() { return new BigDecimal("1.25"); }
+            public BigDecimal getTaxRate() { return new BigDecimal("21.00"); }
+            public Boolean getIsCable() { return true; }
+            public Boolean getIsActive() { return true; }
+            public Instant getUpdatedAt() { return updated; }
+        };
+    }
+}
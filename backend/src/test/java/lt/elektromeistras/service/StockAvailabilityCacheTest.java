@@ -0,0 +1,107 @@
+package lt.elektromeistras.service;
+
+import lt.elektromeistras.dto.response.StockCacheConsistencyResponse;
+import lt.elektromeistras.repository.ProductStockRepository;
+import lt.elektromeistras.repository.ProductStockRepository.StockQuantityView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StockAvailabilityCache
+ * Tests cover:
+ * - Hit/miss accounting
+ * - Write-through deltas in scaled longs
+ * - Consistency check against the database
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockAvailabilityCache Unit Tests")
+class StockAvailabilityCacheTest {
+
+    @Mock
+    private ProductStockRepository stockRepository;
+
+    private StockAvailabilityCache cache;
+
+    private final UUID productId = UUID.randomUUID();
+    private final UUID warehouseId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        cache = new StockAvailabilityCache(stockRepository, 60_000);
+    }
+
+    @Test
+    @DisplayName("Should load on miss and serve repeat lookups from memory")
+    void shouldServeRepeatLookupsFromMemory() {
+        // Given
+        when(stockRepository.sumQuantities(productId, warehouseId))
+                .thenReturn(Optional.of(view("10.500", "2.250")));
+
+        // When
+        BigDecimal first = cache.getAvailable(productId, warehouseId);
+        BigDecimal second = cache.getAvailable(productId, warehouseId);
+
+        // Then
+        assertThat(first).isEqualByComparingTo("8.250");
+        assertThat(second).isEqualByComparingTo("8.250");
+        verify(stockRepository, times(1)).sumQuantities(productId, warehouseId);
+        assertThat(cache.getStats().getHits()).isEqualTo(1);
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should apply deltas to cached entries")
+    void shouldApplyDeltas() {
+        // Given
+        when(stockRepository.streamAllQuantities()).thenReturn(Stream.of(view("100", "0")));
+        cache.warm();
+
+        // When
+        cache.applyDelta(productId, warehouseId, BigDecimal.ZERO, new BigDecimal("3.125"));
+        cache.applyDelta(productId, warehouseId, new BigDecimal("-1"), new BigDecimal("-1"));
+
+        // Then - 99 on hand, 2.125 reserved
+        assertThat(cache.getAvailable(productId, warehouseId)).isEqualByComparingTo("96.875");
+        verify(stockRepository, never()).sumQuantities(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should report and repair entries that drifted from the database")
+    void shouldReportAndRepairDrift() {
+        // Given
+        when(stockRepository.streamAllQuantities())
+                .thenReturn(Stream.of(view("100", "0")))
+                .thenReturn(Stream.of(view("90", "0")));
+        cache.warm();
+
+        // When
+        StockCacheConsistencyResponse result = cache.verify(true);
+
+        // Then
+        assertThat(result.getCheckedEntries()).isEqualTo(1);
+        assertThat(result.getMismatches()).isEqualTo(1);
+        assertThat(result.getDetails()).hasSize(1);
+        assertThat(cache.getAvailable(productId, warehouseId)).isEqualByComparingTo("90");
+    }
+
+    private StockQuantityView view(String quantity, String reserved) {
+        return new StockQuantityView() {
+            public UUID getProductId() { return productId; }
+            public UUID getWarehouseId() { return warehouseId; }
+            public BigDecimal getQuantity() { return new BigDecimal(quantity); }
+            public BigDecimal getReservedQuantity() { return new BigDecimal(reserved); }
+        };
+    }
+}
@@ -60,8 +60,8 @@ interface StatementTransaction {
   performedBy: string;
   confirmedBy?: string;
   confirmedAt?: string;
-  signatureData?: string;
-  photoData?: string;
+  signatureUrl?: string;
+  photoUrl?: string;
   createdAt: string;
   lines: Array<{
     productCode: string;
@@ -369,15 +369,15 @@ const MonthlyStatementDialog: React.FC<MonthlyStatementDialogProps> = ({
                             )}
                           </TableCell>
                           <TableCell align="center">
-                            {transaction.signatureData && (
+                            {transaction.signatureUrl && (
                               <Chip label="Parašas ✓" size="small" color="success" />
                             )}
-                            {transaction.photoData && (
+                            {transaction.photoUrl && (
                               <Chip label="Nuotr. ✓" size="small" color="info" sx={{ ml: 0.5 }} />
                             )}
                           </TableCell>
                           <TableCell>
-                            {(transaction.signatureData || transaction.photoData) && (
+                            {(transaction.signatureUrl || transaction.photoUrl) && (
                               <IconButton
                                 size="small"
                                 onClick={() => setExpandedRow(expandedRow === transaction.id ? null : transaction.id)}
@@ -394,7 +394,7 @@ const MonthlyStatementDialog: React.FC<MonthlyStatementDialogProps> = ({
                             <Collapse in={expandedRow === transaction.id} timeout="auto" unmountOnExit>
                               <Box sx={{ p: 2, bgcolor: 'background.default' }}>
                                 <Grid container spacing={2}>
-                                  {transaction.signatureData && (
+                                  {transaction.signatureUrl && (
                                     <Grid item xs={12} md={6}>
                                       <Paper variant="outlined" sx={{ p: 2 }}>
                                         <Typography variant="subtitle2" gutterBottom>
@@ -402,7 +402,7 @@ const MonthlyStatementDialog: React.FC<MonthlyStatementDialogProps> = ({
                                         </Typography>
                                         <Box
                                           component="img"
-                                          src={transaction.signatureData}
+                                          src={transaction.signatureUrl}
                                           alt="Parašas"
                                           sx={{
                                             width: '100%',
@@ -420,7 +420,7 @@ const MonthlyStatementDialog: React.FC<MonthlyStatementDialogProps> = ({
                                       </Paper>
                                     </Grid>
                                   )}
-                                  {transaction.photoData && (
+                                  {transaction.photoUrl && (
                                     <Grid item xs={12} md={6}>
                                       <Paper variant="outlined" sx={{ p: 2 }}>
                                         <Typography variant="subtitle2" gutterBottom>
@@ -428,7 +428,7 @@ const MonthlyStatementDialog: React.FC<MonthlyStatementDialogProps> = ({
                                         </Typography>
                                         <Box
                                           component="img"
-                                          src={transaction.photoData}
+                                          src={transaction.photoUrl}
                                           alt="Nuotrauka"
                                           sx={{
                                             width: '100%',
@@ -48,8 +48,8 @@ interface Transaction {
   performedByRole: string;
   confirmedBy?: string;
   confirmedAt?: string;
-  signatureData?: string;
-  photoData?: string;
+  signatureUrl?: string;
+  photoUrl?: string;
   notes?: string;
   createdAt: string;
   updatedAt: string;
@@ -273,14 +273,14 @@ const TransactionDetailDialog: React.FC<TransactionDetailDialogProps> = ({
           </Grid>
 
           {/* Signature and Photo */}
-          {(transaction.signatureData || transaction.photoData) && (
+          {(transaction.signatureUrl || transaction.photoUrl) && (
             <Grid item xs={12}>
               <Divider sx={{ mb: 2 }} />
               <Typography variant="h6" fontWeight="bold" gutterBottom>
                 Patvirtinimo Dokumentacija
               </Typography>
               <Grid container spacing={2}>
-                {transaction.signatureData && (
+                {transaction.signatureUrl && (
                   <Grid item xs={12} md={6}>
                     <Paper variant="outlined" sx={{ p: 2 }}>
                       <Typography variant="subtitle1" fontWeight="medium" gutterBottom>
@@ -288,7 +288,7 @@ const TransactionDetailDialog: React.FC<TransactionDetailDialogProps> = ({
                       </Typography>
                       <Box
                         component="img"
-                        src={transaction.signatureData}
+                        src={transaction.signatureUrl}
                         alt="Parašas"
                         sx={{
                           width: '100%',
@@ -308,7 +308,7 @@ const TransactionDetailDialog: React.FC<TransactionDetailDialogProps> = ({
                   </Grid>
                 )}
 
-                {transaction.photoData && (
+                {transaction.photoUrl && (
                   <Grid item xs={12} md={6}>
                     <Paper variant="outlined" sx={{ p: 2 }}>
                       <Typography variant="subtitle1" fontWeight="medium" gutterBottom>
@@ -316,7 +316,7 @@ const TransactionDetailDialog: React.FC<TransactionDetailDialogProps> = ({
                       </Typography>
                       <Box
                         component="img"
-                        src={transaction.photoData}
+                        src={transaction.photoUrl}
                         alt="Nuotrauka"
                         sx={{
                           width: '100%',
@@ -40,8 +40,8 @@ export interface CreditTransactionResponse {
   performedByRole: string;
   confirmedBy?: string;
   confirmedAt?: string;
-  signatureData?: string;
-  photoData?: string;
+  signatureUrl?: string;
+  photoUrl?: string;
   notes?: string;
   createdAt: string;
   updatedAt: string;